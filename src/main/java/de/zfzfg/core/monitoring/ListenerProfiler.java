@@ -0,0 +1,203 @@
+package de.zfzfg.core.monitoring;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opt-in timing of the plugin's event handlers.
+ * <p>
+ * When enabled, {@link #register} does not hand the listener to
+ * {@code registerEvents} directly: Bukkit builds the per-handler
+ * {@link RegisteredListener}s, and each is registered behind an executor that
+ * counts every call and times every N-th one (sample rate) into a log-linear
+ * histogram. Disabled, the listener is registered as before with no overhead.
+ * Counters are plain fields written by the calling thread; for async events
+ * they are approximations.
+ */
+public final class ListenerProfiler {
+
+    /** Counters and latency histogram of one handler (listener class, event, priority). */
+    private static final class Probe {
+        final String name;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        long calls;
+        long sampledNanos;
+        long maxNanos;
+        int countdown;
+
+        Probe(String name) {
+            this.name = name;
+        }
+    }
+
+    private final JavaPlugin plugin;
+    private final boolean enabled;
+    private volatile int sampleRate;
+    private final List<Probe> probes = new ArrayList<>();
+
+    public ListenerProfiler(JavaPlugin plugin, boolean enabled, int sampleRate) {
+        this.plugin = plugin;
+        this.enabled = enabled;
+        setSampleRate(sampleRate);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /** Time every N-th call; 1 = every call. Takes effect on the next sample of each handler. */
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void register(Listener listener) {
+        if (!enabled) {
+            plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+            return;
+        }
+        Map<Class<? extends Event>, Set<RegisteredListener>> handlers =
+                plugin.getPluginLoader().createRegisteredListeners(listener, plugin);
+        for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : handlers.entrySet()) {
+            for (RegisteredListener original : entry.getValue()) {
+                Probe probe = newProbe(listener.getClass().getSimpleName() + "#"
+                        + entry.getKey().getSimpleName() + "@" + original.getPriority());
+                // ignoreCancelled prüft der ursprüngliche RegisteredListener selbst
+                plugin.getServer().getPluginManager().registerEvent(entry.getKey(), listener, original.getPriority(),
+                        (l, event) -> call(probe, original, event), plugin, false);
+            }
+        }
+    }
+
+    private void call(Probe probe, RegisteredListener original, Event event) throws EventException {
+        probe.calls++;
+        if (--probe.countdown > 0) {
+            original.callEvent(event);
+            return;
+        }
+        probe.countdown = sampleRate;
+        long start = System.nanoTime();
+        try {
+            original.callEvent(event);
+        } finally {
+            long took = System.nanoTime() - start;
+            probe.sampledNanos += took;
+            if (took > probe.maxNanos) probe.maxNanos = took;
+            probe.histogram.record(took);
+        }
+    }
+
+    private synchronized Probe newProbe(String name) {
+        Probe probe = new Probe(name);
+        probes.add(probe);
+        return probe;
+    }
+
+    public synchronized void reset() {
+        for (Probe probe : probes) {
+            probe.calls = 0;
+            probe.sampledNanos = 0;
+            probe.maxNanos = 0;
+            probe.histogram.reset();
+        }
+    }
+
+    /**
+     * One row per handler that has been called, most expensive first (estimated
+     * total = sampled time scaled to all calls). Times in microseconds.
+     */
+    public synchronized List<Map<String, Object>> snapshot() {
+        List<Probe> called = new ArrayList<>();
+        for (Probe probe : probes) {
+            if (probe.calls > 0) called.add(probe);
+        }
+        called.sort((a, b) -> Long.compare(estimatedTotalNanos(b), estimatedTotalNanos(a)));
+
+        List<Map<String, Object>> rows = new ArrayList<>(called.size());
+        for (Probe probe : called) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("handler", probe.name);
+            row.put("calls", probe.calls);
+            row.put("sampled", probe.histogram.count());
+            row.put("est_total_us", estimatedTotalNanos(probe) / 1000L);
+            row.put("p50_us", probe.histogram.percentile(0.50) / 1000.0);
+            row.put("p99_us", probe.histogram.percentile(0.99) / 1000.0);
+            row.put("max_us", probe.maxNanos / 1000.0);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static long estimatedTotalNanos(Probe probe) {
+        long sampled = probe.histogram.count();
+        if (sampled == 0) return 0;
+        return (long) (probe.sampledNanos * ((double) probe.calls / sampled));
+    }
+
+    /**
+     * Fixed-size log-linear histogram (HDR-style): 8 sub-buckets per power of two,
+     * i.e. about 12.5% relative precision over the full long range, 4 KB per handler.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+        private final long[] counts = new long[BUCKETS];
+        private long total;
+
+        void record(long value) {
+            if (value < 0) value = 0;
+            counts[index(value)]++;
+            total++;
+        }
+
+        long count() {
+            return total;
+        }
+
+        void reset() {
+            java.util.Arrays.fill(counts, 0);
+            total = 0;
+        }
+
+        /** Upper bound of the bucket containing the given quantile (0..1), 0 if empty. */
+        long percentile(double quantile) {
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return upperBound(i);
+            }
+            return upperBound(BUCKETS - 1);
+        }
+
+        static int index(long value) {
+            if (value < SUB_COUNT) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+            return (exponent - SUB_BITS + 1) * SUB_COUNT + mantissa;
+        }
+
+        static long upperBound(int index) {
+            if (index < SUB_COUNT) return index;
+            int exponent = index / SUB_COUNT + SUB_BITS - 1;
+            int mantissa = index % SUB_COUNT;
+            long width = 1L << (exponent - SUB_BITS);
+            return ((long) (SUB_COUNT + mantissa) << (exponent - SUB_BITS)) + width - 1;
+        }
+    }
+}
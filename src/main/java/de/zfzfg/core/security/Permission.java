@@ -16,6 +16,8 @@ public enum Permission {
     // Global/BYPASS
     BYPASS_LIMITS("pvpwager.bypass.betlimit"),
     BYPASS_COMMANDS("eventpvp.opbypass"),
+    WORLD_ACCESS("eventpvp.world.access"),
+    BUILD("eventpvp.build"),
 
     // Debug
     DEBUG("eventpvp.debug"),
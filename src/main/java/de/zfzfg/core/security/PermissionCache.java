@@ -0,0 +1,99 @@
+package de.zfzfg.core.security;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player bitset of the {@link Permission} nodes (plus the OP flag) for the
+ * listeners, which otherwise ask the permission plugin on every move, command
+ * and block event.
+ * <p>
+ * Bits are resolved lazily, one node at a time, and the whole set is dropped
+ * when the permissions may have changed: join/quit, world change (per-world
+ * permissions) and {@link PlayerCommandSendEvent}, which the server fires when
+ * it resends the command tree after an op change or a permission plugin
+ * recalculation.
+ */
+public final class PermissionCache implements Listener {
+
+    private static final int OP_BIT = 63;
+
+    // known: bereits ermittelte Bits, granted: davon erteilte
+    private static final class Bits {
+        volatile long known;
+        volatile long granted;
+    }
+
+    private final ConcurrentHashMap<UUID, Bits> players = new ConcurrentHashMap<>();
+
+    public boolean has(Player player, Permission permission) {
+        return resolve(player, permission.ordinal(), permission);
+    }
+
+    public boolean isOp(Player player) {
+        return resolve(player, OP_BIT, null);
+    }
+
+    /** OP or any of the given nodes, the usual bypass check. */
+    public boolean isOpOrHas(Player player, Permission... permissions) {
+        if (isOp(player)) return true;
+        for (Permission p : permissions) {
+            if (has(player, p)) return true;
+        }
+        return false;
+    }
+
+    public void invalidate(UUID playerId) {
+        players.remove(playerId);
+    }
+
+    public void invalidateAll() {
+        players.clear();
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    private boolean resolve(Player player, int bit, Permission permission) {
+        long mask = 1L << bit;
+        Bits bits = players.computeIfAbsent(player.getUniqueId(), k -> new Bits());
+        if ((bits.known & mask) != 0) {
+            return (bits.granted & mask) != 0;
+        }
+        boolean value = permission != null ? permission.check(player) : player.isOp();
+        // Nur der Main-Thread schreibt; ein verlorenes Bit wird beim nächsten Zugriff neu ermittelt
+        if (value) bits.granted |= mask;
+        bits.known |= mask;
+        return value;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCommandTreeResent(PlayerCommandSendEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+}
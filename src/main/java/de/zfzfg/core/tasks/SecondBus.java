@@ -0,0 +1,58 @@
+package de.zfzfg.core.tasks;
+
+import de.zfzfg.core.util.Time;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-second subscribers (countdowns, match timers, announcers) spread over
+ * one bucket per tick of the second. A subscriber joins the bucket of the
+ * next tick and then fires every 20 ticks in that phase, so timing matches a
+ * 20-tick repeating timer but no subscriber is ever re-queued: each tick the
+ * {@link TaskManager} driver just walks one bucket. Cancelled subscribers are
+ * dropped when their bucket comes up.
+ */
+final class SecondBus {
+
+    private static final int PHASES = (int) Time.TICKS_PER_SECOND;
+
+    @SuppressWarnings("unchecked")
+    private final List<WheelTask>[] phases = new List[PHASES];
+    private int phase;
+    private int size;
+
+    SecondBus() {
+        for (int i = 0; i < PHASES; i++) {
+            phases[i] = new ArrayList<>();
+        }
+    }
+
+    synchronized void add(WheelTask task) {
+        if (task.isCancelled()) return;
+        task.period = Time.TICKS_PER_SECOND;
+        phases[(phase + 1) % PHASES].add(task);
+        size++;
+    }
+
+    /** Advance one tick and copy the live subscribers of the new phase into {@code due}. */
+    synchronized void advance(List<WheelTask> due) {
+        phase = (phase + 1) % PHASES;
+        List<WheelTask> bucket = phases[phase];
+        int before = bucket.size();
+        bucket.removeIf(WheelTask::isCancelled);
+        size -= before - bucket.size();
+        due.addAll(bucket);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        for (List<WheelTask> bucket : phases) {
+            bucket.clear();
+        }
+        size = 0;
+    }
+}
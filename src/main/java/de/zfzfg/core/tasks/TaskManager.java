@@ -4,16 +4,65 @@ import de.zfzfg.eventplugin.EventPlugin;
 import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
 /**
  * Zentraler Task-Manager als dünner Wrapper um den Bukkit-Scheduler.
  * Vereinheitlicht die Nutzung von Sync/Async/Delayed Tasks.
+ * <p>
+ * Countdowns, Timeouts und Ablauf-Timer laufen über {@link #schedule} und
+ * {@link #scheduleRepeating}: ein Timing-Wheel, das von einem einzigen
+ * Bukkit-Task pro Tick weitergedreht wird, egal wie viele Timer aktiv sind.
+ * Die Callbacks laufen auf dem Main-Thread. Sekunden-Countdowns abonnieren
+ * stattdessen {@link #everySecond}: ein gemeinsamer Sekundentakt, der pro Tick
+ * nur die Abonnenten einer Phase aufruft.
+ * <p>
+ * Massenarbeit pro Spieler (Teleports, Inventare beim Eventstart/-ende) läuft
+ * über {@link #submit}: eine FIFO-Warteschlange, aus der pro Tick nur so viele
+ * Jobs ausgeführt werden, wie in das konfigurierte Zeitbudget passen (mindestens
+ * einer). Die Reihenfolge bleibt erhalten, also auch die Reihenfolge je Spieler.
+ * <p>
+ * Timer können einem Besitzer zugeordnet werden ({@code "event:..."},
+ * {@code "match:..."}, {@code "player:..."}). Pro Besitzer werden lebende
+ * Timer, Ausführungen und Laufzeit gezählt; {@link #disposeOwner} bricht alle
+ * seine Timer ab. Timer, deren Besitzer bereits freigegeben ist oder laut
+ * registrierter Prüfung nicht mehr existiert, gelten als verwaist.
  */
 public class TaskManager {
 
     private final EventPlugin plugin;
+    private final TimingWheel wheel = new TimingWheel();
+    private final SecondBus secondBus = new SecondBus();
+    private final List<WheelTask> due = new ArrayList<>();
+    private final List<WheelTask> dueSeconds = new ArrayList<>();
+    private final ArrayDeque<Job> work = new ArrayDeque<>();
+    private volatile long workBudgetNanos = TimeUnit.MILLISECONDS.toNanos(5);
+    private BukkitTask driver;
+
+    private static final int RECENTLY_DISPOSED_MAX = 64;
+    private final Map<String, TaskOwner> owners = new ConcurrentHashMap<>();
+    // Zuletzt freigegebene Besitzer (für Statistik und Verwaist-Erkennung), begrenzt
+    private final Map<String, TaskOwner> recentlyDisposed = new LinkedHashMap<String, TaskOwner>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TaskOwner> eldest) {
+            return size() > RECENTLY_DISPOSED_MAX;
+        }
+    };
+    private final Map<String, Predicate<String>> ownerChecks = new ConcurrentHashMap<>();
+    private final TaskOwner unowned = new TaskOwner("-");
 
     public TaskManager(EventPlugin plugin) {
         this.plugin = plugin;
+        this.driver = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
     }
 
     public BukkitTask runLater(Runnable task, long delayTicks) {
@@ -31,4 +80,269 @@ public class TaskManager {
     public BukkitTask runRepeating(Runnable task, long delayTicks, long periodTicks) {
         return Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
     }
-}
\ No newline at end of file
+
+    /** Einmalig nach {@code delayTicks} (mindestens 1) im Timing-Wheel ausführen. */
+    public WheelTask schedule(Runnable task, long delayTicks) {
+        return schedule(null, task, delayTicks);
+    }
+
+    /** Wiederholt im Timing-Wheel ausführen, z. B. Sekunden-Countdowns mit {@code periodTicks = 20}. */
+    public WheelTask scheduleRepeating(Runnable task, long delayTicks, long periodTicks) {
+        return scheduleRepeating(null, task, delayTicks, periodTicks);
+    }
+
+    /** Wie {@link #schedule(Runnable, long)}, dem Besitzer {@code owner} zugeordnet. */
+    public WheelTask schedule(String owner, Runnable task, long delayTicks) {
+        WheelTask wheelTask = attach(owner, WheelTask.of(task));
+        wheel.add(wheelTask, delayTicks, 0L);
+        return wheelTask;
+    }
+
+    /** Wie {@link #scheduleRepeating(Runnable, long, long)}, dem Besitzer {@code owner} zugeordnet. */
+    public WheelTask scheduleRepeating(String owner, Runnable task, long delayTicks, long periodTicks) {
+        WheelTask wheelTask = attach(owner, WheelTask.of(task));
+        wheel.add(wheelTask, delayTicks, Math.max(1L, periodTicks));
+        return wheelTask;
+    }
+
+    /**
+     * Jede Sekunde ausführen, erstmals im nächsten Tick (wie ein 20-Tick-Timer
+     * ohne Verzögerung). Beenden per {@link WheelTask#cancel()} oder über den
+     * Besitzer.
+     */
+    public WheelTask everySecond(String owner, Runnable task) {
+        WheelTask wheelTask = attach(owner, WheelTask.of(task));
+        secondBus.add(wheelTask);
+        return wheelTask;
+    }
+
+    /**
+     * Job in die Arbeitswarteschlange stellen. Das Future wird auf dem
+     * Main-Thread erfüllt, sobald der Job gelaufen ist (auch wenn er mit einer
+     * Exception endete, die nur geloggt wird), und abgebrochen, wenn der
+     * Besitzer vorher freigegeben wird.
+     */
+    public CompletableFuture<Void> submit(String owner, Runnable job) {
+        Job queued = new Job(job);
+        attach(owner, queued);
+        synchronized (work) {
+            work.addLast(queued);
+        }
+        return queued.done;
+    }
+
+    /** Zeitbudget der Arbeitswarteschlange pro Tick in Millisekunden. */
+    public void setWorkBudgetMillis(int millis) {
+        workBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, millis));
+    }
+
+    /** Anzahl wartender Jobs der Arbeitswarteschlange. */
+    public int getQueuedWorkCount() {
+        synchronized (work) {
+            return work.size();
+        }
+    }
+
+    private WheelTask attach(String ownerName, WheelTask task) {
+        if (ownerName == null) return task;
+        TaskOwner owner = owners.computeIfAbsent(ownerName, TaskOwner::new);
+        if (isRecentlyDisposed(ownerName)) {
+            plugin.getLogger().warning("Timer für bereits freigegebenen Besitzer geplant: " + ownerName);
+        }
+        task.owner = owner;
+        owner.live.add(task);
+        return task;
+    }
+
+    /**
+     * Alle Timer des Besitzers abbrechen und ihn als freigegeben vermerken.
+     * Teardown-Timer, die den Besitzer überleben sollen, gehören einem anderen
+     * Besitzer (z. B. {@code "world:<name>"}).
+     *
+     * @return Anzahl abgebrochener Timer
+     */
+    public int disposeOwner(String ownerName) {
+        if (ownerName == null) return 0;
+        TaskOwner owner = owners.remove(ownerName);
+        if (owner == null) {
+            owner = new TaskOwner(ownerName);
+        }
+        int cancelled = 0;
+        for (WheelTask task : new ArrayList<>(owner.live)) {
+            task.cancel();
+            cancelled++;
+        }
+        owner.live.clear();
+        owner.markDisposed();
+        synchronized (recentlyDisposed) {
+            recentlyDisposed.put(ownerName, owner);
+        }
+        return cancelled;
+    }
+
+    /** Alle Besitzer mit dem Präfix freigeben (z. B. {@code "match:"} beim Abschalten). */
+    public int disposeOwners(String prefix) {
+        int cancelled = 0;
+        for (String name : new ArrayList<>(owners.keySet())) {
+            if (name.startsWith(prefix)) cancelled += disposeOwner(name);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Lebendprüfung für Besitzer mit dem Präfix registrieren; sie erhält den
+     * Namen ohne Präfix. Liefert sie {@code false}, gelten die Timer des
+     * Besitzers als verwaist.
+     */
+    public void setOwnerCheck(String prefix, Predicate<String> isAlive) {
+        ownerChecks.put(prefix, isAlive);
+    }
+
+    /** Aktive und zuletzt freigegebene Besitzer, nach Laufzeit absteigend. */
+    public List<TaskOwner> getOwnerStats() {
+        List<TaskOwner> result = new ArrayList<>(owners.values());
+        synchronized (recentlyDisposed) {
+            result.addAll(recentlyDisposed.values());
+        }
+        result.add(unowned);
+        result.sort(Comparator.comparingLong(TaskOwner::getTotalNanos).reversed());
+        return result;
+    }
+
+    /** Beschreibungen aller verwaisten Timer ({@code besitzer: quelle (grund)}). */
+    public List<String> findOrphans() {
+        List<String> orphans = new ArrayList<>();
+        for (TaskOwner owner : owners.values()) {
+            if (owner.live.isEmpty()) continue;
+            String reason = null;
+            if (isRecentlyDisposed(owner.getName())) {
+                reason = "nach Freigabe geplant";
+            } else if (!isAlive(owner.getName())) {
+                reason = "Besitzer existiert nicht mehr";
+            }
+            if (reason == null) continue;
+            for (WheelTask task : owner.live) {
+                orphans.add(owner.getName() + ": " + describe(task) + " (" + reason + ")");
+            }
+        }
+        return orphans;
+    }
+
+    private boolean isRecentlyDisposed(String ownerName) {
+        synchronized (recentlyDisposed) {
+            return recentlyDisposed.containsKey(ownerName);
+        }
+    }
+
+    private boolean isAlive(String ownerName) {
+        for (Map.Entry<String, Predicate<String>> check : ownerChecks.entrySet()) {
+            if (ownerName.startsWith(check.getKey())) {
+                try {
+                    return check.getValue().test(ownerName.substring(check.getKey().length()));
+                } catch (Exception e) {
+                    return true;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String describe(WheelTask task) {
+        String name = task.source.getClass().getName();
+        int lambda = name.indexOf("$$Lambda");
+        if (lambda >= 0) name = name.substring(0, lambda) + " (Lambda)";
+        return name.substring(name.lastIndexOf('.') + 1) + (task.period > 0 ? " alle " + task.period + "t" : "");
+    }
+
+    /** Anzahl der im Timing-Wheel wartenden Timer und Sekunden-Abonnenten. */
+    public int getScheduledCount() {
+        return wheel.size() + secondBus.size();
+    }
+
+    /** Treiber stoppen und alle ausstehenden Timer verwerfen (onDisable). */
+    public void shutdown() {
+        // Ausstehende Jobs (z. B. Rück-Teleports) ohne Budget abarbeiten statt sie zu verwerfen
+        runWork(Long.MAX_VALUE);
+        if (driver != null) {
+            driver.cancel();
+            driver = null;
+        }
+        wheel.clear();
+        secondBus.clear();
+        owners.clear();
+    }
+
+    private void tick() {
+        wheel.advance(due);
+        secondBus.advance(dueSeconds);
+        try {
+            for (WheelTask task : due) {
+                if (!runTimed(task)) continue;
+                if (task.period > 0) {
+                    wheel.requeue(task);
+                } else if (task.owner != null) {
+                    task.owner.live.remove(task);
+                }
+            }
+            // Sekunden-Abonnenten bleiben in ihrem Bucket bis zum cancel()
+            for (WheelTask task : dueSeconds) {
+                runTimed(task);
+            }
+        } finally {
+            due.clear();
+            dueSeconds.clear();
+        }
+        runWork(workBudgetNanos);
+    }
+
+    private void runWork(long budgetNanos) {
+        long start = System.nanoTime();
+        boolean ranOne = false;
+        while (!ranOne || System.nanoTime() - start < budgetNanos) {
+            Job job;
+            synchronized (work) {
+                job = work.pollFirst();
+            }
+            if (job == null) return;
+            if (job.isCancelled()) {
+                job.done.cancel(false);
+                continue;
+            }
+            if (job.owner != null) job.owner.live.remove(job);
+            runTimed(job);
+            ranOne = true;
+        }
+    }
+
+    private static final class Job extends WheelTask {
+        final Runnable action;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Job(Runnable action) {
+            this.action = action;
+            this.source = action;
+        }
+
+        @Override
+        public void run() {
+            try {
+                action.run();
+            } finally {
+                done.complete(null);
+            }
+        }
+    }
+
+    private boolean runTimed(WheelTask task) {
+        if (task.isCancelled()) return false;
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Timer-Task fehlgeschlagen: " + e.getMessage());
+        }
+        TaskOwner owner = task.owner != null ? task.owner : unowned;
+        owner.recordRun(System.nanoTime() - start);
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package de.zfzfg.core.tasks;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buchhaltung eines Task-Besitzers (Event-Session, Match, Spieler): lebende
+ * Timer, Anzahl Ausführungen und aufsummierte Laufzeit auf dem Main-Thread.
+ */
+public final class TaskOwner {
+
+    private final String name;
+    final Set<WheelTask> live = ConcurrentHashMap.newKeySet();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+    private volatile long disposedAt;
+
+    TaskOwner(String name) {
+        this.name = name;
+    }
+
+    void recordRun(long elapsedNanos) {
+        runs.incrementAndGet();
+        nanos.addAndGet(elapsedNanos);
+    }
+
+    void markDisposed() {
+        disposedAt = System.currentTimeMillis();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLiveCount() {
+        return live.size();
+    }
+
+    public long getRuns() {
+        return runs.get();
+    }
+
+    public long getTotalNanos() {
+        return nanos.get();
+    }
+
+    public boolean isDisposed() {
+        return disposedAt != 0L;
+    }
+
+    /** Zeitpunkt der Freigabe (epoch millis), 0 solange der Besitzer lebt. */
+    public long getDisposedAt() {
+        return disposedAt;
+    }
+}
@@ -0,0 +1,157 @@
+package de.zfzfg.core.tasks;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel in ticks (Linux-timer style): 256 one-tick slots,
+ * then three levels of 64 slots each covering 256, 16384 and 1048576 ticks per
+ * slot (up to about 38 days); later deadlines are parked in the outermost
+ * level and re-sorted on each cascade. Insert and cancel are O(1); a tick
+ * touches one slot, plus one slot per level every 256/16384/... ticks.
+ * <p>
+ * Slots are intrusive doubly linked lists through {@link WheelTask}. All state
+ * is guarded by this object's lock; callbacks are run by {@link TaskManager}
+ * outside of it.
+ */
+final class TimingWheel {
+
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int ROOT_SIZE = 1 << ROOT_BITS;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    private static final int LEVELS = 3;
+    private static final long MAX_DELTA = (1L << (ROOT_BITS + LEVELS * LEVEL_BITS)) - 1;
+
+    // Slot-Köpfe als Sentinels; [0] = Root, [1..LEVELS] = höhere Ebenen
+    private final WheelTask[][] slots = new WheelTask[LEVELS + 1][];
+    private long now;
+    private int size;
+
+    TimingWheel() {
+        slots[0] = newSlots(ROOT_SIZE);
+        for (int level = 1; level <= LEVELS; level++) {
+            slots[level] = newSlots(LEVEL_SIZE);
+        }
+    }
+
+    private static WheelTask[] newSlots(int count) {
+        WheelTask[] heads = new WheelTask[count];
+        for (int i = 0; i < count; i++) {
+            WheelTask head = WheelTask.of(() -> { });
+            head.prev = head;
+            head.next = head;
+            heads[i] = head;
+        }
+        return heads;
+    }
+
+    /** Schedule to run after {@code delayTicks} (at least one) ticks. */
+    synchronized void add(WheelTask task, long delayTicks, long periodTicks) {
+        if (task.isCancelled()) return;
+        if (task.wheel == this) {
+            unlink(task);
+            size--;
+        }
+        task.wheel = this;
+        task.period = periodTicks;
+        task.expiresAt = now + Math.max(1L, delayTicks);
+        insert(task);
+        size++;
+    }
+
+    synchronized void remove(WheelTask task) {
+        if (task.wheel != this) return;
+        unlink(task);
+        task.wheel = null;
+        size--;
+    }
+
+    /** Re-queue a repeating task after it ran (unless it was cancelled meanwhile). */
+    synchronized void requeue(WheelTask task) {
+        if (task.isCancelled() || task.wheel != null) return;
+        task.wheel = this;
+        task.expiresAt = now + Math.max(1L, task.period);
+        insert(task);
+        size++;
+    }
+
+    /** Advance one tick and move every task due now into {@code due}. */
+    synchronized void advance(List<WheelTask> due) {
+        now++;
+        int index = (int) (now & (ROOT_SIZE - 1));
+        if (index == 0) {
+            for (int level = 1; level <= LEVELS; level++) {
+                int levelIndex = (int) ((now >>> shift(level)) & (LEVEL_SIZE - 1));
+                cascade(slots[level][levelIndex]);
+                if (levelIndex != 0) break;
+            }
+        }
+        WheelTask head = slots[0][index];
+        while (head.next != head) {
+            WheelTask task = head.next;
+            unlink(task);
+            task.wheel = null;
+            size--;
+            due.add(task);
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        for (WheelTask[] level : slots) {
+            for (WheelTask head : level) {
+                while (head.next != head) {
+                    WheelTask task = head.next;
+                    unlink(task);
+                    task.wheel = null;
+                }
+            }
+        }
+        size = 0;
+    }
+
+    private static int shift(int level) {
+        return ROOT_BITS + (level - 1) * LEVEL_BITS;
+    }
+
+    private void cascade(WheelTask head) {
+        // Liste erst abhängen, dann neu einsortieren (geparkte Aufgaben können wieder in diese Ebene fallen);
+        // fällige landen im aktuellen Root-Slot
+        WheelTask task = head.next;
+        head.prev = head;
+        head.next = head;
+        while (task != head) {
+            WheelTask following = task.next;
+            insert(task);
+            task = following;
+        }
+    }
+
+    private void insert(WheelTask task) {
+        long delta = task.expiresAt - now;
+        WheelTask head;
+        if (delta < ROOT_SIZE) {
+            head = slots[0][(int) (Math.max(task.expiresAt, now) & (ROOT_SIZE - 1))];
+        } else {
+            long slotTime = delta > MAX_DELTA ? now + MAX_DELTA : task.expiresAt;
+            int level = 1;
+            while (level < LEVELS && delta >= 1L << shift(level + 1)) level++;
+            head = slots[level][(int) ((slotTime >>> shift(level)) & (LEVEL_SIZE - 1))];
+        }
+        task.prev = head.prev;
+        task.next = head;
+        head.prev.next = task;
+        head.prev = task;
+    }
+
+    private static void unlink(WheelTask task) {
+        if (task.prev == null) return;
+        task.prev.next = task.next;
+        task.next.prev = task.prev;
+        task.prev = null;
+        task.next = null;
+    }
+}
@@ -0,0 +1,52 @@
+package de.zfzfg.core.tasks;
+
+/**
+ * Callback in the {@link TaskManager} timing wheel, the counterpart of a
+ * BukkitRunnable: subclass it (or pass a plain Runnable to
+ * {@link TaskManager#schedule}) and call {@link #cancel()} from anywhere,
+ * including from inside {@link #run()} to stop a repeating task.
+ */
+public abstract class WheelTask implements Runnable {
+
+    // Vom TimingWheel unter dessen Lock gepflegt (intrusive Liste pro Slot)
+    long expiresAt;
+    long period;
+    WheelTask prev;
+    WheelTask next;
+    TimingWheel wheel;
+    // Besitzer für Buchhaltung und Aufräumen, null = ohne Besitzer
+    TaskOwner owner;
+    Object source = this;
+    private volatile boolean cancelled;
+
+    public final boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Removes the task from the wheel; a running repeating task is not rescheduled. */
+    public final void cancel() {
+        cancelled = true;
+        TimingWheel w = wheel;
+        if (w != null) w.remove(this);
+        TaskOwner o = owner;
+        if (o != null) o.live.remove(this);
+    }
+
+    /** Besitzer-Name, oder {@code null} für Tasks ohne Besitzer. */
+    public final String getOwner() {
+        TaskOwner o = owner;
+        return o != null ? o.getName() : null;
+    }
+
+    static WheelTask of(Runnable task) {
+        if (task instanceof WheelTask) return (WheelTask) task;
+        WheelTask wrapper = new WheelTask() {
+            @Override
+            public void run() {
+                task.run();
+            }
+        };
+        wrapper.source = task;
+        return wrapper;
+    }
+}
@@ -3,14 +3,16 @@ package de.zfzfg.core.util;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+/**
+ * Befehls-Cooldowns pro Spieler. Einträge verfallen mit ihrem Ablaufzeitpunkt
+ * (vom Sekunden-Sweeper und bei jeder Prüfung), damit Spieler, die nicht
+ * zurückkehren, keinen Speicher belegen.
+ */
 public class CommandCooldownManager {
-    private final Map<UUID, Map<String, Long>> cooldowns = new ConcurrentHashMap<>();
+    // Schlüssel: "<uuid>:<befehl>", Wert: Ende des Cooldowns
+    private final ExpiryQueue<String> cooldowns = new ExpiryQueue<>();
     private final long defaultCooldownMs;
     private Function<Long, String> messageProvider;
 
@@ -23,7 +25,7 @@ public class CommandCooldownManager {
         // Default message
         this.messageProvider = seconds -> ChatColor.RED + "Please wait " + seconds + " more seconds!";
     }
-    
+
     /**
      * Setzt die Funktion, die die Cooldown-Nachricht generiert
      * @param provider Funktion die die Restzeit in Sekunden erhält und die Nachricht zurückgibt
@@ -33,19 +35,28 @@ public class CommandCooldownManager {
     }
 
     public boolean checkAndApply(Player player, String commandName) {
-        UUID uuid = player.getUniqueId();
         long now = System.currentTimeMillis();
+        evictExpired(now);
 
-        Map<String, Long> playerCooldowns = cooldowns.computeIfAbsent(uuid, k -> new HashMap<>());
-        Long lastUse = playerCooldowns.get(commandName);
-
-        if (lastUse != null && (now - lastUse) < defaultCooldownMs) {
-            long remaining = (defaultCooldownMs - (now - lastUse)) / 1000;
+        String key = player.getUniqueId() + ":" + commandName;
+        long until = cooldowns.getDeadline(key);
+        if (until > now) {
+            long remaining = (until - now) / 1000;
             player.sendMessage(messageProvider.apply(remaining));
             return false;
         }
 
-        playerCooldowns.put(commandName, now);
+        cooldowns.put(key, now + defaultCooldownMs);
         return true;
     }
-}
\ No newline at end of file
+
+    /** Abgelaufene Cooldowns entfernen. */
+    public void evictExpired(long now) {
+        cooldowns.expire(now);
+    }
+
+    /** Anzahl aktiver Cooldowns (Debug-Ausgabe). */
+    public int size() {
+        return cooldowns.size();
+    }
+}
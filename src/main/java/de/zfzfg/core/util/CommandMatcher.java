@@ -0,0 +1,103 @@
+package de.zfzfg.core.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Immutable allow-list for chat commands, compiled once into a character trie.
+ * <p>
+ * Entries are command lines without the slash ("event leave"). A message
+ * matches when it starts with an entry on a word boundary, ignoring case,
+ * the leading slash and repeated spaces. {@link #matches(String)} walks the
+ * message once and allocates nothing, so it is safe for every
+ * PlayerCommandPreprocessEvent.
+ */
+public final class CommandMatcher {
+
+    public static final CommandMatcher EMPTY = new CommandMatcher(new Node(), 0);
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] next = new Node[0];
+        boolean terminal;
+
+        Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) return next[i];
+            }
+            return null;
+        }
+
+        Node add(char c) {
+            Node n = child(c);
+            if (n != null) return n;
+            n = new Node();
+            int len = keys.length;
+            keys = Arrays.copyOf(keys, len + 1);
+            next = Arrays.copyOf(next, len + 1);
+            keys[len] = c;
+            next[len] = n;
+            return n;
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private CommandMatcher(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static CommandMatcher of(Collection<String> commands) {
+        Node root = new Node();
+        int size = 0;
+        for (String command : commands) {
+            String normalized = normalize(command);
+            if (normalized.isEmpty()) continue;
+            Node node = root;
+            for (int i = 0; i < normalized.length(); i++) {
+                node = node.add(normalized.charAt(i));
+            }
+            if (!node.terminal) {
+                node.terminal = true;
+                size++;
+            }
+        }
+        return new CommandMatcher(root, size);
+    }
+
+    /** True if the chat command (with or without slash) starts with an allowed entry. */
+    public boolean matches(String message) {
+        if (message == null) return false;
+        int i = 0;
+        int len = message.length();
+        if (i < len && message.charAt(i) == '/') i++;
+        Node node = root;
+        char prev = 0;
+        for (; i < len; i++) {
+            char c = Character.toLowerCase(message.charAt(i));
+            if (c == ' ') {
+                if (node.terminal) return true;
+                if (prev == ' ') continue;
+            }
+            node = node.child(c);
+            if (node == null) return false;
+            prev = c;
+        }
+        return node.terminal;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Lower case, no leading slash, single spaces between words. */
+    public static String normalize(String command) {
+        if (command == null) return "";
+        String s = command.trim().toLowerCase(Locale.ROOT);
+        while (s.startsWith("/")) s = s.substring(1);
+        return s.replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,91 @@
+package de.zfzfg.core.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Keys with a deadline (epoch millis), ordered by deadline so a sweep only
+ * looks at the entries that are actually due. Replacing or removing a key
+ * leaves its old heap entry behind as stale; stale entries are skipped when
+ * they surface and the heap is compacted when they outnumber live ones.
+ * Thread-safe; {@link #expire} hands the due keys back so callers act on
+ * them outside the lock.
+ */
+public final class ExpiryQueue<K> {
+
+    private static final class Entry<K> {
+        final K key;
+        final long deadline;
+
+        Entry(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+
+    private final Map<K, Entry<K>> live = new HashMap<>();
+    private final PriorityQueue<Entry<K>> byDeadline =
+            new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+
+    /** Set or replace the deadline of a key. */
+    public synchronized void put(K key, long deadlineMillis) {
+        Entry<K> entry = new Entry<>(key, deadlineMillis);
+        live.put(key, entry);
+        byDeadline.add(entry);
+        compactIfNeeded();
+    }
+
+    public synchronized boolean remove(K key) {
+        boolean removed = live.remove(key) != null;
+        if (removed) compactIfNeeded();
+        return removed;
+    }
+
+    /** Deadline of a key, or -1 if it is not tracked. */
+    public synchronized long getDeadline(K key) {
+        Entry<K> entry = live.get(key);
+        return entry != null ? entry.deadline : -1L;
+    }
+
+    public synchronized int size() {
+        return live.size();
+    }
+
+    // Heap-Einträge inklusive veralteter (für Tests der Kompaktierung)
+    synchronized int heapSize() {
+        return byDeadline.size();
+    }
+
+    public synchronized void clear() {
+        live.clear();
+        byDeadline.clear();
+    }
+
+    /**
+     * Remove every key whose deadline is at or before {@code now} and return
+     * them in deadline order.
+     */
+    public List<K> expire(long now) {
+        List<K> expired = new ArrayList<>();
+        synchronized (this) {
+            Entry<K> head;
+            while ((head = byDeadline.peek()) != null && head.deadline <= now) {
+                byDeadline.poll();
+                if (live.get(head.key) == head) {
+                    live.remove(head.key);
+                    expired.add(head.key);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private void compactIfNeeded() {
+        if (byDeadline.size() <= 2 * live.size() + 16) return;
+        byDeadline.clear();
+        byDeadline.addAll(live.values());
+    }
+}
@@ -25,4 +25,23 @@ public final class Time {
     public static long ticks(long ticks) {
         return ticks;
     }
+
+    /**
+     * Nachschlagetabelle für Ankündigungs-Sekunden (z. B. {30, 10, 5}):
+     * {@code table[s]} ist true, wenn bei Restzeit {@code s} angekündigt wird.
+     */
+    public static boolean[] marks(int... seconds) {
+        int max = 0;
+        for (int s : seconds) max = Math.max(max, s);
+        boolean[] table = new boolean[max + 1];
+        for (int s : seconds) {
+            if (s >= 0) table[s] = true;
+        }
+        return table;
+    }
+
+    /** Prüft eine Tabelle aus {@link #marks}; Werte außerhalb sind nie markiert. */
+    public static boolean isMarked(boolean[] table, long second) {
+        return second >= 0 && second < table.length && table[(int) second];
+    }
 }
\ No newline at end of file
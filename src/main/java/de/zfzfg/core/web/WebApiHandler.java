@@ -236,6 +236,20 @@ public class WebApiHandler {
         }
         status.put("language", currentLang);
         
+        // Listener-Profil (nur wenn settings.profiling.listeners.enabled) und Move-Module
+        if (plugin instanceof EventPlugin) {
+            EventPlugin eventPlugin = (EventPlugin) plugin;
+            if (eventPlugin.getListenerProfiler() != null && eventPlugin.getListenerProfiler().isEnabled()) {
+                Map<String, Object> profile = new LinkedHashMap<>();
+                profile.put("sampleRate", eventPlugin.getListenerProfiler().getSampleRate());
+                profile.put("handlers", eventPlugin.getListenerProfiler().snapshot());
+                if (eventPlugin.getMoveDispatcher() != null) {
+                    profile.put("moveModules", eventPlugin.getMoveDispatcher().metrics());
+                }
+                status.put("listenerProfile", profile);
+            }
+        }
+        
         response.put("data", status);
         return response;
     }
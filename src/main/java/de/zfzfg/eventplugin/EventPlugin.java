@@ -44,14 +44,24 @@ public class EventPlugin extends JavaPlugin {
     private ArenaManager arenaManager;
     private EquipmentManager equipmentManager;
     private CommandRequestManager commandRequestManager;
+    private de.zfzfg.core.util.CommandCooldownManager commandCooldowns;
     private StatsManager statsManager;
     private de.zfzfg.eventplugin.managers.EventStatsManager eventStatsManager;
+    private de.zfzfg.eventplugin.storage.StatsWriteBehind statsWriteBehind;
+    private de.zfzfg.pvpwager.storage.EscrowJournal escrowJournal;
+    private de.zfzfg.eventplugin.world.WorldRoleIndex worldRoleIndex;
+    private de.zfzfg.eventplugin.world.PlayerStateCache playerStateCache;
+    private de.zfzfg.eventplugin.world.SafeLocationCache safeLocationCache;
+    private de.zfzfg.eventplugin.security.ProtectionIndex protectionIndex;
+    private de.zfzfg.eventplugin.listeners.MoveDispatcher moveDispatcher;
+    private de.zfzfg.core.security.PermissionCache permissionCache;
     private Economy economy;
     private WorldStateManager worldStateManager;
     private CoreConfigManager coreConfigManager;
     private ConfigurationService configurationService;
     private TaskManager taskManager;
     private DebugManager debugManager;
+    private de.zfzfg.core.monitoring.ListenerProfiler listenerProfiler;
     private GuiManager guiManager;
     private LiveTradeManager liveTradeManager;
     private PvPWagerGuiCommand pvpWagerGuiCommand;
@@ -81,8 +91,14 @@ public class EventPlugin extends JavaPlugin {
         // Lade Event-Konfigurationen
         configManager = new ConfigManager(this);
         configManager.loadConfigs();
+        taskManager.setWorkBudgetMillis(configManager.getWorkBudgetMillis());
 
         // Initialisiere Event-Manager
+        worldRoleIndex = new de.zfzfg.eventplugin.world.WorldRoleIndex(this);
+        playerStateCache = new de.zfzfg.eventplugin.world.PlayerStateCache();
+        safeLocationCache = new de.zfzfg.eventplugin.world.SafeLocationCache(this);
+        playerStateCache.onIdle(safeLocationCache::release);
+        protectionIndex = new de.zfzfg.eventplugin.security.ProtectionIndex();
         eventManager = new EventManager(this);
         autoEventManager = new AutoEventManager(this);
 
@@ -91,16 +107,29 @@ public class EventPlugin extends JavaPlugin {
         de.zfzfg.eventplugin.commands.EventPvpCommand eventPvpCommand = new de.zfzfg.eventplugin.commands.EventPvpCommand(this);
         getCommand("eventpvp").setExecutor(eventPvpCommand);
         getCommand("eventpvp").setTabCompleter(eventPvpCommand);
-        getServer().getPluginManager().registerEvents(new EventListener(this), this);
-        getServer().getPluginManager().registerEvents(new WorldChangeListener(this), this);
-        getServer().getPluginManager().registerEvents(new TeamPvPListener(this), this);
+        // Alle Listener laufen über den Profiler (ohne settings.profiling.listeners.enabled: normale Registrierung)
+        listenerProfiler = new de.zfzfg.core.monitoring.ListenerProfiler(this,
+                configManager.isListenerProfilingEnabled(), configManager.getListenerProfilingSampleRate());
+        // Berechtigungs-Cache zuerst registrieren, damit er vor den übrigen Listenern invalidiert
+        permissionCache = new de.zfzfg.core.security.PermissionCache();
+        listenerProfiler.register(permissionCache);
+        listenerProfiler.register(new EventListener(this));
+        // Einziger PlayerMoveEvent-Handler; Module melden sich unten an
+        moveDispatcher = new de.zfzfg.eventplugin.listeners.MoveDispatcher(this);
+        listenerProfiler.register(moveDispatcher);
+        WorldChangeListener worldChangeListener = new WorldChangeListener(this);
+        listenerProfiler.register(worldChangeListener);
+        moveDispatcher.register(worldChangeListener);
+        listenerProfiler.register(new TeamPvPListener(this));
 
         // Zusätzliche Sicherheits-/Modus-Listener
-        getServer().getPluginManager().registerEvents(new PlayerModeListener(this), this);
-        getServer().getPluginManager().registerEvents(new de.zfzfg.eventplugin.security.WorldProtectionListener(this), this);
+        listenerProfiler.register(new PlayerModeListener(this));
+        listenerProfiler.register(new de.zfzfg.eventplugin.security.WorldProtectionListener(this));
         
         // KRITISCH: Void-Schutz-Listener für sichere Respawns
-        getServer().getPluginManager().registerEvents(new VoidProtectionListener(this), this);
+        VoidProtectionListener voidProtectionListener = new VoidProtectionListener(this);
+        listenerProfiler.register(voidProtectionListener);
+        moveDispatcher.register(voidProtectionListener);
 
         if (configManager.isAutoEventsEnabled()) {
             autoEventManager.start();
@@ -114,8 +143,34 @@ public class EventPlugin extends JavaPlugin {
         matchManager = new MatchManager(this);
         requestManager = new RequestManager(this);
         commandRequestManager = new CommandRequestManager(this);
+        commandCooldowns = new de.zfzfg.core.util.CommandCooldownManager();
+        commandCooldowns.setMessageProvider(seconds -> {
+            String msg = coreConfigManager.getMessages()
+                .getString("messages.system.cooldown-wait", "&cPlease wait {seconds} more seconds!");
+            return org.bukkit.ChatColor.translateAlternateColorCodes('&', msg.replace("{seconds}", String.valueOf(seconds)));
+        });
+        // Ein Sweeper pro Sekunde für alle Ablaufzeiten (Anfragen, Cooldowns) statt eines Tasks pro Anfrage
+        taskManager.everySecond("plugin", () -> {
+            long now = System.currentTimeMillis();
+            requestManager.expireDue(now);
+            commandRequestManager.expireDue(now);
+            commandCooldowns.evictExpired(now);
+        });
+        // Lebendprüfungen für Timer-Besitzer (Verwaist-Erkennung in /eventpvp debug tasks)
+        taskManager.setOwnerCheck("match:", id -> matchManager.getMatches().containsKey(java.util.UUID.fromString(id)));
+        taskManager.setOwnerCheck("event:", id -> {
+            // Session-Besitzer haben immer die Form "event:<id>#<kurz-id>"; alles andere gehört keiner Session
+            int hash = id.lastIndexOf('#');
+            if (hash < 0) return false;
+            String eventId = id.substring(0, hash);
+            return eventManager != null && eventManager.getSession(eventId)
+                .map(session -> session.getTaskOwner().equals("event:" + id))
+                .orElse(false);
+        });
         guiManager = new GuiManager(this);
         liveTradeManager = new LiveTradeManager(this);
+        // Speicher-Backend (YAML/SQLite) vor dem Laden der Statistiken öffnen
+        de.zfzfg.eventplugin.storage.StorageBackends.init(this);
         statsManager = new StatsManager();
         // Load persistent PvP stats
         try {
@@ -136,6 +191,14 @@ public class EventPlugin extends JavaPlugin {
             getLogger().warning("Konnte Event-Statistiken nicht laden: " + e.getMessage());
         }
 
+        // Geänderte Statistiken gesammelt im Hintergrund speichern
+        statsWriteBehind = new de.zfzfg.eventplugin.storage.StatsWriteBehind(this,
+                configManager.getStatsFlushIntervalSeconds(), configManager.getStatsFlushThreshold());
+        statsWriteBehind.start();
+
+        // Inventar-Snapshots: Segment-Log öffnen (importiert alte YAML-Backups einmalig)
+        de.zfzfg.eventplugin.storage.InventorySnapshotStorage.init(this);
+
         // Vault Economy Hook
         if (getServer().getPluginManager().getPlugin("Vault") != null) {
             setupEconomy();
@@ -143,12 +206,22 @@ public class EventPlugin extends JavaPlugin {
             getLogger().warning("Vault nicht gefunden! Geld-Wetten sind deaktiviert.");
         }
 
+        // Wager-Escrow-Journal: nicht abgeschlossene Einsätze aus einem Absturz erstatten
+        escrowJournal = new de.zfzfg.pvpwager.storage.EscrowJournal(this);
+        try {
+            escrowJournal.open();
+            escrowJournal.refundOnline();
+        } catch (Exception e) {
+            getLogger().severe("Konnte Escrow-Journal nicht öffnen: " + e.getMessage());
+            escrowJournal = null;
+        }
+
         // Registriere PvP-Commands (vereinheitlichte Sub-Commands unter /pvp)
         de.zfzfg.pvpwager.commands.unified.PvPUnifiedCommand unifiedPvp = new de.zfzfg.pvpwager.commands.unified.PvPUnifiedCommand(this);
         getCommand("pvp").setExecutor(unifiedPvp);
         getCommand("pvp").setTabCompleter(unifiedPvp);
         // Also listen for quit to clear unified surrender confirmations
-        getServer().getPluginManager().registerEvents(unifiedPvp, this);
+        listenerProfiler.register(unifiedPvp);
         PvPACommand pvpaCommand = new PvPACommand(this);
         getCommand("pvpa").setExecutor(pvpaCommand);
         getCommand("pvpa").setTabCompleter(pvpaCommand);
@@ -161,7 +234,7 @@ public class EventPlugin extends JavaPlugin {
         SurrenderCommand surrenderCommand = new SurrenderCommand(this);
         getCommand("surrender").setExecutor(surrenderCommand);
         // Register as listener to clear per-command confirmations on quit
-        getServer().getPluginManager().registerEvents(surrenderCommand, this);
+        listenerProfiler.register(surrenderCommand);
         getCommand("draw").setExecutor(new DrawCommand(this));
         getCommand("pvpainfo").setExecutor(new PvPInfoCommand(this));
         PvPStatsCommand pvpStatsCommand = new PvPStatsCommand(this);
@@ -203,15 +276,18 @@ public class EventPlugin extends JavaPlugin {
         }
 
         // Registriere PvP-Listener
-        getServer().getPluginManager().registerEvents(new PvPListener(this), this);
+        listenerProfiler.register(new PvPListener(this));
         pvpWorldChangeListener = new de.zfzfg.pvpwager.listeners.WorldChangeListener(this);
-        getServer().getPluginManager().registerEvents(pvpWorldChangeListener, this);
+        listenerProfiler.register(pvpWorldChangeListener);
+        moveDispatcher.register(pvpWorldChangeListener);
         // Cleanup pending requests on player quit
-        getServer().getPluginManager().registerEvents(new de.zfzfg.pvpwager.listeners.RequestCleanupListener(this), this);
+        listenerProfiler.register(new de.zfzfg.pvpwager.listeners.RequestCleanupListener(this));
+        // Erstattung von Escrow-Einsätzen aus abgebrochenen Matches beim Join
+        listenerProfiler.register(new de.zfzfg.pvpwager.listeners.EscrowRefundListener(this));
         // GUI-Listener für Wager-GUIs
-        getServer().getPluginManager().registerEvents(new GuiListener(this), this);
+        listenerProfiler.register(new GuiListener(this));
         // Live Trade GUI Listener
-        getServer().getPluginManager().registerEvents(new LiveTradeListener(this, liveTradeManager), this);
+        listenerProfiler.register(new LiveTradeListener(this, liveTradeManager));
 
         // === Web-Interface starten ===
         webConfigManager = new WebConfigManager(this);
@@ -259,6 +335,9 @@ public class EventPlugin extends JavaPlugin {
             matchManager.cancelAllTasks();
             matchManager.clearTransientState();
         }
+        if (escrowJournal != null) {
+            escrowJournal.close();
+        }
         if (requestManager != null) {
             requestManager.cleanup();
         }
@@ -278,24 +357,28 @@ public class EventPlugin extends JavaPlugin {
         if (pvpWorldChangeListener != null) {
             try { pvpWorldChangeListener.cleanup(); } catch (Exception ignored) {}
         }
-
-        // Speichere Statistiken
-        try {
-            de.zfzfg.pvpwager.storage.PvpStatsStorage.save(this, statsManager.toMap());
-        } catch (Exception e) {
-            getLogger().warning("Konnte PvP-Statistiken nicht speichern: " + e.getMessage());
+        // Timing-Wheel anhalten (verbleibende Timer der gestoppten Events/Matches verwerfen)
+        if (taskManager != null) {
+            taskManager.shutdown();
         }
-        try {
-            de.zfzfg.eventplugin.storage.EventStatsStorage.save(this, eventStatsManager.toMap());
-        } catch (Exception e) {
-            getLogger().warning("Konnte Event-Statistiken nicht speichern: " + e.getMessage());
-        }
-        // Prune old inventory backups (>30 Tage)
-        try {
-            de.zfzfg.eventplugin.storage.InventorySnapshotStorage.pruneOldEntries(this);
-        } catch (Exception e) {
-            getLogger().warning("Konnte alte Inventar-Backups nicht bereinigen: " + e.getMessage());
+
+        // Speichere Statistiken (nur noch ungespeicherte Änderungen)
+        if (statsWriteBehind != null) {
+            statsWriteBehind.stop();
+        } else {
+            try {
+                if (statsManager != null) de.zfzfg.pvpwager.storage.PvpStatsStorage.save(this, statsManager.toMap());
+            } catch (Exception e) {
+                getLogger().warning("Konnte PvP-Statistiken nicht speichern: " + e.getMessage());
+            }
+            try {
+                if (eventStatsManager != null) de.zfzfg.eventplugin.storage.EventStatsStorage.save(this, eventStatsManager.toMap());
+            } catch (Exception e) {
+                getLogger().warning("Konnte Event-Statistiken nicht speichern: " + e.getMessage());
+            }
         }
+        de.zfzfg.eventplugin.storage.InventorySnapshotStorage.shutdown();
+        de.zfzfg.eventplugin.storage.StorageBackends.shutdown();
 
         long disableMs = (System.nanoTime() - t0) / 1_000_000L;
         getLogger().info("Event-PVP-Plugin deaktiviert in " + disableMs + " ms.");
@@ -327,8 +410,17 @@ public class EventPlugin extends JavaPlugin {
     public ArenaManager getArenaManager() { return arenaManager; }
     public EquipmentManager getEquipmentManager() { return equipmentManager; }
     public CommandRequestManager getCommandRequestManager() { return commandRequestManager; }
+    public de.zfzfg.core.util.CommandCooldownManager getCommandCooldowns() { return commandCooldowns; }
     public StatsManager getStatsManager() { return statsManager; }
     public de.zfzfg.eventplugin.managers.EventStatsManager getEventStatsManager() { return eventStatsManager; }
+    public de.zfzfg.eventplugin.storage.StatsWriteBehind getStatsWriteBehind() { return statsWriteBehind; }
+    public de.zfzfg.pvpwager.storage.EscrowJournal getEscrowJournal() { return escrowJournal; }
+    public de.zfzfg.eventplugin.world.WorldRoleIndex getWorldRoleIndex() { return worldRoleIndex; }
+    public de.zfzfg.eventplugin.world.PlayerStateCache getPlayerStateCache() { return playerStateCache; }
+    public de.zfzfg.eventplugin.world.SafeLocationCache getSafeLocationCache() { return safeLocationCache; }
+    public de.zfzfg.eventplugin.security.ProtectionIndex getProtectionIndex() { return protectionIndex; }
+    public de.zfzfg.eventplugin.listeners.MoveDispatcher getMoveDispatcher() { return moveDispatcher; }
+    public de.zfzfg.core.security.PermissionCache getPermissionCache() { return permissionCache; }
     public Economy getEconomy() { return economy; }
     public boolean hasEconomy() { return economy != null; }
 
@@ -337,6 +429,7 @@ public class EventPlugin extends JavaPlugin {
     public ConfigurationService getConfigurationService() { return configurationService; }
     public TaskManager getTaskManager() { return taskManager; }
     public DebugManager getDebugManager() { return debugManager; }
+    public de.zfzfg.core.monitoring.ListenerProfiler getListenerProfiler() { return listenerProfiler; }
     public GuiManager getGuiManager() { return guiManager; }
     public LiveTradeManager getLiveTradeManager() { return liveTradeManager; }
     public PvPWagerGuiCommand getPvpWagerGuiCommand() { return pvpWagerGuiCommand; }
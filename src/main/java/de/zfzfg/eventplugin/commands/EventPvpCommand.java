@@ -21,6 +21,7 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class EventPvpCommand implements CommandExecutor, TabCompleter {
@@ -73,6 +74,8 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
             case "webtoken":
             case "wt":
                 return handleWebToken(sender);
+            case "snapshots":
+                return handleSnapshots(sender, label, Arrays.copyOfRange(args, 1, args.length));
             default:
                 sender.sendMessage(ColorUtil.color(plugin.getConfigManager().getPrefix() + " " + 
                     getGeneralMsg("unknown-command").replace("{command}", sub)));
@@ -100,6 +103,61 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
         return true;
     }
     
+    // ==================== Snapshots Subcommand ====================
+
+    private String getSnapshotsMsg(String key) {
+        return plugin.getCoreConfigManager().getMessages()
+            .getString("messages.snapshots." + key, key);
+    }
+
+    private boolean handleSnapshots(CommandSender sender, String label, String[] args) {
+        if (!Permission.EVENTPVP_ADMIN.check(sender)) {
+            sender.sendMessage(ColorUtil.color(plugin.getConfigManager().getMessage("general.no-permission")));
+            return true;
+        }
+        String prefix = plugin.getConfigManager().getPrefix() + " ";
+        if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+            Map<String, Object> m = de.zfzfg.eventplugin.storage.InventorySnapshotStorage.getRetentionMetrics(plugin);
+            long lastEnd = ((Number) m.get("last_pass_ended_at")).longValue();
+            sender.sendMessage(ColorUtil.color(prefix + getSnapshotsMsg("stats-header")));
+            sender.sendMessage(ColorUtil.color(getSnapshotsMsg("stats-retention")
+                    .replace("{event}", String.valueOf(m.get("retain_days_event")))
+                    .replace("{pvpwager}", String.valueOf(m.get("retain_days_pvpwager")))));
+            sender.sendMessage(ColorUtil.color(getSnapshotsMsg("stats-passes")
+                    .replace("{passes}", String.valueOf(m.get("passes")))
+                    .replace("{running}", Boolean.TRUE.equals(m.get("pass_running")) ? getSnapshotsMsg("stats-running") : "")
+                    .replace("{removed}", String.valueOf(m.get("removed_total")))
+                    .replace("{kb}", String.valueOf(((Number) m.get("bytes_reclaimed_total")).longValue() / 1024L))));
+            if (lastEnd > 0) {
+                sender.sendMessage(ColorUtil.color(getSnapshotsMsg("stats-last-pass")
+                        .replace("{removed}", String.valueOf(m.get("last_pass_removed")))
+                        .replace("{kb}", String.valueOf(((Number) m.get("last_pass_bytes_reclaimed")).longValue() / 1024L))
+                        .replace("{ms}", String.valueOf(m.get("last_pass_duration_ms")))));
+            } else {
+                sender.sendMessage(ColorUtil.color(getSnapshotsMsg("stats-last-pass-none")));
+            }
+            return true;
+        }
+        if (args.length == 0 || !args[0].equalsIgnoreCase("migrate")) {
+            sender.sendMessage(ColorUtil.color(prefix + getSnapshotsMsg("usage").replace("{label}", label)));
+            return true;
+        }
+        sender.sendMessage(ColorUtil.color(prefix + getSnapshotsMsg("migrate-start")));
+        org.bukkit.Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            String result;
+            try {
+                int count = de.zfzfg.eventplugin.storage.InventorySnapshotStorage.migrateToBinary(plugin);
+                result = getSnapshotsMsg("migrate-done").replace("{count}", String.valueOf(count));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Snapshot-Migration fehlgeschlagen: " + e.getMessage());
+                result = getSnapshotsMsg("migrate-failed").replace("{error}", String.valueOf(e.getMessage()));
+            }
+            final String msg = result;
+            org.bukkit.Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(ColorUtil.color(prefix + msg)));
+        });
+        return true;
+    }
+
     // ==================== WebToken Subcommand ====================
     
     private String getWebtokenMsg(String key) {
@@ -241,6 +299,16 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
                 showDebugStatus(sender, debugManager);
                 break;
                 
+            case "perf":
+            case "performance":
+                handleDebugPerf(sender, args);
+                break;
+                
+            case "tasks":
+            case "timer":
+                handleDebugTasks(sender, args);
+                break;
+                
             case "help":
             case "hilfe":
             case "?":
@@ -397,6 +465,68 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("");
     }
 
+    private void handleDebugPerf(CommandSender sender, String[] args) {
+        de.zfzfg.core.monitoring.ListenerProfiler profiler = plugin.getListenerProfiler();
+        if (profiler == null || !profiler.isEnabled()) {
+            sender.sendMessage(ColorUtil.color(DEBUG_PREFIX + getDebugMsg("perf-disabled")));
+            return;
+        }
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            profiler.reset();
+            sender.sendMessage(ColorUtil.color(DEBUG_PREFIX + getDebugMsg("perf-reset")));
+            return;
+        }
+        
+        sender.sendMessage(ColorUtil.color("&8&m                    &r &bListener-Profil &7(1/" + profiler.getSampleRate() + ") &8&m                    "));
+        List<Map<String, Object>> rows = profiler.snapshot();
+        if (rows.isEmpty()) {
+            sender.sendMessage(ColorUtil.color(getDebugMsg("perf-empty")));
+        }
+        // Top 10 nach geschätzter Gesamtzeit
+        for (int i = 0; i < Math.min(10, rows.size()); i++) {
+            Map<String, Object> row = rows.get(i);
+            sender.sendMessage(ColorUtil.color("&e" + row.get("handler") + " &7calls=&f" + row.get("calls")
+                + " &7total=&f" + String.format("%.1fms", ((Long) row.get("est_total_us")) / 1000.0)
+                + " &7p50=&f" + String.format("%.1fµs", (Double) row.get("p50_us"))
+                + " &7p99=&f" + String.format("%.1fµs", (Double) row.get("p99_us"))
+                + " &7max=&f" + String.format("%.1fµs", (Double) row.get("max_us"))));
+        }
+        // Module des MoveDispatchers (eigene Zähler, immer aktiv)
+        sender.sendMessage(ColorUtil.color("&7Move-Module: &f" + plugin.getMoveDispatcher().metrics()));
+    }
+
+    private void handleDebugTasks(CommandSender sender, String[] args) {
+        de.zfzfg.core.tasks.TaskManager taskManager = plugin.getTaskManager();
+        List<String> orphans = taskManager.findOrphans();
+        if (args.length > 1 && args[1].equalsIgnoreCase("orphans")) {
+            if (orphans.isEmpty()) {
+                sender.sendMessage(ColorUtil.color(DEBUG_PREFIX + getDebugMsg("tasks-no-orphans")));
+                return;
+            }
+            sender.sendMessage(ColorUtil.color(DEBUG_PREFIX + getDebugMsg("tasks-orphans")
+                .replace("{count}", String.valueOf(orphans.size()))));
+            for (String orphan : orphans) {
+                sender.sendMessage(ColorUtil.color("&7- &e" + orphan));
+            }
+            return;
+        }
+        
+        sender.sendMessage(ColorUtil.color("&8&m                    &r &bTimer &7(" + taskManager.getScheduledCount() + " geplant, "
+            + taskManager.getQueuedWorkCount() + " Jobs) &8&m                    "));
+        // Top 15 nach aufsummierter Laufzeit, freigegebene Besitzer grau
+        List<de.zfzfg.core.tasks.TaskOwner> owners = taskManager.getOwnerStats();
+        for (int i = 0; i < Math.min(15, owners.size()); i++) {
+            de.zfzfg.core.tasks.TaskOwner owner = owners.get(i);
+            sender.sendMessage(ColorUtil.color((owner.isDisposed() ? "&8" : "&e") + owner.getName()
+                + " &7live=&f" + owner.getLiveCount()
+                + " &7runs=&f" + owner.getRuns()
+                + " &7total=&f" + String.format("%.1fms", owner.getTotalNanos() / 1_000_000.0)));
+        }
+        if (!orphans.isEmpty()) {
+            sender.sendMessage(ColorUtil.color(getDebugMsg("tasks-orphans").replace("{count}", String.valueOf(orphans.size()))));
+        }
+    }
+
     private void showDebugStatus(CommandSender sender, DebugManager debugManager) {
         sender.sendMessage(ColorUtil.color("&8&m                    &r &bDebug-Status &8&m                    "));
         sender.sendMessage("");
@@ -427,6 +557,11 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(ColorUtil.color("  " + cats.toString()));
         }
         
+        // Offene Anfragen und aktive Cooldowns (laufen über den zentralen Ablauf-Sweeper)
+        sender.sendMessage(ColorUtil.color("&7Anfragen: &e" + plugin.getRequestManager().getPendingCount()
+            + " &7PvP, &e" + plugin.getCommandRequestManager().getPendingCount()
+            + " &7Befehl &8| &7Cooldowns: &e" + plugin.getCommandCooldowns().size()));
+        
         sender.sendMessage("");
         sender.sendMessage(ColorUtil.color(getDebugMsg("use-debug-help")));
     }
@@ -443,6 +578,8 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ColorUtil.color(getDebugMsg("help-subscribe").replace("{label}", label)));
         sender.sendMessage(ColorUtil.color(getDebugMsg("help-unsubscribe").replace("{label}", label)));
         sender.sendMessage(ColorUtil.color(getDebugMsg("help-categories").replace("{label}", label)));
+        sender.sendMessage(ColorUtil.color(getDebugMsg("help-perf").replace("{label}", label)));
+        sender.sendMessage(ColorUtil.color(getDebugMsg("help-tasks").replace("{label}", label)));
         sender.sendMessage("");
         sender.sendMessage(ColorUtil.color(getDebugMsg("level-overview")));
         sender.sendMessage(ColorUtil.color(getDebugMsg("level-values")));
@@ -463,12 +600,17 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
             if (sender.hasPermission("eventpvp.admin.web") || sender.isOp()) {
                 completions.add("webtoken");
             }
+            if (Permission.EVENTPVP_ADMIN.check(sender)) {
+                completions.add("snapshots");
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("snapshots") && Permission.EVENTPVP_ADMIN.check(sender)) {
+            completions.addAll(Arrays.asList("migrate", "stats"));
         } else if (args.length >= 2 && args[0].equalsIgnoreCase("debug") && sender.hasPermission("eventpvp.debug")) {
             if (args.length == 2) {
                 completions.addAll(Arrays.asList(
                     "on", "off", "level", "output", "test", 
                     "subscribe", "unsubscribe", "categories", 
-                    "status", "help", "0", "1", "2", "3"
+                    "status", "perf", "tasks", "help", "0", "1", "2", "3"
                 ));
             } else if (args.length == 3) {
                 String debugSub = args[1].toLowerCase();
@@ -492,6 +634,16 @@ public class EventPvpCommand implements CommandExecutor, TabCompleter {
                                 .collect(Collectors.toList())
                         );
                         break;
+                        
+                    case "perf":
+                    case "performance":
+                        completions.add("reset");
+                        break;
+                        
+                    case "tasks":
+                    case "timer":
+                        completions.add("orphans");
+                        break;
                 }
             }
         }
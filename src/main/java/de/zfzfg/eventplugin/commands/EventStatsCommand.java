@@ -98,7 +98,7 @@ public class EventStatsCommand implements CommandExecutor, TabCompleter {
                 UUID id = op != null ? op.getUniqueId() : null;
                 if (id == null) { MessageUtil.error(sender, plugin.getConfigManager().getMessage("eventstats.player-not-found")); return true; }
                 stats.reset(id);
-                de.zfzfg.eventplugin.storage.EventStatsStorage.saveAsync(plugin, stats.toMap());
+                plugin.getStatsWriteBehind().flushAsync();
                 MessageUtil.sendMessage(sender, plugin.getConfigManager().getMessage("eventstats.reset-success", "name", (op.getName() != null ? op.getName() : String.valueOf(id))));
                 return true;
             }
@@ -123,7 +123,7 @@ public class EventStatsCommand implements CommandExecutor, TabCompleter {
                     case "participations": stats.addParticipations(id, n); break;
                     default: MessageUtil.error(sender, plugin.getConfigManager().getMessage("eventstats.invalid-field")); return true;
                 }
-                de.zfzfg.eventplugin.storage.EventStatsStorage.saveAsync(plugin, stats.toMap());
+                plugin.getStatsWriteBehind().flushAsync();
                 MessageUtil.sendMessage(sender, plugin.getConfigManager().getMessage("eventstats.add-success", "name", (op.getName() != null ? op.getName() : String.valueOf(id))));
                 return true;
             }
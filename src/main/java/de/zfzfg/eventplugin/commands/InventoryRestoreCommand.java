@@ -20,9 +20,12 @@ import java.util.Map;
  * /inventoryrestore <ID>
  * Restores a saved inventory by its 4-digit ID (per world).
  * Shows world and optional event/match ID for clarity.
+ * /inventoryrestore list <Spieler> [Seite] pages through a player's snapshot history.
  */
 public class InventoryRestoreCommand implements CommandExecutor, TabCompleter {
 
+    private static final int PAGE_SIZE = 10;
+
     private final EventPlugin plugin;
 
     public InventoryRestoreCommand(EventPlugin plugin) {
@@ -31,6 +34,10 @@ public class InventoryRestoreCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length >= 2 && args[0].equalsIgnoreCase("list")) {
+            return handleList(sender, label, args);
+        }
+
         if (!(sender instanceof Player)) {
             MessageUtil.error(sender, "Nur Spieler können Inventare wiederherstellen.");
             return true;
@@ -116,12 +123,19 @@ public class InventoryRestoreCommand implements CommandExecutor, TabCompleter {
             }
         }
 
-        boolean ok = InventorySnapshotStorage.restoreByInventoryId(plugin, idArg);
-        if (!ok) {
-            MessageUtil.error(player, "Wiederherstellung fehlgeschlagen. Ist der Zielspieler online?");
-            return true;
-        }
+        // Payload wird asynchron gelesen; Rückmeldung erst, wenn das Inventar gesetzt ist
+        InventorySnapshotStorage.restoreByInventoryIdAsync(plugin, idArg).thenAccept(ok -> {
+            if (!player.isOnline()) return;
+            if (!ok) {
+                MessageUtil.error(player, "Wiederherstellung fehlgeschlagen. Ist der Zielspieler online?");
+                return;
+            }
+            sendRestored(player, idArg, meta, ownerUuid);
+        });
+        return true;
+    }
 
+    private void sendRestored(Player player, String idArg, Map<String, Object> meta, String ownerUuid) {
         String world = String.valueOf(meta.getOrDefault("world", "unbekannt"));
         String group = String.valueOf(meta.getOrDefault("group", ""));
         String eventMatchId = String.valueOf(meta.getOrDefault("event_match_id", ""));
@@ -143,23 +157,68 @@ public class InventoryRestoreCommand implements CommandExecutor, TabCompleter {
         if (!when.isEmpty()) {
             MessageUtil.sendMessage(player, "&7Gespeichert am: &e" + when + (ownerName.isEmpty() ? "" : " &7von &e" + ownerName));
         }
+    }
+
+    /** /inventoryrestore list <Spieler> [Seite] */
+    private boolean handleList(CommandSender sender, String label, String[] args) {
+        if (!sender.hasPermission("eventpvp.inventory.restore")) {
+            MessageUtil.error(sender, "Dir fehlt die Berechtigung: eventpvp.inventory.restore");
+            return true;
+        }
+        String targetName = args[1].trim();
+        int page = 1;
+        if (args.length >= 3) {
+            try {
+                page = Math.max(1, Integer.parseInt(args[2].trim()));
+            } catch (NumberFormatException e) {
+                MessageUtil.error(sender, "Nutze: /" + label + " list <Spieler> [Seite]");
+                return true;
+            }
+        }
+
+        // Nur der Snapshot-Index: keine blockierende Namensauflösung über Bukkit/Mojang
+        java.util.UUID targetUuid = InventorySnapshotStorage.findSnapshotOwnerUuidByName(plugin, targetName);
+        if (targetUuid == null) {
+            MessageUtil.error(sender, "Spieler \"" + targetName + "\" hat keine Snapshots.");
+            return true;
+        }
+        boolean self = sender instanceof Player && ((Player) sender).getUniqueId().equals(targetUuid);
+        if (!(self || sender.isOp() || sender.hasPermission("eventpvp.inventory.restore.any"))) {
+            MessageUtil.error(sender, "Du darfst nur deine eigenen Inventare einsehen.");
+            return true;
+        }
+
+        int total = InventorySnapshotStorage.countSnapshotsForPlayer(plugin, targetUuid);
+        int pages = Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        if (page > pages) page = pages;
+        List<Map<String, Object>> entries = InventorySnapshotStorage.listSnapshotsForPlayer(plugin, targetUuid, page, PAGE_SIZE);
+
+        String name = InventorySnapshotStorage.getLastKnownName(plugin, targetUuid);
+        MessageUtil.sendMessage(sender, "&6Snapshots von &e" + (name != null ? name : targetName)
+                + " &7(" + total + ", Seite " + page + "/" + pages + ")");
+        for (Map<String, Object> e : entries) {
+            String eventMatchId = String.valueOf(e.getOrDefault("event_match_id", ""));
+            MessageUtil.sendMessage(sender, String.format(Locale.ROOT, "&e#%s &7%s &f%s &7%s/%s%s",
+                    e.get("inventory_id"), e.get("created_at"), e.get("world"), e.get("kind"), e.get("reason"),
+                    eventMatchId.isEmpty() ? "" : " &8[" + eventMatchId + "]"));
+        }
+        if (page < pages) {
+            MessageUtil.sendMessage(sender, "&7Weiter: &e/" + label + " list " + targetName + " " + (page + 1));
+        }
         return true;
     }
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        // Alle Vorschläge kommen aus dem Snapshot-Index im Speicher (keine Datei-/DB-Zugriffe)
         try {
             if (args.length == 1) {
                 String prefix = args[0].toLowerCase(Locale.ROOT);
                 java.util.Set<java.util.UUID> uuids = InventorySnapshotStorage.listPlayerUuidsWithSnapshots(plugin);
                 java.util.List<String> names = new java.util.ArrayList<>();
+                names.add("list");
                 for (java.util.UUID id : uuids) {
-                    String name = null;
-                    OfflinePlayer op = Bukkit.getOfflinePlayer(id);
-                    if (op != null && op.getName() != null) name = op.getName();
-                    if (name == null || name.isEmpty()) {
-                        name = InventorySnapshotStorage.getLastKnownName(plugin, id);
-                    }
+                    String name = InventorySnapshotStorage.getLastKnownName(plugin, id);
                     if (name != null && !name.isEmpty()) names.add(name);
                 }
                 // also allow direct ID entry: suggest recent 4-digit IDs from own snapshots
@@ -171,20 +230,24 @@ public class InventoryRestoreCommand implements CommandExecutor, TabCompleter {
                 }
                 return filtered;
             } else if (args.length == 2) {
-                String playerName = args[0];
-                java.util.UUID targetUuid = null;
-                OfflinePlayer off = Bukkit.getOfflinePlayer(playerName);
-                if (off != null && off.getUniqueId() != null) targetUuid = off.getUniqueId();
-                if (targetUuid == null) targetUuid = InventorySnapshotStorage.findSnapshotOwnerUuidByName(plugin, playerName);
-                java.util.List<String> ids = targetUuid != null ? InventorySnapshotStorage.listInventoryIdsForPlayer(plugin, targetUuid) : java.util.Collections.emptyList();
                 String prefix = args[1].toLowerCase(Locale.ROOT);
+                java.util.List<String> candidates = new java.util.ArrayList<>();
+                if (args[0].equalsIgnoreCase("list")) {
+                    for (java.util.UUID id : InventorySnapshotStorage.listPlayerUuidsWithSnapshots(plugin)) {
+                        String name = InventorySnapshotStorage.getLastKnownName(plugin, id);
+                        if (name != null && !name.isEmpty()) candidates.add(name);
+                    }
+                } else {
+                    java.util.UUID targetUuid = InventorySnapshotStorage.findSnapshotOwnerUuidByName(plugin, args[0]);
+                    if (targetUuid != null) candidates.addAll(InventorySnapshotStorage.listInventoryIdsForPlayer(plugin, targetUuid));
+                }
                 java.util.List<String> filtered = new java.util.ArrayList<>();
-                for (String id : ids) {
-                    if (id.toLowerCase(Locale.ROOT).startsWith(prefix)) filtered.add(id);
+                for (String c : candidates) {
+                    if (c.toLowerCase(Locale.ROOT).startsWith(prefix)) filtered.add(c);
                 }
                 return filtered;
             }
         } catch (Exception ignored) {}
         return Collections.emptyList();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package de.zfzfg.eventplugin.listeners;
+
+import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.world.PlayerStateCache;
+import de.zfzfg.eventplugin.world.WorldRoleIndex;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The plugin's only PlayerMoveEvent handler.
+ * <p>
+ * Filters out moves within the same block, then resolves the player state and
+ * the role of the target world once and passes them to the registered modules
+ * (world access, arena boundaries, void rescue) that declare interest. Each
+ * module has call and time counters for profiling. Dispatch stops once a
+ * module redirects the move (setTo, e.g. pushback) or cancels it.
+ */
+public class MoveDispatcher implements Listener {
+
+    /** One consumer of block-crossing moves. */
+    public interface Module {
+        /** Short name for the counters. */
+        String getName();
+
+        /** Cheap pre-check; only interested modules are called and timed. */
+        boolean wantsMove(PlayerStateCache.State state, WorldRoleIndex.Entry toEntry);
+
+        void handleMove(PlayerMoveEvent event, Player player, PlayerStateCache.State state, WorldRoleIndex.Entry toEntry);
+    }
+
+    private static final class Slot {
+        final Module module;
+        // Nur vom Main-Thread geschrieben; Leser tolerieren leicht veraltete Werte
+        volatile long calls;
+        volatile long nanos;
+        volatile long maxNanos;
+
+        Slot(Module module) {
+            this.module = module;
+        }
+    }
+
+    private final EventPlugin plugin;
+    private volatile Slot[] slots = new Slot[0];
+    private volatile long moves;
+    private volatile long blockMoves;
+
+    public MoveDispatcher(EventPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** Add a module; modules run in registration order. */
+    public synchronized void register(Module module) {
+        List<Slot> next = new ArrayList<>(Arrays.asList(slots));
+        next.add(new Slot(module));
+        slots = next.toArray(new Slot[0]);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        moves++;
+        Location to = event.getTo();
+        Location from = event.getFrom();
+        if (to == null || (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ())) {
+            return;
+        }
+        blockMoves++;
+
+        Player player = event.getPlayer();
+        PlayerStateCache.State state = plugin.getPlayerStateCache().get(player);
+        WorldRoleIndex.Entry toEntry = plugin.getWorldRoleIndex().lookup(to.getWorld());
+
+        boolean cancelledBefore = event.isCancelled();
+        for (Slot slot : slots) {
+            if (!slot.module.wantsMove(state, toEntry)) continue;
+            long start = System.nanoTime();
+            try {
+                slot.module.handleMove(event, player, state, toEntry);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Move-Modul '" + slot.module.getName() + "' fehlgeschlagen: " + e.getMessage());
+            }
+            long took = System.nanoTime() - start;
+            slot.calls++;
+            slot.nanos += took;
+            if (took > slot.maxNanos) slot.maxNanos = took;
+            if (event.getTo() != to || event.isCancelled() != cancelledBefore) break;
+        }
+    }
+
+    /** Counters per module plus the totals, for debug output. */
+    public Map<String, Object> metrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("moves", moves);
+        m.put("block_moves", blockMoves);
+        for (Slot slot : slots) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("calls", slot.calls);
+            s.put("total_us", slot.nanos / 1000L);
+            s.put("avg_us", slot.calls > 0 ? (slot.nanos / slot.calls) / 1000.0 : 0.0);
+            s.put("max_us", slot.maxNanos / 1000L);
+            m.put(slot.module.getName(), s);
+        }
+        return m;
+    }
+}
@@ -1,10 +1,10 @@
 package de.zfzfg.eventplugin.listeners;
 
 import de.zfzfg.eventplugin.EventPlugin;
-import de.zfzfg.eventplugin.manager.TeamManager;
 import de.zfzfg.eventplugin.model.EventConfig;
 import de.zfzfg.eventplugin.session.EventSession;
 import de.zfzfg.eventplugin.util.ColorUtil;
+import de.zfzfg.eventplugin.world.CombatContext;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
@@ -12,8 +12,6 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 
-import java.util.Optional;
-
 public class TeamPvPListener implements Listener {
     
     private final EventPlugin plugin;
@@ -47,25 +45,25 @@ public class TeamPvPListener implements Listener {
             return;
         }
         
-        // Prüfe ob beide Spieler in einem Event sind
-        Optional<EventSession> attackerSession = plugin.getEventManager().getPlayerSession(attacker);
-        Optional<EventSession> victimSession = plugin.getEventManager().getPlayerSession(victim);
-        
-        if (!attackerSession.isPresent() || !victimSession.isPresent()) {
-            return;
-        }
+        // Gemeinsame Session und Team-Beziehung in einem Schritt
+        CombatContext combat = plugin.getPlayerStateCache().combat(attacker, victim);
+        EventSession session = combat.getSession();
         
-        // Prüfe ob es das gleiche Event ist
-        if (!attackerSession.get().equals(victimSession.get())) {
+        // Beide Spieler im gleichen Event?
+        if (session == null) {
             return;
         }
         
-        EventSession session = attackerSession.get();
-        
         // Prüfe ob das Event läuft
         if (session.getState() != EventSession.EventState.RUNNING) {
             return;
         }
+
+        // Noch nicht alle Teilnehmer platziert und ausgerüstet: kein Kampf
+        if (!session.isCombatOpen()) {
+            event.setCancelled(true);
+            return;
+        }
         
         // Prüfe ob es ein Team-Event ist
         EventConfig.GameMode gameMode = session.getConfig().getGameMode();
@@ -73,12 +71,6 @@ public class TeamPvPListener implements Listener {
             return;
         }
         
-        // Hole TeamManager
-        TeamManager teamManager = session.getTeamManager();
-        if (teamManager == null) {
-            return;
-        }
-        
         // Prüfe Friendly-Fire Einstellung
         EventConfig.TeamSettings teamSettings = session.getConfig().getTeamSettings();
         if (teamSettings == null || teamSettings.isFriendlyFire()) {
@@ -86,17 +78,14 @@ public class TeamPvPListener implements Listener {
         }
         
         // Prüfe ob beide Spieler im gleichen Team sind
-        if (teamManager.areTeammates(attacker, victim)) {
+        if (combat.areTeammates()) {
             event.setCancelled(true);
             
             // Sende Nachricht an Angreifer
-            TeamManager.Team team = teamManager.getPlayerTeam(attacker);
-            if (team != null) {
-                attacker.sendMessage(ColorUtil.color(
-                    plugin.getConfigManager().getPrefix() + 
-                    " &cDu kannst deine Teammitglieder nicht angreifen!"
-                ));
-            }
+            attacker.sendMessage(ColorUtil.color(
+                plugin.getConfigManager().getPrefix() + 
+                " &cDu kannst deine Teammitglieder nicht angreifen!"
+            ));
         }
     }
 }
\ No newline at end of file
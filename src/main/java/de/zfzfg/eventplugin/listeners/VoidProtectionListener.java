@@ -2,9 +2,10 @@ package de.zfzfg.eventplugin.listeners;
 
 import de.zfzfg.eventplugin.EventPlugin;
 import de.zfzfg.eventplugin.session.EventSession;
+import de.zfzfg.eventplugin.world.PlayerStateCache;
+import de.zfzfg.eventplugin.world.WorldRoleIndex;
 import de.zfzfg.pvpwager.models.Match;
 import de.zfzfg.pvpwager.models.MatchState;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -14,9 +15,9 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 
-import java.util.Optional;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * KRITISCHER SCHUTZ: Verhindert Inventar-Verlust durch Void-Fall
@@ -30,12 +31,13 @@ import java.util.concurrent.ConcurrentHashMap;
  * Das ist ein Failsafe für den Fall, dass die Welt entladen wird,
  * während ein Spieler noch im Event/Match registriert ist.
  */
-public class VoidProtectionListener implements Listener {
+public class VoidProtectionListener implements Listener, MoveDispatcher.Module {
     
     private final EventPlugin plugin;
     
-    // Cooldown um Spam zu verhindern (1 Teleport pro 2 Sekunden)
-    private final ConcurrentHashMap<UUID, Long> teleportCooldowns = new ConcurrentHashMap<>();
+    // Cooldown um Spam zu verhindern (1 Teleport pro 2 Sekunden); Einfügereihenfolge = Ablaufreihenfolge,
+    // abgelaufene Einträge werden beim nächsten Einfügen vorne abgeschnitten (kein periodisches Aufräumen nötig)
+    private final LinkedHashMap<UUID, Long> teleportCooldowns = new LinkedHashMap<>();
     private static final long COOLDOWN_MS = 2000;
     
     // Y-Koordinate unter der als "Void-Gefahr" gilt
@@ -66,31 +68,36 @@ public class VoidProtectionListener implements Listener {
         rescuePlayer(player, "Void-Schaden in falscher Welt erkannt");
     }
     
+    @Override
+    public String getName() {
+        return "void-rescue";
+    }
+
+    @Override
+    public boolean wantsMove(PlayerStateCache.State state, WorldRoleIndex.Entry toEntry) {
+        // Nur Spieler in Event/Match können Schutz benötigen
+        return !state.isIdle();
+    }
+
     /**
-     * Überwacht Spielerbewegung NUR wenn in falscher Welt.
+     * Überwacht Spielerbewegung NUR wenn in falscher Welt (über MoveDispatcher, nur Block-Wechsel).
      */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onPlayerMove(PlayerMoveEvent event) {
+    @Override
+    public void handleMove(PlayerMoveEvent event, Player player, PlayerStateCache.State state, WorldRoleIndex.Entry toEntry) {
         Location to = event.getTo();
-        if (to == null) return;
         
-        Player player = event.getPlayer();
+        // Erst die billige Höhenprüfung, dann die Zuordnung zu Event/Match
+        World world = to.getWorld();
+        if (world != null && to.getY() >= world.getMinHeight() + VOID_DANGER_Y_OFFSET) return;
         
-        // Prüfe ob Spieler Schutz benötigt
         if (!needsVoidProtection(player)) return;
         
-        // Prüfe ob Spieler in Void-Gefahr ist
-        World world = to.getWorld();
         if (world == null) {
             // Welt existiert nicht mehr - sofortige Rettung!
             rescuePlayer(player, "Welt nicht mehr geladen");
             return;
         }
-        
-        double minY = world.getMinHeight();
-        if (to.getY() < minY + VOID_DANGER_Y_OFFSET) {
-            rescuePlayer(player, "Unter Void-Grenze in falscher Welt");
-        }
+        rescuePlayer(player, "Unter Void-Grenze in falscher Welt");
     }
     
     /**
@@ -105,43 +112,30 @@ public class VoidProtectionListener implements Listener {
      * - Spieler nicht in Event/Match ist
      */
     private boolean needsVoidProtection(Player player) {
-        String currentWorldName = player.getWorld() != null ? player.getWorld().getName() : null;
-        if (currentWorldName == null) return true; // Welt null = definitiv Schutz nötig
+        PlayerStateCache.State cached = plugin.getPlayerStateCache().get(player);
+        if (cached.isIdle()) return false; // weder Event noch Match
+        World current = player.getWorld();
+        if (current == null) return true; // Welt null = definitiv Schutz nötig
+        // Die aktuelle Welt ist geladen; ob sie zum Event/Match des Spielers gehört, sagt der Index
+        WorldRoleIndex.Entry entry = plugin.getWorldRoleIndex().lookup(current);
         
         // Event-Prüfung
-        Optional<EventSession> sessionOpt = plugin.getEventManager().getPlayerSession(player);
-        if (sessionOpt.isPresent()) {
-            EventSession session = sessionOpt.get();
+        EventSession session = cached.getSession();
+        if (session != null) {
             EventSession.EventState state = session.getState();
             
             // Nur während aktiver Event-Phasen prüfen
             if (state == EventSession.EventState.JOIN_PHASE ||
                 state == EventSession.EventState.COUNTDOWN ||
                 state == EventSession.EventState.RUNNING) {
-                
-                String eventWorld = session.getConfig().getEventWorld();
-                String lobbyWorld = session.getConfig().getLobbyWorld();
-                
-                // Prüfe ob Event/Lobby-Welten noch existieren
-                World eventW = eventWorld != null ? Bukkit.getWorld(eventWorld) : null;
-                World lobbyW = lobbyWorld != null ? Bukkit.getWorld(lobbyWorld) : null;
-                
-                // Wenn Spieler IN der korrekten Welt ist -> KEIN Schutz (Void-Tod erlaubt)
-                if (currentWorldName.equals(eventWorld) && eventW != null) {
-                    return false; // In Event-Welt, kein Schutz nötig
-                }
-                if (currentWorldName.equals(lobbyWorld) && lobbyW != null) {
-                    return false; // In Lobby-Welt, kein Schutz nötig
-                }
-                
-                // Spieler ist im Event registriert, aber NICHT in korrekter Welt
-                // -> SCHUTZ AKTIVIEREN
-                return true;
+                // In Event- oder Lobby-Welt der eigenen Session -> KEIN Schutz (Void-Tod erlaubt),
+                // sonst ist der Spieler registriert, aber in der falschen Welt -> SCHUTZ
+                return entry == null || !entry.hasSession(session);
             }
         }
         
         // PvP-Match-Prüfung
-        Match match = plugin.getMatchManager().getMatchByPlayer(player);
+        Match match = cached.getMatch();
         if (match != null) {
             MatchState state = match.getState();
             
@@ -149,23 +143,8 @@ public class VoidProtectionListener implements Listener {
             if (state == MatchState.SETUP || 
                 state == MatchState.STARTING || 
                 state == MatchState.FIGHTING) {
-                
-                String arenaWorldName = null;
-                if (match.getArena() != null) {
-                    arenaWorldName = match.getArena().getArenaWorld();
-                }
-                
-                // Prüfe ob Arena-Welt noch existiert
-                World arenaW = arenaWorldName != null ? Bukkit.getWorld(arenaWorldName) : null;
-                
-                // Wenn Spieler IN der Arena-Welt ist -> KEIN Schutz (Void-Tod erlaubt)
-                if (arenaWorldName != null && currentWorldName.equals(arenaWorldName) && arenaW != null) {
-                    return false; // In Arena-Welt, kein Schutz nötig
-                }
-                
-                // Spieler ist im Match registriert, aber NICHT in korrekter Welt
-                // -> SCHUTZ AKTIVIEREN
-                return true;
+                // In der Arena-Welt des eigenen Matches -> KEIN Schutz (Void-Tod erlaubt)
+                return entry == null || !entry.hasMatch(match);
             }
         }
         
@@ -181,14 +160,13 @@ public class VoidProtectionListener implements Listener {
         UUID playerId = player.getUniqueId();
         
         // Cooldown prüfen
-        Long lastTeleport = teleportCooldowns.get(playerId);
-        long now = System.currentTimeMillis();
-        if (lastTeleport != null && (now - lastTeleport) < COOLDOWN_MS) {
+        if (!tryAcquireCooldown(playerId, System.currentTimeMillis())) {
             return;
         }
-        teleportCooldowns.put(playerId, now);
         
-        Location safeLocation = findSafeLocation(player);
+        // Rettungspunkte wurden beim Event-/Match-Beitritt vorbereitet (SafeLocationCache):
+        // 1. Gespeicherter Original-Standort bzw. Match-Original-Location, 2. Lobby-Spawn, 3. Hauptwelt-Spawn
+        Location safeLocation = plugin.getSafeLocationCache().find(playerId);
         
         if (safeLocation != null) {
             plugin.getLogger().warning("[VoidProtection] " + player.getName() + 
@@ -213,76 +191,18 @@ public class VoidProtectionListener implements Listener {
     }
     
     /**
-     * Findet einen sicheren Standort für den Spieler.
-     * Priorität:
-     * 1. Gespeicherter Original-Standort (vor Event/Match)
-     * 2. Match Original-Location
-     * 3. Hauptwelt-Spawn
+     * Setzt den Cooldown, falls keiner aktiv ist. Alle Einträge haben dieselbe Dauer,
+     * daher liegen die abgelaufenen immer vorne in der Map.
      */
-    private Location findSafeLocation(Player player) {
-        UUID playerId = player.getUniqueId();
-        
-        // 1. Event: Gespeicherter Original-Standort
-        Location eventSaved = plugin.getEventManager().getSavedLocation(playerId);
-        if (eventSaved != null && isLocationSafe(eventSaved)) {
-            return eventSaved;
+    private synchronized boolean tryAcquireCooldown(UUID playerId, long now) {
+        Iterator<Long> it = teleportCooldowns.values().iterator();
+        while (it.hasNext() && now - it.next() >= COOLDOWN_MS) {
+            it.remove();
         }
-        
-        // 2. PvP-Match: Original-Location
-        Match match = plugin.getMatchManager().getMatchByPlayer(player);
-        if (match != null) {
-            Location matchOrigin = match.getOriginalLocations().get(playerId);
-            if (matchOrigin != null && isLocationSafe(matchOrigin)) {
-                return matchOrigin;
-            }
+        if (teleportCooldowns.containsKey(playerId)) {
+            return false;
         }
-        
-        // 3. Hauptwelt-Spawn
-        return getMainWorldSpawn();
-    }
-    
-    /**
-     * Prüft ob eine Location sicher ist.
-     */
-    private boolean isLocationSafe(Location loc) {
-        if (loc == null || loc.getWorld() == null) return false;
-        
-        String worldName = loc.getWorld().getName();
-        World world = Bukkit.getWorld(worldName);
-        if (world == null) return false;
-        
-        double minY = world.getMinHeight();
-        if (loc.getY() < minY + 5) return false;
-        
+        teleportCooldowns.put(playerId, now);
         return true;
     }
-    
-    /**
-     * Gibt den Spawn der Hauptwelt zurück.
-     */
-    private Location getMainWorldSpawn() {
-        String mainWorldName = plugin.getConfigManager().getMainWorld();
-        World mainWorld = mainWorldName != null ? Bukkit.getWorld(mainWorldName) : null;
-        
-        if (mainWorld == null && !Bukkit.getWorlds().isEmpty()) {
-            mainWorld = Bukkit.getWorlds().get(0);
-        }
-        
-        if (mainWorld != null) {
-            return mainWorld.getSpawnLocation();
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Bereinigt Cooldowns für offline Spieler.
-     * Sollte periodisch aufgerufen werden.
-     */
-    public void cleanupCooldowns() {
-        long now = System.currentTimeMillis();
-        teleportCooldowns.entrySet().removeIf(entry -> 
-            (now - entry.getValue()) > COOLDOWN_MS * 10 ||
-            Bukkit.getPlayer(entry.getKey()) == null);
-    }
 }
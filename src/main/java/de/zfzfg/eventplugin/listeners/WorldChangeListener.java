@@ -1,7 +1,10 @@
 package de.zfzfg.eventplugin.listeners;
 
+import de.zfzfg.core.security.Permission;
 import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.manager.ConfigManager;
 import de.zfzfg.eventplugin.session.EventSession;
+import de.zfzfg.eventplugin.world.WorldRoleIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -14,7 +17,7 @@ import org.bukkit.Location;
 
 import java.util.Optional;
 
-public class WorldChangeListener implements Listener {
+public class WorldChangeListener implements Listener, MoveDispatcher.Module {
     
     private final EventPlugin plugin;
     
@@ -48,160 +51,94 @@ public class WorldChangeListener implements Listener {
     @EventHandler
     public void onCommandPreprocess(PlayerCommandPreprocessEvent event) {
         Player player = event.getPlayer();
-        String command = event.getMessage().toLowerCase();
-        
-        Optional<EventSession> sessionOpt = plugin.getEventManager().getPlayerSession(player);
-        
-        if (sessionOpt.isPresent()) {
-            EventSession session = sessionOpt.get();
-            
-            // Prüfe ob Spieler in Event-Welt oder Lobby-Welt ist
-            String eventWorldName = session.getConfig().getEventWorld();
-            String lobbyWorldName = session.getConfig().getLobbyWorld();
-            String currentWorld = player.getWorld().getName();
-            
-            // Hole Command-Restriction Setting
-            String restriction = plugin.getConfigManager().getCommandRestriction();
-            
-            boolean shouldBlock = false;
-            
-            // Prüfe basierend auf Einstellung
-            switch (restriction.toLowerCase()) {
-                case "both":
-                    shouldBlock = currentWorld.equals(eventWorldName) || currentWorld.equals(lobbyWorldName);
-                    break;
-                case "event":
-                    shouldBlock = currentWorld.equals(eventWorldName);
-                    break;
-                case "lobby":
-                    shouldBlock = currentWorld.equals(lobbyWorldName);
-                    break;
-                case "none":
-                    shouldBlock = false;
-                    break;
-                default:
-                    shouldBlock = currentWorld.equals(eventWorldName) || currentWorld.equals(lobbyWorldName);
-                    break;
-            }
-            
-            if (shouldBlock) {
-                // OP/Bypass erlaubt alle Befehle
-                if (player.isOp() || player.hasPermission("eventpvp.opbypass")) {
-                    return;
-                }
-                // Nur /event leave erlauben (und Aliases)
-                if (!command.startsWith("/event leave") && 
-                    !command.startsWith("/ev leave") && 
-                    !command.startsWith("/events leave")) {
-                    
-                    event.setCancelled(true);
-                    player.sendMessage(org.bukkit.ChatColor.RED + "Commands sind während des Events gesperrt! Nutze /event leave um das Event zu verlassen.");
-                }
-            }
+        EventSession session = plugin.getPlayerStateCache().get(player).getSession();
+        if (session == null) return;
+
+        // Prüfe ob Spieler in Event-Welt oder Lobby-Welt ist (Modus beim Config-Laden aufgelöst)
+        ConfigManager.CommandRestriction restriction = plugin.getConfigManager().getCommandRestrictionMode();
+        if (restriction == ConfigManager.CommandRestriction.NONE) return;
+        String currentWorld = player.getWorld().getName();
+        boolean inEventWorld = currentWorld.equals(session.getConfig().getEventWorld());
+        boolean inLobbyWorld = currentWorld.equals(session.getConfig().getLobbyWorld());
+        boolean shouldBlock;
+        switch (restriction) {
+            case EVENT: shouldBlock = inEventWorld; break;
+            case LOBBY: shouldBlock = inLobbyWorld; break;
+            default: shouldBlock = inEventWorld || inLobbyWorld; break;
         }
-    }
+        if (!shouldBlock) return;
 
-    @EventHandler
-    public void onPlayerMove(PlayerMoveEvent event) {
-        Player player = event.getPlayer();
-        Location to = event.getTo();
-        Location from = event.getFrom();
-        if (to == null || (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ())) {
+        // Whitelist des Events (u.a. /event leave samt Aliases)
+        if (plugin.getConfigManager().getCommandMatcher(session.getConfig().getId()).matches(event.getMessage())) {
             return;
         }
-
-        // Enforce presence rules only when worlds are loaded
-        Optional<EventSession> sessionOpt = plugin.getEventManager().getPlayerSession(player);
-        if (!sessionOpt.isPresent()) {
-            // No player-bound session; still enforce if entering configured event/lobby worlds globally
-            enforceWorldAccess(player);
+        // OP/Bypass erlaubt alle Befehle
+        if (plugin.getPermissionCache().isOpOrHas(player, Permission.BYPASS_COMMANDS)) {
             return;
         }
+        event.setCancelled(true);
+        player.sendMessage(org.bukkit.ChatColor.RED + "Commands sind während des Events gesperrt! Nutze /event leave um das Event zu verlassen.");
+    }
+
+    @Override
+    public String getName() {
+        return "world-access";
+    }
 
-        enforceWorldAccess(player);
+    @Override
+    public boolean wantsMove(de.zfzfg.eventplugin.world.PlayerStateCache.State state, WorldRoleIndex.Entry toEntry) {
+        // Welten ohne Event-Bezug (der Normalfall) interessieren nicht
+        return toEntry != null && !toEntry.getSessions().isEmpty();
+    }
+
+    // Über MoveDispatcher: nur Block-Wechsel in Event-/Lobby-Welten
+    @Override
+    public void handleMove(PlayerMoveEvent event, Player player, de.zfzfg.eventplugin.world.PlayerStateCache.State state, WorldRoleIndex.Entry entry) {
+        if (mustLeave(player, entry.getSessions().get(0))) {
+            player.teleport(mainWorldSpawn());
+            player.sendMessage(org.bukkit.ChatColor.RED + "Du darfst diese Welt derzeit nicht betreten. Du wurdest zum Spawn teleportiert.");
+        }
     }
 
     @EventHandler
     public void onPlayerTeleport(PlayerTeleportEvent event) {
-        Player player = event.getPlayer();
         Location to = event.getTo();
         if (to == null || to.getWorld() == null) return;
 
-        String targetWorld = to.getWorld().getName();
-        for (EventSession session : plugin.getEventManager().getActiveSessions().values()) {
-            String eventWorldName = session.getConfig().getEventWorld();
-            String lobbyWorldName = session.getConfig().getLobbyWorld();
-            if (org.bukkit.Bukkit.getWorld(eventWorldName) == null && org.bukkit.Bukkit.getWorld(lobbyWorldName) == null) {
-                continue;
-            }
-            boolean intoRestricted = targetWorld.equals(eventWorldName) || targetWorld.equals(lobbyWorldName);
-            if (!intoRestricted) continue;
-
-            de.zfzfg.pvpwager.models.Match match = plugin.getMatchManager().getMatchByPlayer(player);
-            boolean inActiveMatch = match != null && match.getState() == de.zfzfg.pvpwager.models.MatchState.FIGHTING;
-            if (inActiveMatch) return;
+        WorldRoleIndex.Entry entry = plugin.getWorldRoleIndex().lookup(to.getWorld());
+        if (entry == null || entry.getSessions().isEmpty()) return;
 
-            if (player.isOp() || player.hasPermission("eventpvp.opbypass") || player.hasPermission("eventpvp.world.access")) {
-                return;
-            }
-
-            de.zfzfg.eventplugin.session.EventSession.EventState state = session.getState();
-            boolean eventActive = state == de.zfzfg.eventplugin.session.EventSession.EventState.JOIN_PHASE ||
-                                  state == de.zfzfg.eventplugin.session.EventSession.EventState.COUNTDOWN ||
-                                  state == de.zfzfg.eventplugin.session.EventSession.EventState.RUNNING;
-            if (!eventActive) {
-                org.bukkit.World mainWorld = org.bukkit.Bukkit.getWorld(plugin.getConfigManager().getMainWorld());
-                org.bukkit.Location target = (mainWorld != null) ? mainWorld.getSpawnLocation() : org.bukkit.Bukkit.getWorlds().get(0).getSpawnLocation();
-                event.setTo(target);
-                player.sendMessage(org.bukkit.ChatColor.RED + "Du darfst diese Welt derzeit nicht betreten. Du wurdest zum Spawn teleportiert.");
-            }
-            return;
+        Player player = event.getPlayer();
+        if (mustLeave(player, entry.getSessions().get(0))) {
+            event.setTo(mainWorldSpawn());
+            player.sendMessage(org.bukkit.ChatColor.RED + "Du darfst diese Welt derzeit nicht betreten. Du wurdest zum Spawn teleportiert.");
         }
     }
 
-    private void enforceWorldAccess(Player player) {
-        // Resolve event/lobby worlds from any active session that references the player's current world
-        String currentWorld = player.getWorld().getName();
-
-        for (EventSession session : plugin.getEventManager().getActiveSessions().values()) {
-            String eventWorldName = session.getConfig().getEventWorld();
-            String lobbyWorldName = session.getConfig().getLobbyWorld();
-
-            // Listener only active if worlds are loaded
-            if (org.bukkit.Bukkit.getWorld(eventWorldName) == null && org.bukkit.Bukkit.getWorld(lobbyWorldName) == null) {
-                continue;
-            }
-
-            boolean inEventOrLobby = currentWorld.equals(eventWorldName) || currentWorld.equals(lobbyWorldName);
-            if (!inEventOrLobby) {
-                continue;
-            }
+    /**
+     * Event/Lobby-Welt einer Session: Zugang nur während aktiver Event-Phasen
+     * (JOIN_PHASE/COUNTDOWN/RUNNING), in einem laufenden PvP-Match oder mit Bypass.
+     */
+    private boolean mustLeave(Player player, EventSession session) {
+        de.zfzfg.eventplugin.world.PlayerStateCache.State cached = plugin.getPlayerStateCache().get(player);
+        de.zfzfg.pvpwager.models.Match match = cached.getMatch();
+        if (match != null && match.getState() == de.zfzfg.pvpwager.models.MatchState.FIGHTING) {
+            return false;
+        }
 
-            // Allow if player is in an active PvP match in these worlds
-            de.zfzfg.pvpwager.models.Match match = plugin.getMatchManager().getMatchByPlayer(player);
-            boolean inActiveMatch = match != null && match.getState() == de.zfzfg.pvpwager.models.MatchState.FIGHTING;
-            if (inActiveMatch) {
-                return;
-            }
+        EventSession.EventState state = session.getState();
+        if (state == EventSession.EventState.JOIN_PHASE ||
+            state == EventSession.EventState.COUNTDOWN ||
+            state == EventSession.EventState.RUNNING) {
+            return false;
+        }
 
-            // Allow staff with bypass or explicit world access
-            if (player.isOp() || player.hasPermission("eventpvp.opbypass") || player.hasPermission("eventpvp.world.access")) {
-                return;
-            }
+        // Bypass-Berechtigungen aus dem Berechtigungs-Cache
+        return !plugin.getPermissionCache().isOpOrHas(player, Permission.BYPASS_COMMANDS, Permission.WORLD_ACCESS);
+    }
 
-            // Only enforce when event not active (JOIN_PHASE/COUNTDOWN/RUNNING considered active)
-            de.zfzfg.eventplugin.session.EventSession.EventState state = session.getState();
-            boolean eventActive = state == de.zfzfg.eventplugin.session.EventSession.EventState.JOIN_PHASE ||
-                                  state == de.zfzfg.eventplugin.session.EventSession.EventState.COUNTDOWN ||
-                                  state == de.zfzfg.eventplugin.session.EventSession.EventState.RUNNING;
-            if (!eventActive) {
-                // Teleport player to main-world spawn or first world spawn
-                org.bukkit.World mainWorld = org.bukkit.Bukkit.getWorld(plugin.getConfigManager().getMainWorld());
-                org.bukkit.Location target = (mainWorld != null) ? mainWorld.getSpawnLocation() : org.bukkit.Bukkit.getWorlds().get(0).getSpawnLocation();
-                player.teleport(target);
-                player.sendMessage(org.bukkit.ChatColor.RED + "Du darfst diese Welt derzeit nicht betreten. Du wurdest zum Spawn teleportiert.");
-            }
-            return;
-        }
+    private Location mainWorldSpawn() {
+        org.bukkit.World mainWorld = org.bukkit.Bukkit.getWorld(plugin.getConfigManager().getMainWorld());
+        return (mainWorld != null) ? mainWorld.getSpawnLocation() : org.bukkit.Bukkit.getWorlds().get(0).getSpawnLocation();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package de.zfzfg.eventplugin.manager;
 
+import de.zfzfg.core.util.CommandMatcher;
 import de.zfzfg.eventplugin.EventPlugin;
 import de.zfzfg.eventplugin.model.EventConfig;
 import de.zfzfg.eventplugin.model.EquipmentGroup;
@@ -10,7 +11,9 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class ConfigManager {
@@ -22,6 +25,8 @@ public class ConfigManager {
     private FileConfiguration messagesConfig;
     
     private Map<String, EventConfig> events;
+    // Pro Event kompilierte Befehls-Whitelist (inkl. plugin.yml-Aliases)
+    private volatile Map<String, CommandMatcher> commandMatchers = new HashMap<>();
     private Map<String, EquipmentGroup> equipmentGroups;
     private String prefix;
     private String mainWorld;
@@ -29,6 +34,10 @@ public class ConfigManager {
     private int joinPhaseDuration;
     private int lobbyCountdown;
     private String commandRestriction;
+    private CommandRestriction commandRestrictionMode = CommandRestriction.BOTH;
+
+    /** Where event participants are limited to the allowed commands. */
+    public enum CommandRestriction { BOTH, EVENT, LOBBY, NONE }
     private String worldLoading;  // NEU
     private boolean autoEventsEnabled;
     private int autoEventIntervalMin;
@@ -36,6 +45,17 @@ public class ConfigManager {
     private boolean autoEventRandomSelection;
     private boolean checkOnlinePlayers;
     private List<String> selectedAutoEvents;
+    private int statsFlushIntervalSeconds;
+    private int statsFlushThreshold;
+    private String storageType;
+    private String sqliteFile;
+    private int snapshotRetainDaysEvent;
+    private int snapshotRetainDaysPvpWager;
+    private int snapshotPruneIntervalMinutes;
+    private int snapshotSealAfterHours;
+    private boolean listenerProfilingEnabled;
+    private int listenerProfilingSampleRate;
+    private int workBudgetMillis;
     
     public ConfigManager(EventPlugin plugin) {
         this.plugin = plugin;
@@ -81,9 +101,39 @@ public class ConfigManager {
         joinPhaseDuration = validateRange("settings.join-phase-duration", joinPhaseDuration, 5, 600);
         lobbyCountdown = validateRange("settings.lobby-countdown", lobbyCountdown, 3, 300);
         commandRestriction = validateEnum("settings.command-restriction", commandRestriction, "both",
-                new String[]{"join", "lobby", "both"});
+                new String[]{"join", "event", "lobby", "both", "none"});
+        switch (commandRestriction) {
+            case "event": commandRestrictionMode = CommandRestriction.EVENT; break;
+            case "lobby": commandRestrictionMode = CommandRestriction.LOBBY; break;
+            case "none": commandRestrictionMode = CommandRestriction.NONE; break;
+            default: commandRestrictionMode = CommandRestriction.BOTH; break; // "both" und Alt-Wert "join"
+        }
         worldLoading = validateEnum("settings.world-loading", worldLoading, "both",
                 new String[]{"both", "clone", "load"});
+
+        statsFlushIntervalSeconds = validateRange("settings.stats.flush-interval-seconds",
+                config.getInt("settings.stats.flush-interval-seconds", 60), 5, 3600);
+        statsFlushThreshold = validateRange("settings.stats.flush-threshold",
+                config.getInt("settings.stats.flush-threshold", 200), 1, 100000);
+        storageType = validateEnum("settings.storage.type", config.getString("settings.storage.type", "yaml"), "yaml",
+                new String[]{"yaml", "sqlite"});
+        sqliteFile = config.getString("settings.storage.sqlite.file", "eventpvp.db");
+
+        int retainDays = validateRange("settings.inventory-snapshots.retain-days",
+                config.getInt("settings.inventory-snapshots.retain-days", 30), 1, 3650);
+        snapshotRetainDaysEvent = validateRange("settings.inventory-snapshots.retention.event-days",
+                config.getInt("settings.inventory-snapshots.retention.event-days", retainDays), 1, 3650);
+        snapshotRetainDaysPvpWager = validateRange("settings.inventory-snapshots.retention.pvpwager-days",
+                config.getInt("settings.inventory-snapshots.retention.pvpwager-days", retainDays), 1, 3650);
+        snapshotPruneIntervalMinutes = validateRange("settings.inventory-snapshots.retention.interval-minutes",
+                config.getInt("settings.inventory-snapshots.retention.interval-minutes", 60), 5, 1440);
+        snapshotSealAfterHours = validateRange("settings.inventory-snapshots.seal-after-hours",
+                config.getInt("settings.inventory-snapshots.seal-after-hours", 24), 1, 8760);
+        listenerProfilingEnabled = config.getBoolean("settings.profiling.listeners.enabled", false);
+        listenerProfilingSampleRate = validateRange("settings.profiling.listeners.sample-rate",
+                config.getInt("settings.profiling.listeners.sample-rate", 100), 1, 100000);
+        workBudgetMillis = validateRange("settings.performance.work-budget-ms",
+                config.getInt("settings.performance.work-budget-ms", 5), 1, 45);
         
         ConfigurationSection autoEvents = config.getConfigurationSection("settings.auto-events");
         if (autoEvents != null) {
@@ -172,6 +222,46 @@ public class ConfigManager {
             
             plugin.getLogger().info("Event geladen: " + eventId);
         }
+        compileCommandMatchers();
+    }
+
+    private void compileCommandMatchers() {
+        // Label -> alle Schreibweisen laut plugin.yml (Label, Aliases, jeweils mit Namespace)
+        String namespace = plugin.getName().toLowerCase(Locale.ROOT) + ":";
+        Map<String, List<String>> spellings = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> cmd : plugin.getDescription().getCommands().entrySet()) {
+            List<String> labels = new ArrayList<>();
+            labels.add(cmd.getKey().toLowerCase(Locale.ROOT));
+            Object aliases = cmd.getValue() != null ? cmd.getValue().get("aliases") : null;
+            if (aliases instanceof List) {
+                for (Object alias : (List<?>) aliases) labels.add(String.valueOf(alias).toLowerCase(Locale.ROOT));
+            } else if (aliases != null) {
+                labels.add(aliases.toString().toLowerCase(Locale.ROOT));
+            }
+            List<String> all = new ArrayList<>(labels);
+            for (String label : labels) all.add(namespace + label);
+            for (String label : labels) spellings.put(label, all);
+        }
+
+        Map<String, CommandMatcher> compiled = new HashMap<>();
+        for (EventConfig eventConfig : events.values()) {
+            LinkedHashSet<String> entries = new LinkedHashSet<>();
+            for (String allowed : eventConfig.getAllowedCommands()) {
+                String normalized = CommandMatcher.normalize(allowed);
+                if (normalized.isEmpty()) continue;
+                int space = normalized.indexOf(' ');
+                String label = space < 0 ? normalized : normalized.substring(0, space);
+                String rest = space < 0 ? "" : normalized.substring(space);
+                List<String> labels = spellings.get(label);
+                if (labels == null) {
+                    entries.add(normalized);
+                } else {
+                    for (String l : labels) entries.add(l + rest);
+                }
+            }
+            compiled.put(eventConfig.getId(), CommandMatcher.of(entries));
+        }
+        commandMatchers = compiled;
     }
     
     private void parseEquipment() {
@@ -241,6 +331,13 @@ public class ConfigManager {
     
     public void reloadConfigs() {
         loadConfigs();
+        // Aktivierung greift erst nach Neustart (Listener-Registrierung), die Abtastrate sofort
+        if (plugin.getListenerProfiler() != null) {
+            plugin.getListenerProfiler().setSampleRate(listenerProfilingSampleRate);
+        }
+        if (plugin.getTaskManager() != null) {
+            plugin.getTaskManager().setWorkBudgetMillis(workBudgetMillis);
+        }
     }
 
     /**
@@ -342,6 +439,16 @@ public class ConfigManager {
     public String getCommandRestriction() {
         return commandRestriction;
     }
+
+    public CommandRestriction getCommandRestrictionMode() {
+        return commandRestrictionMode;
+    }
+
+    /** Compiled allow-list of an event; empty (nothing allowed) for unknown ids. */
+    public CommandMatcher getCommandMatcher(String eventId) {
+        CommandMatcher matcher = commandMatchers.get(eventId);
+        return matcher != null ? matcher : CommandMatcher.EMPTY;
+    }
     
     public String getWorldLoading() {  // NEU
         return worldLoading;
@@ -371,6 +478,50 @@ public class ConfigManager {
         return new ArrayList<>(selectedAutoEvents);
     }
     
+    public int getStatsFlushIntervalSeconds() {
+        return statsFlushIntervalSeconds;
+    }
+    
+    public int getStatsFlushThreshold() {
+        return statsFlushThreshold;
+    }
+    
+    public String getStorageType() {
+        return storageType;
+    }
+    
+    public String getSqliteFile() {
+        return sqliteFile;
+    }
+    
+    public int getSnapshotRetainDaysEvent() {
+        return snapshotRetainDaysEvent;
+    }
+    
+    public int getSnapshotRetainDaysPvpWager() {
+        return snapshotRetainDaysPvpWager;
+    }
+    
+    public int getSnapshotPruneIntervalMinutes() {
+        return snapshotPruneIntervalMinutes;
+    }
+    
+    public int getSnapshotSealAfterHours() {
+        return snapshotSealAfterHours;
+    }
+
+    public boolean isListenerProfilingEnabled() {
+        return listenerProfilingEnabled;
+    }
+
+    public int getListenerProfilingSampleRate() {
+        return listenerProfilingSampleRate;
+    }
+
+    public int getWorkBudgetMillis() {
+        return workBudgetMillis;
+    }
+    
     public String getMessage(String path) {
         return messagesConfig.getString("messages." + path, "&cMissing message: " + path);
     }
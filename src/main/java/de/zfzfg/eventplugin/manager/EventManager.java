@@ -36,6 +36,7 @@ public class EventManager {
         
         EventSession session = new EventSession(plugin, config);
         activeSessions.put(eventId, session);
+        worldRolesChanged();
         return true;
     }
     
@@ -57,6 +58,9 @@ public class EventManager {
             for (java.util.UUID uuid : new java.util.HashSet<>(session.getParticipants())) {
                 playerToEventId.remove(uuid);
             }
+            plugin.getPlayerStateCache().clearSession(session);
+            session.cleanup();
+            worldRolesChanged();
         }
     }
     
@@ -67,23 +71,36 @@ public class EventManager {
     public void stopAllEvents() {
         for (EventSession session : activeSessions.values()) {
             session.forceStop();
+            session.cleanup();
         }
         activeSessions.clear();
         playerToEventId.clear();
+        plugin.getPlayerStateCache().clearAllSessions();
         globalSavedLocations.clear();
+        worldRolesChanged();
     }
     
     public Map<String, EventSession> getActiveSessions() {
         return activeSessions;
     }
 
+    private void worldRolesChanged() {
+        de.zfzfg.eventplugin.world.WorldRoleIndex index = plugin.getWorldRoleIndex();
+        if (index != null) index.rebuild();
+        de.zfzfg.eventplugin.security.ProtectionIndex protection = plugin.getProtectionIndex();
+        if (protection != null) protection.setSessions(activeSessions.values());
+    }
+
     // Index-API: von EventSession aufrufen
     public void indexPlayer(String eventId, java.util.UUID playerId) {
         playerToEventId.put(playerId, eventId);
+        EventSession session = activeSessions.get(eventId);
+        if (session != null) plugin.getPlayerStateCache().setSession(playerId, session);
     }
 
     public void unindexPlayer(java.util.UUID playerId) {
         playerToEventId.remove(playerId);
+        plugin.getPlayerStateCache().clearSession(playerId);
     }
 
     // Global saved locations API
@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 
 public class EventStatsManager {
     private final Map<UUID, EventStats> statsByPlayer = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
 
     private EventStats getOrCreate(UUID playerId) {
         return statsByPlayer.computeIfAbsent(playerId, EventStats::new);
@@ -17,11 +18,13 @@ public class EventStatsManager {
     public void recordParticipation(Player player) {
         if (player == null) return;
         getOrCreate(player.getUniqueId()).recordParticipation();
+        dirty.add(player.getUniqueId());
     }
 
     public void recordWin(Player player) {
         if (player == null) return;
         getOrCreate(player.getUniqueId()).recordWin();
+        dirty.add(player.getUniqueId());
     }
 
     public Optional<EventStats> getStats(UUID playerId) {
@@ -38,9 +41,34 @@ public class EventStatsManager {
     // Persistence hooks
     public void loadFrom(Map<UUID, EventStats> loaded) {
         statsByPlayer.clear();
+        dirty.clear();
         if (loaded != null) statsByPlayer.putAll(loaded);
     }
 
+    /** Number of players with changes not yet persisted. */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Removes all dirty markers and returns copies of the affected entries.
+     * If persisting fails, hand the keys back via {@link #markDirty(Collection)}.
+     */
+    public Map<UUID, EventStats> drainDirty() {
+        Map<UUID, EventStats> changed = new HashMap<>();
+        for (Iterator<UUID> it = dirty.iterator(); it.hasNext(); ) {
+            UUID id = it.next();
+            it.remove();
+            EventStats stats = statsByPlayer.get(id);
+            if (stats != null) changed.put(id, stats.copy());
+        }
+        return changed;
+    }
+
+    public void markDirty(Collection<UUID> playerIds) {
+        dirty.addAll(playerIds);
+    }
+
     public Map<UUID, EventStats> toMap() {
         return new HashMap<>(statsByPlayer);
     }
@@ -49,16 +77,19 @@ public class EventStatsManager {
     public boolean reset(UUID playerId) {
         if (playerId == null) return false;
         statsByPlayer.put(playerId, new EventStats(playerId));
+        dirty.add(playerId);
         return true;
     }
 
     public void addWins(UUID playerId, int n) {
         if (playerId == null || n <= 0) return;
         getOrCreate(playerId).addWins(n);
+        dirty.add(playerId);
     }
 
     public void addParticipations(UUID playerId, int n) {
         if (playerId == null || n <= 0) return;
         getOrCreate(playerId).addParticipations(n);
+        dirty.add(playerId);
     }
 }
\ No newline at end of file
@@ -47,6 +47,7 @@ public class EventConfig {
     private final RewardConfig participationRewards;
     
     private final Map<String, String> messages;
+    private final List<String> allowedCommands;
     
     public EventConfig(String id, ConfigurationSection section) {
         this.id = id;
@@ -121,6 +122,12 @@ public class EventConfig {
         ConfigurationSection participationSection = rewards.getConfigurationSection("participation");
         this.participationRewards = new RewardConfig(participationSection);
         
+        // Während des Events erlaubte Befehle (ohne Slash); Aliases ergänzt der ConfigManager
+        List<String> allowed = section.isList("allowed-commands")
+                ? section.getStringList("allowed-commands")
+                : java.util.Collections.singletonList("event leave");
+        this.allowedCommands = java.util.Collections.unmodifiableList(new ArrayList<>(allowed));
+        
         this.messages = new HashMap<>();
         ConfigurationSection msgs = section.getConfigurationSection("messages");
         if (msgs != null) {
@@ -173,6 +180,7 @@ public String getCloneSourceEventWorld() { return cloneSourceEventWorld; }
     public RewardConfig getTeamWinnerRewards() { return teamWinnerRewards; }
     public RewardConfig getParticipationRewards() { return participationRewards; }
     public String getMessage(String key) { return messages.getOrDefault(key, ""); }
+    public List<String> getAllowedCommands() { return allowedCommands; }
     
     // Enums und Inner Classes
     public enum GameMode {
@@ -25,4 +25,12 @@ public class EventStats {
     public void addWins(int n) { if (n > 0) wins += n; }
     public void addParticipations(int n) { if (n > 0) participations += n; }
     public void reset() { wins = 0; participations = 0; }
+
+    /** Detached copy for persistence off the main thread. */
+    public EventStats copy() {
+        EventStats c = new EventStats(playerId);
+        c.wins = wins;
+        c.participations = participations;
+        return c;
+    }
 }
\ No newline at end of file
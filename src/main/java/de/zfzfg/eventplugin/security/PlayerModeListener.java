@@ -1,8 +1,7 @@
 package de.zfzfg.eventplugin.security;
 
+import de.zfzfg.core.security.Permission;
 import de.zfzfg.eventplugin.EventPlugin;
-import de.zfzfg.eventplugin.session.EventSession;
-import de.zfzfg.pvpwager.models.Match;
 import org.bukkit.ChatColor;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -10,8 +9,6 @@ import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerGameModeChangeEvent;
 import org.bukkit.entity.Player;
 
-import java.util.Optional;
-
 /**
  * Sicherheits-/Modus-Listener:
  * - Blockiert /v (vanish) und /fly für Nicht-OP-Spieler
@@ -33,10 +30,9 @@ public class PlayerModeListener implements Listener {
     @EventHandler
     public void onCommandPreprocess(PlayerCommandPreprocessEvent event) {
         Player player = event.getPlayer();
-        String cmd = event.getMessage().toLowerCase();
 
         // OP-Bypass erlaubt
-        if (player.isOp() || player.hasPermission("eventpvp.opbypass")) {
+        if (plugin.getPermissionCache().isOpOrHas(player, Permission.BYPASS_COMMANDS)) {
             return;
         }
 
@@ -47,15 +43,8 @@ public class PlayerModeListener implements Listener {
     public void onGameModeChange(PlayerGameModeChangeEvent event) {
         Player player = event.getPlayer();
 
-        // Prüfe Event-Zuschauer
-        Optional<EventSession> sessionOpt = plugin.getEventManager().getPlayerSession(player);
-        boolean eventSpectator = sessionOpt.isPresent() && sessionOpt.get().isSpectator(player);
-
-        // Prüfe PvP-Zuschauer
-        Match match = plugin.getMatchManager().getMatchByPlayer(player);
-        boolean pvpSpectator = match != null && match.getSpectators().contains(player.getUniqueId());
-
-        if (eventSpectator || pvpSpectator) {
+        // Event- oder PvP-Zuschauer (aus dem Spieler-Zustandscache)
+        if (plugin.getPlayerStateCache().get(player).isSpectator()) {
             // Zuschauer dürfen ausschließlich im Spectator-Modus bleiben
             if (event.getNewGameMode() != org.bukkit.GameMode.SPECTATOR) {
                 event.setCancelled(true);
@@ -0,0 +1,115 @@
+package de.zfzfg.eventplugin.security;
+
+import de.zfzfg.eventplugin.session.EventSession;
+import de.zfzfg.pvpwager.models.Arena;
+import de.zfzfg.pvpwager.models.Boundaries;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * World name to build-protection rule for {@link WorldProtectionListener}.
+ * <p>
+ * Event and lobby worlds of active sessions take precedence over arena worlds,
+ * as before. A rule protects the whole world, or with {@code protect-region-only}
+ * on an arena only the blocks inside its boundaries. The table is rebuilt when
+ * sessions are created/removed and when arenas are (re)loaded; block and
+ * explosion events then need one map lookup. World names compare ignoring case;
+ * the exact spelling seen at runtime is memoized so lookups do not allocate.
+ */
+public final class ProtectionIndex {
+
+    /** Protection of one world. */
+    public static final class Rule {
+        private final boolean protectedWorld;
+        private final Boundaries region;
+
+        private Rule(boolean protectedWorld, Boundaries region) {
+            this.protectedWorld = protectedWorld;
+            this.region = region;
+        }
+
+        public boolean isProtected() { return protectedWorld; }
+
+        /** Boundaries of partial protection, or null if the whole world is protected. */
+        public Boundaries getRegion() { return region; }
+
+        public boolean protects(Block block) {
+            if (!protectedWorld) return false;
+            return region == null || region.containsBlock(block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    private static final Rule UNPROTECTED = new Rule(false, null);
+
+    private List<EventSession> sessions = Collections.emptyList();
+    private List<Arena> arenas = Collections.emptyList();
+    // Kleinschreibung -> Regel; komplett ersetzt bei jedem Neuaufbau
+    private volatile Map<String, Rule> byWorld = Collections.emptyMap();
+    // Exakte Schreibweise -> Regel (auch UNPROTECTED), wird bei Neuaufbau verworfen
+    private volatile ConcurrentHashMap<String, Rule> resolved = new ConcurrentHashMap<>();
+
+    public Rule lookup(String worldName) {
+        Rule rule = resolved.get(worldName);
+        if (rule != null) return rule;
+        rule = byWorld.get(worldName.toLowerCase(Locale.ROOT));
+        if (rule == null) rule = UNPROTECTED;
+        resolved.put(worldName, rule);
+        return rule;
+    }
+
+    public boolean isProtected(Block block) {
+        return lookup(block.getWorld().getName()).protects(block);
+    }
+
+    /** Active sessions changed (EventManager). */
+    public synchronized void setSessions(Collection<EventSession> active) {
+        sessions = new ArrayList<>(active);
+        rebuild();
+    }
+
+    /** Arenas (re)loaded (ArenaManager). */
+    public synchronized void setArenas(Collection<Arena> loaded) {
+        arenas = new ArrayList<>(loaded);
+        rebuild();
+    }
+
+    public int size() {
+        return byWorld.size();
+    }
+
+    private void rebuild() {
+        Map<String, Rule> next = new HashMap<>();
+        // Event-Welten aus aktiven Sessions: respektiere build-allowed Flag (Vorrang vor Arenen)
+        for (EventSession session : sessions) {
+            Rule rule = session.getConfig().isBuildAllowed() ? UNPROTECTED : new Rule(true, null);
+            putIfAbsent(next, session.getConfig().getEventWorld(), rule);
+            putIfAbsent(next, session.getConfig().getLobbyWorld(), rule);
+        }
+        // Arena-Welten: build-allowed und optional nur die Arena-Grenzen schützen
+        for (Arena arena : arenas) {
+            Rule rule;
+            if (arena.isBuildAllowed()) {
+                rule = UNPROTECTED;
+            } else if (arena.isProtectRegionOnly() && arena.getBoundaries() != null) {
+                rule = new Rule(true, arena.getBoundaries());
+            } else {
+                rule = new Rule(true, null);
+            }
+            putIfAbsent(next, arena.getArenaWorld(), rule);
+        }
+        byWorld = next;
+        resolved = new ConcurrentHashMap<>();
+    }
+
+    private static void putIfAbsent(Map<String, Rule> map, String world, Rule rule) {
+        if (world != null) map.putIfAbsent(world.toLowerCase(Locale.ROOT), rule);
+    }
+}
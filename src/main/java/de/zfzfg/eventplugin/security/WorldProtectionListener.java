@@ -1,8 +1,7 @@
 package de.zfzfg.eventplugin.security;
 
+import de.zfzfg.core.security.Permission;
 import de.zfzfg.eventplugin.EventPlugin;
-import de.zfzfg.eventplugin.session.EventSession;
-import de.zfzfg.pvpwager.models.Arena;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.event.EventHandler;
@@ -12,9 +11,6 @@ import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.entity.Player;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class WorldProtectionListener implements Listener {
     private final EventPlugin plugin;
 
@@ -22,39 +18,15 @@ public class WorldProtectionListener implements Listener {
         this.plugin = plugin;
     }
 
-    private boolean isProtectedWorld(String worldName) {
-        // Event-Welten aus aktiven Sessions: respektiere build-allowed Flag
-        for (EventSession session : plugin.getEventManager().getActiveSessions().values()) {
-            boolean matchesEvent = worldName.equalsIgnoreCase(session.getConfig().getEventWorld());
-            boolean matchesLobby = worldName.equalsIgnoreCase(session.getConfig().getLobbyWorld());
-            if (matchesEvent || matchesLobby) {
-                if (session.getConfig().isBuildAllowed()) {
-                    return false;
-                }
-                return true;
-            }
-        }
-        // Arena-Welten: respektiere build-allowed Flag aus Arena
-        for (Arena arena : plugin.getArenaManager().getArenas().values()) {
-            if (worldName.equalsIgnoreCase(arena.getArenaWorld())) {
-                if (arena.isBuildAllowed()) {
-                    return false;
-                }
-                return true;
-            }
-        }
-        return false;
-    }
-
     private boolean canModify(Player player) {
-        return player.isOp() || player.hasPermission("eventpvp.build");
+        return plugin.getPermissionCache().isOpOrHas(player, Permission.BUILD);
     }
 
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
         Block block = event.getBlock();
         Player player = event.getPlayer();
-        if (isProtectedWorld(block.getWorld().getName()) && !canModify(player)) {
+        if (plugin.getProtectionIndex().isProtected(block) && !canModify(player)) {
             event.setCancelled(true);
         }
     }
@@ -63,7 +35,7 @@ public class WorldProtectionListener implements Listener {
     public void onBlockPlace(BlockPlaceEvent event) {
         Block block = event.getBlockPlaced();
         Player player = event.getPlayer();
-        if (isProtectedWorld(block.getWorld().getName()) && !canModify(player)) {
+        if (plugin.getProtectionIndex().isProtected(block) && !canModify(player)) {
             event.setCancelled(true);
         }
     }
@@ -72,8 +44,13 @@ public class WorldProtectionListener implements Listener {
     public void onEntityExplode(EntityExplodeEvent event) {
         Entity entity = event.getEntity();
         if (entity == null) return;
-        if (isProtectedWorld(entity.getWorld().getName())) {
+        ProtectionIndex.Rule rule = plugin.getProtectionIndex().lookup(entity.getWorld().getName());
+        if (!rule.isProtected()) return;
+        if (rule.getRegion() == null) {
             event.blockList().clear();
+        } else {
+            // Teilschutz: nur Blöcke innerhalb der Arena-Grenzen bewahren
+            event.blockList().removeIf(rule::protects);
         }
     }
 }
\ No newline at end of file
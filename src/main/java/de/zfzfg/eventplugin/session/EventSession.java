@@ -11,13 +11,14 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.FireworkMeta;
 import org.bukkit.inventory.meta.LeatherArmorMeta;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
+import de.zfzfg.core.tasks.WheelTask;
 
 import de.zfzfg.eventplugin.util.MultiverseHelper;
 import de.zfzfg.eventplugin.storage.InventorySnapshotStorage;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Führt ein einzelnes Event durch: Join-Phase, Countdown,
@@ -27,6 +28,9 @@ public class EventSession {
     // Magic-number constants for announcements and titles
     private static final int[] JOIN_PHASE_ANNOUNCE_SECONDS = {15, 10, 5, 4, 3, 2, 1};
     private static final int[] LOBBY_COUNTDOWN_ANNOUNCE_SECONDS = {30, 20, 10, 5, 4, 3, 2, 1};
+    private static final boolean[] JOIN_PHASE_ANNOUNCE = de.zfzfg.core.util.Time.marks(JOIN_PHASE_ANNOUNCE_SECONDS);
+    private static final boolean[] LOBBY_COUNTDOWN_ANNOUNCE = de.zfzfg.core.util.Time.marks(LOBBY_COUNTDOWN_ANNOUNCE_SECONDS);
+    private static final long SNAPSHOT_FLUSH_TIMEOUT_SECONDS = 5L;
     
     private final EventPlugin plugin;
     private final EventConfig config;
@@ -52,25 +56,21 @@ public class EventSession {
     // Prevent duplicated scheduling of draw evaluation
     private boolean drawPending = false;
 
-    private BukkitTask countdownTask;
-    private BukkitTask joinPhaseTask;
-    // Zentrale Verwaltung aller geplanten Tasks für sauberes Cleanup
-    private final java.util.Set<org.bukkit.scheduler.BukkitTask> activeTasks = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    // Kampf erst freigeben, wenn alle Teilnehmer platziert und ausgerüstet sind
+    private volatile boolean combatOpen;
 
-    // Registriert einen Task in der zentralen Verwaltung und gibt ihn zurück
-    private org.bukkit.scheduler.BukkitTask registerTask(org.bukkit.scheduler.BukkitTask task) {
-        if (task != null) { activeTasks.add(task); }
-        return task;
-    }
+    private WheelTask countdownTask;
+    private WheelTask joinPhaseTask;
+    // Besitzer aller Timer dieser Session im TaskManager ("event:<id>#<kurz-id>")
+    private final String taskOwner;
 
-    // Beendet und räumt alle aktiven Tasks auf
+    // Beendet alle Timer dieser Session (beim Entfernen aus dem EventManager)
     public void cleanup() {
-        for (org.bukkit.scheduler.BukkitTask task : activeTasks) {
-            try {
-                if (task != null && !task.isCancelled()) { task.cancel(); }
-            } catch (Exception ignored) {}
-        }
-        activeTasks.clear();
+        plugin.getTaskManager().disposeOwner(taskOwner);
+    }
+
+    public String getTaskOwner() {
+        return taskOwner;
     }
     
     public EventSession(EventPlugin plugin, EventConfig config) {
@@ -85,6 +85,7 @@ public class EventSession {
         this.leftSpectators = new HashSet<>();
         this.state = EventState.WAITING;
         this.eventSessionIdShort = generate5DigitId();
+        this.taskOwner = "event:" + config.getId() + "#" + eventSessionIdShort;
         
         if (config.getGameMode() == EventConfig.GameMode.TEAM_2 || 
             config.getGameMode() == EventConfig.GameMode.TEAM_3) {
@@ -157,6 +158,7 @@ public class EventSession {
         if (spectators.contains(player.getUniqueId())) {
             spectators.remove(player.getUniqueId());
             leftSpectators.add(player.getUniqueId());
+            plugin.getPlayerStateCache().setEventSpectator(player.getUniqueId(), false);
             // Entfernt externe Vanish/Fly-Kommandos. Spectator-Status wird getrennt verwaltet.
         }
         
@@ -190,7 +192,7 @@ public class EventSession {
         prepareWorlds();
         sendJoinPhaseAnnouncement();
         
-        joinPhaseTask = registerTask(new BukkitRunnable() {
+        joinPhaseTask = plugin.getTaskManager().everySecond(taskOwner, new WheelTask() {
             @Override
             public void run() {
                 if (joinPhaseCountdown <= 0) {
@@ -199,7 +201,7 @@ public class EventSession {
                     return;
                 }
                 
-                if (java.util.Arrays.stream(JOIN_PHASE_ANNOUNCE_SECONDS).anyMatch(s -> s == joinPhaseCountdown)) {
+                if (de.zfzfg.core.util.Time.isMarked(JOIN_PHASE_ANNOUNCE, joinPhaseCountdown)) {
                     String msg = plugin.getConfigManager().getMessage("start.join-phase-ending")
                         .replace("{time}", String.valueOf(joinPhaseCountdown));
                     Bukkit.broadcastMessage(ColorUtil.color(plugin.getConfigManager().getPrefix() + " " + msg));
@@ -207,7 +209,7 @@ public class EventSession {
                 
                 joinPhaseCountdown--;
             }
-        }.runTaskTimer(plugin, 0L, de.zfzfg.core.util.Time.TICKS_PER_SECOND));
+        });
     }
     
     private void sendJoinPhaseAnnouncement() {
@@ -357,16 +359,16 @@ public class EventSession {
         
         broadcast(plugin.getConfigManager().getMessage("lobby.welcome"));
         
-        countdownTask = registerTask(new BukkitRunnable() {
+        countdownTask = plugin.getTaskManager().everySecond(taskOwner, new WheelTask() {
             @Override
             public void run() {
                 if (countdown <= 0) {
                     cancel();
-                    startEvent();
+                    startEventAfterSnapshotFlush();
                     return;
                 }
                 
-                if (java.util.Arrays.stream(LOBBY_COUNTDOWN_ANNOUNCE_SECONDS).anyMatch(s -> s == countdown)) {
+                if (de.zfzfg.core.util.Time.isMarked(LOBBY_COUNTDOWN_ANNOUNCE, countdown)) {
                     broadcast(plugin.getConfigManager().getMessage("start.countdown")
                         .replace("{time}", String.valueOf(countdown)));
                     
@@ -383,7 +385,7 @@ public class EventSession {
                 
                 countdown--;
             }
-        }.runTaskTimer(plugin, 0L, de.zfzfg.core.util.Time.TICKS_PER_SECOND));
+        });
     }
     
     public void forceStartCountdown() {
@@ -530,6 +532,7 @@ public class EventSession {
             player.teleport(lobbySpawn);
             player.setGameMode(GameMode.ADVENTURE);
             player.getInventory().clear();
+            prepareSafeLocations(player, lobbySpawn);
             plugin.getLogger().info("Spieler " + player.getName() + " zur Lobby teleportiert: " + lobbySpawn);
         } else {
             plugin.getLogger().warning("Lobby-Welt nicht geladen: " + config.getLobbyWorld() + " – versuche zu laden...");
@@ -543,6 +546,7 @@ public class EventSession {
                     player.teleport(lobbySpawn);
                     player.setGameMode(GameMode.ADVENTURE);
                     player.getInventory().clear();
+                    prepareSafeLocations(player, lobbySpawn);
                     plugin.getLogger().info("Spieler " + player.getName() + " zur Lobby teleportiert (nach Laden): " + lobbySpawn);
                 } else {
                     plugin.getLogger().severe("Lobby-Welt weiterhin nicht verfügbar: " + config.getLobbyWorld());
@@ -552,6 +556,40 @@ public class EventSession {
         }
     }
     
+    /**
+     * Rettungspunkte für den Void-Schutz vorbereiten: gespeicherter Standort vor dem Event, dann Lobby-Spawn.
+     */
+    private void prepareSafeLocations(Player player, Location lobbySpawn) {
+        UUID playerId = player.getUniqueId();
+        plugin.getSafeLocationCache().prepare(playerId, plugin.getEventManager().getSavedLocation(playerId), lobbySpawn);
+    }
+
+    /**
+     * Wartet, bis alle eingereihten Inventar-Snapshots der Teilnehmer geschrieben sind,
+     * bevor Spieler in die Event-Welt teleportiert werden (max. SNAPSHOT_FLUSH_TIMEOUT_SECONDS).
+     */
+    private void startEventAfterSnapshotFlush() {
+        java.util.concurrent.CompletableFuture<Void> barrier = InventorySnapshotStorage.flush();
+        if (barrier.isDone()) {
+            startEvent();
+            return;
+        }
+        barrier.copy()
+            .orTimeout(SNAPSHOT_FLUSH_TIMEOUT_SECONDS, java.util.concurrent.TimeUnit.SECONDS)
+            .whenComplete((v, ex) -> {
+                if (ex != null) {
+                    plugin.getLogger().warning("Inventar-Snapshots vor Eventstart nicht bestätigt: " + ex.getMessage());
+                }
+                try {
+                    plugin.getTaskManager().schedule(taskOwner, () -> {
+                        if (state == EventState.COUNTDOWN) startEvent();
+                    }, 1L);
+                } catch (Exception ignored) {
+                    // Plugin wird deaktiviert
+                }
+            });
+    }
+
     private void startEvent() {
         synchronized (stateMutex) { state = EventState.RUNNING; }
         
@@ -596,67 +634,90 @@ public class EventSession {
         plugin.getLogger().info("Teleportiere Spieler zur Event-Welt: " + config.getEventWorld());
         plugin.getLogger().info("Spawn-Type: " + config.getSpawnType());
         
+        // Teleport und Ausrüstung werden pro Spieler gesammelt und laufen als ein Job pro Spieler
+        // über mehrere Ticks (Zeitbudget des TaskManagers); so steht niemand ohne Ausrüstung am Spawn
+        Map<UUID, Consumer<Player>> steps = new LinkedHashMap<>();
         // NEU: COMMAND spawn-type
         if (config.getSpawnType() == EventConfig.SpawnType.COMMAND) {
-            executeSpawnCommand();
+            executeSpawnCommand(steps);
         } else {
             // Teleportiere Spieler
             if (config.getGameMode() == EventConfig.GameMode.TEAM_2 || 
                 config.getGameMode() == EventConfig.GameMode.TEAM_3) {
-                teleportTeamsToSpawns(eventWorld);
+                teleportTeamsToSpawns(eventWorld, steps);
             } else {
-                teleportPlayersToSpawns(eventWorld);
+                teleportPlayersToSpawns(eventWorld, steps);
             }
         }
         
-        // Gebe Equipment (falls nicht schon in Lobby gegeben)
+        // Gebe Equipment (falls nicht schon in Lobby gegeben), im selben Job direkt nach dem Teleport
         if (!config.shouldGiveEquipmentInLobby()) {
             if (config.getGameMode() == EventConfig.GameMode.TEAM_2 || 
                 config.getGameMode() == EventConfig.GameMode.TEAM_3) {
-                giveTeamEquipment();
+                giveTeamEquipment(steps);
             } else {
-                giveEquipment();
+                giveEquipment(steps);
             }
         }
-        // Teilnahme nur erfassen, wenn die Event-Welt erfolgreich geladen ist und kein Abbruch erfolgt
-        for (java.util.UUID uuid : new java.util.HashSet<>(validParticipants)) {
-            org.bukkit.entity.Player p = org.bukkit.Bukkit.getPlayer(uuid);
-            if (p != null) {
-                try { plugin.getEventStatsManager().recordParticipation(p); } catch (Exception ignored) {}
-            }
+
+        List<CompletableFuture<Void>> jobs = new ArrayList<>(steps.size());
+        for (Map.Entry<UUID, Consumer<Player>> step : steps.entrySet()) {
+            forPlayer(jobs, taskOwner, step.getKey(), step.getValue());
         }
 
-        sendTitle(plugin.getConfigManager().getMessage("event.started-title"), plugin.getConfigManager().getMessage("event.started-subtitle"));
-        playSound(Sound.ENTITY_ENDER_DRAGON_GROWL, 1.0f, 2.0f);
+        // Kampf erst freigeben, wenn alle Spieler platziert sind; bei Abbruch (Session freigegeben) entfällt der Rest
+        CompletableFuture.allOf(jobs.toArray(new CompletableFuture[0])).thenRun(() -> {
+            if (state != EventState.RUNNING) return;
+            combatOpen = true;
+            // Teilnahme nur erfassen, wenn die Event-Welt erfolgreich geladen ist und kein Abbruch erfolgt
+            for (java.util.UUID uuid : new java.util.HashSet<>(validParticipants)) {
+                org.bukkit.entity.Player p = org.bukkit.Bukkit.getPlayer(uuid);
+                if (p != null) {
+                    try { plugin.getEventStatsManager().recordParticipation(p); } catch (Exception ignored) {}
+                }
+            }
+
+            sendTitle(plugin.getConfigManager().getMessage("event.started-title"), plugin.getConfigManager().getMessage("event.started-subtitle"));
+            playSound(Sound.ENTITY_ENDER_DRAGON_GROWL, 1.0f, 2.0f);
+        });
+    }
+
+    // Hängt einen Schritt an den Job des Spielers an (Teleport, dann Ausrüstung)
+    private static void addStep(Map<UUID, Consumer<Player>> steps, UUID uuid, Consumer<Player> step) {
+        steps.merge(uuid, step, (first, then) -> first.andThen(then));
+    }
+
+    // Reiht eine Aktion für einen Spieler in die Arbeitswarteschlange ein; offline = übersprungen
+    private void forPlayer(List<CompletableFuture<Void>> jobs, String owner, UUID uuid, Consumer<Player> action) {
+        jobs.add(plugin.getTaskManager().submit(owner, () -> {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) action.accept(player);
+        }));
     }
     
     // NEU: FÃƒÂ¼hre Spawn-Command aus
-    private void executeSpawnCommand() {
+    private void executeSpawnCommand(Map<UUID, Consumer<Player>> steps) {
         String command = config.getSpawnConfig().getSpawnCommand();
         if (command == null || command.isEmpty()) {
             plugin.getLogger().warning("Spawn-Command ist leer!");
             return;
         }
         
-        for (UUID uuid : validParticipants) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player == null) continue;
-            
-            String finalCommand = command.replace("{player}", player.getName());
-            plugin.getLogger().info("FÃƒÂ¼hre Spawn-Command aus: " + finalCommand);
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), finalCommand);
-            
-            player.setGameMode(GameMode.SURVIVAL);
+        for (UUID uuid : new ArrayList<>(validParticipants)) {
+            addStep(steps, uuid, player -> {
+                String finalCommand = command.replace("{player}", player.getName());
+                plugin.getLogger().info("FÃƒÂ¼hre Spawn-Command aus: " + finalCommand);
+                Bukkit.dispatchCommand(Bukkit.getConsoleSender(), finalCommand);
+                
+                player.setGameMode(GameMode.SURVIVAL);
+            });
         }
     }
     
-    private void teleportTeamsToSpawns(World world) {
+    private void teleportTeamsToSpawns(World world, Map<UUID, Consumer<Player>> steps) {
         Map<String, List<Location>> teamSpawns = config.getSpawnConfig().getTeamSpawns();
         
-        for (UUID playerId : validParticipants) {
-            Player player = Bukkit.getPlayer(playerId);
-            if (player == null) continue;
-            
+        for (UUID playerId : new ArrayList<>(validParticipants)) {
             TeamManager.Team team = teamManager.getPlayerTeam(playerId);
             if (team == null) continue;
             
@@ -670,44 +731,44 @@ public class EventSession {
                 
                 Location spawn = spawns.get(index % spawns.size()).clone();
                 spawn.setWorld(world);
-                player.teleport(spawn);
-                player.setGameMode(GameMode.SURVIVAL);
-                try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
+                addStep(steps, playerId, player -> {
+                    player.teleport(spawn);
+                    player.setGameMode(GameMode.SURVIVAL);
+                    try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
+                });
             }
         }
     }
     
-    private void teleportPlayersToSpawns(World world) {
+    private void teleportPlayersToSpawns(World world, Map<UUID, Consumer<Player>> steps) {
         List<UUID> playerList = new ArrayList<>(validParticipants);
         
+        // Die Spawnsuche (inkl. Höhenabfrage) läuft mit im Job; die Jobs laufen nacheinander, daher reicht eine Liste
         switch (config.getSpawnType()) {
             case SINGLE_POINT:
                 Location spawn = config.getSpawnConfig().getSingleSpawn().clone();
                 spawn.setWorld(world);
                 for (UUID uuid : playerList) {
-                    Player player = Bukkit.getPlayer(uuid);
-                    if (player != null) {
+                    addStep(steps, uuid, player -> {
                         player.teleport(spawn);
                         player.setGameMode(GameMode.SURVIVAL);
                         try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
                         plugin.getLogger().info("Spieler " + player.getName() + " zu SINGLE_POINT teleportiert: " + spawn);
-                    }
+                    });
                 }
                 break;
                 
             case MULTIPLE_SPAWNS:
                 List<Location> spawns = config.getSpawnConfig().getMultipleSpawns();
                 for (int i = 0; i < playerList.size(); i++) {
-                    UUID uuid = playerList.get(i);
-                    Player player = Bukkit.getPlayer(uuid);
-                    if (player == null) continue;
-                    
                     Location spawnLoc = spawns.get(i % spawns.size()).clone();
                     spawnLoc.setWorld(world);
-                    player.teleport(spawnLoc);
-                    player.setGameMode(GameMode.SURVIVAL);
-                    try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
-                    plugin.getLogger().info("Spieler " + player.getName() + " zu MULTIPLE_SPAWNS teleportiert: " + spawnLoc);
+                    addStep(steps, playerList.get(i), player -> {
+                        player.teleport(spawnLoc);
+                        player.setGameMode(GameMode.SURVIVAL);
+                        try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
+                        plugin.getLogger().info("Spieler " + player.getName() + " zu MULTIPLE_SPAWNS teleportiert: " + spawnLoc);
+                    });
                 }
                 break;
                 
@@ -716,19 +777,18 @@ public class EventSession {
                 List<Location> usedLocations = new ArrayList<>();
                 
                 for (UUID uuid : playerList) {
-                    Player player = Bukkit.getPlayer(uuid);
-                    if (player == null) continue;
-                    
-                    Location randomLoc = findRandomCubeLocation(world, cubeConfig, usedLocations);
-                    if (randomLoc != null) {
-                        usedLocations.add(randomLoc);
-                        player.teleport(randomLoc);
-                        player.setGameMode(GameMode.SURVIVAL);
-                        try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
-                        plugin.getLogger().info("Spieler " + player.getName() + " zu RANDOM_CUBE teleportiert: " + randomLoc);
-                    } else {
-                        plugin.getLogger().warning("Konnte keinen Spawn fÃƒÂ¼r " + player.getName() + " finden!");
-                    }
+                    addStep(steps, uuid, player -> {
+                        Location randomLoc = findRandomCubeLocation(world, cubeConfig, usedLocations);
+                        if (randomLoc != null) {
+                            usedLocations.add(randomLoc);
+                            player.teleport(randomLoc);
+                            player.setGameMode(GameMode.SURVIVAL);
+                            try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
+                            plugin.getLogger().info("Spieler " + player.getName() + " zu RANDOM_CUBE teleportiert: " + randomLoc);
+                        } else {
+                            plugin.getLogger().warning("Konnte keinen Spawn fÃƒÂ¼r " + player.getName() + " finden!");
+                        }
+                    });
                 }
                 break;
                 
@@ -737,17 +797,16 @@ public class EventSession {
                 List<Location> usedRadiusLocations = new ArrayList<>();
                 
                 for (UUID uuid : playerList) {
-                    Player player = Bukkit.getPlayer(uuid);
-                    if (player == null) continue;
-                    
-                    Location randomLoc = findRandomRadiusLocation(world, radiusConfig, usedRadiusLocations);
-                    if (randomLoc != null) {
-                        usedRadiusLocations.add(randomLoc);
-                        player.teleport(randomLoc);
-                        player.setGameMode(GameMode.SURVIVAL);
-                        try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
-                        plugin.getLogger().info("Spieler " + player.getName() + " zu RANDOM_RADIUS teleportiert: " + randomLoc);
-                    }
+                    addStep(steps, uuid, player -> {
+                        Location randomLoc = findRandomRadiusLocation(world, radiusConfig, usedRadiusLocations);
+                        if (randomLoc != null) {
+                            usedRadiusLocations.add(randomLoc);
+                            player.teleport(randomLoc);
+                            player.setGameMode(GameMode.SURVIVAL);
+                            try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
+                            plugin.getLogger().info("Spieler " + player.getName() + " zu RANDOM_RADIUS teleportiert: " + randomLoc);
+                        }
+                    });
                 }
                 break;
                 
@@ -756,17 +815,16 @@ public class EventSession {
                 List<Location> usedAreaLocations = new ArrayList<>();
                 
                 for (UUID uuid : playerList) {
-                    Player player = Bukkit.getPlayer(uuid);
-                    if (player == null) continue;
-                    
-                    Location randomLoc = findRandomAreaLocation(world, areaConfig, usedAreaLocations);
-                    if (randomLoc != null) {
-                        usedAreaLocations.add(randomLoc);
-                        player.teleport(randomLoc);
-                        player.setGameMode(GameMode.SURVIVAL);
-                        try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
-                        plugin.getLogger().info("Spieler " + player.getName() + " zu RANDOM_AREA teleportiert: " + randomLoc);
-                    }
+                    addStep(steps, uuid, player -> {
+                        Location randomLoc = findRandomAreaLocation(world, areaConfig, usedAreaLocations);
+                        if (randomLoc != null) {
+                            usedAreaLocations.add(randomLoc);
+                            player.teleport(randomLoc);
+                            player.setGameMode(GameMode.SURVIVAL);
+                            try { player.setHealth(20.0); player.setFoodLevel(20); } catch (Exception ignored) {}
+                            plugin.getLogger().info("Spieler " + player.getName() + " zu RANDOM_AREA teleportiert: " + randomLoc);
+                        }
+                    });
                 }
                 break;
         }
@@ -862,43 +920,39 @@ public class EventSession {
         return null;
     }
     
-    private void giveEquipment() {
+    private void giveEquipment(Map<UUID, Consumer<Player>> steps) {
         EquipmentGroup equipment = plugin.getConfigManager().getEquipmentGroup(config.getEquipmentGroup());
         if (equipment == null) {
             plugin.getLogger().warning("Keine Ausrüstungsgruppe gefunden für ID '" + config.getEquipmentGroup() + "'. Prüfe equipment.yml und config.yml.");
             return;
         }
         
-        for (UUID uuid : validParticipants) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player == null) continue;
-            
-            // Inventar-Backups in Events sind deaktiviert
-            player.getInventory().clear();
-            
-            EquipmentGroup.ArmorSet armor = equipment.getArmor();
-            if (armor.getHelmet() != null) player.getInventory().setHelmet(armor.getHelmet().clone());
-            if (armor.getChestplate() != null) player.getInventory().setChestplate(armor.getChestplate().clone());
-            if (armor.getLeggings() != null) player.getInventory().setLeggings(armor.getLeggings().clone());
-            if (armor.getBoots() != null) player.getInventory().setBoots(armor.getBoots().clone());
-            
-            for (EquipmentGroup.InventoryItem item : equipment.getInventory()) {
-                player.getInventory().setItem(item.getSlot(), item.getItemStack().clone());
-            }
-            
-            player.setHealth(20.0);
-            player.setFoodLevel(20);
+        for (UUID uuid : new ArrayList<>(validParticipants)) {
+            addStep(steps, uuid, player -> {
+                // Inventar-Backups in Events sind deaktiviert
+                player.getInventory().clear();
+                
+                EquipmentGroup.ArmorSet armor = equipment.getArmor();
+                if (armor.getHelmet() != null) player.getInventory().setHelmet(armor.getHelmet().clone());
+                if (armor.getChestplate() != null) player.getInventory().setChestplate(armor.getChestplate().clone());
+                if (armor.getLeggings() != null) player.getInventory().setLeggings(armor.getLeggings().clone());
+                if (armor.getBoots() != null) player.getInventory().setBoots(armor.getBoots().clone());
+                
+                for (EquipmentGroup.InventoryItem item : equipment.getInventory()) {
+                    player.getInventory().setItem(item.getSlot(), item.getItemStack().clone());
+                }
+                
+                player.setHealth(20.0);
+                player.setFoodLevel(20);
+            });
         }
     }
     
-    private void giveTeamEquipment() {
-        for (UUID playerId : validParticipants) {
-            Player player = Bukkit.getPlayer(playerId);
-            if (player == null) continue;
-            
+    private void giveTeamEquipment(Map<UUID, Consumer<Player>> steps) {
+        for (UUID playerId : new ArrayList<>(validParticipants)) {
             TeamManager.Team team = teamManager.getPlayerTeam(playerId);
             if (team != null) {
-                giveEquipmentToPlayer(player, team);
+                addStep(steps, playerId, player -> giveEquipmentToPlayer(player, team));
             }
         }
     }
@@ -932,7 +986,7 @@ public class EventSession {
         if (!isEquipmentApplied(player, equipment)) {
             plugin.getLogger().warning("[DEBUG] Ausrüstung in Lobby nicht vollständig angewendet für " + player.getName() + ", versuche erneut...");
             player.sendMessage(ColorUtil.color("&7[Debug] Ausrüstung nicht vollständig angewendet, versuche erneut..."));
-            new BukkitRunnable() {
+            plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
                 @Override
                 public void run() {
                     // second attempt
@@ -955,7 +1009,7 @@ public class EventSession {
                         player.sendMessage(ColorUtil.color("&a[Debug] Ausrüstung erfolgreich angewendet."));
                     }
                 }
-            }.runTaskLater(plugin, 1L);
+            }, 1L);
         }
     }
     
@@ -1025,7 +1079,7 @@ public class EventSession {
         if (!isEquipmentApplied(player, equipment)) {
             plugin.getLogger().warning("[DEBUG] Ausrüstung im Event nicht vollständig angewendet für " + player.getName() + ", versuche erneut...");
             player.sendMessage(ColorUtil.color("&7[Debug] Ausrüstung nicht vollständig angewendet, versuche erneut..."));
-            new BukkitRunnable() {
+            plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
                 @Override
                 public void run() {
                     EquipmentGroup eq = plugin.getConfigManager().getEquipmentGroup(config.getEquipmentGroup());
@@ -1078,7 +1132,7 @@ public class EventSession {
                         player.sendMessage(ColorUtil.color("&a[Debug] Ausrüstung erfolgreich angewendet."));
                     }
                 }
-            }.runTaskLater(plugin, 1L);
+            }, 1L);
         }
     }
 
@@ -1108,6 +1162,7 @@ public class EventSession {
         
         eliminatedPlayers.add(player.getUniqueId());
         spectators.add(player.getUniqueId());
+        plugin.getPlayerStateCache().setEventSpectator(player.getUniqueId(), true);
         
         String eliminatedMsg = config.getMessage("eliminated");
         if (eliminatedMsg.isEmpty()) {
@@ -1127,7 +1182,7 @@ public class EventSession {
         
         broadcast(eliminatedMsg);
         
-        registerTask(new BukkitRunnable() {
+        plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
             @Override
             public void run() {
                 if (!player.isOnline()) return;
@@ -1158,13 +1213,13 @@ public class EventSession {
                 player.spigot().sendMessage(component);
                 player.sendMessage("");
             }
-        }.runTaskLater(plugin, de.zfzfg.core.util.Time.seconds(1)));
+        }, de.zfzfg.core.util.Time.seconds(1));
         
         checkRemainingPlayers();
     }
 
     public void handleItemPickup(Player player, Material material) {
-        if (state != EventState.RUNNING) return;
+        if (!isCombatOpen()) return;
         if (winner != null || winningTeam != null) return;
         
         if (config.getWinCondition().getType().equals("PICKUP_ITEM")) {
@@ -1202,12 +1257,12 @@ public class EventSession {
             } catch (Exception ignored) {}
         }
         
-        registerTask(new BukkitRunnable() {
+        plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
             @Override
             public void run() {
                 stopEvent();
             }
-        }.runTaskLater(plugin, de.zfzfg.core.util.Time.seconds(5)));
+        }, de.zfzfg.core.util.Time.seconds(5));
     }
     
     private void declareTeamWinner(TeamManager.Team team) {
@@ -1247,12 +1302,12 @@ public class EventSession {
         
         playSound(Sound.UI_TOAST_CHALLENGE_COMPLETE, 1.0f, 1.0f);
         
-        registerTask(new BukkitRunnable() {
+        plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
             @Override
             public void run() {
                 stopEvent();
             }
-        }.runTaskLater(plugin, de.zfzfg.core.util.Time.seconds(5)));
+        }, de.zfzfg.core.util.Time.seconds(5));
     }
 
     // Broadcast a draw and stop the event shortly after
@@ -1266,10 +1321,10 @@ public class EventSession {
             drawMsg = "&eEs ist ein Unentschieden!";
         }
         broadcast(drawMsg);
-        registerTask(new BukkitRunnable() {
+        plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
             @Override
             public void run() { stopEvent(); }
-        }.runTaskLater(plugin, de.zfzfg.core.util.Time.seconds(5)));
+        }, de.zfzfg.core.util.Time.seconds(5));
     }
     
     private void checkRemainingPlayers() {
@@ -1290,7 +1345,7 @@ public class EventSession {
             } else if (aliveTeams == 0 && winningTeam == null) {
                 if (!drawPending) {
                     drawPending = true;
-                    registerTask(new BukkitRunnable() {
+                    plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
                         @Override
                         public void run() {
                             try {
@@ -1302,16 +1357,16 @@ public class EventSession {
                                 } else {
                                     broadcast(plugin.getConfigManager().getMessage("end.all-eliminated"));
                                     broadcast(plugin.getConfigManager().getMessage("end.no-winner"));
-                                    registerTask(new BukkitRunnable() {
+                                    plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
                                         @Override
                                         public void run() { stopEvent(); }
-                                    }.runTaskLater(plugin, de.zfzfg.core.util.Time.seconds(3)));
+                                    }, de.zfzfg.core.util.Time.seconds(3));
                                 }
                             } finally {
                                 drawPending = false;
                             }
                         }
-                    }.runTaskLater(plugin, de.zfzfg.core.util.Time.ticks(10)));
+                    }, de.zfzfg.core.util.Time.ticks(10));
                 }
             }
             
@@ -1329,7 +1384,7 @@ public class EventSession {
             } else if (aliveCount == 0 && winner == null) {
                 if (!drawPending) {
                     drawPending = true;
-                    registerTask(new BukkitRunnable() {
+                    plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
                         @Override
                         public void run() {
                             try {
@@ -1340,16 +1395,16 @@ public class EventSession {
                                 } else {
                                     broadcast(plugin.getConfigManager().getMessage("end.all-eliminated"));
                                     broadcast(plugin.getConfigManager().getMessage("end.no-winner"));
-                                    registerTask(new BukkitRunnable() {
+                                    plugin.getTaskManager().schedule(taskOwner, new WheelTask() {
                                         @Override
                                         public void run() { stopEvent(); }
-                                    }.runTaskLater(plugin, de.zfzfg.core.util.Time.seconds(3)));
+                                    }, de.zfzfg.core.util.Time.seconds(3));
                                 }
                             } finally {
                                 drawPending = false;
                             }
                         }
-                    }.runTaskLater(plugin, de.zfzfg.core.util.Time.ticks(10)));
+                    }, de.zfzfg.core.util.Time.ticks(10));
                 }
             }
         }
@@ -1392,50 +1447,47 @@ public class EventSession {
         if (countdownTask != null) countdownTask.cancel();
         if (joinPhaseTask != null) joinPhaseTask.cancel();
         
-        for (UUID uuid : participants) {
+        broadcast(plugin.getConfigManager().getMessage("admin.event-stopped"));
+
+        // Rück-Teleports als Jobs über mehrere Ticks; sie gehören der Welt, da cleanup() den Session-Besitzer freigibt
+        String worldOwner = "world:" + config.getEventWorld();
+        List<CompletableFuture<Void>> jobs = new ArrayList<>();
+        for (UUID uuid : new ArrayList<>(participants)) {
             if (leftSpectators.contains(uuid)) {
                 continue;
             }
             
-            Player player = Bukkit.getPlayer(uuid);
-            if (player != null) {
+            forPlayer(jobs, worldOwner, uuid, player -> {
                 // Post-Event Inventar-Backups sind deaktiviert
-                if (spectators.contains(uuid)) {
-                    // Entfernt externe Vanish/Fly-Kommandos. Spectator-Status wird getrennt verwaltet.
-                }
-                
                 teleportBack(player);
                 player.sendMessage(ColorUtil.color(plugin.getConfigManager().getMessage("end.thanks")));
-            }
+            });
         }
-        
-        broadcast(plugin.getConfigManager().getMessage("admin.event-stopped"));
 
-        // Speichere aktualisierte Event-Statistiken (asynchron)
-        try {
-            de.zfzfg.eventplugin.storage.EventStatsStorage.saveAsync(plugin, plugin.getEventStatsManager().toMap());
-        } catch (Exception e) {
-            plugin.getLogger().warning("Konnte Event-Statistiken nach Event nicht einreihen: " + e.getMessage());
-        }
+        // Event-Statistiken speichert der StatsWriteBehind (Intervall/Schwelle)
         
-        // NEU: Entlade Welten nach Event
-        registerTask(new BukkitRunnable() {
+        // NEU: Entlade Welten nach Event, erst wenn alle Spieler die Welt verlassen haben.
+        // Die Session bleibt bis dahin registriert: wartende Spieler behalten Rettungspunkt und Welt-Schutz
+        CompletableFuture.allOf(jobs.toArray(new CompletableFuture[0])).whenComplete((v, ex) ->
+        plugin.getTaskManager().schedule(worldOwner, new WheelTask() {
             @Override
             public void run() {
-                String cloneSrcFS = config.getCloneSourceEventWorld();
-                if (cloneSrcFS != null && !cloneSrcFS.isEmpty()) {
-                    MultiverseHelper mv = new MultiverseHelper(plugin);
-                    mv.deleteWorld(config.getEventWorld(), null);
-                    mv.cloneWorld(cloneSrcFS, config.getEventWorld(), null);
-                    mv.unloadWorld(config.getEventWorld());
-                } else if (config.shouldRegenerateEventWorld()) {
-                    MultiverseHelper mv = new MultiverseHelper(plugin);
-                    mv.regenerateWorld(config.getEventWorld());
+                try {
+                    String cloneSrcFS = config.getCloneSourceEventWorld();
+                    if (cloneSrcFS != null && !cloneSrcFS.isEmpty()) {
+                        MultiverseHelper mv = new MultiverseHelper(plugin);
+                        mv.deleteWorld(config.getEventWorld(), null);
+                        mv.cloneWorld(cloneSrcFS, config.getEventWorld(), null);
+                        mv.unloadWorld(config.getEventWorld());
+                    } else if (config.shouldRegenerateEventWorld()) {
+                        MultiverseHelper mv = new MultiverseHelper(plugin);
+                        mv.regenerateWorld(config.getEventWorld());
+                    }
+                } finally {
+                    plugin.getEventManager().removeSession(config.getId());
                 }
             }
-        }.runTaskLater(plugin, de.zfzfg.core.util.Time.seconds(2)));
-        
-        plugin.getEventManager().removeSession(config.getId());
+        }, de.zfzfg.core.util.Time.seconds(2)));
     }
     
     public void forceStop() {
@@ -1555,6 +1607,7 @@ plugin.getEventManager().removeSession(config.getId());
         // Entferne Spectator-Status aus der Event-Session, damit Schutz nicht mehr greift
         spectators.remove(player.getUniqueId());
         leftSpectators.add(player.getUniqueId());
+        plugin.getPlayerStateCache().setEventSpectator(player.getUniqueId(), false);
         player.setGameMode(GameMode.SURVIVAL);
         // Sicherheit: Entferne evtl. übrig gebliebene Unsichtbarkeit aus anderen Plugins
         player.removePotionEffect(org.bukkit.potion.PotionEffectType.INVISIBILITY);
@@ -1633,6 +1686,14 @@ plugin.getEventManager().removeSession(config.getId());
         return spectators.contains(player.getUniqueId());
     }
     
+    /**
+     * True once the event is RUNNING and every participant has been teleported
+     * and equipped; until then PvP between participants is blocked.
+     */
+    public boolean isCombatOpen() {
+        return combatOpen && state == EventState.RUNNING;
+    }
+
     public EventState getState() {
         return state;
     }
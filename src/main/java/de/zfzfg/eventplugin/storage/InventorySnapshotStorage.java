@@ -1,5 +1,6 @@
 package de.zfzfg.eventplugin.storage;
 
+import de.zfzfg.eventplugin.manager.ConfigManager;
 import de.zfzfg.eventplugin.EventPlugin;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
@@ -8,17 +9,74 @@ import org.bukkit.Bukkit;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Persists inventory snapshots so admins can restore on errors.
- * Entries older than 30 days are pruned automatically on save.
+ * Snapshots go to one {@link SnapshotStore} per kind (pre/post) from the active
+ * {@link StorageBackend}: the indexed segment logs under {@code snapshots/} or
+ * the SQLite database. Expired entries are pruned incrementally in the background
+ * by {@link SnapshotRetentionJob}; saving never prunes.
+ * <p>
+ * Lookups for commands and tab completion go to the store's own metadata lookups
+ * (the in-memory index of the segment log, or indexed queries on SQLite); item
+ * payloads are only read when restoring.
  */
 public class InventorySnapshotStorage {
-    private static final String FILE_NAME = "inventory_backups.yml"; // pre-snapshots
-    private static final String FILE_NAME_POST = "inventory_post_backups.yml"; // post-snapshots
-    private static final long THIRTY_DAYS_MILLIS = 30L * 24L * 60L * 60L * 1000L;
+    private static final String FILE_NAME = "inventory_backups.yml"; // legacy pre-snapshots
+    private static final String FILE_NAME_POST = "inventory_post_backups.yml"; // legacy post-snapshots
+
+    /** Payload-Format: YAML-serialisierte contents/armor-Listen. */
+    static final byte FORMAT_YAML = 1;
+    /** Payload-Format: {@link ItemStackCodec} (Dictionary + Varints, optional Deflate). */
+    static final byte FORMAT_BINARY = 2;
+
+    private static final Object INIT_LOCK = new Object();
+    private static volatile SnapshotStore preLog;
+    private static volatile SnapshotStore postLog;
+    private static volatile SnapshotWriter writer;
+    private static volatile SnapshotRetentionJob retentionJob;
+
+    /**
+     * Open the snapshot stores (importing legacy YAML backups once) and schedule
+     * the background retention job. Called from onEnable; other methods open lazily.
+     */
+    public static void init(EventPlugin plugin) {
+        try {
+            ensureOpen(plugin);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Konnte Inventar-Snapshots nicht öffnen: " + e.getMessage());
+            return;
+        }
+        SnapshotRetentionJob job = retentionJob(plugin);
+        job.start(60_000L);
+    }
+
+    /**
+     * Flush barrier: completes once every snapshot queued before this call has
+     * been written. Completes immediately if nothing is pending.
+     */
+    public static CompletableFuture<Void> flush() {
+        SnapshotWriter w = writer;
+        return w != null ? w.flush() : CompletableFuture.completedFuture(null);
+    }
+
+    /** Write pending snapshots and close the stores. Called from onDisable, before the backend is closed. */
+    public static void shutdown() {
+        SnapshotRetentionJob job = retentionJob;
+        if (job != null) job.stop();
+        synchronized (INIT_LOCK) {
+            if (writer != null) writer.drainNow();
+            writer = null;
+            if (preLog != null) preLog.close();
+            if (postLog != null) postLog.close();
+            preLog = null;
+            postLog = null;
+        }
+    }
 
     /**
      * Save the player's current inventory and armor along with metadata.
@@ -26,50 +84,8 @@ public class InventorySnapshotStorage {
      */
     public static void saveSnapshot(EventPlugin plugin, Player player, String group, String reason) {
         try {
-            File folder = plugin.getDataFolder();
-            if (!folder.exists()) folder.mkdirs();
-            File file = new File(folder, FILE_NAME);
-
-            YamlConfiguration cfg = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
-
-            String key = "entries." + player.getUniqueId().toString();
-            List<Map<?, ?>> rawList = cfg.getMapList(key);
-            List<Map<String, Object>> list = new ArrayList<>();
-            if (rawList != null) {
-                for (Map<?, ?> m : rawList) {
-                    Map<String, Object> mm = new LinkedHashMap<>();
-                    for (Map.Entry<?, ?> e : m.entrySet()) {
-                        if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                    }
-                    list.add(mm);
-                }
-            }
-
-            long now = System.currentTimeMillis();
-            Map<String, Object> entry = new LinkedHashMap<>();
-            entry.put("timestamp", now);
-            entry.put("created_at", iso(now));
-            entry.put("player_name", player.getName());
-            entry.put("level", player.getLevel());
-            entry.put("group", group);
-            entry.put("reason", reason);
-            entry.put("world", safeWorldName(player));
-            entry.put("inventory_id", nextInventoryIdForWorld(cfg, safeWorldName(player)));
-            // eventMatchId is optional; can be injected via enriched API below
-
-            // Store contents and armor as lists to preserve slot order
-            ItemStack[] contents = player.getInventory().getContents();
-            ItemStack[] armor = player.getInventory().getArmorContents();
-            entry.put("contents", toList(contents));
-            entry.put("armor", toList(armor));
-
-            list.add(entry);
-
-            // Prune old entries for this player
-            pruneList(list, now - THIRTY_DAYS_MILLIS);
-
-            cfg.set(key, list);
-            saveYamlAtomic(cfg, file);
+            SnapshotRecord meta = capture(plugin, false, player, group, reason, null, null);
+            writeNow(plugin, false, meta, copyOf(player.getInventory().getContents()), copyOf(player.getInventory().getArmorContents()));
         } catch (IOException e) {
             plugin.getLogger().warning("Failed to save inventory snapshot: " + e.getMessage());
         } catch (Exception e) {
@@ -78,109 +94,46 @@ public class InventorySnapshotStorage {
     }
 
     /**
-     * Async variant: capture player data on main thread, perform file I/O asynchronously.
+     * Async variant: capture player data on main thread, hand the write to the batched snapshot writer.
      */
     public static void saveSnapshotAsync(EventPlugin plugin, Player player, String group, String reason) {
         // Capture necessary data on the calling thread (expected main thread)
-        final java.util.UUID playerId = player.getUniqueId();
-        final String playerName = player.getName();
-        final int playerLevel = player.getLevel();
-        final String worldName = safeWorldName(player);
-        final java.util.List<ItemStack> contents = toList(player.getInventory().getContents());
-        final java.util.List<ItemStack> armor = toList(player.getInventory().getArmorContents());
-        final long now = System.currentTimeMillis();
-
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                File folder = plugin.getDataFolder();
-                if (!folder.exists()) folder.mkdirs();
-                File file = new File(folder, FILE_NAME);
-
-                YamlConfiguration cfg = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
-                String key = "entries." + playerId.toString();
-                java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList(key);
-                java.util.List<java.util.Map<String, Object>> list = new java.util.ArrayList<>();
-                if (rawList != null) {
-                    for (java.util.Map<?, ?> m : rawList) {
-                        java.util.Map<String, Object> mm = new java.util.LinkedHashMap<>();
-                        for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                            if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                        }
-                        list.add(mm);
-                    }
-                }
+        final SnapshotRecord meta;
+        try {
+            meta = capture(plugin, false, player, group, reason, null, null);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save inventory snapshot (async): " + e.getMessage());
+            return;
+        }
+        final ItemStack[] contents = copyOf(player.getInventory().getContents());
+        final ItemStack[] armor = copyOf(player.getInventory().getArmorContents());
 
-                java.util.Map<String, Object> entry = new java.util.LinkedHashMap<>();
-                entry.put("timestamp", now);
-                entry.put("created_at", iso(now));
-                entry.put("player_name", playerName);
-                entry.put("level", playerLevel);
-                entry.put("group", group);
-                entry.put("reason", reason);
-                entry.put("world", worldName);
-                entry.put("inventory_id", nextInventoryIdForWorld(cfg, worldName));
-                entry.put("contents", contents);
-                entry.put("armor", armor);
-
-                list.add(entry);
-                pruneList(list, now - THIRTY_DAYS_MILLIS);
-                cfg.set(key, list);
-                saveYamlAtomic(cfg, file);
-            } catch (IOException e) {
-                plugin.getLogger().warning("Failed to save inventory snapshot (async): " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().warning("Unexpected error saving inventory snapshot (async): " + e.getMessage());
-            }
-        });
+        try {
+            writer(plugin).submit(log(plugin, false), meta, contents, armor);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to queue inventory snapshot: " + e.getMessage());
+        }
     }
 
     /**
-     * Enriched API: save snapshot in pre or post file, auto-select group from config, and attach event/match ID.
+     * Enriched API: save snapshot in pre or post log, auto-select group from config, and attach event/match ID.
      */
     public static void saveSnapshotWithIds(EventPlugin plugin, Player player, String reason, String eventMatchId, boolean post) {
-        try {
-            File folder = plugin.getDataFolder();
-            if (!folder.exists()) folder.mkdirs();
-            File file = new File(folder, post ? FILE_NAME_POST : FILE_NAME);
-
-            YamlConfiguration cfg = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
-
-            String key = "entries." + player.getUniqueId().toString();
-            List<Map<?, ?>> rawList = cfg.getMapList(key);
-            List<Map<String, Object>> list = new ArrayList<>();
-            if (rawList != null) {
-                for (Map<?, ?> m : rawList) {
-                    Map<String, Object> mm = new LinkedHashMap<>();
-                    for (Map.Entry<?, ?> e : m.entrySet()) {
-                        if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                    }
-                    list.add(mm);
-                }
-            }
+        saveSnapshotWithIds(plugin, player, reason, eventMatchId, post, null);
+    }
+
+    /**
+     * Async variant for enriched API: capture player data, resolve group, and queue the write.
+     */
+    public static void saveSnapshotWithIdsAsync(EventPlugin plugin, Player player, String reason, String eventMatchId, boolean post) {
+        saveSnapshotWithIdsAsync(plugin, player, reason, eventMatchId, post, null);
+    }
 
+    public static void saveSnapshotWithIds(EventPlugin plugin, Player player, String reason, String eventMatchId, boolean post, String prefix) {
+        try {
             String group = resolveGroupForWorld(plugin, safeWorldName(player));
-            long now = System.currentTimeMillis();
-            Map<String, Object> entry = new LinkedHashMap<>();
-            entry.put("timestamp", now);
-            entry.put("created_at", iso(now));
-            entry.put("player_name", player.getName());
-            entry.put("level", player.getLevel());
-            entry.put("group", group);
-            entry.put("reason", reason);
-            entry.put("world", safeWorldName(player));
-            String invId = nextInventoryIdForWorld(cfg, safeWorldName(player));
-            entry.put("inventory_id", invId);
-            if (eventMatchId != null && !eventMatchId.isEmpty()) entry.put("event_match_id", eventMatchId);
-
-            ItemStack[] contents = player.getInventory().getContents();
-            ItemStack[] armor = player.getInventory().getArmorContents();
-            entry.put("contents", toList(contents));
-            entry.put("armor", toList(armor));
-
-            list.add(entry);
-            pruneList(list, now - THIRTY_DAYS_MILLIS);
-            cfg.set(key, list);
-            saveYamlAtomic(cfg, file);
+            SnapshotRecord meta = capture(plugin, post, player, group, reason, eventMatchId, prefix);
+            writeNow(plugin, post, meta, copyOf(player.getInventory().getContents()), copyOf(player.getInventory().getArmorContents()));
         } catch (IOException e) {
             plugin.getLogger().warning("Failed to save inventory snapshot: " + e.getMessage());
         } catch (Exception e) {
@@ -188,397 +141,415 @@ public class InventorySnapshotStorage {
         }
     }
 
-    /**
-     * Async variant for enriched API: capture player data, resolve group, and write asynchronously.
-     */
-    public static void saveSnapshotWithIdsAsync(EventPlugin plugin, Player player, String reason, String eventMatchId, boolean post) {
-        final java.util.UUID playerId = player.getUniqueId();
-        final String playerName = player.getName();
-        final int playerLevel = player.getLevel();
-        final String worldName = safeWorldName(player);
-        final String group = resolveGroupForWorld(plugin, worldName);
-        final java.util.List<ItemStack> contents = toList(player.getInventory().getContents());
-        final java.util.List<ItemStack> armor = toList(player.getInventory().getArmorContents());
-        final long now = System.currentTimeMillis();
+    public static void saveSnapshotWithIdsAsync(EventPlugin plugin, Player player, String reason, String eventMatchId, boolean post, String prefix) {
+        final String group = resolveGroupForWorld(plugin, safeWorldName(player));
+        final SnapshotRecord meta;
+        try {
+            meta = capture(plugin, post, player, group, reason, eventMatchId, prefix);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save inventory snapshot (async): " + e.getMessage());
+            return;
+        }
+        final ItemStack[] contents = copyOf(player.getInventory().getContents());
+        final ItemStack[] armor = copyOf(player.getInventory().getArmorContents());
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                File folder = plugin.getDataFolder();
-                if (!folder.exists()) folder.mkdirs();
-                File file = new File(folder, post ? FILE_NAME_POST : FILE_NAME);
-
-                YamlConfiguration cfg = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
-                String key = "entries." + playerId.toString();
-                java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList(key);
-                java.util.List<java.util.Map<String, Object>> list = new java.util.ArrayList<>();
-                if (rawList != null) {
-                    for (java.util.Map<?, ?> m : rawList) {
-                        java.util.Map<String, Object> mm = new java.util.LinkedHashMap<>();
-                        for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                            if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                        }
-                        list.add(mm);
-                    }
-                }
+        try {
+            writer(plugin).submit(log(plugin, post), meta, contents, armor);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to queue inventory snapshot: " + e.getMessage());
+        }
+    }
 
-                java.util.Map<String, Object> entry = new java.util.LinkedHashMap<>();
-                entry.put("timestamp", now);
-                entry.put("created_at", iso(now));
-                entry.put("player_name", playerName);
-                entry.put("level", playerLevel);
-                entry.put("group", group);
-                entry.put("reason", reason);
-                entry.put("world", worldName);
-                String invId = nextInventoryIdForWorld(cfg, worldName);
-                entry.put("inventory_id", invId);
-                if (eventMatchId != null && !eventMatchId.isEmpty()) entry.put("event_match_id", eventMatchId);
-                entry.put("contents", contents);
-                entry.put("armor", armor);
-
-                list.add(entry);
-                pruneList(list, now - THIRTY_DAYS_MILLIS);
-                cfg.set(key, list);
-                saveYamlAtomic(cfg, file);
-            } catch (IOException e) {
-                plugin.getLogger().warning("Failed to save inventory snapshot (async): " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().warning("Unexpected error saving inventory snapshot (async): " + e.getMessage());
+    /**
+     * Restore a snapshot by 4-digit inventory_id (pre snapshots first, then post),
+     * reading and decoding the payload on the calling thread. Kept for existing
+     * callers; it blocks on storage I/O, so new code should use
+     * {@link #restoreByInventoryIdAsync}. The owner must be online; the inventory
+     * is set on the main thread.
+     *
+     * @return true if the snapshot was found and the restore was applied or scheduled
+     */
+    public static boolean restoreByInventoryId(EventPlugin plugin, String inventoryId) {
+        try {
+            SnapshotStore store = log(plugin, false);
+            SnapshotRecord record = store.findByInventoryId(inventoryId);
+            if (record == null) {
+                store = log(plugin, true);
+                record = store.findByInventoryId(inventoryId);
             }
-        });
+            if (record == null) return false;
+
+            // Fallback: try by player_name
+            Player target = Bukkit.getPlayer(record.getPlayerId());
+            if (target == null && !record.getPlayerName().isEmpty()) target = Bukkit.getPlayerExact(record.getPlayerName());
+            if (target == null || !target.isOnline()) return false;
+
+            SnapshotStore.Payload payload = store.readPayload(record);
+            if (payload == null) return false;
+            final ItemStack[][] items = decodeItems(payload);
+            final Player restoreTarget = target;
+            Runnable apply = () -> {
+                try {
+                    restoreTarget.getInventory().setContents(items[0]);
+                    restoreTarget.getInventory().setArmorContents(items[1]);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to restore inventory by ID " + inventoryId + ": " + e.getMessage());
+                }
+            };
+            // Restore contents and armor on main thread
+            if (Bukkit.isPrimaryThread()) apply.run();
+            else Bukkit.getScheduler().runTask(plugin, apply);
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to schedule inventory restore by ID " + inventoryId + ": " + e.getMessage());
+            return false;
+        }
     }
 
-    /** Restore a snapshot by 4-digit inventory_id. Searches pre and post files. */
-    public static boolean restoreByInventoryId(EventPlugin plugin, String inventoryId) {
-        Map<String, Object> entry = findEntryByInventoryId(plugin, FILE_NAME, inventoryId);
-        if (entry == null) entry = findEntryByInventoryId(plugin, FILE_NAME_POST, inventoryId);
-        if (entry == null) return false;
-
-        String uuidStr = (String) entry.getOrDefault("uuid", null);
-        UUID playerId = null;
-        if (uuidStr != null) {
-            try { playerId = UUID.fromString(uuidStr); } catch (Exception ignored) {}
+    /**
+     * Restore a snapshot by 4-digit inventory_id (pre snapshots first, then post).
+     * Call on the main thread: the owner must be online; the payload is read and
+     * decoded asynchronously and the inventory is set back on the main thread.
+     * The future completes on the main thread with true once the inventory was set.
+     */
+    public static CompletableFuture<Boolean> restoreByInventoryIdAsync(EventPlugin plugin, String inventoryId) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        final boolean post;
+        final SnapshotRecord record;
+        try {
+            SnapshotRecord found = log(plugin, false).findByInventoryId(inventoryId);
+            boolean inPost = false;
+            if (found == null) {
+                found = log(plugin, true).findByInventoryId(inventoryId);
+                inPost = true;
+            }
+            if (found == null) {
+                result.complete(false);
+                return result;
+            }
+            post = inPost;
+            record = found;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to schedule inventory restore by ID " + inventoryId + ": " + e.getMessage());
+            result.complete(false);
+            return result;
         }
+
         // Fallback: try by player_name
-        Player target = null;
-        if (playerId != null) target = org.bukkit.Bukkit.getPlayer(playerId);
-        if (target == null) {
-            String playerName = (String) entry.getOrDefault("player_name", null);
-            if (playerName != null) target = org.bukkit.Bukkit.getPlayerExact(playerName);
+        Player target = Bukkit.getPlayer(record.getPlayerId());
+        if (target == null && !record.getPlayerName().isEmpty()) target = Bukkit.getPlayerExact(record.getPlayerName());
+        if (target == null || !target.isOnline()) {
+            result.complete(false);
+            return result;
         }
-        if (target == null || !target.isOnline()) return false;
+        final Player restoreTarget = target;
 
-        // Restore contents and armor on main thread
-        final java.util.List<?> contentsList = (java.util.List<?>) entry.get("contents");
-        final java.util.List<?> armorList = (java.util.List<?>) entry.get("armor");
-        final org.bukkit.entity.Player restoreTarget = target;
-        final String invId = inventoryId;
-        try {
-            org.bukkit.Bukkit.getScheduler().runTask(plugin, () -> {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            ItemStack[][] items = null;
+            try {
+                // Aktuelle Position aus dem Store (Kompaktierung kann Einträge verschoben haben)
+                SnapshotStore store = log(plugin, post);
+                SnapshotRecord located = store.findByInventoryId(inventoryId);
+                SnapshotStore.Payload payload = located != null ? store.readPayload(located) : null;
+                if (payload != null) items = decodeItems(payload);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to read inventory snapshot " + inventoryId + ": " + e.getMessage());
+            }
+            final ItemStack[][] decoded = items;
+            // Restore contents and armor on main thread
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (decoded == null || !restoreTarget.isOnline()) {
+                    result.complete(false);
+                    return;
+                }
                 try {
-                    ItemStack[] contents = fromList(contentsList);
-                    ItemStack[] armor = fromList(armorList);
-                    restoreTarget.getInventory().setContents(contents);
-                    restoreTarget.getInventory().setArmorContents(armor);
+                    restoreTarget.getInventory().setContents(decoded[0]);
+                    restoreTarget.getInventory().setArmorContents(decoded[1]);
+                    result.complete(true);
                 } catch (Exception e) {
-                    plugin.getLogger().warning("Failed to restore inventory by ID " + invId + ": " + e.getMessage());
+                    plugin.getLogger().warning("Failed to restore inventory by ID " + inventoryId + ": " + e.getMessage());
+                    result.complete(false);
                 }
             });
-            return true;
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to schedule inventory restore by ID " + invId + ": " + e.getMessage());
-            return false;
-        }
+        });
+        return result;
     }
 
     /** Public accessor: fetch snapshot entry metadata by ID (world, event_match_id, player_name). */
     public static Map<String, Object> getEntryByInventoryId(EventPlugin plugin, String inventoryId) {
-        Map<String, Object> entry = findEntryByInventoryId(plugin, FILE_NAME, inventoryId);
-        if (entry == null) entry = findEntryByInventoryId(plugin, FILE_NAME_POST, inventoryId);
-        return entry;
-    }
-
-    private static Map<String, Object> findEntryByInventoryId(EventPlugin plugin, String fileName, String inventoryId) {
         try {
-            File file = new File(plugin.getDataFolder(), fileName);
-            if (!file.exists()) return null;
-            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-            if (cfg.getConfigurationSection("entries") == null) return null;
-            Set<String> uuids = cfg.getConfigurationSection("entries").getKeys(false);
-            for (String uuidKey : uuids) {
-                List<Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                if (rawList == null) continue;
-                for (Map<?, ?> m : rawList) {
-                    Object idObj = m.get("inventory_id");
-                    if (idObj != null && inventoryId.equals(String.valueOf(idObj))) {
-                        Map<String, Object> mm = new LinkedHashMap<>();
-                        for (Map.Entry<?, ?> e : m.entrySet()) {
-                            if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                        }
-                        mm.put("uuid", uuidKey);
-                        return mm;
-                    }
-                }
-            }
+            SnapshotRecord r = log(plugin, false).findByInventoryId(inventoryId);
+            if (r == null) r = log(plugin, true).findByInventoryId(inventoryId);
+            return r != null ? r.toMap() : null;
         } catch (Exception e) {
             plugin.getLogger().warning("Error finding inventory entry by ID: " + e.getMessage());
+            return null;
         }
-        return null;
     }
 
     /** List UUIDs of players that have any snapshots (pre or post). */
-    public static java.util.Set<java.util.UUID> listPlayerUuidsWithSnapshots(EventPlugin plugin) {
-        java.util.Set<java.util.UUID> set = new java.util.LinkedHashSet<>();
-        collectPlayerUuidsFromFile(plugin, FILE_NAME, set);
-        collectPlayerUuidsFromFile(plugin, FILE_NAME_POST, set);
+    public static Set<UUID> listPlayerUuidsWithSnapshots(EventPlugin plugin) {
+        Set<UUID> set = new LinkedHashSet<>();
+        try {
+            set.addAll(log(plugin, false).players());
+            set.addAll(log(plugin, true).players());
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error collecting snapshot players: " + e.getMessage());
+        }
         return set;
     }
 
-    private static void collectPlayerUuidsFromFile(EventPlugin plugin, String fileName, java.util.Set<java.util.UUID> out) {
+    /** List all inventory_id values for a specific player (pre and post snapshots). */
+    public static List<String> listInventoryIdsForPlayer(EventPlugin plugin, UUID playerId) {
+        List<String> ids = new ArrayList<>();
         try {
-            File file = new File(plugin.getDataFolder(), fileName);
-            if (!file.exists()) return;
-            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-            if (cfg.getConfigurationSection("entries") == null) return;
-            for (String uuidKey : cfg.getConfigurationSection("entries").getKeys(false)) {
-                java.util.UUID id;
-                try { id = java.util.UUID.fromString(uuidKey); } catch (Exception ignored) { id = null; }
-                if (id == null) continue;
-                java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                if (rawList != null && !rawList.isEmpty()) out.add(id);
-            }
+            for (SnapshotRecord r : log(plugin, false).recordsFor(playerId)) ids.add(r.getInventoryId());
+            for (SnapshotRecord r : log(plugin, true).recordsFor(playerId)) ids.add(r.getInventoryId());
         } catch (Exception e) {
-            plugin.getLogger().warning("Error collecting snapshot players from " + fileName + ": " + e.getMessage());
+            plugin.getLogger().warning("Error collecting inventory IDs: " + e.getMessage());
         }
+        return ids;
     }
 
-    /** List all inventory_id values for a specific player (pre and post snapshots). */
-    public static java.util.List<String> listInventoryIdsForPlayer(EventPlugin plugin, java.util.UUID playerId) {
-        java.util.List<String> ids = new java.util.ArrayList<>();
-        collectInventoryIdsForPlayerFromFile(plugin, FILE_NAME, playerId, ids);
-        collectInventoryIdsForPlayerFromFile(plugin, FILE_NAME_POST, playerId, ids);
-        return ids;
+    /** Number of snapshots (pre and post) stored for a player. */
+    public static int countSnapshotsForPlayer(EventPlugin plugin, UUID playerId) {
+        try {
+            return log(plugin, false).countFor(playerId) + log(plugin, true).countFor(playerId);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error counting snapshots: " + e.getMessage());
+            return 0;
+        }
     }
 
-    private static void collectInventoryIdsForPlayerFromFile(EventPlugin plugin, String fileName, java.util.UUID playerId, java.util.List<String> out) {
+    /**
+     * One page of a player's snapshot history (pre and post), newest first, as
+     * metadata maps like {@link #getEntryByInventoryId}. Pages start at 1.
+     */
+    public static List<Map<String, Object>> listSnapshotsForPlayer(EventPlugin plugin, UUID playerId, int page, int pageSize) {
+        List<Map<String, Object>> out = new ArrayList<>();
         try {
-            File file = new File(plugin.getDataFolder(), fileName);
-            if (!file.exists()) return;
-            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-            String key = "entries." + playerId.toString();
-            java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList(key);
-            if (rawList == null) return;
-            for (java.util.Map<?, ?> m : rawList) {
-                Object idObj = m.get("inventory_id");
-                if (idObj != null) out.add(String.valueOf(idObj));
+            List<SnapshotRecord> all = new ArrayList<>(log(plugin, false).recordsFor(playerId));
+            int preCount = all.size();
+            all.addAll(log(plugin, true).recordsFor(playerId));
+            List<Integer> order = new ArrayList<>(all.size());
+            for (int i = 0; i < all.size(); i++) order.add(i);
+            order.sort((a, b) -> Long.compare(all.get(b).getTimestamp(), all.get(a).getTimestamp()));
+            int from = Math.max(0, (page - 1) * pageSize);
+            int to = Math.min(order.size(), from + pageSize);
+            for (int i = from; i < to; i++) {
+                int idx = order.get(i);
+                Map<String, Object> m = all.get(idx).toMap();
+                m.put("kind", idx < preCount ? "pre" : "post");
+                out.add(m);
             }
         } catch (Exception e) {
-            plugin.getLogger().warning("Error collecting inventory IDs from " + fileName + ": " + e.getMessage());
+            plugin.getLogger().warning("Error listing snapshots: " + e.getMessage());
         }
+        return out;
     }
 
     /** Try to find a snapshot owner UUID by a stored player_name (case-insensitive). */
-    public static java.util.UUID findSnapshotOwnerUuidByName(EventPlugin plugin, String playerName) {
-        java.util.UUID found = findSnapshotOwnerUuidByNameFromFile(plugin, FILE_NAME, playerName);
-        if (found != null) return found;
-        return findSnapshotOwnerUuidByNameFromFile(plugin, FILE_NAME_POST, playerName);
-    }
-
-    private static java.util.UUID findSnapshotOwnerUuidByNameFromFile(EventPlugin plugin, String fileName, String playerName) {
+    public static UUID findSnapshotOwnerUuidByName(EventPlugin plugin, String playerName) {
         try {
-            File file = new File(plugin.getDataFolder(), fileName);
-            if (!file.exists()) return null;
-            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-            if (cfg.getConfigurationSection("entries") == null) return null;
-            for (String uuidKey : cfg.getConfigurationSection("entries").getKeys(false)) {
-                java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                if (rawList == null) continue;
-                for (java.util.Map<?, ?> m : rawList) {
-                    Object nameObj = m.get("player_name");
-                    if (nameObj != null && playerName.equalsIgnoreCase(String.valueOf(nameObj))) {
-                        try { return java.util.UUID.fromString(uuidKey); } catch (Exception ignored) { return null; }
-                    }
-                }
-            }
+            SnapshotRecord pre = log(plugin, false).latestByName(playerName);
+            SnapshotRecord post = log(plugin, true).latestByName(playerName);
+            SnapshotRecord newest = newer(pre, post);
+            return newest != null ? newest.getPlayerId() : null;
         } catch (Exception e) {
-            plugin.getLogger().warning("Error finding snapshot owner by name in " + fileName + ": " + e.getMessage());
+            plugin.getLogger().warning("Error finding snapshot owner by name: " + e.getMessage());
         }
         return null;
     }
 
     /** Get last known stored player_name for a UUID (from snapshots). */
-    public static String getLastKnownName(EventPlugin plugin, java.util.UUID playerId) {
-        String name = getLastKnownNameFromFile(plugin, FILE_NAME, playerId);
-        if (name != null && !name.isEmpty()) return name;
-        return getLastKnownNameFromFile(plugin, FILE_NAME_POST, playerId);
+    public static String getLastKnownName(EventPlugin plugin, UUID playerId) {
+        try {
+            SnapshotRecord newest = newer(log(plugin, false).latestFor(playerId), log(plugin, true).latestFor(playerId));
+            if (newest != null && !newest.getPlayerName().isEmpty()) return newest.getPlayerName();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error reading last known name: " + e.getMessage());
+        }
+        return null;
     }
 
-    private static String getLastKnownNameFromFile(EventPlugin plugin, String fileName, java.util.UUID playerId) {
+    /**
+     * Run a complete retention pass now (or finish the running one), blocking.
+     * Normally the background job does this incrementally.
+     */
+    public static void pruneOldEntries(EventPlugin plugin) {
         try {
-            File file = new File(plugin.getDataFolder(), fileName);
-            if (!file.exists()) return null;
-            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-            String key = "entries." + playerId.toString();
-            java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList(key);
-            if (rawList == null || rawList.isEmpty()) return null;
-            java.util.Map<?, ?> last = rawList.get(rawList.size() - 1);
-            Object nameObj = last.get("player_name");
-            return nameObj != null ? String.valueOf(nameObj) : null;
+            ensureOpen(plugin);
+            retentionJob(plugin).runFullPass();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to prune inventory snapshots: " + e.getMessage());
         } catch (Exception e) {
-            plugin.getLogger().warning("Error reading last known name from " + fileName + ": " + e.getMessage());
-            return null;
+            plugin.getLogger().warning("Unexpected error pruning inventory snapshots: " + e.getMessage());
         }
     }
 
-    private static String safeWorldName(Player player) {
-        try { return player.getWorld() != null ? player.getWorld().getName() : "unknown"; } catch (Exception e) { return "unknown"; }
+    /** Counters of the retention job (passes, removed snapshots, bytes reclaimed). */
+    public static Map<String, Object> getRetentionMetrics(EventPlugin plugin) {
+        return retentionJob(plugin).metrics();
     }
 
-    private static String nextInventoryIdForWorld(YamlConfiguration cfg, String world) {
-        int max = 0;
-        if (cfg.getConfigurationSection("entries") != null) {
-            Set<String> uuids = cfg.getConfigurationSection("entries").getKeys(false);
-            for (String uuidKey : uuids) {
-                List<Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                if (rawList == null) continue;
-                for (Map<?, ?> m : rawList) {
-                    Object wObj = m.get("world");
-                    String w = (wObj != null) ? String.valueOf(wObj) : "";
-                    Object idObj = m.get("inventory_id");
-                    if (world.equals(w) && idObj != null) {
-                        String idStr = String.valueOf(idObj);
-                        String digits = extractLastFourDigits(idStr);
-                        if (digits != null) {
-                            try {
-                                int id = Integer.parseInt(digits);
-                                if (id > max) max = id;
-                            } catch (NumberFormatException ignored) {}
-                        }
-                    }
-                }
+    /**
+     * Migration tool: imports leftover inventory_backups.yml / inventory_post_backups.yml
+     * and re-encodes all YAML payloads in the logs with {@link ItemStackCodec}.
+     * Blocking; run it off the main thread.
+     *
+     * @return number of imported plus converted snapshots
+     */
+    public static int migrateToBinary(EventPlugin plugin) throws IOException {
+        int count = importLegacyFile(plugin, log(plugin, false), FILE_NAME);
+        count += importLegacyFile(plugin, log(plugin, true), FILE_NAME_POST);
+        SnapshotStore.PayloadConverter toBinary = payload -> {
+            ItemStack[][] items = decodeItems(payload);
+            return encodeItems(items[0], items[1]);
+        };
+        count += log(plugin, false).convertPayloads(FORMAT_BINARY, toBinary);
+        count += log(plugin, true).convertPayloads(FORMAT_BINARY, toBinary);
+        return count;
+    }
+
+    // ===== Internals =====
+
+    /** Open store of a kind without opening it lazily; null after shutdown. */
+    static SnapshotStore openStore(boolean post) {
+        return post ? postLog : preLog;
+    }
+
+    private static SnapshotRetentionJob retentionJob(EventPlugin plugin) {
+        SnapshotRetentionJob job = retentionJob;
+        if (job != null) return job;
+        synchronized (INIT_LOCK) {
+            if (retentionJob == null) {
+                ConfigManager cfg = plugin.getConfigManager();
+                retentionJob = cfg != null
+                        ? new SnapshotRetentionJob(plugin, cfg.getSnapshotRetainDaysEvent(),
+                                cfg.getSnapshotRetainDaysPvpWager(), cfg.getSnapshotPruneIntervalMinutes())
+                        : new SnapshotRetentionJob(plugin, 30, 30, 60);
             }
+            return retentionJob;
         }
-        int next = max + 1;
-        if (next > 9999) next = 1; // wrap-around
-        return String.format("%04d", next);
     }
 
-    private static String extractLastFourDigits(String s) {
-        if (s == null) return null;
-        try {
-            java.util.regex.Matcher m = java.util.regex.Pattern.compile("(\\d{4})$").matcher(s);
-            if (m.find()) return m.group(1);
-        } catch (Exception ignored) {}
-        return null;
+    private static SnapshotStore log(EventPlugin plugin, boolean post) throws IOException {
+        ensureOpen(plugin);
+        return post ? postLog : preLog;
     }
 
-    public static void saveSnapshotWithIds(EventPlugin plugin, Player player, String reason, String eventMatchId, boolean post, String prefix) {
+    private static void ensureOpen(EventPlugin plugin) throws IOException {
+        if (preLog != null && postLog != null && writer != null) return;
+        synchronized (INIT_LOCK) {
+            if (preLog != null && postLog != null && writer != null) return;
+            SnapshotStore pre = openLog(plugin, false, FILE_NAME);
+            SnapshotStore post = openLog(plugin, true, FILE_NAME_POST);
+            writer = new SnapshotWriter(plugin);
+            postLog = post;
+            preLog = pre;
+        }
+    }
+
+    private static SnapshotRecord newer(SnapshotRecord a, SnapshotRecord b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return b.getTimestamp() > a.getTimestamp() ? b : a;
+    }
+
+    private static SnapshotStore openLog(EventPlugin plugin, boolean post, String legacyFileName) throws IOException {
+        SnapshotStore log = StorageBackends.get(plugin).openSnapshotStore(post);
+        importLegacyFile(plugin, log, legacyFileName);
+        return log;
+    }
+
+    /** Import a legacy YAML backup file if present and rename it to .migrated. */
+    private static int importLegacyFile(EventPlugin plugin, SnapshotStore log, String legacyFileName) {
+        File legacy = new File(plugin.getDataFolder(), legacyFileName);
+        if (!legacy.exists()) return 0;
+        int imported;
         try {
-            File folder = plugin.getDataFolder();
-            if (!folder.exists()) folder.mkdirs();
-            File file = new File(folder, post ? FILE_NAME_POST : FILE_NAME);
-
-            YamlConfiguration cfg = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
-
-            String key = "entries." + player.getUniqueId().toString();
-            List<Map<?, ?>> rawList = cfg.getMapList(key);
-            List<Map<String, Object>> list = new ArrayList<>();
-            if (rawList != null) {
-                for (Map<?, ?> m : rawList) {
-                    Map<String, Object> mm = new LinkedHashMap<>();
-                    for (Map.Entry<?, ?> e : m.entrySet()) {
-                        if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                    }
-                    list.add(mm);
-                }
+            imported = importLegacyYaml(plugin, log, legacy);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Konnte " + legacy.getName() + " nicht importieren, Datei bleibt erhalten: " + e.getMessage());
+            return 0;
+        }
+        File migrated = new File(legacy.getParentFile(), legacy.getName() + ".migrated");
+        if (!legacy.renameTo(migrated)) {
+            plugin.getLogger().warning("Konnte " + legacy.getName() + " nach Import nicht umbenennen.");
+        }
+        plugin.getLogger().info(imported + " Inventar-Snapshots aus " + legacy.getName() + " importiert.");
+        return imported;
+    }
+
+    /**
+     * One-time import of the old full-YAML backup file into the snapshot store.
+     * Entries keep their original inventory_id and timestamp.
+     */
+    private static int importLegacyYaml(EventPlugin plugin, SnapshotStore log, File file) throws IOException {
+        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
+        if (cfg.getConfigurationSection("entries") == null) return 0;
+        List<SnapshotRecord> metas = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        for (String uuidKey : cfg.getConfigurationSection("entries").getKeys(false)) {
+            UUID playerId;
+            try { playerId = UUID.fromString(uuidKey); } catch (Exception ignored) { continue; }
+            List<Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
+            if (rawList == null) continue;
+            for (Map<?, ?> m : rawList) {
+                Object tsObj = m.get("timestamp");
+                long ts = (tsObj instanceof Number) ? ((Number) tsObj).longValue() : System.currentTimeMillis();
+                Object levelObj = m.get("level");
+                int level = (levelObj instanceof Number) ? ((Number) levelObj).intValue() : 0;
+                SnapshotRecord meta = new SnapshotRecord(playerId, str(m.get("player_name")), ts, level,
+                        str(m.get("group")), str(m.get("reason")), str(m.get("world")),
+                        str(m.get("inventory_id")), str(m.get("event_match_id")));
+                List<?> contents = (m.get("contents") instanceof List) ? (List<?>) m.get("contents") : Collections.emptyList();
+                List<?> armor = (m.get("armor") instanceof List) ? (List<?>) m.get("armor") : Collections.emptyList();
+                metas.add(meta);
+                payloads.add(encodeItems(fromList(contents), fromList(armor)));
             }
+        }
+        log.importAll(metas, FORMAT_BINARY, payloads);
+        return metas.size();
+    }
 
-            String group = resolveGroupForWorld(plugin, safeWorldName(player));
-            long now = System.currentTimeMillis();
-            Map<String, Object> entry = new LinkedHashMap<>();
-            entry.put("timestamp", now);
-            entry.put("created_at", iso(now));
-            entry.put("player_name", player.getName());
-            entry.put("level", player.getLevel());
-            entry.put("group", group);
-            entry.put("reason", reason);
-            entry.put("world", safeWorldName(player));
-            String numericId = nextInventoryIdForWorld(cfg, safeWorldName(player));
-            String invId = (prefix != null && !prefix.isEmpty()) ? (prefix.toUpperCase() + numericId) : numericId;
-            entry.put("inventory_id", invId);
-            if (eventMatchId != null && !eventMatchId.isEmpty()) entry.put("event_match_id", eventMatchId);
-
-            ItemStack[] contents = player.getInventory().getContents();
-            ItemStack[] armor = player.getInventory().getArmorContents();
-            entry.put("contents", toList(contents));
-            entry.put("armor", toList(armor));
-
-            list.add(entry);
-            pruneList(list, now - THIRTY_DAYS_MILLIS);
-            cfg.set(key, list);
-            saveYamlAtomic(cfg, file);
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to save inventory snapshot: " + e.getMessage());
+    /**
+     * Capture metadata on the calling thread. The inventory_id is allocated here
+     * from the world's counter, so it is fixed before any async write runs.
+     */
+    private static SnapshotRecord capture(EventPlugin plugin, boolean post, Player player, String group, String reason,
+                                          String eventMatchId, String prefix) throws IOException {
+        String world = safeWorldName(player);
+        String numericId = log(plugin, post).allocateInventoryId(world);
+        String p = normalizePrefix(prefix);
+        return new SnapshotRecord(player.getUniqueId(), player.getName(), System.currentTimeMillis(), player.getLevel(),
+                group, reason, world, p.isEmpty() ? numericId : (p + numericId), eventMatchId);
+    }
+
+    /** Synchronous save: queue behind pending snapshots and drain on the calling thread. */
+    private static void writeNow(EventPlugin plugin, boolean post, SnapshotRecord meta,
+                                 ItemStack[] contents, ItemStack[] armor) throws IOException {
+        SnapshotWriter w = writer(plugin);
+        CompletableFuture<Void> done = w.submit(log(plugin, post), meta, contents, armor);
+        w.drainNow();
+        try {
+            done.join();
         } catch (Exception e) {
-            plugin.getLogger().warning("Unexpected error saving inventory snapshot: " + e.getMessage());
+            throw new IOException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e);
         }
     }
 
-    public static void saveSnapshotWithIdsAsync(EventPlugin plugin, Player player, String reason, String eventMatchId, boolean post, String prefix) {
-        final java.util.UUID playerId = player.getUniqueId();
-        final String playerName = player.getName();
-        final int playerLevel = player.getLevel();
-        final String worldName = safeWorldName(player);
-        final String group = resolveGroupForWorld(plugin, worldName);
-        final java.util.List<ItemStack> contents = toList(player.getInventory().getContents());
-        final java.util.List<ItemStack> armor = toList(player.getInventory().getArmorContents());
-        final long now = System.currentTimeMillis();
-        final String prefixFinal = (prefix != null ? prefix.toUpperCase() : "");
+    private static SnapshotWriter writer(EventPlugin plugin) throws IOException {
+        ensureOpen(plugin);
+        return writer;
+    }
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                File folder = plugin.getDataFolder();
-                if (!folder.exists()) folder.mkdirs();
-                File file = new File(folder, post ? FILE_NAME_POST : FILE_NAME);
-
-                YamlConfiguration cfg = file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
-                String key = "entries." + playerId.toString();
-                java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList(key);
-                java.util.List<java.util.Map<String, Object>> list = new java.util.ArrayList<>();
-                if (rawList != null) {
-                    for (java.util.Map<?, ?> m : rawList) {
-                        java.util.Map<String, Object> mm = new java.util.LinkedHashMap<>();
-                        for (java.util.Map.Entry<?, ?> e : m.entrySet()) {
-                            if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                        }
-                        list.add(mm);
-                    }
-                }
+    private static String normalizePrefix(String prefix) {
+        return (prefix != null) ? prefix.toUpperCase() : "";
+    }
 
-                java.util.Map<String, Object> entry = new java.util.LinkedHashMap<>();
-                entry.put("timestamp", now);
-                entry.put("created_at", iso(now));
-                entry.put("player_name", playerName);
-                entry.put("level", playerLevel);
-                entry.put("group", group);
-                entry.put("reason", reason);
-                entry.put("world", worldName);
-                String numericId = nextInventoryIdForWorld(cfg, worldName);
-                String invId = prefixFinal.isEmpty() ? numericId : (prefixFinal + numericId);
-                entry.put("inventory_id", invId);
-                if (eventMatchId != null && !eventMatchId.isEmpty()) entry.put("event_match_id", eventMatchId);
-                entry.put("contents", contents);
-                entry.put("armor", armor);
-
-                list.add(entry);
-                pruneList(list, now - THIRTY_DAYS_MILLIS);
-                cfg.set(key, list);
-                saveYamlAtomic(cfg, file);
-            } catch (IOException e) {
-                plugin.getLogger().warning("Failed to save inventory snapshot (async): " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().warning("Unexpected error saving inventory snapshot (async): " + e.getMessage());
-            }
-        });
+    private static String safeWorldName(Player player) {
+        try { return player.getWorld() != null ? player.getWorld().getName() : "unknown"; } catch (Exception e) { return "unknown"; }
     }
 
     private static String resolveGroupForWorld(EventPlugin plugin, String worldName) {
@@ -600,151 +571,39 @@ public class InventorySnapshotStorage {
         }
     }
 
-    /**
-     * Global prune across all players. Safe to call on disable or periodically.
-     */
-    public static void pruneOldEntries(EventPlugin plugin) {
-        try {
-            File file = new File(plugin.getDataFolder(), FILE_NAME);
-            if (!file.exists()) return;
-            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-
-            long cutoff = System.currentTimeMillis() - THIRTY_DAYS_MILLIS;
-            boolean changed = false;
-
-            if (cfg.getConfigurationSection("entries") != null) {
-                Set<String> uuids = cfg.getConfigurationSection("entries").getKeys(false);
-                for (String uuidKey : uuids) {
-                    List<Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                    if (rawList == null || rawList.isEmpty()) continue;
-                    List<Map<String, Object>> list = new ArrayList<>();
-                    for (Map<?, ?> m : rawList) {
-                        Map<String, Object> mm = new LinkedHashMap<>();
-                        for (Map.Entry<?, ?> e : m.entrySet()) {
-                            if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                        }
-                        list.add(mm);
-                    }
-                    int originalSize = list.size();
-                    pruneList(list, cutoff);
-                    if (list.size() != originalSize) {
-                        changed = true;
-                        cfg.set("entries." + uuidKey, list);
-                    }
-                }
-            }
-
-            if (changed) saveYamlAtomic(cfg, file);
+    static byte[] encodeItems(ItemStack[] contents, ItemStack[] armor) throws IOException {
+        return ItemStackCodec.encode(contents, armor);
+    }
 
-            // Wenn nach dem Prune keine Einträge mehr vorhanden sind, lösche die Datei auf Disk
-            try {
-                boolean empty = true;
-                if (cfg.getConfigurationSection("entries") != null) {
-                    java.util.Set<String> uuids = cfg.getConfigurationSection("entries").getKeys(false);
-                    for (String uuidKey : uuids) {
-                        java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                        if (rawList != null && !rawList.isEmpty()) { empty = false; break; }
-                    }
-                }
-                if (empty && file.exists()) {
-                    // Lösche leere Snapshot-Datei vom Disk
-                    if (!file.delete()) {
-                        plugin.getLogger().warning("Konnte leere Snapshot-Datei nicht löschen: " + file.getName());
-                    }
-                }
-            } catch (Exception ignored) {}
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to prune inventory snapshots: " + e.getMessage());
-        } catch (Exception e) {
-            plugin.getLogger().warning("Unexpected error pruning inventory snapshots: " + e.getMessage());
+    /** Decode a payload into {contents, armor}; YAML payloads from older versions are still readable. */
+    private static ItemStack[][] decodeItems(SnapshotStore.Payload payload) throws IOException {
+        if (payload.format == FORMAT_BINARY) {
+            ItemStack[][] sections = ItemStackCodec.decode(payload.data);
+            if (sections.length < 2) throw new IOException("Snapshot-Payload unvollständig");
+            return sections;
         }
-
-        // Also prune post-snapshots
+        if (payload.format != FORMAT_YAML) {
+            throw new IOException("Unbekanntes Snapshot-Payload-Format: " + payload.format);
+        }
+        YamlConfiguration y = new YamlConfiguration();
         try {
-            File file = new File(plugin.getDataFolder(), FILE_NAME_POST);
-            if (!file.exists()) return;
-            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-            long cutoff = System.currentTimeMillis() - THIRTY_DAYS_MILLIS;
-            boolean changed = false;
-            if (cfg.getConfigurationSection("entries") != null) {
-                Set<String> uuids = cfg.getConfigurationSection("entries").getKeys(false);
-                for (String uuidKey : uuids) {
-                    List<Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                    if (rawList == null || rawList.isEmpty()) continue;
-                    List<Map<String, Object>> list = new ArrayList<>();
-                    for (Map<?, ?> m : rawList) {
-                        Map<String, Object> mm = new LinkedHashMap<>();
-                        for (Map.Entry<?, ?> e : m.entrySet()) {
-                            if (e.getKey() != null) mm.put(e.getKey().toString(), e.getValue());
-                        }
-                        list.add(mm);
-                    }
-                    int originalSize = list.size();
-                    pruneList(list, cutoff);
-                    if (list.size() != originalSize) {
-                        changed = true;
-                        cfg.set("entries." + uuidKey, list);
-                    }
-                }
-            }
-            if (changed) saveYamlAtomic(cfg, file);
-
-            // Wenn nach dem Prune keine Einträge mehr vorhanden sind, lösche die Datei auf Disk
-            try {
-                boolean empty = true;
-                if (cfg.getConfigurationSection("entries") != null) {
-                    java.util.Set<String> uuids = cfg.getConfigurationSection("entries").getKeys(false);
-                    for (String uuidKey : uuids) {
-                        java.util.List<java.util.Map<?, ?>> rawList = cfg.getMapList("entries." + uuidKey);
-                        if (rawList != null && !rawList.isEmpty()) { empty = false; break; }
-                    }
-                }
-                if (empty && file.exists()) {
-                    if (!file.delete()) {
-                        plugin.getLogger().warning("Konnte leere Post-Snapshot-Datei nicht löschen: " + file.getName());
-                    }
-                }
-            } catch (Exception ignored) {}
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to prune post inventory snapshots: " + e.getMessage());
+            y.loadFromString(new String(payload.data, StandardCharsets.UTF_8));
         } catch (Exception e) {
-            plugin.getLogger().warning("Unexpected error pruning post inventory snapshots: " + e.getMessage());
+            throw new IOException("Snapshot-Payload nicht lesbar: " + e.getMessage(), e);
         }
+        return new ItemStack[][] {fromList(y.getList("contents")), fromList(y.getList("armor"))};
     }
 
-    private static final java.util.concurrent.ConcurrentHashMap<String, Object> FILE_LOCKS = new java.util.concurrent.ConcurrentHashMap<>();
-
-    private static void saveYamlAtomic(org.bukkit.configuration.file.YamlConfiguration cfg, java.io.File file) throws java.io.IOException {
-        Object lock = FILE_LOCKS.computeIfAbsent(file.getAbsolutePath(), k -> new Object());
-        synchronized (lock) {
-            java.io.File tmp = new java.io.File(file.getParentFile(), file.getName() + ".tmp");
-            cfg.save(tmp);
-            try {
-                java.nio.file.Files.move(tmp.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-            } catch (Exception e) {
-                // Fallback: direkt speichern
-                cfg.save(file);
-            }
-        }
+    private static String str(Object o) {
+        return o != null ? String.valueOf(o) : "";
     }
 
-    private static void pruneList(List<Map<String, Object>> list, long cutoffMillis) {
-        list.removeIf(m -> {
-            Object tsObj = m.get("timestamp");
-            if (tsObj instanceof Number) {
-                long ts = ((Number) tsObj).longValue();
-                return ts < cutoffMillis;
-            }
-            return false;
-        });
-    }
-
-    private static List<ItemStack> toList(ItemStack[] array) {
-        List<ItemStack> out = new ArrayList<>();
-        if (array != null) {
-            for (ItemStack it : array) {
-                out.add(it);
-            }
+    /** Copies the stacks: serialization happens later on the writer thread while the live inventory changes. */
+    private static ItemStack[] copyOf(ItemStack[] array) {
+        if (array == null) return new ItemStack[0];
+        ItemStack[] out = new ItemStack[array.length];
+        for (int i = 0; i < array.length; i++) {
+            out[i] = array[i] != null ? array[i].clone() : null;
         }
         return out;
     }
@@ -759,7 +618,7 @@ public class InventorySnapshotStorage {
         return out;
     }
 
-    private static String iso(long millis) {
+    static String iso(long millis) {
         return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date(millis));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,243 @@
+package de.zfzfg.eventplugin.storage;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary encoding for ItemStack arrays (inventory snapshots, wager items).
+ * <p>
+ * Layout: one flag byte (bit 0 = deflated, bit 1 = data version follows), the
+ * uncompressed varint Minecraft data version of the server that wrote it (0 if
+ * unknown), then a material dictionary, a dictionary of distinct ItemMeta blobs
+ * and the sections themselves. Each slot is a varint material index (0 = empty),
+ * a varint amount and a varint meta index (0 = no meta). Only ItemMeta still
+ * goes through Bukkit serialization, and identical metas (kits, stacked gear)
+ * are stored once per payload. Payloads written before the data version was
+ * added (bit 1 clear) are still readable.
+ */
+public final class ItemStackCodec {
+
+    private static final int FLAG_DEFLATED = 1;
+    private static final int FLAG_DATA_VERSION = 2;
+    /** Payloads below this size are not worth compressing. */
+    private static final int COMPRESS_THRESHOLD_BYTES = 256;
+    private static final String META_KEY = "m";
+
+    // Datenversion des Servers, einmal ermittelt; 0 ohne Server (z. B. Tests)
+    private static volatile int serverDataVersion = -1;
+
+    private ItemStackCodec() {}
+
+    /** Encode one or more slot arrays (e.g. contents and armor), compressing when it pays off. */
+    public static byte[] encode(ItemStack[]... sections) throws IOException {
+        return encode(true, sections);
+    }
+
+    public static byte[] encode(boolean compress, ItemStack[]... sections) throws IOException {
+        Map<Material, Integer> materials = new HashMap<>();
+        List<Material> materialList = new ArrayList<>();
+        Map<String, Integer> metas = new HashMap<>();
+        List<String> metaList = new ArrayList<>();
+
+        // Slots zuerst in einen Puffer schreiben, Dictionaries entstehen dabei
+        ByteArrayOutputStream slotBytes = new ByteArrayOutputStream();
+        DataOutputStream slots = new DataOutputStream(slotBytes);
+        writeVarInt(slots, sections.length);
+        for (ItemStack[] section : sections) {
+            int len = section != null ? section.length : 0;
+            writeVarInt(slots, len);
+            for (int i = 0; i < len; i++) {
+                ItemStack item = section[i];
+                if (item == null || item.getType() == Material.AIR || item.getAmount() <= 0) {
+                    writeVarInt(slots, 0);
+                    continue;
+                }
+                Integer matIdx = materials.get(item.getType());
+                if (matIdx == null) {
+                    matIdx = materialList.size();
+                    materials.put(item.getType(), matIdx);
+                    materialList.add(item.getType());
+                }
+                writeVarInt(slots, matIdx + 1);
+                writeVarInt(slots, item.getAmount());
+                if (item.hasItemMeta()) {
+                    String blob = serializeMeta(item.getItemMeta());
+                    Integer metaIdx = metas.get(blob);
+                    if (metaIdx == null) {
+                        metaIdx = metaList.size();
+                        metas.put(blob, metaIdx);
+                        metaList.add(blob);
+                    }
+                    writeVarInt(slots, metaIdx + 1);
+                } else {
+                    writeVarInt(slots, 0);
+                }
+            }
+        }
+        slots.flush();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(slotBytes.size() + 64);
+        DataOutputStream out = new DataOutputStream(body);
+        writeVarInt(out, materialList.size());
+        for (Material m : materialList) out.writeUTF(m.name());
+        writeVarInt(out, metaList.size());
+        for (String blob : metaList) {
+            byte[] b = blob.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, b.length);
+            out.write(b);
+        }
+        slotBytes.writeTo(out);
+        out.flush();
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream(body.size() + 6);
+        boolean deflate = compress && body.size() >= COMPRESS_THRESHOLD_BYTES;
+        result.write(FLAG_DATA_VERSION | (deflate ? FLAG_DEFLATED : 0));
+        DataOutputStream header = new DataOutputStream(result);
+        writeVarInt(header, serverDataVersion());
+        header.flush();
+        if (deflate) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream dos = new DeflaterOutputStream(result, deflater)) {
+                body.writeTo(dos);
+            } finally {
+                deflater.end();
+            }
+        } else {
+            body.writeTo(result);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Minecraft data version stored in a payload, 0 if the writer did not know
+     * it, or -1 for payloads from before the version was recorded.
+     */
+    public static int dataVersion(byte[] data) throws IOException {
+        if (data == null || data.length == 0) throw new IOException("Leerer Item-Payload");
+        if ((data[0] & FLAG_DATA_VERSION) == 0) return -1;
+        return readVarInt(new DataInputStream(new ByteArrayInputStream(data, 1, data.length - 1)));
+    }
+
+    /**
+     * Decode the sections written by {@link #encode}. A material this server no
+     * longer knows fails the whole decode, so callers keep the stored record
+     * instead of restoring or refunding it without that item.
+     */
+    public static ItemStack[][] decode(byte[] data) throws IOException {
+        if (data == null || data.length == 0) throw new IOException("Leerer Item-Payload");
+        int flags = data[0] & 0xFF;
+        InputStream raw = new ByteArrayInputStream(data, 1, data.length - 1);
+        int dataVersion = -1;
+        if ((flags & FLAG_DATA_VERSION) != 0) dataVersion = readVarInt(new DataInputStream(raw));
+        if ((flags & FLAG_DEFLATED) != 0) raw = new InflaterInputStream(raw);
+
+        try (DataInputStream in = new DataInputStream(raw)) {
+            int materialCount = readVarInt(in);
+            Material[] materials = new Material[materialCount];
+            for (int i = 0; i < materialCount; i++) {
+                String name = in.readUTF();
+                materials[i] = Material.matchMaterial(name);
+                if (materials[i] == null) {
+                    throw new IOException("Unbekanntes Material " + name + " (Datenversion "
+                            + (dataVersion >= 0 ? dataVersion : "unbekannt") + ")");
+                }
+            }
+            int metaCount = readVarInt(in);
+            ItemMeta[] metas = new ItemMeta[metaCount];
+            for (int i = 0; i < metaCount; i++) {
+                byte[] b = new byte[readVarInt(in)];
+                in.readFully(b);
+                metas[i] = deserializeMeta(new String(b, StandardCharsets.UTF_8));
+            }
+
+            int sectionCount = readVarInt(in);
+            ItemStack[][] sections = new ItemStack[sectionCount][];
+            for (int s = 0; s < sectionCount; s++) {
+                ItemStack[] section = new ItemStack[readVarInt(in)];
+                for (int i = 0; i < section.length; i++) {
+                    int matIdx = readVarInt(in);
+                    if (matIdx == 0) continue;
+                    int amount = readVarInt(in);
+                    int metaIdx = readVarInt(in);
+                    ItemStack item = new ItemStack(materials[matIdx - 1], amount);
+                    if (metaIdx > 0 && metas[metaIdx - 1] != null) {
+                        // clone(): gleiche Meta-Instanz darf nicht zwischen Stacks geteilt werden
+                        item.setItemMeta(metas[metaIdx - 1].clone());
+                    }
+                    section[i] = item;
+                }
+                sections[s] = section;
+            }
+            return sections;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int serverDataVersion() {
+        int version = serverDataVersion;
+        if (version < 0) {
+            try {
+                version = org.bukkit.Bukkit.getUnsafe().getDataVersion();
+            } catch (Throwable t) {
+                version = 0;
+            }
+            serverDataVersion = version;
+        }
+        return version;
+    }
+
+    private static String serializeMeta(ItemMeta meta) {
+        YamlConfiguration y = new YamlConfiguration();
+        y.set(META_KEY, meta);
+        return y.saveToString();
+    }
+
+    private static ItemMeta deserializeMeta(String blob) throws IOException {
+        YamlConfiguration y = new YamlConfiguration();
+        try {
+            y.loadFromString(blob);
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("ItemMeta nicht lesbar: " + e.getMessage(), e);
+        }
+        Object o = y.get(META_KEY);
+        return (o instanceof ItemMeta) ? (ItemMeta) o : null;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+            if (shift > 28) throw new IOException("VarInt zu lang");
+        }
+    }
+}
@@ -0,0 +1,793 @@
+package de.zfzfg.eventplugin.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only segment log for inventory snapshots.
+ * <p>
+ * Every snapshot is one length-prefixed, checksummed record at the end of the
+ * active segment file. An in-memory index (player UUID, inventory_id and
+ * stored player name to record position) is rebuilt by a sequential scan on open, so saving a
+ * snapshot never re-reads or rewrites older history. Expired records are
+ * dropped by the retention job via {@link #pruneStep}, one segment per step.
+ * <p>
+ * Record layout: {@code [int length][int crc32][body]}; body starts with a
+ * record version byte, the metadata fields, the payload format and the
+ * length-prefixed item payload.
+ * <p>
+ * Sealed segments (rolled over and whose newest record is older than the seal
+ * age) never change except through pruning. They get a {@code .idx} sidecar with
+ * the metadata and position of every record, so opening the log reads only the
+ * sidecar instead of scanning the segment. Payloads are read with a positional
+ * read of just the requested record, so a lookup never loads a segment onto the
+ * heap. Segments are not memory-mapped: a mapping is only released by the GC and
+ * would keep pruning from replacing or deleting the file on some platforms.
+ * <p>
+ * inventory_ids are handed out by per-world counters ({@link #allocateInventoryId(String)}).
+ * They are recovered from the newest record per world on open and persisted to
+ * {@code id-counters.properties} on pruning and close, so a world whose
+ * snapshots were all pruned does not start over at 0001.
+ */
+final class SnapshotLog implements SnapshotStore {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int INDEX_MAGIC = 0x53494458; // "SIDX"
+    private static final byte INDEX_VERSION = 1;
+    private static final long MAX_SEGMENT_BYTES = 4L * 1024L * 1024L;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final byte RECORD_VERSION = 1;
+    private static final String COUNTERS_FILE = "id-counters.properties";
+    private static final int MAX_NUMERIC_ID = 9999;
+    private static final Pattern TRAILING_ID = Pattern.compile("(\\d{4})$");
+
+    private final File directory;
+    private final Logger logger;
+    private final long sealAfterMillis;
+
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<String, SnapshotRecord> byInventoryId = new HashMap<>();
+    private final Map<UUID, List<SnapshotRecord>> byPlayer = new LinkedHashMap<>();
+    // Kleingeschriebener Spielername -> Snapshots unter diesem Namen (Namenssuche, Tab-Completion)
+    private final Map<String, List<SnapshotRecord>> byName = new HashMap<>();
+    private Segment active;
+
+    // Letzte vergebene ID pro Welt; lock-frei, damit die Vergabe beim Capture nicht am Log-Monitor wartet
+    private final ConcurrentHashMap<String, AtomicInteger> idCounters = new ConcurrentHashMap<>();
+    // Zeitstempel des Datensatzes, aus dem der Zähler beim Öffnen/Import wiederhergestellt wurde
+    private final Map<String, Long> counterRecoveredAt = new HashMap<>();
+
+    SnapshotLog(File directory, Logger logger, long sealAfterMillis) {
+        this.directory = directory;
+        this.logger = logger;
+        this.sealAfterMillis = sealAfterMillis;
+    }
+
+    private static final class Segment {
+        final int id;
+        final File file;
+        final File indexFile;
+        final List<SnapshotRecord> records = new ArrayList<>();
+        FileChannel channel;
+        long size;
+        // Versiegelt: unveränderlich bis zur Bereinigung, Sidecar-Index vorhanden
+        boolean sealed;
+
+        Segment(int id, File file) {
+            this.id = id;
+            this.file = file;
+            String name = file.getName();
+            this.indexFile = new File(file.getParentFile(), name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+        }
+
+        FileChannel channel() throws IOException {
+            if (channel == null || !channel.isOpen()) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return channel;
+        }
+
+        void close() {
+            if (channel != null) {
+                try { channel.close(); } catch (IOException ignored) {}
+                channel = null;
+            }
+        }
+    }
+
+    // ===== Lifecycle =====
+
+    synchronized void open() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Konnte Snapshot-Verzeichnis nicht anlegen: " + directory);
+        }
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File f : files) {
+                Integer id = parseSegmentId(f.getName());
+                if (id != null) segments.put(id, new Segment(id, f));
+            }
+        }
+        Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        for (Segment seg : segments.values()) {
+            if (seg != last && loadIndex(seg)) continue;
+            scan(seg, seg == last);
+            if (seg != last) sealIfOld(seg);
+        }
+        // Das letzte Segment wird weiter beschrieben und ist nie versiegelt
+        if (last != null) Files.deleteIfExists(last.indexFile.toPath());
+        loadCounters();
+        active = last != null ? last : newSegment(1);
+    }
+
+    @Override
+    public synchronized void close() {
+        saveCounters();
+        for (Segment seg : segments.values()) seg.close();
+    }
+
+    synchronized boolean isEmpty() {
+        return byInventoryId.isEmpty() && byPlayer.isEmpty();
+    }
+
+    // ===== Write path =====
+
+    /**
+     * Append one record and index it. The write is forced to disk before returning.
+     */
+    synchronized SnapshotRecord append(SnapshotRecord meta, byte payloadFormat, byte[] payload) throws IOException {
+        return appendLocated(Collections.singletonList(meta), payloadFormat, Collections.singletonList(payload)).get(0);
+    }
+
+    /**
+     * Append a batch of records with one write and one fsync per touched segment.
+     * Records are indexed only after their bytes are on disk.
+     */
+    @Override
+    public synchronized void appendAll(List<SnapshotRecord> metas, byte payloadFormat, List<byte[]> payloads) throws IOException {
+        appendLocated(metas, payloadFormat, payloads);
+    }
+
+    private List<SnapshotRecord> appendLocated(List<SnapshotRecord> metas, byte payloadFormat, List<byte[]> payloads) throws IOException {
+        List<SnapshotRecord> located = new ArrayList<>(metas.size());
+        List<SnapshotRecord> unflushed = new ArrayList<>();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        long pos = active.size;
+        for (int i = 0; i < metas.size(); i++) {
+            byte[] frame = frame(encodeBody(metas.get(i), payloadFormat, payloads.get(i))).array();
+            if (pos > 0 && pos + frame.length > MAX_SEGMENT_BYTES) {
+                writeBatch(buf, unflushed);
+                roll();
+                pos = 0;
+            }
+            SnapshotRecord r = metas.get(i).at(active.id, pos, frame.length, payloadFormat);
+            buf.write(frame);
+            unflushed.add(r);
+            located.add(r);
+            pos += frame.length;
+        }
+        writeBatch(buf, unflushed);
+        return located;
+    }
+
+    /**
+     * Append records that already carry their inventory_id from elsewhere
+     * (legacy import) and advance the world counters past them.
+     */
+    @Override
+    public synchronized void importAll(List<SnapshotRecord> metas, byte payloadFormat, List<byte[]> payloads) throws IOException {
+        for (SnapshotRecord r : appendLocated(metas, payloadFormat, payloads)) recoverCounter(r);
+    }
+
+    /**
+     * Next 4-digit inventory_id for a world (0001..9999, then wraps). Constant
+     * time and safe to call from any thread.
+     */
+    @Override
+    public String allocateInventoryId(String world) {
+        int next = idCounters.computeIfAbsent(world, k -> new AtomicInteger())
+                .updateAndGet(v -> v >= MAX_NUMERIC_ID ? 1 : v + 1);
+        return String.format("%04d", next);
+    }
+
+    // ===== Read path =====
+
+    @Override
+    public synchronized SnapshotRecord findByInventoryId(String inventoryId) {
+        return byInventoryId.get(inventoryId);
+    }
+
+    @Override
+    public synchronized List<SnapshotRecord> recordsFor(UUID playerId) {
+        List<SnapshotRecord> list = byPlayer.get(playerId);
+        return list == null ? Collections.emptyList() : new ArrayList<>(list);
+    }
+
+    @Override
+    public synchronized int countFor(UUID playerId) {
+        List<SnapshotRecord> list = byPlayer.get(playerId);
+        return list == null ? 0 : list.size();
+    }
+
+    @Override
+    public synchronized SnapshotRecord latestFor(UUID playerId) {
+        return newest(byPlayer.get(playerId));
+    }
+
+    @Override
+    public synchronized SnapshotRecord latestByName(String playerName) {
+        return playerName != null ? newest(byName.get(playerName.toLowerCase(Locale.ROOT))) : null;
+    }
+
+    private static SnapshotRecord newest(List<SnapshotRecord> list) {
+        if (list == null) return null;
+        SnapshotRecord latest = null;
+        for (SnapshotRecord r : list) {
+            if (latest == null || r.getTimestamp() >= latest.getTimestamp()) latest = r;
+        }
+        return latest;
+    }
+
+    @Override
+    public synchronized Set<UUID> players() {
+        return new java.util.LinkedHashSet<>(byPlayer.keySet());
+    }
+
+    @Override
+    public synchronized Collection<SnapshotRecord> allRecords() {
+        List<SnapshotRecord> out = new ArrayList<>();
+        for (List<SnapshotRecord> list : byPlayer.values()) out.addAll(list);
+        return out;
+    }
+
+    /** Load the item payload of an indexed record from its segment. */
+    @Override
+    public synchronized Payload readPayload(SnapshotRecord record) throws IOException {
+        Segment seg = segments.get(record.getSegmentId());
+        if (seg == null) return null;
+        return parsePayload(readBody(seg, record.getOffset(), record.getLength()));
+    }
+
+    private static Payload parsePayload(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        readMeta(in);
+        byte format = in.readByte();
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new Payload(format, data);
+    }
+
+    // ===== Compaction =====
+
+    /**
+     * Retention step: prune the first segment after {@code cursor} (a segment id,
+     * 0 to start). Segments without live records are deleted, partially expired
+     * ones are rewritten (tmp file + atomic move); other segments are untouched.
+     */
+    @Override
+    public synchronized PruneResult pruneStep(long cursor, Predicate<SnapshotRecord> expired) throws IOException {
+        Map.Entry<Integer, Segment> entry = segments.higherEntry((int) Math.min(cursor, Integer.MAX_VALUE));
+        if (entry == null) return new PruneResult(0, 0L, -1L);
+        Segment seg = entry.getValue();
+
+        boolean hasExpired = false;
+        for (SnapshotRecord r : seg.records) {
+            if (expired.test(r)) { hasExpired = true; break; }
+        }
+        int removed = 0;
+        long reclaimed = 0L;
+        if (hasExpired || (seg.records.isEmpty() && seg != active)) {
+            // Aktives Segment erst versiegeln, damit neue Writes nicht kollidieren
+            if (seg == active) roll();
+
+            List<SnapshotRecord> live = new ArrayList<>();
+            for (SnapshotRecord r : new ArrayList<>(seg.records)) {
+                if (expired.test(r)) {
+                    unindex(r);
+                    removed++;
+                } else {
+                    live.add(r);
+                }
+            }
+
+            long before = seg.size;
+            if (live.isEmpty()) {
+                seg.close();
+                try {
+                    Files.deleteIfExists(seg.file.toPath());
+                    Files.deleteIfExists(seg.indexFile.toPath());
+                    segments.remove(seg.id);
+                    reclaimed = before;
+                } catch (IOException e) {
+                    // Leeres Segment bleibt registriert; der nächste Lauf versucht das Löschen erneut
+                    logger.warning("Konnte Snapshot-Segment " + seg.file.getName() + " nicht löschen: " + e.getMessage());
+                }
+            } else if (rewrite(seg, live, (byte) 0, null) >= 0) {
+                reclaimed = before - seg.size;
+            }
+            if (removed > 0) saveCounters();
+        } else if (seg != active && !seg.sealed) {
+            // Der Bereinigungslauf besucht jedes Segment: ausreichend alte hier versiegeln
+            sealIfOld(seg);
+        }
+        long next = segments.higherKey(seg.id) != null ? seg.id : -1L;
+        return new PruneResult(removed, reclaimed, next);
+    }
+
+    /**
+     * Re-encode every record whose payload is not yet in the target format
+     * (e.g. YAML to binary). Works segment by segment like compaction; records
+     * that fail to convert are kept unchanged.
+     *
+     * @return number of converted records
+     */
+    @Override
+    public synchronized int convertPayloads(byte targetFormat, PayloadConverter converter) throws IOException {
+        int converted = 0;
+        for (Segment seg : new ArrayList<>(segments.values())) {
+            boolean needsConversion = false;
+            for (SnapshotRecord r : seg.records) {
+                if (r.getPayloadFormat() != targetFormat) { needsConversion = true; break; }
+            }
+            if (!needsConversion) continue;
+            if (seg == active) roll();
+            converted += Math.max(0, rewrite(seg, new ArrayList<>(seg.records), targetFormat, converter));
+        }
+        return converted;
+    }
+
+    /**
+     * Rewrite a sealed segment with only the given records (tmp file + atomic move),
+     * optionally converting payloads on the way. If the move fails the old file and
+     * record positions stay in use.
+     *
+     * @return number of converted records, or -1 if the segment was left unchanged
+     */
+    private int rewrite(Segment seg, List<SnapshotRecord> live, byte targetFormat, PayloadConverter converter) throws IOException {
+        File tmp = new File(directory, seg.file.getName() + ".compact");
+        boolean wasSealed = seg.sealed;
+        List<SnapshotRecord> moved = new ArrayList<>(live.size());
+        int converted = 0;
+        long pos = 0;
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (SnapshotRecord r : live) {
+                byte[] body = readBody(seg, r.getOffset(), r.getLength());
+                byte format = r.getPayloadFormat();
+                if (converter != null && format != targetFormat) {
+                    try {
+                        byte[] data = converter.convert(parsePayload(body));
+                        body = encodeBody(r, targetFormat, data);
+                        format = targetFormat;
+                        converted++;
+                    } catch (IOException e) {
+                        logger.warning("Snapshot " + r.getInventoryId() + " konnte nicht konvertiert werden: " + e.getMessage());
+                    }
+                }
+                ByteBuffer frame = frame(body);
+                int length = frame.remaining();
+                writeFully(out, frame, pos);
+                moved.add(r.at(seg.id, pos, length, format));
+                pos += length;
+            }
+            out.force(false);
+        }
+        // Sidecar passt nicht mehr; wird unten neu geschrieben
+        seg.sealed = false;
+        Files.deleteIfExists(seg.indexFile.toPath());
+        seg.close();
+        try {
+            Files.move(tmp.toPath(), seg.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Alte Datei bleibt gültig; nur die live-Datensätze werden wieder in den Sidecar geschrieben
+            logger.warning("Konnte Snapshot-Segment " + seg.file.getName() + " nicht ersetzen, behalte die alte Datei: " + e.getMessage());
+            Files.deleteIfExists(tmp.toPath());
+            if (wasSealed) seal(seg);
+            return -1;
+        }
+        seg.size = pos;
+
+        for (int i = 0; i < live.size(); i++) relocate(seg, live.get(i), moved.get(i));
+        if (wasSealed) seal(seg);
+        else sealIfOld(seg);
+        return converted;
+    }
+
+    // ===== Internals =====
+
+    private void writeBatch(ByteArrayOutputStream buf, List<SnapshotRecord> records) throws IOException {
+        if (records.isEmpty()) return;
+        writeFully(active.channel(), ByteBuffer.wrap(buf.toByteArray()), active.size);
+        active.channel().force(false);
+        active.size += buf.size();
+        for (SnapshotRecord r : records) index(active, r);
+        buf.reset();
+        records.clear();
+    }
+
+    private void roll() throws IOException {
+        active.channel().force(false);
+        active.close();
+        active = newSegment(active.id + 1);
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        File f = new File(directory, String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment seg = new Segment(id, f);
+        seg.channel();
+        segments.put(id, seg);
+        return seg;
+    }
+
+    /**
+     * Index a segment by reading it front to back. Only the tail segment (the one
+     * that was being appended to) can end in a torn write, so only it is truncated;
+     * in older segments a record with a bad checksum is skipped, and a broken
+     * length stops indexing while the file itself stays untouched.
+     */
+    private void scan(Segment seg, boolean tail) throws IOException {
+        long fileLen = seg.file.length();
+        long pos = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(seg.file)))) {
+            while (pos + RECORD_HEADER_BYTES <= fileLen) {
+                int bodyLen = in.readInt();
+                int crc = in.readInt();
+                if (bodyLen <= 0 || pos + RECORD_HEADER_BYTES + bodyLen > fileLen) break;
+                byte[] body = new byte[bodyLen];
+                in.readFully(body);
+                int length = RECORD_HEADER_BYTES + bodyLen;
+                if (crc(body) != crc) {
+                    if (tail) break;
+                    // Länge ist plausibel: nur diesen Datensatz auslassen, der Rest bleibt lesbar
+                    logger.warning("Snapshot-Segment " + seg.file.getName() + ": Prüfsumme ungültig für Datensatz @" + pos + ", wird übersprungen.");
+                    pos += length;
+                    continue;
+                }
+
+                DataInputStream rin = new DataInputStream(new ByteArrayInputStream(body));
+                SnapshotRecord meta = readMeta(rin);
+                byte format = rin.readByte();
+                SnapshotRecord located = meta.at(seg.id, pos, length, format);
+                index(seg, located);
+                recoverCounter(located);
+                pos += length;
+            }
+        } catch (EOFException ignored) {
+            // Abgeschnittener Datensatz am Ende, wird unten behandelt
+        }
+        if (pos < fileLen) {
+            if (tail) {
+                logger.warning("Snapshot-Segment " + seg.file.getName() + " hat einen unvollständigen Datensatz am Ende, kürze auf " + pos + " Bytes.");
+                seg.channel().truncate(pos);
+            } else {
+                // Älteres Segment wird nie mehr beschrieben: nichts abschneiden, nur nicht weiter indizieren
+                logger.warning("Snapshot-Segment " + seg.file.getName() + " ist ab Byte " + pos + " beschädigt; "
+                        + "die folgenden Datensätze werden nicht geladen, die Datei bleibt unverändert.");
+                seg.size = fileLen;
+                return;
+            }
+        }
+        seg.size = pos;
+    }
+
+    // ===== Sealed segments =====
+
+    /** Seal a rolled-over segment once its newest record is older than the seal age. */
+    private void sealIfOld(Segment seg) {
+        if (seg == active || seg.sealed || seg.records.isEmpty()) return;
+        long newest = Long.MIN_VALUE;
+        for (SnapshotRecord r : seg.records) newest = Math.max(newest, r.getTimestamp());
+        if (newest < System.currentTimeMillis() - sealAfterMillis) seal(seg);
+    }
+
+    /**
+     * Write the sidecar index (tmp file + atomic move).
+     * Layout: magic, version, segment size, record count, then per record
+     * offset, length, payload format and metadata; CRC32 over all of it at the end.
+     */
+    private void seal(Segment seg) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(seg.records.size() * 128 + 32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(INDEX_MAGIC);
+            out.writeByte(INDEX_VERSION);
+            out.writeLong(seg.size);
+            out.writeInt(seg.records.size());
+            for (SnapshotRecord r : seg.records) {
+                out.writeLong(r.getOffset());
+                out.writeInt(r.getLength());
+                out.writeByte(r.getPayloadFormat());
+                writeMeta(out, r);
+            }
+            out.flush();
+            out.writeInt(crc(bytes.toByteArray()));
+            File tmp = new File(directory, seg.indexFile.getName() + ".tmp");
+            Files.write(tmp.toPath(), bytes.toByteArray());
+            Files.move(tmp.toPath(), seg.indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            seg.sealed = true;
+        } catch (IOException e) {
+            logger.warning("Konnte Index für " + seg.file.getName() + " nicht schreiben: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Index a segment from its sidecar instead of scanning it.
+     *
+     * @return false if there is no valid sidecar for the current segment file
+     */
+    private boolean loadIndex(Segment seg) {
+        if (!seg.indexFile.isFile()) return false;
+        try {
+            byte[] data = Files.readAllBytes(seg.indexFile.toPath());
+            if (data.length < 4) throw new IOException("zu kurz");
+            int stored = ByteBuffer.wrap(data, data.length - 4, 4).getInt();
+            CRC32 c = new CRC32();
+            c.update(data, 0, data.length - 4);
+            if ((int) c.getValue() != stored) throw new IOException("Prüfsumme ungültig");
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+            if (in.readInt() != INDEX_MAGIC || in.readByte() != INDEX_VERSION) throw new IOException("unbekanntes Format");
+            long size = in.readLong();
+            if (size != seg.file.length()) throw new IOException("Segmentgröße weicht ab");
+            int count = in.readInt();
+            List<SnapshotRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long offset = in.readLong();
+                int length = in.readInt();
+                byte format = in.readByte();
+                records.add(readMeta(in).at(seg.id, offset, length, format));
+            }
+            seg.size = size;
+            seg.sealed = true;
+            for (SnapshotRecord r : records) {
+                index(seg, r);
+                recoverCounter(r);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warning("Index " + seg.indexFile.getName() + " wird verworfen (" + e.getMessage() + "), Segment wird neu gelesen.");
+            try { Files.deleteIfExists(seg.indexFile.toPath()); } catch (IOException ignored) {}
+            return false;
+        }
+    }
+
+    /** Counter follows the newest record per world (by capture time), which is the last allocation. */
+    private void recoverCounter(SnapshotRecord r) {
+        Integer id = numericId(r.getInventoryId());
+        if (id == null) return;
+        Long seen = counterRecoveredAt.get(r.getWorld());
+        if (seen != null && seen > r.getTimestamp()) return;
+        counterRecoveredAt.put(r.getWorld(), r.getTimestamp());
+        idCounters.computeIfAbsent(r.getWorld(), k -> new AtomicInteger()).set(id);
+    }
+
+    /** Persisted counters only fill in worlds that no longer have any records. */
+    private void loadCounters() {
+        File file = new File(directory, COUNTERS_FILE);
+        if (!file.exists()) return;
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            logger.warning("Konnte " + COUNTERS_FILE + " nicht lesen: " + e.getMessage());
+            return;
+        }
+        for (String world : props.stringPropertyNames()) {
+            try {
+                int value = Integer.parseInt(props.getProperty(world).trim());
+                idCounters.putIfAbsent(world, new AtomicInteger(value));
+            } catch (NumberFormatException ignored) {}
+        }
+    }
+
+    private void saveCounters() {
+        Properties props = new Properties();
+        for (Map.Entry<String, AtomicInteger> e : idCounters.entrySet()) {
+            props.setProperty(e.getKey(), Integer.toString(e.getValue().get()));
+        }
+        File file = new File(directory, COUNTERS_FILE);
+        File tmp = new File(directory, COUNTERS_FILE + ".tmp");
+        try {
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                props.store(out, "Letzte vergebene inventory_id pro Welt");
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warning("Konnte " + COUNTERS_FILE + " nicht speichern: " + e.getMessage());
+        }
+    }
+
+    private static Integer numericId(String inventoryId) {
+        if (inventoryId == null) return null;
+        Matcher m = TRAILING_ID.matcher(inventoryId);
+        return m.find() ? Integer.valueOf(m.group(1)) : null;
+    }
+
+    private void index(Segment seg, SnapshotRecord r) {
+        seg.records.add(r);
+        byPlayer.computeIfAbsent(r.getPlayerId(), k -> new ArrayList<>()).add(r);
+        if (!r.getInventoryId().isEmpty()) byInventoryId.put(r.getInventoryId(), r);
+        if (!r.getPlayerName().isEmpty()) byName.computeIfAbsent(nameKey(r), k -> new ArrayList<>()).add(r);
+    }
+
+    private static String nameKey(SnapshotRecord r) {
+        return r.getPlayerName().toLowerCase(Locale.ROOT);
+    }
+
+    private void relocate(Segment seg, SnapshotRecord old, SnapshotRecord moved) {
+        int idx = seg.records.indexOf(old);
+        if (idx >= 0) seg.records.set(idx, moved);
+        List<SnapshotRecord> list = byPlayer.get(old.getPlayerId());
+        if (list != null) {
+            int i = list.indexOf(old);
+            if (i >= 0) list.set(i, moved);
+        }
+        List<SnapshotRecord> named = byName.get(nameKey(old));
+        if (named != null) {
+            int i = named.indexOf(old);
+            if (i >= 0) named.set(i, moved);
+        }
+        if (byInventoryId.get(old.getInventoryId()) == old) byInventoryId.put(old.getInventoryId(), moved);
+    }
+
+    private void unindex(SnapshotRecord r) {
+        Segment seg = segments.get(r.getSegmentId());
+        if (seg != null) seg.records.remove(r);
+        List<SnapshotRecord> list = byPlayer.get(r.getPlayerId());
+        if (list != null) {
+            list.remove(r);
+            if (list.isEmpty()) byPlayer.remove(r.getPlayerId());
+        }
+        List<SnapshotRecord> named = byName.get(nameKey(r));
+        if (named != null) {
+            named.remove(r);
+            if (named.isEmpty()) byName.remove(nameKey(r));
+        }
+        if (byInventoryId.get(r.getInventoryId()) == r) {
+            byInventoryId.remove(r.getInventoryId());
+            // Ältere Einträge mit gleicher ID (nach Wrap-around) wieder sichtbar machen
+            for (Iterator<Segment> it = segments.descendingMap().values().iterator(); it.hasNext(); ) {
+                Segment s = it.next();
+                for (int i = s.records.size() - 1; i >= 0; i--) {
+                    SnapshotRecord other = s.records.get(i);
+                    if (other.getInventoryId().equals(r.getInventoryId())) {
+                        byInventoryId.put(other.getInventoryId(), other);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private byte[] readBody(Segment seg, long offset, int length) throws IOException {
+        if (offset + length > seg.size) throw new EOFException("Snapshot-Datensatz unvollständig in " + seg.file.getName());
+        // Nur die Bytes des angefragten Datensatzes werden gelesen
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        FileChannel ch = seg.channel();
+        long pos = offset;
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos);
+            if (n < 0) throw new EOFException("Snapshot-Datensatz unvollständig in " + seg.file.getName());
+            pos += n;
+        }
+        buf.flip();
+        int bodyLen = buf.getInt();
+        int crc = buf.getInt();
+        byte[] body = new byte[bodyLen];
+        buf.get(body);
+        if (crc(body) != crc) {
+            throw new IOException("Prüfsumme ungültig für Snapshot-Datensatz in " + seg.file.getName() + " @" + offset);
+        }
+        return body;
+    }
+
+    private static ByteBuffer frame(byte[] body) {
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_HEADER_BYTES + body.length);
+        buf.putInt(body.length);
+        buf.putInt(crc(body));
+        buf.put(body);
+        buf.flip();
+        return buf;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        long pos = position;
+        while (buf.hasRemaining()) {
+            pos += ch.write(buf, pos);
+        }
+    }
+
+    private static int crc(byte[] data) {
+        CRC32 c = new CRC32();
+        c.update(data);
+        return (int) c.getValue();
+    }
+
+    private static byte[] encodeBody(SnapshotRecord r, byte payloadFormat, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeMeta(out, r);
+        out.writeByte(payloadFormat);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /** Metadata part of a record body (also used by the sidecar index). */
+    private static void writeMeta(DataOutputStream out, SnapshotRecord r) throws IOException {
+        out.writeByte(RECORD_VERSION);
+        out.writeLong(r.getTimestamp());
+        out.writeLong(r.getPlayerId().getMostSignificantBits());
+        out.writeLong(r.getPlayerId().getLeastSignificantBits());
+        out.writeUTF(r.getPlayerName());
+        out.writeInt(r.getLevel());
+        out.writeUTF(r.getGroup());
+        out.writeUTF(r.getReason());
+        out.writeUTF(r.getWorld());
+        out.writeUTF(r.getInventoryId());
+        out.writeUTF(r.getEventMatchId());
+    }
+
+    private static SnapshotRecord readMeta(DataInputStream in) throws IOException {
+        byte version = in.readByte();
+        if (version != RECORD_VERSION) {
+            throw new IOException("Unbekannte Snapshot-Record-Version: " + version);
+        }
+        long timestamp = in.readLong();
+        UUID playerId = new UUID(in.readLong(), in.readLong());
+        String playerName = in.readUTF();
+        int level = in.readInt();
+        String group = in.readUTF();
+        String reason = in.readUTF();
+        String world = in.readUTF();
+        String inventoryId = in.readUTF();
+        String eventMatchId = in.readUTF();
+        return new SnapshotRecord(playerId, playerName, timestamp, level, group, reason, world, inventoryId, eventMatchId);
+    }
+
+    private static Integer parseSegmentId(String name) {
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package de.zfzfg.eventplugin.storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Metadata of one inventory snapshot plus its position inside the segment log.
+ * Item payloads are not held here; they are read from disk on restore.
+ */
+public final class SnapshotRecord {
+    private final UUID playerId;
+    private final String playerName;
+    private final long timestamp;
+    private final int level;
+    private final String group;
+    private final String reason;
+    private final String world;
+    private final String inventoryId;
+    private final String eventMatchId;
+
+    // Position im Log (wird beim Append/Compaction gesetzt)
+    private final int segmentId;
+    private final long offset;
+    private final int length;
+    private final byte payloadFormat;
+
+    public SnapshotRecord(UUID playerId, String playerName, long timestamp, int level, String group,
+                          String reason, String world, String inventoryId, String eventMatchId) {
+        this(playerId, playerName, timestamp, level, group, reason, world, inventoryId, eventMatchId, -1, -1L, 0, (byte) 0);
+    }
+
+    private SnapshotRecord(UUID playerId, String playerName, long timestamp, int level, String group,
+                           String reason, String world, String inventoryId, String eventMatchId,
+                           int segmentId, long offset, int length, byte payloadFormat) {
+        this.playerId = playerId;
+        this.playerName = playerName != null ? playerName : "";
+        this.timestamp = timestamp;
+        this.level = level;
+        this.group = group != null ? group : "";
+        this.reason = reason != null ? reason : "";
+        this.world = world != null ? world : "";
+        this.inventoryId = inventoryId != null ? inventoryId : "";
+        this.eventMatchId = eventMatchId != null ? eventMatchId : "";
+        this.segmentId = segmentId;
+        this.offset = offset;
+        this.length = length;
+        this.payloadFormat = payloadFormat;
+    }
+
+    SnapshotRecord at(int segmentId, long offset, int length, byte payloadFormat) {
+        return new SnapshotRecord(playerId, playerName, timestamp, level, group, reason, world, inventoryId, eventMatchId,
+                segmentId, offset, length, payloadFormat);
+    }
+
+    public UUID getPlayerId() { return playerId; }
+    public String getPlayerName() { return playerName; }
+    public long getTimestamp() { return timestamp; }
+    public int getLevel() { return level; }
+    public String getGroup() { return group; }
+    public String getReason() { return reason; }
+    public String getWorld() { return world; }
+    public String getInventoryId() { return inventoryId; }
+    public String getEventMatchId() { return eventMatchId; }
+
+    int getSegmentId() { return segmentId; }
+    long getOffset() { return offset; }
+    int getLength() { return length; }
+    byte getPayloadFormat() { return payloadFormat; }
+
+    /**
+     * Metadata in the same shape the YAML backups used (uuid, timestamp, world, ...).
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("uuid", playerId.toString());
+        m.put("timestamp", timestamp);
+        m.put("created_at", InventorySnapshotStorage.iso(timestamp));
+        m.put("player_name", playerName);
+        m.put("level", level);
+        m.put("group", group);
+        m.put("reason", reason);
+        m.put("world", world);
+        m.put("inventory_id", inventoryId);
+        if (!eventMatchId.isEmpty()) m.put("event_match_id", eventMatchId);
+        return m;
+    }
+}
@@ -0,0 +1,185 @@
+package de.zfzfg.eventplugin.storage;
+
+import de.zfzfg.core.util.Time;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Background retention for inventory snapshots.
+ * <p>
+ * Every prune interval a pass starts; it walks the pre and then the post store
+ * one storage unit per second ({@link SnapshotStore#pruneStep}), so a pass never
+ * holds a store lock for longer than one segment rewrite and snapshot saves
+ * stay constant-cost regardless of history size. Retention is configured per
+ * source group: "event" and "pvpwager" (PvP wager matches, recognized by the
+ * PVP reason or the MATCH id prefix).
+ */
+final class SnapshotRetentionJob {
+    static final String GROUP_EVENT = "event";
+    static final String GROUP_PVPWAGER = "pvpwager";
+    private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+    private final Plugin plugin;
+    private final long eventRetainMillis;
+    private final long pvpRetainMillis;
+    private final long passIntervalMillis;
+    private BukkitTask task;
+
+    // Zustand des laufenden Durchlaufs (nur unter this)
+    private boolean passActive;
+    private boolean postPhase;
+    private long cursor;
+    private Predicate<SnapshotRecord> expired;
+    private long passStartedAt;
+    private int passRemoved;
+    private long passBytes;
+    private long nextPassAt;
+
+    // Metriken (nur unter this geschrieben)
+    private long passes;
+    private long totalRemoved;
+    private long totalBytesReclaimed;
+    private int lastPassRemoved;
+    private long lastPassBytes;
+    private long lastPassDurationMillis;
+    private long lastPassEndedAt;
+
+    SnapshotRetentionJob(Plugin plugin, int eventRetainDays, int pvpRetainDays, int passIntervalMinutes) {
+        this.plugin = plugin;
+        this.eventRetainMillis = eventRetainDays * DAY_MILLIS;
+        this.pvpRetainMillis = pvpRetainDays * DAY_MILLIS;
+        this.passIntervalMillis = passIntervalMinutes * 60_000L;
+    }
+
+    /** Start stepping; the first pass begins after {@code firstPassDelayMillis}. */
+    void start(long firstPassDelayMillis) {
+        synchronized (this) {
+            nextPassAt = System.currentTimeMillis() + firstPassDelayMillis;
+        }
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::step,
+                Time.TICKS_PER_SECOND, Time.TICKS_PER_SECOND);
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /** Run (or finish) a complete pass on the calling thread. */
+    synchronized void runFullPass() {
+        long now = System.currentTimeMillis();
+        if (!passActive) beginPass(now);
+        try {
+            while (advance()) {
+                // ein Segment bzw. Zeilen-Batch pro Schleifendurchlauf
+            }
+        } catch (IOException e) {
+            abortPass(e);
+        }
+    }
+
+    static String groupOf(SnapshotRecord r) {
+        String reason = r.getReason().toUpperCase(Locale.ROOT);
+        String id = r.getInventoryId().toUpperCase(Locale.ROOT);
+        return (reason.startsWith("PVP") || id.startsWith("MATCH")) ? GROUP_PVPWAGER : GROUP_EVENT;
+    }
+
+    synchronized Map<String, Object> metrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("passes", passes);
+        m.put("removed_total", totalRemoved);
+        m.put("bytes_reclaimed_total", totalBytesReclaimed);
+        m.put("last_pass_removed", lastPassRemoved);
+        m.put("last_pass_bytes_reclaimed", lastPassBytes);
+        m.put("last_pass_duration_ms", lastPassDurationMillis);
+        m.put("last_pass_ended_at", lastPassEndedAt);
+        m.put("pass_running", passActive);
+        m.put("retain_days_event", eventRetainMillis / DAY_MILLIS);
+        m.put("retain_days_pvpwager", pvpRetainMillis / DAY_MILLIS);
+        return m;
+    }
+
+    private synchronized void step() {
+        if (!passActive) {
+            long now = System.currentTimeMillis();
+            if (now < nextPassAt) return;
+            beginPass(now);
+        }
+        try {
+            advance();
+        } catch (IOException e) {
+            abortPass(e);
+        } catch (Exception e) {
+            abortPass(new IOException(e.getMessage(), e));
+        }
+    }
+
+    private void beginPass(long now) {
+        long eventCutoff = now - eventRetainMillis;
+        long pvpCutoff = now - pvpRetainMillis;
+        expired = r -> r.getTimestamp() < (GROUP_PVPWAGER.equals(groupOf(r)) ? pvpCutoff : eventCutoff);
+        passActive = true;
+        postPhase = false;
+        cursor = 0L;
+        passStartedAt = now;
+        passRemoved = 0;
+        passBytes = 0L;
+    }
+
+    /** One step of the running pass. @return true while the pass has more work */
+    private boolean advance() throws IOException {
+        if (!passActive) return false;
+        SnapshotStore store = InventorySnapshotStorage.openStore(postPhase);
+        if (store == null) {
+            // Speicher geschlossen (Shutdown) – Durchlauf verwerfen
+            passActive = false;
+            return false;
+        }
+        SnapshotStore.PruneResult r = store.pruneStep(cursor, expired);
+        passRemoved += r.removed;
+        passBytes += r.bytesReclaimed;
+        if (r.nextCursor >= 0) {
+            cursor = r.nextCursor;
+            return true;
+        }
+        if (!postPhase) {
+            postPhase = true;
+            cursor = 0L;
+            return true;
+        }
+        endPass();
+        return false;
+    }
+
+    private void endPass() {
+        long now = System.currentTimeMillis();
+        passActive = false;
+        passes++;
+        totalRemoved += passRemoved;
+        totalBytesReclaimed += passBytes;
+        lastPassRemoved = passRemoved;
+        lastPassBytes = passBytes;
+        lastPassDurationMillis = now - passStartedAt;
+        lastPassEndedAt = now;
+        nextPassAt = now + passIntervalMillis;
+        if (passRemoved > 0) {
+            plugin.getLogger().info("Snapshot-Bereinigung: " + passRemoved + " Einträge entfernt, "
+                    + (passBytes / 1024L) + " KB freigegeben (" + lastPassDurationMillis + " ms).");
+        }
+    }
+
+    private void abortPass(IOException e) {
+        plugin.getLogger().warning("Snapshot-Bereinigung abgebrochen: " + e.getMessage());
+        passActive = false;
+        nextPassAt = System.currentTimeMillis() + passIntervalMillis;
+    }
+}
@@ -0,0 +1,93 @@
+package de.zfzfg.eventplugin.storage;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Storage for one snapshot kind (pre or post). Implemented by the file based
+ * {@link SnapshotLog} and by the SQL backend; {@link InventorySnapshotStorage}
+ * only talks to this interface.
+ */
+public interface SnapshotStore {
+
+    /** Item payload of one snapshot as stored. */
+    final class Payload {
+        final byte format;
+        final byte[] data;
+
+        Payload(byte format, byte[] data) {
+            this.format = format;
+            this.data = data;
+        }
+    }
+
+    /** Outcome of one {@link #pruneStep}. */
+    final class PruneResult {
+        final int removed;
+        final long bytesReclaimed;
+        final long nextCursor;
+
+        PruneResult(int removed, long bytesReclaimed, long nextCursor) {
+            this.removed = removed;
+            this.bytesReclaimed = bytesReclaimed;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    /** Converts one payload into the target format. */
+    interface PayloadConverter {
+        byte[] convert(Payload payload) throws IOException;
+    }
+
+    /** Next 4-digit inventory_id for a world (0001..9999, then wraps). Must not block on I/O. */
+    String allocateInventoryId(String world);
+
+    /** Persist a batch of snapshots in one write/transaction. */
+    void appendAll(List<SnapshotRecord> metas, byte payloadFormat, List<byte[]> payloads) throws IOException;
+
+    /** Like {@link #appendAll}, but the records keep their ids and advance the world counters past them. */
+    void importAll(List<SnapshotRecord> metas, byte payloadFormat, List<byte[]> payloads) throws IOException;
+
+    /** Newest snapshot with this inventory_id, or null. */
+    SnapshotRecord findByInventoryId(String inventoryId) throws IOException;
+
+    /** Snapshots of one player, oldest first. */
+    List<SnapshotRecord> recordsFor(UUID playerId) throws IOException;
+
+    /** Number of snapshots of one player. */
+    int countFor(UUID playerId) throws IOException;
+
+    /** Newest snapshot of one player, or null. */
+    SnapshotRecord latestFor(UUID playerId) throws IOException;
+
+    /** Newest snapshot stored under this player name (case-insensitive), or null. */
+    SnapshotRecord latestByName(String playerName) throws IOException;
+
+    Set<UUID> players() throws IOException;
+
+    Collection<SnapshotRecord> allRecords() throws IOException;
+
+    /** Item payload of a record returned by this store, or null if it is gone. */
+    Payload readPayload(SnapshotRecord record) throws IOException;
+
+    /**
+     * One incremental retention step: delete the expired snapshots of the next
+     * storage unit after {@code cursor} (a log segment, or a bounded batch of rows).
+     * Start a pass with cursor 0 and continue with {@link PruneResult#nextCursor}
+     * until it is negative.
+     */
+    PruneResult pruneStep(long cursor, Predicate<SnapshotRecord> expired) throws IOException;
+
+    /**
+     * Re-encode every payload that is not yet in the target format.
+     *
+     * @return number of converted snapshots
+     */
+    int convertPayloads(byte targetFormat, PayloadConverter converter) throws IOException;
+
+    void close();
+}
@@ -0,0 +1,134 @@
+package de.zfzfg.eventplugin.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single writer for inventory snapshots.
+ * <p>
+ * Captured snapshots are queued; one async drain takes everything that is
+ * pending and appends it per store with a single write and fsync (one
+ * transaction on SQLite). A burst of
+ * joins (e.g. team assignment at the end of the join phase) therefore costs
+ * one disk flush instead of one per player. {@link #flush()} is the barrier
+ * callers can wait on before moving players.
+ */
+final class SnapshotWriter {
+    private final Plugin plugin;
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Object drainLock = new Object();
+    // Noch nicht abgeschlossene Snapshots (alle Stores); Grundlage für flush()
+    private final Set<CompletableFuture<Void>> outstanding = ConcurrentHashMap.newKeySet();
+
+    SnapshotWriter(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    private static final class Pending {
+        final SnapshotStore log;
+        final SnapshotRecord meta;
+        final ItemStack[] contents;
+        final ItemStack[] armor;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(SnapshotStore log, SnapshotRecord meta, ItemStack[] contents, ItemStack[] armor) {
+            this.log = log;
+            this.meta = meta;
+            this.contents = contents;
+            this.armor = armor;
+        }
+    }
+
+    /**
+     * Queue a snapshot. Items must already be copies; they are serialized on the writer thread.
+     */
+    CompletableFuture<Void> submit(SnapshotStore log, SnapshotRecord meta, ItemStack[] contents, ItemStack[] armor) {
+        Pending p = new Pending(log, meta, contents, armor);
+        // Vor dem Einreihen registrieren, damit ein gleichzeitiges flush() den Snapshot sicher mit abwartet
+        outstanding.add(p.done);
+        p.done.whenComplete((v, ex) -> outstanding.remove(p.done));
+        queue.add(p);
+        scheduleDrain();
+        return p.done;
+    }
+
+    /**
+     * Completes once every snapshot submitted before this call is on disk,
+     * across all stores; completes exceptionally if any of them failed.
+     */
+    CompletableFuture<Void> flush() {
+        return CompletableFuture.allOf(outstanding.toArray(new CompletableFuture[0]));
+    }
+
+    /** Write everything pending on the calling thread (sync saves, shutdown). */
+    void drainNow() {
+        drain();
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) return;
+        try {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, this::drainLoop);
+        } catch (Exception e) {
+            // Scheduler nicht verfügbar (z.B. während onDisable) – direkt schreiben
+            drainScheduled.set(false);
+            drain();
+        }
+    }
+
+    private void drainLoop() {
+        do {
+            drain();
+            drainScheduled.set(false);
+        } while (!queue.isEmpty() && drainScheduled.compareAndSet(false, true));
+    }
+
+    private void drain() {
+        synchronized (drainLock) {
+            List<Pending> batch = new ArrayList<>();
+            Pending next;
+            while ((next = queue.poll()) != null) batch.add(next);
+            if (batch.isEmpty()) return;
+
+            Map<SnapshotStore, List<Pending>> byLog = new LinkedHashMap<>();
+            for (Pending p : batch) byLog.computeIfAbsent(p.log, k -> new ArrayList<>()).add(p);
+
+            for (Map.Entry<SnapshotStore, List<Pending>> e : byLog.entrySet()) {
+                List<Pending> encoded = new ArrayList<>();
+                List<SnapshotRecord> metas = new ArrayList<>();
+                List<byte[]> payloads = new ArrayList<>();
+                for (Pending p : e.getValue()) {
+                    try {
+                        payloads.add(InventorySnapshotStorage.encodeItems(p.contents, p.armor));
+                        metas.add(p.meta);
+                        encoded.add(p);
+                    } catch (Exception ex) {
+                        plugin.getLogger().warning("Konnte Inventar-Snapshot " + p.meta.getInventoryId() + " nicht serialisieren: " + ex.getMessage());
+                        p.done.completeExceptionally(ex);
+                    }
+                }
+                if (encoded.isEmpty()) continue;
+                try {
+                    e.getKey().appendAll(metas, InventorySnapshotStorage.FORMAT_BINARY, payloads);
+                    for (Pending p : encoded) p.done.complete(null);
+                } catch (IOException ex) {
+                    plugin.getLogger().warning("Failed to save " + encoded.size() + " inventory snapshot(s): " + ex.getMessage());
+                    for (Pending p : encoded) p.done.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+}
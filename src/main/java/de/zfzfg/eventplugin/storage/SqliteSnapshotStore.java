@@ -0,0 +1,380 @@
+package de.zfzfg.eventplugin.storage;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Snapshot store on the SQLite backend: one row per snapshot in
+ * {@code inventory_snapshots}, {@code kind} 0 = pre, 1 = post.
+ * <p>
+ * inventory_id counters behave like in {@link SnapshotLog}: held in memory for
+ * lock-free allocation, recovered from the newest row per world and persisted
+ * to {@code id_counters} on pruning and close. Records returned by this
+ * store carry their row id in {@link SnapshotRecord#getOffset()}.
+ */
+final class SqliteSnapshotStore implements SnapshotStore {
+    private static final int MAX_NUMERIC_ID = 9999;
+    private static final int PRUNE_BATCH = 500;
+    private static final Pattern TRAILING_ID = Pattern.compile("(\\d{4})$");
+    private static final String META_COLUMNS =
+            "id, player_uuid, player_name, created_at, level, grp, reason, world, inventory_id, event_match_id, payload_format";
+    private static final String INSERT =
+            "INSERT INTO inventory_snapshots (kind, inventory_id, player_uuid, player_name, created_at, level, grp, reason, "
+                    + "world, event_match_id, payload_format, payload) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final SqliteStorageBackend backend;
+    private final int kind;
+    private final ConcurrentHashMap<String, AtomicInteger> idCounters = new ConcurrentHashMap<>();
+    // Zeitstempel des Eintrags, aus dem der Zähler per Import übernommen wurde
+    private final Map<String, Long> counterRecoveredAt = new HashMap<>();
+
+    SqliteSnapshotStore(SqliteStorageBackend backend, int kind) {
+        this.backend = backend;
+        this.kind = kind;
+    }
+
+    void open() throws IOException {
+        backend.call(c -> {
+            // Neuester Datensatz pro Welt bestimmt den Zähler
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT world, inventory_id, MAX(created_at) FROM inventory_snapshots WHERE kind = ? GROUP BY world")) {
+                ps.setInt(1, kind);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Integer id = numericId(rs.getString(2));
+                        if (id != null) idCounters.put(rs.getString(1), new AtomicInteger(id));
+                    }
+                }
+            }
+            // Gespeicherte Zähler nur für Welten ohne verbleibende Einträge
+            try (PreparedStatement ps = c.prepareStatement("SELECT world, value FROM id_counters WHERE kind = ?")) {
+                ps.setInt(1, kind);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) idCounters.putIfAbsent(rs.getString(1), new AtomicInteger(rs.getInt(2)));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        try {
+            saveCounters();
+        } catch (IOException ignored) {
+            // Zähler werden beim nächsten Öffnen aus den Einträgen wiederhergestellt
+        }
+    }
+
+    @Override
+    public String allocateInventoryId(String world) {
+        int next = idCounters.computeIfAbsent(world, k -> new AtomicInteger())
+                .updateAndGet(v -> v >= MAX_NUMERIC_ID ? 1 : v + 1);
+        return String.format("%04d", next);
+    }
+
+    @Override
+    public void appendAll(List<SnapshotRecord> metas, byte payloadFormat, List<byte[]> payloads) throws IOException {
+        if (metas.isEmpty()) return;
+        backend.call(c -> SqliteStorageBackend.inTransaction(c, tx -> {
+            try (PreparedStatement ps = tx.prepareStatement(INSERT)) {
+                for (int i = 0; i < metas.size(); i++) {
+                    bindInsert(ps, metas.get(i), payloadFormat, payloads.get(i));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return null;
+        }));
+    }
+
+    @Override
+    public void importAll(List<SnapshotRecord> metas, byte payloadFormat, List<byte[]> payloads) throws IOException {
+        appendAll(metas, payloadFormat, payloads);
+        synchronized (counterRecoveredAt) {
+            for (SnapshotRecord r : metas) {
+                Integer id = numericId(r.getInventoryId());
+                if (id == null) continue;
+                Long seen = counterRecoveredAt.get(r.getWorld());
+                if (seen != null && seen > r.getTimestamp()) continue;
+                counterRecoveredAt.put(r.getWorld(), r.getTimestamp());
+                idCounters.computeIfAbsent(r.getWorld(), k -> new AtomicInteger()).set(id);
+            }
+        }
+    }
+
+    @Override
+    public SnapshotRecord findByInventoryId(String inventoryId) throws IOException {
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT " + META_COLUMNS
+                    + " FROM inventory_snapshots WHERE kind = ? AND inventory_id = ? ORDER BY created_at DESC, id DESC LIMIT 1")) {
+                ps.setInt(1, kind);
+                ps.setString(2, inventoryId);
+                List<SnapshotRecord> list = readRecords(ps);
+                return list.isEmpty() ? null : list.get(0);
+            }
+        });
+    }
+
+    @Override
+    public List<SnapshotRecord> recordsFor(UUID playerId) throws IOException {
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT " + META_COLUMNS
+                    + " FROM inventory_snapshots WHERE kind = ? AND player_uuid = ? ORDER BY created_at, id")) {
+                ps.setInt(1, kind);
+                ps.setString(2, playerId.toString());
+                return readRecords(ps);
+            }
+        });
+    }
+
+    @Override
+    public int countFor(UUID playerId) throws IOException {
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT COUNT(*) FROM inventory_snapshots WHERE kind = ? AND player_uuid = ?")) {
+                ps.setInt(1, kind);
+                ps.setString(2, playerId.toString());
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        });
+    }
+
+    @Override
+    public SnapshotRecord latestFor(UUID playerId) throws IOException {
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT " + META_COLUMNS
+                    + " FROM inventory_snapshots WHERE kind = ? AND player_uuid = ? ORDER BY created_at DESC, id DESC LIMIT 1")) {
+                ps.setInt(1, kind);
+                ps.setString(2, playerId.toString());
+                List<SnapshotRecord> list = readRecords(ps);
+                return list.isEmpty() ? null : list.get(0);
+            }
+        });
+    }
+
+    @Override
+    public SnapshotRecord latestByName(String playerName) throws IOException {
+        if (playerName == null) return null;
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT " + META_COLUMNS
+                    + " FROM inventory_snapshots WHERE kind = ? AND player_name = ? COLLATE NOCASE"
+                    + " ORDER BY created_at DESC, id DESC LIMIT 1")) {
+                ps.setInt(1, kind);
+                ps.setString(2, playerName);
+                List<SnapshotRecord> list = readRecords(ps);
+                return list.isEmpty() ? null : list.get(0);
+            }
+        });
+    }
+
+    @Override
+    public Set<UUID> players() throws IOException {
+        return backend.call(c -> {
+            Set<UUID> set = new LinkedHashSet<>();
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT player_uuid FROM inventory_snapshots WHERE kind = ? GROUP BY player_uuid ORDER BY MIN(id)")) {
+                ps.setInt(1, kind);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        UUID id = SqliteStorageBackend.parseUuid(rs.getString(1));
+                        if (id != null) set.add(id);
+                    }
+                }
+            }
+            return set;
+        });
+    }
+
+    @Override
+    public Collection<SnapshotRecord> allRecords() throws IOException {
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT " + META_COLUMNS
+                    + " FROM inventory_snapshots WHERE kind = ? ORDER BY id")) {
+                ps.setInt(1, kind);
+                return readRecords(ps);
+            }
+        });
+    }
+
+    @Override
+    public Payload readPayload(SnapshotRecord record) throws IOException {
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement(
+                    "SELECT payload_format, payload FROM inventory_snapshots WHERE id = ? AND kind = ?")) {
+                ps.setLong(1, record.getOffset());
+                ps.setInt(2, kind);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? new Payload((byte) rs.getInt(1), rs.getBytes(2)) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Retention step over the next {@value #PRUNE_BATCH} rows after {@code cursor}
+     * (a row id). Reclaimed bytes are the deleted payload sizes; freed pages are
+     * handed back to the file system via incremental vacuum.
+     */
+    @Override
+    public PruneResult pruneStep(long cursor, Predicate<SnapshotRecord> expired) throws IOException {
+        PruneResult result = backend.call(c -> SqliteStorageBackend.inTransaction(c, tx -> {
+            List<Long> ids = new ArrayList<>();
+            long reclaimed = 0L;
+            long lastId = cursor;
+            int rows = 0;
+            try (PreparedStatement ps = tx.prepareStatement("SELECT " + META_COLUMNS
+                    + ", length(payload) FROM inventory_snapshots WHERE kind = ? AND id > ? ORDER BY id LIMIT " + PRUNE_BATCH)) {
+                ps.setInt(1, kind);
+                ps.setLong(2, cursor);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong(1);
+                        SnapshotRecord r = readRecord(rs);
+                        if (r != null && expired.test(r)) {
+                            ids.add(lastId);
+                            reclaimed += rs.getLong(12);
+                        }
+                    }
+                }
+            }
+            if (!ids.isEmpty()) {
+                try (PreparedStatement del = tx.prepareStatement("DELETE FROM inventory_snapshots WHERE id = ?")) {
+                    for (Long id : ids) {
+                        del.setLong(1, id);
+                        del.addBatch();
+                    }
+                    del.executeBatch();
+                }
+            }
+            return new PruneResult(ids.size(), reclaimed, rows < PRUNE_BATCH ? -1L : lastId);
+        }));
+        if (result.removed > 0) {
+            saveCounters();
+            backend.incrementalVacuum();
+        }
+        return result;
+    }
+
+    @Override
+    public int convertPayloads(byte targetFormat, PayloadConverter converter) throws IOException {
+        return backend.call(c -> SqliteStorageBackend.inTransaction(c, tx -> {
+            int converted = 0;
+            try (PreparedStatement select = tx.prepareStatement(
+                    "SELECT id, payload_format, payload FROM inventory_snapshots WHERE kind = ? AND payload_format <> ?");
+                 PreparedStatement update = tx.prepareStatement(
+                         "UPDATE inventory_snapshots SET payload_format = ?, payload = ? WHERE id = ?")) {
+                select.setInt(1, kind);
+                select.setInt(2, targetFormat);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        byte[] data;
+                        try {
+                            data = converter.convert(new Payload((byte) rs.getInt(2), rs.getBytes(3)));
+                        } catch (IOException e) {
+                            continue; // Eintrag bleibt unverändert
+                        }
+                        update.setInt(1, targetFormat);
+                        update.setBytes(2, data);
+                        update.setLong(3, rs.getLong(1));
+                        update.addBatch();
+                        converted++;
+                    }
+                }
+                update.executeBatch();
+            }
+            return converted;
+        }));
+    }
+
+    /** True if no snapshot of this kind is stored (used by the one-time import). */
+    boolean isEmpty() throws IOException {
+        return backend.call(c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT 1 FROM inventory_snapshots WHERE kind = ? LIMIT 1")) {
+                ps.setInt(1, kind);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return !rs.next();
+                }
+            }
+        });
+    }
+
+    // ===== Internals =====
+
+    private void saveCounters() throws IOException {
+        if (idCounters.isEmpty()) return;
+        backend.call(c -> SqliteStorageBackend.inTransaction(c, tx -> {
+            try (PreparedStatement ps = tx.prepareStatement(
+                    "INSERT INTO id_counters (kind, world, value) VALUES (?, ?, ?) "
+                            + "ON CONFLICT(kind, world) DO UPDATE SET value = excluded.value")) {
+                for (Map.Entry<String, AtomicInteger> e : idCounters.entrySet()) {
+                    ps.setInt(1, kind);
+                    ps.setString(2, e.getKey());
+                    ps.setInt(3, e.getValue().get());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return null;
+        }));
+    }
+
+    private void bindInsert(PreparedStatement ps, SnapshotRecord r, byte payloadFormat, byte[] payload) throws SQLException {
+        ps.setInt(1, kind);
+        ps.setString(2, r.getInventoryId());
+        ps.setString(3, r.getPlayerId().toString());
+        ps.setString(4, r.getPlayerName());
+        ps.setLong(5, r.getTimestamp());
+        ps.setInt(6, r.getLevel());
+        ps.setString(7, r.getGroup());
+        ps.setString(8, r.getReason());
+        ps.setString(9, r.getWorld());
+        ps.setString(10, r.getEventMatchId());
+        ps.setInt(11, payloadFormat);
+        ps.setBytes(12, payload);
+    }
+
+    private static List<SnapshotRecord> readRecords(PreparedStatement ps) throws SQLException {
+        List<SnapshotRecord> out = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                SnapshotRecord r = readRecord(rs);
+                if (r != null) out.add(r);
+            }
+        }
+        return out;
+    }
+
+    /** Current row as record; expects {@link #META_COLUMNS} as the first columns. */
+    private static SnapshotRecord readRecord(ResultSet rs) throws SQLException {
+        UUID playerId = SqliteStorageBackend.parseUuid(rs.getString(2));
+        if (playerId == null) return null;
+        SnapshotRecord meta = new SnapshotRecord(playerId, rs.getString(3), rs.getLong(4), rs.getInt(5),
+                rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9), rs.getString(10));
+        return meta.at(-1, rs.getLong(1), 0, (byte) rs.getInt(11));
+    }
+
+    private static Integer numericId(String inventoryId) {
+        if (inventoryId == null) return null;
+        Matcher m = TRAILING_ID.matcher(inventoryId);
+        return m.find() ? Integer.valueOf(m.group(1)) : null;
+    }
+}
@@ -0,0 +1,337 @@
+package de.zfzfg.eventplugin.storage;
+
+import de.zfzfg.eventplugin.models.EventStats;
+import de.zfzfg.pvpwager.models.PlayerStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Embedded SQLite backend (single database file, driver ships with Spigot).
+ * <p>
+ * One connection is opened and reused for the plugin's lifetime. Every
+ * statement runs on a dedicated I/O thread ({@link #call(SqlCall)}), so JDBC
+ * is never touched concurrently and callers on other threads just wait for
+ * their result. Writes use prepared statements in batches inside one
+ * transaction.
+ */
+final class SqliteStorageBackend implements StorageBackend {
+    private static final String DRIVER = "org.sqlite.JDBC";
+    private static final int SCHEMA_VERSION = 1;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS meta (key TEXT PRIMARY KEY, value TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS pvp_stats (uuid TEXT PRIMARY KEY, wins INTEGER NOT NULL, losses INTEGER NOT NULL, draws INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS event_stats (uuid TEXT PRIMARY KEY, wins INTEGER NOT NULL, participations INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS inventory_snapshots ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT, kind INTEGER NOT NULL, inventory_id TEXT NOT NULL, "
+                    + "player_uuid TEXT NOT NULL, player_name TEXT NOT NULL, created_at INTEGER NOT NULL, level INTEGER NOT NULL, "
+                    + "grp TEXT NOT NULL, reason TEXT NOT NULL, world TEXT NOT NULL, event_match_id TEXT NOT NULL, "
+                    + "payload_format INTEGER NOT NULL, payload BLOB NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_snapshots_inventory_id ON inventory_snapshots (kind, inventory_id)",
+            "CREATE INDEX IF NOT EXISTS idx_snapshots_player ON inventory_snapshots (kind, player_uuid)",
+            "CREATE INDEX IF NOT EXISTS idx_snapshots_created ON inventory_snapshots (kind, created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_snapshots_name ON inventory_snapshots (kind, player_name COLLATE NOCASE)",
+            "CREATE TABLE IF NOT EXISTS id_counters (kind INTEGER NOT NULL, world TEXT NOT NULL, value INTEGER NOT NULL, PRIMARY KEY (kind, world))"
+    };
+
+    private final File file;
+    private final Logger logger;
+    private volatile ExecutorService io;
+    private volatile Thread ioThread;
+    private Connection connection;
+
+    SqliteStorageBackend(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /** Work that runs on the I/O thread with the shared connection. */
+    interface SqlCall<T> {
+        T run(Connection c) throws SQLException, IOException;
+    }
+
+    @Override
+    public String getType() {
+        return "sqlite";
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (io != null) return;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        io = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "EventPVP-SQLite");
+            t.setDaemon(true);
+            ioThread = t;
+            return t;
+        });
+        call(c -> {
+            try {
+                Class.forName(DRIVER);
+            } catch (ClassNotFoundException e) {
+                throw new IOException("SQLite-Treiber nicht gefunden (" + DRIVER + ")", e);
+            }
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            try (Statement st = connection.createStatement()) {
+                // Nur bei neuer Datei wirksam: gelöschte Seiten per incremental_vacuum freigeben können
+                st.execute("PRAGMA auto_vacuum=INCREMENTAL");
+                // WAL: Leser blockieren Schreiber nicht; NORMAL reicht mit WAL für Crash-Sicherheit der DB
+                st.execute("PRAGMA journal_mode=WAL");
+                st.execute("PRAGMA synchronous=NORMAL");
+            }
+            inTransaction(connection, tx -> {
+                try (Statement st = tx.createStatement()) {
+                    for (String sql : SCHEMA) st.execute(sql);
+                }
+                if (getMeta(tx, "schema_version") == null) setMeta(tx, "schema_version", Integer.toString(SCHEMA_VERSION));
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (io == null) return;
+        try {
+            call(c -> {
+                if (connection != null) connection.close();
+                connection = null;
+                return null;
+            });
+        } catch (IOException e) {
+            logger.warning("Konnte SQLite-Verbindung nicht schließen: " + e.getMessage());
+        }
+        io.shutdown();
+        try {
+            io.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        io = null;
+    }
+
+    // ===== Stats =====
+
+    @Override
+    public Map<UUID, PlayerStats> loadPvpStats() throws IOException {
+        return call(c -> {
+            Map<UUID, PlayerStats> map = new HashMap<>();
+            try (PreparedStatement ps = c.prepareStatement("SELECT uuid, wins, losses, draws FROM pvp_stats");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID id = parseUuid(rs.getString(1));
+                    if (id == null) continue;
+                    PlayerStats stats = new PlayerStats(id);
+                    stats.addWins(rs.getInt(2));
+                    stats.addLosses(rs.getInt(3));
+                    stats.addDraws(rs.getInt(4));
+                    map.put(id, stats);
+                }
+            }
+            return map;
+        });
+    }
+
+    @Override
+    public void savePvpStats(Map<UUID, PlayerStats> stats, boolean replaceAll) throws IOException {
+        if (!replaceAll && stats.isEmpty()) return;
+        call(c -> inTransaction(c, tx -> {
+            if (replaceAll) {
+                try (Statement st = tx.createStatement()) { st.executeUpdate("DELETE FROM pvp_stats"); }
+            }
+            try (PreparedStatement ps = tx.prepareStatement(
+                    "INSERT INTO pvp_stats (uuid, wins, losses, draws) VALUES (?, ?, ?, ?) "
+                            + "ON CONFLICT(uuid) DO UPDATE SET wins = excluded.wins, losses = excluded.losses, draws = excluded.draws")) {
+                for (Map.Entry<UUID, PlayerStats> e : stats.entrySet()) {
+                    ps.setString(1, e.getKey().toString());
+                    ps.setInt(2, e.getValue().getWins());
+                    ps.setInt(3, e.getValue().getLosses());
+                    ps.setInt(4, e.getValue().getDraws());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return null;
+        }));
+    }
+
+    @Override
+    public Map<UUID, EventStats> loadEventStats() throws IOException {
+        return call(c -> {
+            Map<UUID, EventStats> map = new HashMap<>();
+            try (PreparedStatement ps = c.prepareStatement("SELECT uuid, wins, participations FROM event_stats");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID id = parseUuid(rs.getString(1));
+                    if (id == null) continue;
+                    EventStats stats = new EventStats(id);
+                    stats.addWins(rs.getInt(2));
+                    stats.addParticipations(rs.getInt(3));
+                    map.put(id, stats);
+                }
+            }
+            return map;
+        });
+    }
+
+    @Override
+    public void saveEventStats(Map<UUID, EventStats> stats, boolean replaceAll) throws IOException {
+        if (!replaceAll && stats.isEmpty()) return;
+        call(c -> inTransaction(c, tx -> {
+            if (replaceAll) {
+                try (Statement st = tx.createStatement()) { st.executeUpdate("DELETE FROM event_stats"); }
+            }
+            try (PreparedStatement ps = tx.prepareStatement(
+                    "INSERT INTO event_stats (uuid, wins, participations) VALUES (?, ?, ?) "
+                            + "ON CONFLICT(uuid) DO UPDATE SET wins = excluded.wins, participations = excluded.participations")) {
+                for (Map.Entry<UUID, EventStats> e : stats.entrySet()) {
+                    ps.setString(1, e.getKey().toString());
+                    ps.setInt(2, e.getValue().getWins());
+                    ps.setInt(3, e.getValue().getParticipations());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return null;
+        }));
+    }
+
+    /** True if the stats tables contain no rows (used by the one-time YAML import). */
+    boolean statsEmpty() throws IOException {
+        return call(c -> count(c, "SELECT COUNT(*) FROM pvp_stats") == 0 && count(c, "SELECT COUNT(*) FROM event_stats") == 0);
+    }
+
+    // ===== Snapshots =====
+
+    @Override
+    public SnapshotStore openSnapshotStore(boolean post) throws IOException {
+        SqliteSnapshotStore store = new SqliteSnapshotStore(this, post ? 1 : 0);
+        store.open();
+        return store;
+    }
+
+    /** Return free pages to the file system (no-op unless the file was created with auto_vacuum). */
+    void incrementalVacuum() {
+        try {
+            call(c -> {
+                try (Statement st = c.createStatement()) {
+                    // executeUpdate läuft das Pragma bis zum Ende; execute() gibt nur eine Seite pro Aufruf frei
+                    st.executeUpdate("PRAGMA incremental_vacuum");
+                    // Datei erst nach dem Checkpoint tatsächlich kürzer
+                    st.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            logger.warning("SQLite incremental_vacuum fehlgeschlagen: " + e.getMessage());
+        }
+    }
+
+    // ===== Meta =====
+
+    String getMeta(String key) throws IOException {
+        return call(c -> getMeta(c, key));
+    }
+
+    void setMeta(String key, String value) throws IOException {
+        call(c -> {
+            setMeta(c, key, value);
+            return null;
+        });
+    }
+
+    private static String getMeta(Connection c, String key) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT value FROM meta WHERE key = ?")) {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static void setMeta(Connection c, String key, String value) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO meta (key, value) VALUES (?, ?) ON CONFLICT(key) DO UPDATE SET value = excluded.value")) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        }
+    }
+
+    // ===== I/O-Thread =====
+
+    /**
+     * Run the call on the I/O thread and wait for it. Calls made from the I/O
+     * thread itself run inline.
+     */
+    <T> T call(SqlCall<T> task) throws IOException {
+        ExecutorService executor = io;
+        if (executor == null) throw new IOException("SQLite-Backend ist nicht geöffnet");
+        if (Thread.currentThread() == ioThread) return runCall(task);
+        Future<T> future = executor.submit(() -> runCall(task));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Unterbrochen beim Warten auf SQLite", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause != null ? cause.getMessage() : e.getMessage(), cause);
+        }
+    }
+
+    // Beim Öffnen ist connection noch null; der Open-Aufruf legt sie selbst an
+    private <T> T runCall(SqlCall<T> task) throws IOException {
+        try {
+            return task.run(connection);
+        } catch (SQLException e) {
+            throw new IOException("SQLite: " + e.getMessage(), e);
+        }
+    }
+
+    /** Run the work in one transaction; rolls back on any error. */
+    static <T> T inTransaction(Connection c, SqlCall<T> work) throws SQLException, IOException {
+        boolean auto = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try {
+            T result = work.run(c);
+            c.commit();
+            return result;
+        } catch (SQLException | IOException | RuntimeException e) {
+            try { c.rollback(); } catch (SQLException ignored) {}
+            throw e;
+        } finally {
+            c.setAutoCommit(auto);
+        }
+    }
+
+    static long count(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    static UUID parseUuid(String s) {
+        try { return UUID.fromString(s); } catch (Exception e) { return null; }
+    }
+}
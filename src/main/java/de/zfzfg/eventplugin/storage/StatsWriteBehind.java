@@ -0,0 +1,96 @@
+package de.zfzfg.eventplugin.storage;
+
+import de.zfzfg.core.util.Time;
+import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.managers.EventStatsManager;
+import de.zfzfg.eventplugin.models.EventStats;
+import de.zfzfg.pvpwager.managers.StatsManager;
+import de.zfzfg.pvpwager.models.PlayerStats;
+import de.zfzfg.pvpwager.storage.PvpStatsStorage;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write-behind for PvP and event statistics.
+ * <p>
+ * The stats managers mark changed players as dirty; this class persists only
+ * those entries, either once the flush interval has passed or as soon as the
+ * number of dirty players reaches the threshold. {@link #stop()} performs the
+ * final flush on disable.
+ */
+public class StatsWriteBehind {
+    private final EventPlugin plugin;
+    private final long intervalMillis;
+    private final int threshold;
+    private final Object flushLock = new Object();
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+    private BukkitTask task;
+
+    public StatsWriteBehind(EventPlugin plugin, int intervalSeconds, int threshold) {
+        this.plugin = plugin;
+        this.intervalMillis = intervalSeconds * 1000L;
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        // Jede Sekunde prüfen (billig: zwei size()-Aufrufe), geschrieben wird nur bei Intervall/Schwelle
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::tick,
+                Time.TICKS_PER_SECOND, Time.TICKS_PER_SECOND);
+    }
+
+    /** Cancel the timer and write all remaining changes on the calling thread. */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flushNow();
+    }
+
+    /** Persist pending changes soon (e.g. after admin edits) without waiting for the interval. */
+    public void flushAsync() {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::flushNow);
+    }
+
+    private void tick() {
+        int dirty = 0;
+        if (plugin.getStatsManager() != null) dirty += plugin.getStatsManager().getDirtyCount();
+        if (plugin.getEventStatsManager() != null) dirty += plugin.getEventStatsManager().getDirtyCount();
+        if (dirty == 0) return;
+        if (dirty >= threshold || System.currentTimeMillis() - lastFlushMillis >= intervalMillis) {
+            flushNow();
+        }
+    }
+
+    public void flushNow() {
+        synchronized (flushLock) {
+            lastFlushMillis = System.currentTimeMillis();
+
+            StatsManager pvp = plugin.getStatsManager();
+            if (pvp != null) {
+                Map<UUID, PlayerStats> changed = pvp.drainDirty();
+                try {
+                    PvpStatsStorage.saveDirty(plugin, changed);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to save PvP stats: " + e.getMessage());
+                    pvp.markDirty(changed.keySet());
+                }
+            }
+
+            EventStatsManager events = plugin.getEventStatsManager();
+            if (events != null) {
+                Map<UUID, EventStats> changed = events.drainDirty();
+                try {
+                    EventStatsStorage.saveDirty(plugin, changed);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to save Event stats: " + e.getMessage());
+                    events.markDirty(changed.keySet());
+                }
+            }
+        }
+    }
+}
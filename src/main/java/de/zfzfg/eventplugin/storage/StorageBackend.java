@@ -0,0 +1,39 @@
+package de.zfzfg.eventplugin.storage;
+
+import de.zfzfg.eventplugin.models.EventStats;
+import de.zfzfg.pvpwager.models.PlayerStats;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persistence backend behind {@code PvpStatsStorage}, {@link EventStatsStorage}
+ * and {@link InventorySnapshotStorage}. Selected via {@code settings.storage.type};
+ * see {@link StorageBackends}.
+ */
+public interface StorageBackend {
+
+    /** Config name of the backend ("yaml", "sqlite"). */
+    String getType();
+
+    void open() throws IOException;
+
+    void close();
+
+    Map<UUID, PlayerStats> loadPvpStats() throws IOException;
+
+    /**
+     * @param replaceAll true: the map is the complete data set, entries missing from it are removed;
+     *                   false: only the given players are inserted or updated
+     */
+    void savePvpStats(Map<UUID, PlayerStats> stats, boolean replaceAll) throws IOException;
+
+    Map<UUID, EventStats> loadEventStats() throws IOException;
+
+    /** Same semantics as {@link #savePvpStats(Map, boolean)}. */
+    void saveEventStats(Map<UUID, EventStats> stats, boolean replaceAll) throws IOException;
+
+    /** Open the snapshot store for pre ({@code post=false}) or post snapshots. */
+    SnapshotStore openSnapshotStore(boolean post) throws IOException;
+}
@@ -0,0 +1,134 @@
+package de.zfzfg.eventplugin.storage;
+
+import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.models.EventStats;
+import de.zfzfg.pvpwager.models.PlayerStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holds the active {@link StorageBackend} ({@code settings.storage.type}).
+ * <p>
+ * When the SQLite backend is opened for the first time, the existing YAML
+ * stats and the file snapshot logs are imported once; the source files are
+ * left in place so switching back to "yaml" keeps the old data.
+ */
+public final class StorageBackends {
+    private static final String IMPORT_MARKER = "yaml_import_done";
+    private static final int IMPORT_BATCH = 200;
+
+    private static final Object LOCK = new Object();
+    private static volatile StorageBackend active;
+
+    private StorageBackends() {}
+
+    /** Open the configured backend (called from onEnable before stats are loaded). */
+    public static StorageBackend init(EventPlugin plugin) {
+        return get(plugin);
+    }
+
+    /** Active backend; opened lazily from the config if {@link #init} was not called yet. */
+    public static StorageBackend get(EventPlugin plugin) {
+        StorageBackend b = active;
+        if (b != null) return b;
+        synchronized (LOCK) {
+            if (active == null) active = open(plugin);
+            return active;
+        }
+    }
+
+    /** Close the backend. Stats and snapshots must be flushed before. */
+    public static void shutdown() {
+        synchronized (LOCK) {
+            if (active != null) active.close();
+            active = null;
+        }
+    }
+
+    private static StorageBackend open(EventPlugin plugin) {
+        String type = plugin.getConfigManager() != null ? plugin.getConfigManager().getStorageType() : "yaml";
+        if ("sqlite".equals(type)) {
+            File dbFile = new File(plugin.getDataFolder(), plugin.getConfigManager().getSqliteFile());
+            SqliteStorageBackend sqlite = new SqliteStorageBackend(dbFile, plugin.getLogger());
+            try {
+                sqlite.open();
+                importYamlOnce(plugin, sqlite);
+                plugin.getLogger().info("Speicher-Backend: SQLite (" + dbFile.getName() + ")");
+                return sqlite;
+            } catch (IOException e) {
+                plugin.getLogger().severe("Konnte SQLite-Datenbank nicht öffnen, verwende YAML: " + e.getMessage());
+                sqlite.close();
+            }
+        }
+        YamlStorageBackend yaml = new YamlStorageBackend(plugin);
+        yaml.open();
+        return yaml;
+    }
+
+    /**
+     * One-time import of pvpstats.yml, eventstats.yml and the snapshot segment
+     * logs into a fresh database. Skipped once the marker is set.
+     */
+    private static void importYamlOnce(EventPlugin plugin, SqliteStorageBackend sqlite) throws IOException {
+        if (sqlite.getMeta(IMPORT_MARKER) != null) return;
+        YamlStorageBackend yaml = new YamlStorageBackend(plugin);
+
+        if (sqlite.statsEmpty()) {
+            Map<UUID, PlayerStats> pvp = yaml.loadPvpStats();
+            Map<UUID, EventStats> events = yaml.loadEventStats();
+            sqlite.savePvpStats(pvp, true);
+            sqlite.saveEventStats(events, true);
+            if (!pvp.isEmpty() || !events.isEmpty()) {
+                plugin.getLogger().info("Statistiken importiert: " + pvp.size() + " PvP, " + events.size() + " Event.");
+            }
+        }
+
+        for (boolean post : new boolean[] {false, true}) {
+            if (!YamlStorageBackend.snapshotDir(plugin.getDataFolder(), post).isDirectory()) continue;
+            SqliteSnapshotStore target = (SqliteSnapshotStore) sqlite.openSnapshotStore(post);
+            try {
+                if (!target.isEmpty()) continue;
+                SnapshotStore source = yaml.openSnapshotStore(post);
+                try {
+                    int imported = copySnapshots(source, target);
+                    if (imported > 0) {
+                        plugin.getLogger().info(imported + " Inventar-Snapshots (" + (post ? "post" : "pre") + ") in SQLite importiert.");
+                    }
+                } finally {
+                    source.close();
+                }
+            } finally {
+                target.close();
+            }
+        }
+        sqlite.setMeta(IMPORT_MARKER, Long.toString(System.currentTimeMillis()));
+    }
+
+    /** Copy all records with their payloads, batched per payload format. */
+    private static int copySnapshots(SnapshotStore source, SnapshotStore target) throws IOException {
+        int count = 0;
+        List<SnapshotRecord> metas = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        byte batchFormat = 0;
+        for (SnapshotRecord r : source.allRecords()) {
+            SnapshotStore.Payload payload = source.readPayload(r);
+            if (payload == null) continue;
+            if (!metas.isEmpty() && (payload.format != batchFormat || metas.size() >= IMPORT_BATCH)) {
+                target.importAll(metas, batchFormat, payloads);
+                metas.clear();
+                payloads.clear();
+            }
+            batchFormat = payload.format;
+            metas.add(r);
+            payloads.add(payload.data);
+            count++;
+        }
+        if (!metas.isEmpty()) target.importAll(metas, batchFormat, payloads);
+        return count;
+    }
+}
@@ -0,0 +1,174 @@
+package de.zfzfg.eventplugin.storage;
+
+import de.zfzfg.eventplugin.models.EventStats;
+import de.zfzfg.pvpwager.models.PlayerStats;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Default file backend: stats in {@code pvpstats.yml} / {@code eventstats.yml},
+ * inventory snapshots in the segment logs under {@code snapshots/}.
+ * <p>
+ * The YAML documents are kept in memory after load/save, so a write-behind
+ * flush only updates the changed players before writing the file atomically.
+ */
+final class YamlStorageBackend implements StorageBackend {
+    static final String PVP_STATS_FILE = "pvpstats.yml";
+    static final String EVENT_STATS_FILE = "eventstats.yml";
+    static final String SNAPSHOT_DIR = "snapshots";
+
+    private final Plugin plugin;
+    private final Object pvpLock = new Object();
+    private final Object eventLock = new Object();
+    // Zuletzt geladener/geschriebener Stand je Datei
+    private YamlConfiguration pvpCached;
+    private YamlConfiguration eventCached;
+
+    YamlStorageBackend(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getType() {
+        return "yaml";
+    }
+
+    @Override
+    public void open() {
+        File folder = plugin.getDataFolder();
+        if (!folder.exists()) folder.mkdirs();
+    }
+
+    @Override
+    public void close() {
+        synchronized (pvpLock) { pvpCached = null; }
+        synchronized (eventLock) { eventCached = null; }
+    }
+
+    // ===== PvP-Stats =====
+
+    @Override
+    public Map<UUID, PlayerStats> loadPvpStats() {
+        Map<UUID, PlayerStats> map = new HashMap<>();
+        File file = new File(plugin.getDataFolder(), PVP_STATS_FILE);
+        if (!file.exists()) return map;
+        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
+        synchronized (pvpLock) { pvpCached = cfg; }
+        ConfigurationSection players = cfg.getConfigurationSection("players");
+        if (players == null) return map;
+        for (String key : players.getKeys(false)) {
+            try {
+                UUID id = UUID.fromString(key);
+                PlayerStats stats = new PlayerStats(id);
+                stats.addWins(players.getInt(key + ".wins", 0));
+                stats.addLosses(players.getInt(key + ".losses", 0));
+                stats.addDraws(players.getInt(key + ".draws", 0));
+                map.put(id, stats);
+            } catch (Exception ignored) {}
+        }
+        return map;
+    }
+
+    @Override
+    public void savePvpStats(Map<UUID, PlayerStats> stats, boolean replaceAll) throws IOException {
+        if (!replaceAll && stats.isEmpty()) return;
+        File file = new File(dataFolder(), PVP_STATS_FILE);
+        synchronized (pvpLock) {
+            YamlConfiguration cfg = replaceAll ? new YamlConfiguration() : cachedOrLoad(pvpCached, file);
+            for (Map.Entry<UUID, PlayerStats> e : stats.entrySet()) {
+                String base = "players." + e.getKey();
+                cfg.set(base + ".wins", e.getValue().getWins());
+                cfg.set(base + ".losses", e.getValue().getLosses());
+                cfg.set(base + ".draws", e.getValue().getDraws());
+            }
+            saveYamlAtomic(cfg, file);
+            pvpCached = cfg;
+        }
+    }
+
+    // ===== Event-Stats =====
+
+    @Override
+    public Map<UUID, EventStats> loadEventStats() {
+        Map<UUID, EventStats> map = new HashMap<>();
+        File file = new File(plugin.getDataFolder(), EVENT_STATS_FILE);
+        if (!file.exists()) return map;
+        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
+        synchronized (eventLock) { eventCached = cfg; }
+        ConfigurationSection players = cfg.getConfigurationSection("players");
+        if (players == null) return map;
+        for (String key : players.getKeys(false)) {
+            try {
+                UUID id = UUID.fromString(key);
+                EventStats stats = new EventStats(id);
+                stats.addWins(players.getInt(key + ".wins", 0));
+                stats.addParticipations(players.getInt(key + ".participations", 0));
+                map.put(id, stats);
+            } catch (Exception ignored) {}
+        }
+        return map;
+    }
+
+    @Override
+    public void saveEventStats(Map<UUID, EventStats> stats, boolean replaceAll) throws IOException {
+        if (!replaceAll && stats.isEmpty()) return;
+        File file = new File(dataFolder(), EVENT_STATS_FILE);
+        synchronized (eventLock) {
+            YamlConfiguration cfg = replaceAll ? new YamlConfiguration() : cachedOrLoad(eventCached, file);
+            for (Map.Entry<UUID, EventStats> e : stats.entrySet()) {
+                String base = "players." + e.getKey();
+                cfg.set(base + ".wins", e.getValue().getWins());
+                cfg.set(base + ".participations", e.getValue().getParticipations());
+            }
+            saveYamlAtomic(cfg, file);
+            eventCached = cfg;
+        }
+    }
+
+    // ===== Snapshots =====
+
+    @Override
+    public SnapshotStore openSnapshotStore(boolean post) throws IOException {
+        int sealHours = plugin.getConfigManager() != null ? plugin.getConfigManager().getSnapshotSealAfterHours() : 24;
+        SnapshotLog log = new SnapshotLog(snapshotDir(plugin.getDataFolder(), post), plugin.getLogger(),
+                sealHours * 60L * 60L * 1000L);
+        log.open();
+        return log;
+    }
+
+    static File snapshotDir(File dataFolder, boolean post) {
+        return new File(new File(dataFolder, SNAPSHOT_DIR), post ? "post" : "pre");
+    }
+
+    // ===== Internals =====
+
+    private File dataFolder() {
+        File folder = plugin.getDataFolder();
+        if (!folder.exists()) folder.mkdirs();
+        return folder;
+    }
+
+    private static YamlConfiguration cachedOrLoad(YamlConfiguration cached, File file) {
+        if (cached != null) return cached;
+        return file.exists() ? YamlConfiguration.loadConfiguration(file) : new YamlConfiguration();
+    }
+
+    private static void saveYamlAtomic(YamlConfiguration cfg, File file) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        cfg.save(tmp);
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            cfg.save(file);
+        }
+    }
+}
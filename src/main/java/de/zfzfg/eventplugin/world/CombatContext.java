@@ -0,0 +1,75 @@
+package de.zfzfg.eventplugin.world;
+
+import de.zfzfg.eventplugin.manager.TeamManager;
+import de.zfzfg.eventplugin.session.EventSession;
+import de.zfzfg.pvpwager.models.Match;
+
+import java.util.UUID;
+
+/**
+ * Everything the damage listeners need to know about an attacker/victim pair,
+ * resolved in one pass from the two {@link PlayerStateCache} records: the
+ * match both fight in, the match spectator flags, the shared event session and
+ * the team relation inside it. Obtain via {@link PlayerStateCache#combat}.
+ */
+public final class CombatContext {
+
+    public enum TeamRelation { NONE, TEAMMATES, OPPONENTS }
+
+    private final Match match;
+    private final boolean attackerSpectator;
+    private final boolean victimSpectator;
+    private final EventSession session;
+    private final TeamRelation teamRelation;
+
+    private CombatContext(Match match, boolean attackerSpectator, boolean victimSpectator,
+                          EventSession session, TeamRelation teamRelation) {
+        this.match = match;
+        this.attackerSpectator = attackerSpectator;
+        this.victimSpectator = victimSpectator;
+        this.session = session;
+        this.teamRelation = teamRelation;
+    }
+
+    static CombatContext resolve(UUID attackerId, PlayerStateCache.State attacker,
+                                 UUID victimId, PlayerStateCache.State victim) {
+        boolean attackerSpectator = attacker.isMatchSpectator();
+        boolean victimSpectator = victim.isMatchSpectator();
+
+        // Gemeinsames Match nur, wenn beide darin kämpfen (Zuschauer zählen nicht)
+        Match match = attacker.getMatch();
+        if (match == null || match != victim.getMatch() || attackerSpectator || victimSpectator) {
+            match = null;
+        }
+
+        EventSession session = attacker.getSession();
+        if (session == null || session != victim.getSession()) {
+            session = null;
+        }
+
+        TeamRelation relation = TeamRelation.NONE;
+        TeamManager teams = session != null ? session.getTeamManager() : null;
+        if (teams != null) {
+            TeamManager.Team attackerTeam = teams.getPlayerTeam(attackerId);
+            TeamManager.Team victimTeam = teams.getPlayerTeam(victimId);
+            if (attackerTeam != null && victimTeam != null) {
+                relation = attackerTeam == victimTeam ? TeamRelation.TEAMMATES : TeamRelation.OPPONENTS;
+            }
+        }
+        return new CombatContext(match, attackerSpectator, victimSpectator, session, relation);
+    }
+
+    /** Match in which attacker and victim fight each other, or null. */
+    public Match getMatch() { return match; }
+
+    public boolean isAttackerSpectator() { return attackerSpectator; }
+
+    public boolean isVictimSpectator() { return victimSpectator; }
+
+    /** Event session both players belong to, or null. */
+    public EventSession getSession() { return session; }
+
+    public TeamRelation getTeamRelation() { return teamRelation; }
+
+    public boolean areTeammates() { return teamRelation == TeamRelation.TEAMMATES; }
+}
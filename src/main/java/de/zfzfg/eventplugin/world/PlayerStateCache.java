@@ -0,0 +1,138 @@
+package de.zfzfg.eventplugin.world;
+
+import de.zfzfg.eventplugin.session.EventSession;
+import de.zfzfg.pvpwager.models.Match;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Per-player view of "in which event/match, spectating or not", kept up to
+ * date by the lifecycle points that change it (event join/leave/elimination,
+ * match indexing, spectate).
+ * <p>
+ * The hot listeners (move, damage, game mode) read one {@link State} instead of
+ * going through the EventManager/MatchManager indexes on every event. Session
+ * and match state are read live from the references; permissions come from
+ * {@link de.zfzfg.core.security.PermissionCache}.
+ */
+public final class PlayerStateCache {
+
+    /** Cached flags and references of one player. */
+    public static final class State {
+        private volatile EventSession session;
+        private volatile Match match;
+        private volatile boolean eventSpectator;
+        private volatile boolean matchSpectator;
+
+        public EventSession getSession() { return session; }
+        public Match getMatch() { return match; }
+        public boolean isEventSpectator() { return session != null && eventSpectator; }
+        public boolean isMatchSpectator() { return match != null && matchSpectator; }
+        public boolean isSpectator() { return isEventSpectator() || isMatchSpectator(); }
+
+        /** Neither in an event nor in a match; the listeners can return immediately. */
+        public boolean isIdle() { return session == null && match == null; }
+    }
+
+    private static final State IDLE = new State();
+
+    private final ConcurrentHashMap<UUID, State> states = new ConcurrentHashMap<>();
+    // Wird aufgerufen, sobald ein Spieler weder Event noch Match mehr hat
+    private volatile Consumer<UUID> idleListener;
+
+    /** Callback for players that left their last event/match (e.g. release rescue locations). */
+    public void onIdle(Consumer<UUID> listener) {
+        this.idleListener = listener;
+    }
+
+    /** State of a player; an idle placeholder if nothing is tracked. */
+    public State get(Player player) {
+        State s = states.get(player.getUniqueId());
+        return s != null ? s : IDLE;
+    }
+
+    /** Match, spectator and team relation of an attacker/victim pair in one lookup. */
+    public CombatContext combat(Player attacker, Player victim) {
+        UUID attackerId = attacker.getUniqueId();
+        UUID victimId = victim.getUniqueId();
+        State a = states.get(attackerId);
+        State v = states.get(victimId);
+        return CombatContext.resolve(attackerId, a != null ? a : IDLE, victimId, v != null ? v : IDLE);
+    }
+
+    // --- Event-Seite (EventManager/EventSession) ---
+
+    public void setSession(UUID playerId, EventSession session) {
+        State s = state(playerId);
+        s.session = session;
+        s.eventSpectator = false;
+    }
+
+    public void clearSession(UUID playerId) {
+        State s = states.get(playerId);
+        if (s == null) return;
+        s.session = null;
+        s.eventSpectator = false;
+        dropIfIdle(playerId, s);
+    }
+
+    /** Session removed or stopped: clear every player still pointing at it. */
+    public void clearSession(EventSession session) {
+        for (java.util.Map.Entry<UUID, State> e : states.entrySet()) {
+            if (e.getValue().session == session) clearSession(e.getKey());
+        }
+    }
+
+    public void clearAllSessions() {
+        for (UUID id : states.keySet()) clearSession(id);
+    }
+
+    public void setEventSpectator(UUID playerId, boolean spectator) {
+        State s = states.get(playerId);
+        if (s != null) s.eventSpectator = spectator;
+    }
+
+    // --- Match-Seite (MatchManager) ---
+
+    public void setMatch(UUID playerId, Match match, boolean spectator) {
+        State s = state(playerId);
+        s.match = match;
+        s.matchSpectator = spectator;
+    }
+
+    public void clearMatch(UUID playerId) {
+        State s = states.get(playerId);
+        if (s == null) return;
+        s.match = null;
+        s.matchSpectator = false;
+        dropIfIdle(playerId, s);
+    }
+
+    public void clearAllMatches() {
+        for (UUID id : states.keySet()) clearMatch(id);
+    }
+
+    /** True while the player is in an event or a match. */
+    public boolean isTracked(UUID playerId) {
+        State s = states.get(playerId);
+        return s != null && !s.isIdle();
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    private State state(UUID playerId) {
+        return states.computeIfAbsent(playerId, k -> new State());
+    }
+
+    private void dropIfIdle(UUID playerId, State s) {
+        if (!s.isIdle()) return;
+        states.remove(playerId, s);
+        Consumer<UUID> listener = idleListener;
+        if (listener != null) listener.accept(playerId);
+    }
+}
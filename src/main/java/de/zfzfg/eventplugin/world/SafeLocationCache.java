@@ -0,0 +1,164 @@
+package de.zfzfg.eventplugin.world;
+
+import de.zfzfg.eventplugin.EventPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fallback locations for the void rescue, prepared when a player joins an
+ * event (saved location, lobby spawn) or a match (original location) instead
+ * of being looked up while the player is falling.
+ * <p>
+ * Candidates are validated and cloned up front and their chunks are held
+ * loaded with plugin chunk tickets (reference counted, released together with
+ * the player's entry; Bukkit drops remaining tickets when the plugin disables).
+ * Rescue is then a map lookup plus a loaded-world check. Entries live as long
+ * as the player is in an event or match ({@link PlayerStateCache} reports them
+ * idle); once the table grows past a threshold, entries of players that are no
+ * longer tracked there are swept, held ones are never evicted. Main thread only.
+ */
+public final class SafeLocationCache {
+
+    // Ab dieser Größe werden Einträge nicht mehr beteiligter Spieler beim nächsten prepare() entfernt
+    private static final int SWEEP_THRESHOLD = 256;
+    private static final int MAX_CANDIDATES = 4;
+    private static final double VOID_MARGIN = 5;
+
+    private final EventPlugin plugin;
+    private final Map<String, Integer> chunkRefs = new HashMap<>();
+    private final Map<UUID, List<Location>> byPlayer = new HashMap<>();
+    private int sweepAt = SWEEP_THRESHOLD;
+    private Location mainSpawn;
+
+    public SafeLocationCache(EventPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Add fallback locations for a player, highest priority first. They go
+     * behind the ones already prepared, so the earliest origin (e.g. the event's
+     * saved location before a later match origin) stays first. Null, unloaded or
+     * void-level locations are skipped.
+     */
+    public synchronized void prepare(UUID playerId, Location... candidates) {
+        refreshMainSpawn();
+        List<Location> previous = byPlayer.remove(playerId);
+        List<Location> next = new ArrayList<>(MAX_CANDIDATES);
+        if (previous != null) next.addAll(previous);
+        for (Location candidate : candidates) {
+            if (next.size() < MAX_CANDIDATES && isUsable(candidate) && !containsBlock(next, candidate)) {
+                next.add(candidate.clone());
+            }
+        }
+        // Erst neue Tickets setzen, dann alte freigeben (gleiche Chunks bleiben geladen)
+        holdChunks(next);
+        if (previous != null) releaseChunks(previous);
+        if (!next.isEmpty()) byPlayer.put(playerId, next);
+        if (byPlayer.size() >= sweepAt) sweep();
+    }
+
+    /** First prepared location whose world is still loaded, else the main-world spawn. */
+    public synchronized Location find(UUID playerId) {
+        List<Location> candidates = byPlayer.get(playerId);
+        if (candidates != null) {
+            for (Location loc : candidates) {
+                if (isUsable(loc)) return loc;
+            }
+        }
+        if (!isUsable(mainSpawn)) refreshMainSpawn();
+        return mainSpawn;
+    }
+
+    /** Player left every event and match. */
+    public synchronized void release(UUID playerId) {
+        List<Location> candidates = byPlayer.remove(playerId);
+        if (candidates != null) releaseChunks(candidates);
+    }
+
+    public synchronized int size() {
+        return byPlayer.size();
+    }
+
+    // Einträge von Spielern ohne Event/Match (verpasste Freigabe) entfernen; beteiligte bleiben immer
+    private void sweep() {
+        PlayerStateCache states = plugin.getPlayerStateCache();
+        for (Iterator<Map.Entry<UUID, List<Location>>> it = byPlayer.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<UUID, List<Location>> e = it.next();
+            if (states.isTracked(e.getKey())) continue;
+            releaseChunks(e.getValue());
+            it.remove();
+        }
+        // Nächster Durchlauf erst, wenn die Tabelle wieder deutlich gewachsen ist
+        sweepAt = Math.max(SWEEP_THRESHOLD, byPlayer.size() * 2);
+    }
+
+    private void refreshMainSpawn() {
+        String mainWorldName = plugin.getConfigManager().getMainWorld();
+        World mainWorld = mainWorldName != null ? Bukkit.getWorld(mainWorldName) : null;
+        if (mainWorld == null && !Bukkit.getWorlds().isEmpty()) {
+            mainWorld = Bukkit.getWorlds().get(0);
+        }
+        mainSpawn = mainWorld != null ? mainWorld.getSpawnLocation() : null;
+    }
+
+    private static boolean isUsable(Location loc) {
+        if (loc == null || loc.getWorld() == null) return false;
+        // Welt muss noch geladen sein (entladene Welten behalten ihr World-Objekt)
+        World world = Bukkit.getWorld(loc.getWorld().getUID());
+        return world != null && loc.getY() >= world.getMinHeight() + VOID_MARGIN;
+    }
+
+    private static boolean containsBlock(List<Location> list, Location loc) {
+        for (Location l : list) {
+            if (l.getWorld() == loc.getWorld() && l.getBlockX() == loc.getBlockX()
+                    && l.getBlockY() == loc.getBlockY() && l.getBlockZ() == loc.getBlockZ()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void holdChunks(List<Location> locations) {
+        for (Location loc : locations) {
+            String key = chunkKey(loc);
+            int refs = chunkRefs.getOrDefault(key, 0);
+            if (refs == 0) {
+                try {
+                    loc.getWorld().addPluginChunkTicket(loc.getBlockX() >> 4, loc.getBlockZ() >> 4, plugin);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Chunk-Ticket für Rettungspunkt fehlgeschlagen: " + e.getMessage());
+                }
+            }
+            chunkRefs.put(key, refs + 1);
+        }
+    }
+
+    private void releaseChunks(List<Location> locations) {
+        for (Location loc : locations) {
+            String key = chunkKey(loc);
+            Integer refs = chunkRefs.get(key);
+            if (refs == null) continue;
+            if (refs > 1) {
+                chunkRefs.put(key, refs - 1);
+                continue;
+            }
+            chunkRefs.remove(key);
+            World world = Bukkit.getWorld(loc.getWorld().getUID());
+            if (world != null) {
+                world.removePluginChunkTicket(loc.getBlockX() >> 4, loc.getBlockZ() >> 4, plugin);
+            }
+        }
+    }
+
+    private static String chunkKey(Location loc) {
+        return loc.getWorld().getUID() + ":" + (loc.getBlockX() >> 4) + ":" + (loc.getBlockZ() >> 4);
+    }
+}
@@ -0,0 +1,119 @@
+package de.zfzfg.eventplugin.world;
+
+import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.session.EventSession;
+import de.zfzfg.pvpwager.models.Match;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * World name to role (event, lobby, arena) and the sessions/matches using it.
+ * <p>
+ * Rebuilt on the lifecycle changes that alter the mapping (session created or
+ * removed, arena assigned, match removed), so the move/teleport handlers need
+ * a single map lookup per event and return immediately for worlds that no
+ * session or match uses. Session and match state are read live from the
+ * returned entry. Rebuild on the main thread; lookups are safe from any thread.
+ */
+public final class WorldRoleIndex {
+
+    public enum Role { EVENT, LOBBY, ARENA }
+
+    /** Everything that uses one world. */
+    public static final class Entry {
+        private final Role role;
+        private final List<EventSession> sessions;
+        private final List<Match> matches;
+
+        private Entry(Role role, List<EventSession> sessions, List<Match> matches) {
+            this.role = role;
+            this.sessions = sessions;
+            this.matches = matches;
+        }
+
+        public Role getRole() { return role; }
+
+        /** Sessions with this world as event or lobby world, in session order. */
+        public List<EventSession> getSessions() { return sessions; }
+
+        /** Matches fighting in this world as arena. */
+        public List<Match> getMatches() { return matches; }
+
+        public boolean hasSession(EventSession session) {
+            for (EventSession s : sessions) if (s == session) return true;
+            return false;
+        }
+
+        public boolean hasMatch(Match match) {
+            for (Match m : matches) if (m == match) return true;
+            return false;
+        }
+    }
+
+    private final EventPlugin plugin;
+    // Copy-on-write: wird komplett ersetzt, Leser sehen immer einen konsistenten Stand
+    private volatile Map<String, Entry> byWorld = Collections.emptyMap();
+
+    public WorldRoleIndex(EventPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** Entry for a world, or null if the world is unrestricted. */
+    public Entry lookup(World world) {
+        return world != null ? byWorld.get(world.getName()) : null;
+    }
+
+    /** Entry for a world name, or null if the world is unrestricted. */
+    public Entry lookup(String worldName) {
+        return worldName != null ? byWorld.get(worldName) : null;
+    }
+
+    /** Recompute the mapping from the active sessions and matches. */
+    public void rebuild() {
+        Map<String, Role> roles = new HashMap<>();
+        Map<String, List<EventSession>> sessions = new HashMap<>();
+        Map<String, List<Match>> matches = new HashMap<>();
+
+        if (plugin.getEventManager() != null) {
+            for (EventSession session : plugin.getEventManager().getActiveSessions().values()) {
+                String eventWorld = session.getConfig().getEventWorld();
+                String lobbyWorld = session.getConfig().getLobbyWorld();
+                if (eventWorld != null) {
+                    roles.put(eventWorld, Role.EVENT);
+                    sessions.computeIfAbsent(eventWorld, k -> new ArrayList<>()).add(session);
+                }
+                if (lobbyWorld != null && !lobbyWorld.equals(eventWorld)) {
+                    roles.putIfAbsent(lobbyWorld, Role.LOBBY);
+                    sessions.computeIfAbsent(lobbyWorld, k -> new ArrayList<>()).add(session);
+                }
+            }
+        }
+        if (plugin.getMatchManager() != null) {
+            for (Match match : plugin.getMatchManager().getMatches().values()) {
+                if (match.getArena() == null || match.getArena().getArenaWorld() == null) continue;
+                String arenaWorld = match.getArena().getArenaWorld();
+                roles.putIfAbsent(arenaWorld, Role.ARENA);
+                matches.computeIfAbsent(arenaWorld, k -> new ArrayList<>()).add(match);
+            }
+        }
+
+        Map<String, Entry> next = new HashMap<>(roles.size() * 2);
+        for (Map.Entry<String, Role> e : roles.entrySet()) {
+            List<EventSession> s = sessions.get(e.getKey());
+            List<Match> m = matches.get(e.getKey());
+            next.put(e.getKey(), new Entry(e.getValue(),
+                    s != null ? Collections.unmodifiableList(s) : Collections.emptyList(),
+                    m != null ? Collections.unmodifiableList(m) : Collections.emptyList()));
+        }
+        byWorld = next;
+    }
+
+    public int size() {
+        return byWorld.size();
+    }
+}
@@ -76,7 +76,7 @@ public class PvPAdminCommand implements CommandExecutor {
     
     private void handleStopAll(CommandSender sender) {
         var cfg = plugin.getPvpConfigManager();
-        int count = plugin.getMatchManager().stopAllMatches();
+        int count = plugin.getMatchManager().scheduleStopAllMatches();
         MessageUtil.sendMessage(sender, cfg.getMessage("messages.command.pvpadmin.stopall", "count", String.valueOf(count)));
     }
     
@@ -98,7 +98,7 @@ public class PvPStatsCommand implements CommandExecutor, TabCompleter {
                 java.util.UUID id = op != null ? op.getUniqueId() : null;
                 if (id == null) { MessageUtil.error(sender, plugin.getConfigManager().getMessage("pvpstats.player-not-found")); return true; }
                 plugin.getStatsManager().reset(id);
-                de.zfzfg.pvpwager.storage.PvpStatsStorage.saveAsync(plugin, plugin.getStatsManager().toMap());
+                plugin.getStatsWriteBehind().flushAsync();
                 MessageUtil.sendMessage(sender, plugin.getConfigManager().getMessage("pvpstats.reset-success", "name", (op.getName() != null ? op.getName() : String.valueOf(id))));
                 return true;
 
@@ -124,7 +124,7 @@ public class PvPStatsCommand implements CommandExecutor, TabCompleter {
                     case "draws": plugin.getStatsManager().addDraws(idAdd, amount); break;
                     default: MessageUtil.error(sender, plugin.getConfigManager().getMessage("pvpstats.invalid-field")); return true;
                 }
-                de.zfzfg.pvpwager.storage.PvpStatsStorage.saveAsync(plugin, plugin.getStatsManager().toMap());
+                plugin.getStatsWriteBehind().flushAsync();
                 MessageUtil.sendMessage(sender, plugin.getConfigManager().getMessage("pvpstats.add-success", "name", (opAdd.getName() != null ? opAdd.getName() : String.valueOf(idAdd))));
                 return true;
 
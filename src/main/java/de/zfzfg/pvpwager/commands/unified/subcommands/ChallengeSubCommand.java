@@ -6,7 +6,6 @@ import de.zfzfg.core.util.InputValidator;
 import de.zfzfg.eventplugin.EventPlugin;
 import de.zfzfg.pvpwager.utils.MessageUtil;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.Material;
@@ -23,13 +22,8 @@ public class ChallengeSubCommand extends SubCommand {
 
     public ChallengeSubCommand(EventPlugin plugin) { 
         super(plugin);
-        this.cooldowns = new CommandCooldownManager();
-        // Setze die übersetzte Cooldown-Nachricht
-        this.cooldowns.setMessageProvider(seconds -> {
-            String msg = plugin.getCoreConfigManager().getMessages()
-                .getString("messages.system.cooldown-wait", "&cPlease wait {seconds} more seconds!");
-            return ChatColor.translateAlternateColorCodes('&', msg.replace("{seconds}", String.valueOf(seconds)));
-        });
+        // Gemeinsamer Cooldown-Speicher (übersetzte Nachricht, zentral bereinigt)
+        this.cooldowns = plugin.getCommandCooldowns();
     }
 
     @Override
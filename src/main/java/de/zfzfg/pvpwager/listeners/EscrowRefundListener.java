@@ -0,0 +1,31 @@
+package de.zfzfg.pvpwager.listeners;
+
+import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.pvpwager.storage.EscrowJournal;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Returns wager stakes from matches interrupted by a crash once their owner
+ * joins (see {@link EscrowJournal}).
+ */
+public class EscrowRefundListener implements Listener {
+    private final EventPlugin plugin;
+
+    public EscrowRefundListener(EventPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        EscrowJournal journal = plugin.getEscrowJournal();
+        if (journal == null || journal.getPendingRefundCount() == 0) return;
+        try {
+            journal.refundPending(event.getPlayer());
+        } catch (Exception e) {
+            plugin.getLogger().warning("Escrow-Erstattung für " + event.getPlayer().getName() + " fehlgeschlagen: " + e.getMessage());
+        }
+    }
+}
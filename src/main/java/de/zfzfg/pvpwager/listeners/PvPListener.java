@@ -1,6 +1,7 @@
 package de.zfzfg.pvpwager.listeners;
 
 import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.world.CombatContext;
 import de.zfzfg.pvpwager.models.Match;
 import de.zfzfg.pvpwager.models.MatchState;
 import de.zfzfg.pvpwager.utils.MessageUtil;
@@ -46,24 +47,23 @@ public class PvPListener implements Listener {
         
         Player attacker = (Player) event.getDamager();
         Player victim = (Player) event.getEntity();
+        CombatContext combat = plugin.getPlayerStateCache().combat(attacker, victim);
         
         // Check if attacker is a spectator
-        Match attackerMatch = plugin.getMatchManager().getMatchByPlayer(attacker);
-        if (attackerMatch != null && attackerMatch.getSpectators().contains(attacker.getUniqueId())) {
+        if (combat.isAttackerSpectator()) {
             event.setCancelled(true);
             MessageUtil.sendMessage(attacker, getMsg("spectator-no-attack"));
             return;
         }
         
         // Check if victim is a spectator
-        Match victimMatch = plugin.getMatchManager().getMatchByPlayer(victim);
-        if (victimMatch != null && victimMatch.getSpectators().contains(victim.getUniqueId())) {
+        if (combat.isVictimSpectator()) {
             event.setCancelled(true);
             return;
         }
         
         // Check if both are in the same match
-        Match match = plugin.getMatchManager().getMatch(attacker, victim);
+        Match match = combat.getMatch();
         if (match == null) {
             // PvP außerhalb von Matches ist erlaubt (für Events)
             return;
@@ -86,10 +86,9 @@ public class PvPListener implements Listener {
         }
         
         Player player = (Player) event.getEntity();
-        Match match = plugin.getMatchManager().getMatchByPlayer(player);
         
         // Protect spectators from all damage
-        if (match != null && match.getSpectators().contains(player.getUniqueId())) {
+        if (plugin.getPlayerStateCache().get(player).isMatchSpectator()) {
             event.setCancelled(true);
         }
     }
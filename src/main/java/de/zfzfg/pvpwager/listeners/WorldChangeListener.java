@@ -1,6 +1,14 @@
 package de.zfzfg.pvpwager.listeners;
 
+import de.zfzfg.core.security.Permission;
+import de.zfzfg.core.tasks.WheelTask;
 import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.listeners.MoveDispatcher;
+import de.zfzfg.eventplugin.world.PlayerStateCache;
+import de.zfzfg.eventplugin.world.WorldRoleIndex;
+import de.zfzfg.pvpwager.managers.MatchManager;
+import de.zfzfg.pvpwager.models.Boundaries;
+import de.zfzfg.pvpwager.models.BoundaryEnforcement;
 import de.zfzfg.pvpwager.models.Match;
 import de.zfzfg.pvpwager.models.MatchState;
 import de.zfzfg.pvpwager.utils.MessageUtil;
@@ -16,7 +24,7 @@ import org.bukkit.event.player.PlayerMoveEvent;
 import java.util.Arrays;
 import java.util.List;
 
-public class WorldChangeListener implements Listener {
+public class WorldChangeListener implements Listener, MoveDispatcher.Module {
     
     private final EventPlugin plugin;
     
@@ -54,7 +62,7 @@ public class WorldChangeListener implements Listener {
         }
         
         // Allow staff commands for OPs
-        if (player.isOp() || player.hasPermission("eventpvp.opbypass")) {
+        if (plugin.getPermissionCache().isOpOrHas(player, Permission.BYPASS_COMMANDS)) {
             isAllowed = true;
         }
         
@@ -68,48 +76,94 @@ public class WorldChangeListener implements Listener {
         }
     }
     
-    @EventHandler
-    public void onPlayerMove(PlayerMoveEvent event) {
-        Player player = event.getPlayer();
+    @Override
+    public String getName() {
+        return "arena-boundaries";
+    }
+
+    @Override
+    public boolean wantsMove(PlayerStateCache.State state, WorldRoleIndex.Entry toEntry) {
+        // Don't check boundaries for spectators
+        return state.getMatch() != null && !state.isMatchSpectator();
+    }
+
+    // Called by MoveDispatcher for block-crossing moves only
+    @Override
+    public void handleMove(PlayerMoveEvent event, Player player, PlayerStateCache.State state, WorldRoleIndex.Entry toEntry) {
         Location from = event.getFrom();
         Location to = event.getTo();
+        Match match = state.getMatch();
         
-        // Optimization: Only check if player actually moved to a new block
-        if (to == null || (from.getBlockX() == to.getBlockX() && 
-                          from.getBlockY() == to.getBlockY() && 
-                          from.getBlockZ() == to.getBlockZ())) {
+        // Only check during FIGHTING state
+        if (match.getState() != MatchState.FIGHTING || match.getArena() == null) {
             return;
         }
         
-        Match match = plugin.getMatchManager().getMatchByPlayer(player);
-        
-        if (match == null || match.getArena() == null || match.getArena().getBoundaries() == null) {
+        Boundaries boundaries = match.getArena().getBoundaries();
+        if (boundaries == null || boundaries.contains(to.getX(), to.getY(), to.getZ())) {
             return;
         }
         
-        // Don't check boundaries for spectators
-        if (match.getSpectators().contains(player.getUniqueId())) {
+        // Player is leaving the arena boundaries
+        BoundaryEnforcement mode = plugin.getPvpConfigManager().getBoundaryEnforcement();
+        if (mode == BoundaryEnforcement.NONE) {
             return;
         }
-        
-        // Only check during FIGHTING state
-        if (match.getState() != MatchState.FIGHTING) {
+        if (mode == BoundaryEnforcement.DAMAGE) {
+            // Bewegung zulassen; Schaden gibt es beim Verlassen sofort und danach jede Sekunde, solange der Spieler draußen bleibt
+            if (startOutOfBoundsDamage(player, match)) {
+                player.damage(plugin.getPvpConfigManager().getBoundaryDamage());
+            }
+            sendBoundaryWarning(player);
             return;
         }
         
-        // Check if player is leaving arena boundaries
-        if (!match.getArena().getBoundaries().isInside(to)) {
-            // Teleport back to last valid position
-            event.setTo(from);
-            
-            // Send warning message (throttled to avoid spam)
-            sendBoundaryWarning(player);
-            
-            // Play sound effect
-            player.playSound(player.getLocation(), Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 0.5f);
-        }
+        // Pushback: back to the last valid position
+        event.setTo(from);
+        
+        // Send warning message (throttled to avoid spam)
+        sendBoundaryWarning(player);
+        
+        // Play sound effect
+        player.playSound(player.getLocation(), Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 0.5f);
     }
     
+    // Sekunden-Abonnement pro Spieler außerhalb der Grenzen (Modus damage)
+    private final java.util.Map<java.util.UUID, WheelTask> outOfBounds = new java.util.HashMap<>();
+
+    /** @return true if a new subscription was started (the player just left the arena) */
+    private boolean startOutOfBoundsDamage(Player player, Match match) {
+        WheelTask running = outOfBounds.get(player.getUniqueId());
+        if (running != null && !running.isCancelled()) return false;
+        // Gehört dem Match: endMatch beendet das Abonnement mit allen anderen Match-Timern
+        WheelTask task = plugin.getTaskManager().everySecond(MatchManager.taskOwner(match.getMatchId()), new WheelTask() {
+            // Erster Lauf ist der nächste Tick; den Schaden dafür hat der Move-Handler schon verteilt
+            private boolean armed;
+
+            @Override
+            public void run() {
+                Boundaries boundaries = match.getArena() != null ? match.getArena().getBoundaries() : null;
+                Location loc = player.getLocation();
+                if (!player.isOnline() || player.isDead() || match.getState() != MatchState.FIGHTING
+                        || plugin.getPvpConfigManager().getBoundaryEnforcement() != BoundaryEnforcement.DAMAGE
+                        || boundaries == null || boundaries.contains(loc.getX(), loc.getY(), loc.getZ())) {
+                    outOfBounds.remove(player.getUniqueId(), this);
+                    cancel();
+                    return;
+                }
+                if (!armed) {
+                    armed = true;
+                    return;
+                }
+                // Schaden bei jedem Lauf, nur die Chat-Warnung ist gedrosselt
+                player.damage(plugin.getPvpConfigManager().getBoundaryDamage());
+                sendBoundaryWarning(player);
+            }
+        });
+        outOfBounds.put(player.getUniqueId(), task);
+        return true;
+    }
+
     // Throttle boundary warnings to prevent spam (max 1 per second per player)
     private final java.util.Map<java.util.UUID, Long> lastWarningTime = new java.util.HashMap<>();
     
@@ -129,10 +183,14 @@ public class WorldChangeListener implements Listener {
         // Remove player entry to prevent long-lived map growth
         Player player = event.getPlayer();
         lastWarningTime.remove(player.getUniqueId());
+        WheelTask task = outOfBounds.remove(player.getUniqueId());
+        if (task != null) task.cancel();
     }
 
     public void cleanup() {
         // Clear throttling map on plugin disable/reload
         lastWarningTime.clear();
+        for (WheelTask task : outOfBounds.values()) task.cancel();
+        outOfBounds.clear();
     }
 }
\ No newline at end of file
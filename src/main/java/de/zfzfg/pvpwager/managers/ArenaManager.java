@@ -72,12 +72,8 @@ public class ArenaManager {
                         double maxY = boundariesSection.getDouble("max-y");
                         double minZ = boundariesSection.getDouble("min-z");
                         double maxZ = boundariesSection.getDouble("max-z");
-                        World world = Bukkit.getWorld(arenaWorld);
-                        if (world != null) {
-                            Location minLoc = new Location(world, minX, minY, minZ);
-                            Location maxLoc = new Location(world, maxX, maxY, maxZ);
-                            boundaries = new Boundaries(minLoc, maxLoc);
-                        }
+                        // Primitiv normalisiert – auch wenn die Arena-Welt noch nicht geladen ist
+                        boundaries = new Boundaries(minX, minY, minZ, maxX, maxY, maxZ);
                     }
 
                     // Spawn-Type aus pvpwager-spawn
@@ -193,6 +189,7 @@ public class ArenaManager {
                             spectatorSpawn, boundaries, spawnType, spawnConfig);
                     boolean buildAllowed = worldSection.getBoolean("build-allowed", false);
                     arena.setBuildAllowed(buildAllowed);
+                    arena.setProtectRegionOnly(worldSection.getBoolean("protect-region-only", false));
                     if (cloneSourceWorld != null && !cloneSourceWorld.trim().isEmpty()) {
                         arena.setCloneSourceWorld(cloneSourceWorld.trim());
                     }
@@ -257,12 +254,7 @@ public class ArenaManager {
                     double minZ = boundariesSection.getDouble("min-z");
                     double maxZ = boundariesSection.getDouble("max-z");
                     
-                    World world = Bukkit.getWorld(arenaWorld);
-                    if (world != null) {
-                        Location minLoc = new Location(world, minX, minY, minZ);
-                        Location maxLoc = new Location(world, maxX, maxY, maxZ);
-                        boundaries = new Boundaries(minLoc, maxLoc);
-                    }
+                    boundaries = new Boundaries(minX, minY, minZ, maxX, maxY, maxZ);
                 }
                 
                 // Parse Spawn-Type
@@ -382,6 +374,7 @@ public class ArenaManager {
                     buildAllowed = arenaSection.getBoolean("build-allowed", false);
                 }
                 arena.setBuildAllowed(buildAllowed);
+                arena.setProtectRegionOnly(arenaSection.getBoolean("protect-region-only", false));
                 // Optional: Clone-basierter Reset
                 if (cloneSourceWorld != null && !cloneSourceWorld.trim().isEmpty()) {
                     arena.setCloneSourceWorld(cloneSourceWorld.trim());
@@ -400,6 +393,9 @@ public class ArenaManager {
         if (arenas.isEmpty()) {
             plugin.getLogger().warning("No arenas loaded! Plugin may not work correctly.");
         }
+        if (plugin.getProtectionIndex() != null) {
+            plugin.getProtectionIndex().setArenas(arenas.values());
+        }
     }
     
     private Location loadLocation(ConfigurationSection section, String worldName) {
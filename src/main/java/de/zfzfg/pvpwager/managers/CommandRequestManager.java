@@ -1,11 +1,10 @@
 package de.zfzfg.pvpwager.managers;
 
 import de.zfzfg.eventplugin.EventPlugin;
-import de.zfzfg.core.util.Time;
+import de.zfzfg.core.util.ExpiryQueue;
 import de.zfzfg.pvpwager.models.CommandRequest;
 import de.zfzfg.pvpwager.utils.MessageUtil;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.Map;
 import java.util.UUID;
@@ -16,7 +15,9 @@ import java.util.concurrent.ConcurrentHashMap;
 public class CommandRequestManager {
     private final EventPlugin plugin;
     private final Map<UUID, CommandRequest> pendingRequests = new ConcurrentHashMap<>();
-    private final Map<UUID, BukkitTask> expirationTasks = new ConcurrentHashMap<>();
+    // Ablaufzeitpunkte nach Sender, gemeinsam vom Sekunden-Sweeper geprüft (EventPlugin)
+    private final ExpiryQueue<UUID> expirations = new ExpiryQueue<>();
+    private static final long REQUEST_TIMEOUT_MS = 60_000L;
     // O(1) Index: Zielspieler -> letzte empfangene Anfrage
     private final Map<UUID, CommandRequest> targetToLatestRequest = new ConcurrentHashMap<>();
     
@@ -36,23 +37,31 @@ public class CommandRequestManager {
         pendingRequests.put(request.getSender().getUniqueId(), request);
         targetToLatestRequest.put(request.getTarget().getUniqueId(), request);
         
-        // Auto-expire after 60 seconds and track task
-        BukkitTask task = plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-            CommandRequest existing = pendingRequests.get(request.getSender().getUniqueId());
-            if (existing != null && existing.equals(request)) {
-                pendingRequests.remove(request.getSender().getUniqueId());
-                // Entferne Ziel-Index, wenn er auf diese Anfrage zeigt
-                CommandRequest latest = targetToLatestRequest.get(request.getTarget().getUniqueId());
-                if (latest != null && latest.equals(request)) {
-                    targetToLatestRequest.remove(request.getTarget().getUniqueId());
-                }
-                BukkitTask t = expirationTasks.remove(request.getSender().getUniqueId());
-                if (t != null) t.cancel();
-                MessageUtil.sendMessage(request.getSender(), getMsg("request-expired-sender", "{target}", request.getTarget().getName()));
-                MessageUtil.sendMessage(request.getTarget(), getMsg("request-expired-target", "{sender}", request.getSender().getName()));
+        // Auto-expire after 60 seconds (expireDue)
+        expirations.put(request.getSender().getUniqueId(), System.currentTimeMillis() + REQUEST_TIMEOUT_MS);
+    }
+    
+    /**
+     * Lässt abgelaufene Anfragen verfallen und benachrichtigt beide Spieler.
+     * Wird einmal pro Sekunde vom zentralen Sweeper aufgerufen.
+     */
+    public void expireDue(long now) {
+        for (UUID senderId : expirations.expire(now)) {
+            CommandRequest request = pendingRequests.remove(senderId);
+            if (request == null) continue;
+            // Entferne Ziel-Index, wenn er auf diese Anfrage zeigt
+            CommandRequest latest = targetToLatestRequest.get(request.getTarget().getUniqueId());
+            if (latest != null && latest.equals(request)) {
+                targetToLatestRequest.remove(request.getTarget().getUniqueId());
             }
-        }, Time.seconds(60));
-        expirationTasks.put(request.getSender().getUniqueId(), task);
+            MessageUtil.sendMessage(request.getSender(), getMsg("request-expired-sender", "{target}", request.getTarget().getName()));
+            MessageUtil.sendMessage(request.getTarget(), getMsg("request-expired-target", "{sender}", request.getSender().getName()));
+        }
+    }
+    
+    /** Anzahl offener Anfragen (Debug-Ausgabe). */
+    public int getPendingCount() {
+        return pendingRequests.size();
     }
     
     public CommandRequest getRequest(Player sender, Player target) {
@@ -75,8 +84,7 @@ public class CommandRequestManager {
                 targetToLatestRequest.remove(existing.getTarget().getUniqueId());
             }
         }
-        BukkitTask task = expirationTasks.remove(sender.getUniqueId());
-        if (task != null) task.cancel();
+        expirations.remove(sender.getUniqueId());
     }
     
     public void sendRequestNotification(CommandRequest request) {
@@ -191,10 +199,7 @@ public class CommandRequestManager {
     }
 
     public void cleanup() {
-        for (BukkitTask t : expirationTasks.values()) {
-            try { t.cancel(); } catch (Exception ignored) {}
-        }
-        expirationTasks.clear();
+        expirations.clear();
         pendingRequests.clear();
         targetToLatestRequest.clear();
     }
@@ -211,8 +216,7 @@ public class CommandRequestManager {
                 targetToLatestRequest.remove(existing.getTarget().getUniqueId());
             }
         }
-        BukkitTask task = expirationTasks.remove(playerId);
-        if (task != null) { try { task.cancel(); } catch (Exception ignored) {} }
+        expirations.remove(playerId);
 
         // Remove any request where player is target
         for (java.util.Map.Entry<java.util.UUID, CommandRequest> e : new java.util.ArrayList<>(pendingRequests.entrySet())) {
@@ -224,8 +228,7 @@ public class CommandRequestManager {
                 if (latest != null && latest.equals(req)) {
                     targetToLatestRequest.remove(playerId);
                 }
-                BukkitTask t = expirationTasks.remove(e.getKey());
-                if (t != null) { try { t.cancel(); } catch (Exception ignored) {} }
+                expirations.remove(e.getKey());
             }
         }
     }
@@ -1,6 +1,7 @@
 package de.zfzfg.pvpwager.managers;
 
 import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.pvpwager.models.BoundaryEnforcement;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -21,6 +22,10 @@ public class ConfigManager {
     private File defaultMessagesFile;
     private File arenaFile;
     private File equipmentFile;
+
+    // Beim Laden aufgelöst, da pro Spielerbewegung gelesen
+    private BoundaryEnforcement boundaryEnforcement = BoundaryEnforcement.PUSHBACK;
+    private double boundaryDamage = 2.0;
     
     public ConfigManager(EventPlugin plugin) {
         this.plugin = plugin;
@@ -39,6 +44,7 @@ public class ConfigManager {
             plugin.saveResource("config.yml", false);
         }
         config = YamlConfiguration.loadConfiguration(configFile);
+        resolveMatchSettings();
         
         // Messages config (language-aware)
         loadLanguageConfigs();
@@ -63,6 +69,7 @@ public class ConfigManager {
     
     public void reloadConfigs() {
         config = YamlConfiguration.loadConfiguration(configFile);
+        resolveMatchSettings();
         loadLanguageConfigs();
         arenaConfig = YamlConfiguration.loadConfiguration(arenaFile);
         equipmentConfig = YamlConfiguration.loadConfiguration(equipmentFile);
@@ -84,6 +91,14 @@ public class ConfigManager {
     public FileConfiguration getConfig() {
         return config;
     }
+
+    public BoundaryEnforcement getBoundaryEnforcement() {
+        return boundaryEnforcement;
+    }
+
+    public double getBoundaryDamage() {
+        return boundaryDamage;
+    }
     
     public FileConfiguration getMessages() {
         return messages;
@@ -114,6 +129,15 @@ public class ConfigManager {
         return message;
     }
 
+    private void resolveMatchSettings() {
+        String mode = config.getString("settings.match.boundary-enforcement", "pushback");
+        boundaryEnforcement = BoundaryEnforcement.fromConfig(mode);
+        if (!boundaryEnforcement.name().equalsIgnoreCase(mode.trim())) {
+            plugin.getLogger().warning("Unknown settings.match.boundary-enforcement '" + mode + "', using pushback.");
+        }
+        boundaryDamage = Math.max(0.0, config.getDouble("settings.match.boundary-damage", 2.0));
+    }
+
     private void loadLanguageConfigs() {
         String language = config.getString("settings.language", "en").toLowerCase();
 
@@ -19,8 +19,7 @@ import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitTask;
-import org.bukkit.scheduler.BukkitRunnable;
+import de.zfzfg.core.tasks.WheelTask;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -29,13 +28,11 @@ public class MatchManager {
     // Magic-number constants consolidated for clarity and maintainability
     private static final int PRE_TELEPORT_COUNTDOWN_SECONDS = 5;
     private static final int[] MATCH_TIMER_ANNOUNCE_SECONDS = {60, 30, 10};
+    private static final boolean[] MATCH_TIMER_ANNOUNCE = de.zfzfg.core.util.Time.marks(MATCH_TIMER_ANNOUNCE_SECONDS);
     private static final int MATCH_CLEANUP_DELAY_SECONDS = 4;
     private static final long DISTRIBUTE_DELAY_TICKS = de.zfzfg.core.util.Time.ticks(10); // 0.5s
     private final EventPlugin plugin;
     private final Map<UUID, Match> matches = new ConcurrentHashMap<>();
-    private final Map<UUID, BukkitTask> countdownTasks = new HashMap<>();
-    private final Map<UUID, BukkitTask> preTeleportCountdownTasks = new HashMap<>();
-    private final Map<UUID, BukkitTask> matchTimerTasks = new HashMap<>();
     private final SpawnManager spawnManager;
     // O(1) Lookup: Spieler -> MatchId
     private final Map<UUID, UUID> playerToMatchId = new ConcurrentHashMap<>();
@@ -84,7 +81,30 @@ public class MatchManager {
      * Nutzt eine thread-sichere Map, um gleichzeitige Zugriffe zu unterstützen.
      */
     public void indexPlayer(java.util.UUID playerId, java.util.UUID matchId) {
-        playerToMatchId.put(playerId, matchId);
+        Match match = matches.get(matchId);
+        if (match != null) {
+            indexPlayer(playerId, match, false);
+        } else {
+            playerToMatchId.put(playerId, matchId);
+        }
+    }
+
+    // Match-Index und Spieler-Zustandscache gemeinsam pflegen
+    private void indexPlayer(UUID playerId, Match match, boolean spectator) {
+        playerToMatchId.put(playerId, match.getMatchId());
+        de.zfzfg.eventplugin.world.PlayerStateCache cache = plugin.getPlayerStateCache();
+        if (cache != null) cache.setMatch(playerId, match, spectator);
+    }
+
+    private void unindexPlayer(UUID playerId) {
+        playerToMatchId.remove(playerId);
+        de.zfzfg.eventplugin.world.PlayerStateCache cache = plugin.getPlayerStateCache();
+        if (cache != null) cache.clearMatch(playerId);
+    }
+
+    // Original-Location als Rettungspunkt für den Void-Schutz vormerken (freigegeben, sobald der Spieler idle ist)
+    private void prepareSafeLocation(UUID playerId, Match match) {
+        plugin.getSafeLocationCache().prepare(playerId, match.getOriginalLocations().get(playerId));
     }
 
     /**
@@ -99,12 +119,14 @@ public class MatchManager {
         synchronized (matchOpMutex) {
             matches.put(match.getMatchId(), match);
             // Index participants for O(1) lookup
-            playerToMatchId.put(player1.getUniqueId(), match.getMatchId());
-            playerToMatchId.put(player2.getUniqueId(), match.getMatchId());
+            indexPlayer(player1.getUniqueId(), match, false);
+            indexPlayer(player2.getUniqueId(), match, false);
             // Store original locations
             match.getOriginalLocations().put(player1.getUniqueId(), player1.getLocation());
             match.getOriginalLocations().put(player2.getUniqueId(), player2.getLocation());
         }
+        prepareSafeLocation(player1.getUniqueId(), match);
+        prepareSafeLocation(player2.getUniqueId(), match);
     }
     
     public void handleWagerConfirmation(Player player1, Player player2) {
@@ -145,6 +167,7 @@ public class MatchManager {
                     plugin.getEconomy().withdrawPlayer(player2, p2Money);
                 }
             }
+            journalEscrowOpened(match);
         }
         
         // Start arena selection for command-based matches
@@ -200,6 +223,7 @@ public class MatchManager {
         if (match == null) return;
         
         match.setArena(arena);
+        worldRolesChanged();
         
         // Zeige Lade-Status an
         match.setWorldLoading(true);
@@ -250,7 +274,7 @@ public class MatchManager {
         teleportedPlayers.add(player2.getUniqueId());
         
         // Wait for teleport, then apply equipment
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        plugin.getTaskManager().schedule(taskOwner(match.getMatchId()), () -> {
             // Verify in correct world
             if (!player1.getWorld().equals(arenaWorld) || !player2.getWorld().equals(arenaWorld)) {
                 plugin.getLogger().warning("Players not in arena world after teleport!");
@@ -271,8 +295,8 @@ public class MatchManager {
             player2.getInventory().setArmorContents(null);
             
             // Apply equipment with verification and retries
-            applyEquipmentWithVerify(player1, match.getPlayer1Equipment());
-            applyEquipmentWithVerify(player2, match.getPlayer2Equipment());
+            applyEquipmentWithVerify(match, player1, match.getPlayer1Equipment());
+            applyEquipmentWithVerify(match, player2, match.getPlayer2Equipment());
             
             // Reset health
             player1.setHealth(20.0);
@@ -353,7 +377,7 @@ public class MatchManager {
                 teleportedPlayers.add(player2.getUniqueId());
 
                 // Warte 2 Sekunden nach Teleport für sichere Welt-Ladung
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                plugin.getTaskManager().schedule(taskOwner(match.getMatchId()), () -> {
                     afterTeleportVerifyOrRecover(match, player1, player2, arena, arenaWorld);
                 }, de.zfzfg.core.util.Time.seconds(2)); // 2 Sekunden warten nach Teleport für sichere Welt-Ladung
             });
@@ -400,7 +424,7 @@ public class MatchManager {
             player2.teleport(spawn2);
 
             // Nochmal warten und prüfen
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            plugin.getTaskManager().schedule(taskOwner(match.getMatchId()), () -> {
                 if (!player1.getWorld().equals(arenaWorld) || !player2.getWorld().equals(arenaWorld)) {
                     plugin.getLogger().severe("Emergency teleport failed! Ending match.");
                     MessageUtil.sendMessage(player1, getMsg("arena-teleport-failed"));
@@ -437,8 +461,8 @@ public class MatchManager {
         player2.getInventory().setArmorContents(null);
         
         // Apply equipment AFTER teleport, with verification and retries
-        applyEquipmentWithVerify(player1, match.getPlayer1Equipment());
-        applyEquipmentWithVerify(player2, match.getPlayer2Equipment());
+        applyEquipmentWithVerify(match, player1, match.getPlayer1Equipment());
+        applyEquipmentWithVerify(match, player2, match.getPlayer2Equipment());
         
         // Reset health and hunger
         player1.setHealth(20.0);
@@ -526,13 +550,13 @@ public class MatchManager {
         return true;
     }
 
-    private void applyEquipmentWithVerify(Player player, EquipmentSet equipment) {
+    private void applyEquipmentWithVerify(Match match, Player player, EquipmentSet equipment) {
         if (equipment == null) return;
         // First attempt
         applyEquipment(player, equipment);
 
         final int maxAttempts = 3;
-        new BukkitRunnable() {
+        plugin.getTaskManager().scheduleRepeating(taskOwner(match.getMatchId()), new WheelTask() {
             int attempt = 1;
 
             @Override
@@ -553,7 +577,21 @@ public class MatchManager {
                 plugin.getLogger().warning("Equipment not applied correctly to " + player.getName() + ", retrying (attempt " + attempt + ")...");
                 applyEquipment(player, equipment);
             }
-        }.runTaskTimer(plugin, de.zfzfg.core.util.Time.ticks(4), DISTRIBUTE_DELAY_TICKS);
+        }, de.zfzfg.core.util.Time.ticks(4), DISTRIBUTE_DELAY_TICKS);
+    }
+
+    // Besitzer aller Timer eines Matches im TaskManager (auch für Timer der Listener, die mit dem Match enden)
+    public static String taskOwner(UUID matchId) {
+        return "match:" + matchId;
+    }
+
+    // Nachlauf nach endMatch (Rück-Teleport, Welt-Reset): gehört der Arena-Welt, da der Match-Besitzer schon freigegeben ist
+    private static String teardownOwner(Match match) {
+        return match.getArena() != null ? "world:" + match.getArena().getArenaWorld() : playerOwner(match.getPlayer1());
+    }
+
+    private static String playerOwner(Player player) {
+        return "player:" + player.getUniqueId();
     }
     
     /**
@@ -570,29 +608,32 @@ public class MatchManager {
         // Send global spectate invite once when countdown starts
         sendGlobalSpectateInvite(match);
         
-        for (int i = countdownTime; i > 0; i--) {
-            final int seconds = i;
-            BukkitTask task = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                if (match.getState() != MatchState.STARTING) return;
-                
-                String message = getMsg("match-countdown", "{seconds}", String.valueOf(seconds));
-                match.broadcast(message);
-                
-                // Play sound
-                player1.playSound(player1.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.0f);
-                player2.playSound(player2.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.0f);
-                
-            }, (countdownTime - i) * 20L);
-            countdownTasks.put(match.getMatchId(), task);
-        }
-        
-        // Start the match after countdown
-        BukkitTask startTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            if (match.getState() == MatchState.STARTING) {
-                startFight(match);
+        // Ein Sekunden-Timer für Countdown und Kampfstart (statt eines Tasks pro Sekunde)
+        plugin.getTaskManager().everySecond(taskOwner(match.getMatchId()), new WheelTask() {
+            int elapsed = 0;
+
+            @Override
+            public void run() {
+                if (match.getState() != MatchState.STARTING) {
+                    cancel();
+                    return;
+                }
+                if (elapsed < countdownTime) {
+                    String message = getMsg("match-countdown", "{seconds}", String.valueOf(countdownTime - elapsed));
+                    match.broadcast(message);
+                    
+                    // Play sound
+                    player1.playSound(player1.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.0f);
+                    player2.playSound(player2.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.0f);
+                } else if (elapsed > countdownTime) {
+                    // Start the match after countdown
+                    cancel();
+                    startFight(match);
+                    return;
+                }
+                elapsed++;
             }
-        }, (countdownTime + 1) * 20L);
-        countdownTasks.put(match.getMatchId(), startTask);
+        });
     }
 
     /**
@@ -607,20 +648,18 @@ public class MatchManager {
         Player player2 = match.getPlayer2();
         final UUID matchId = match.getMatchId();
 
-        BukkitTask task = new BukkitRunnable() {
+        plugin.getTaskManager().everySecond(taskOwner(matchId), new WheelTask() {
             int remaining = seconds;
 
             @Override
             public void run() {
                 if (match.getState() != MatchState.STARTING) {
                     cancel();
-                    preTeleportCountdownTasks.remove(matchId);
                     return;
                 }
 
                 if (remaining <= 0) {
                     cancel();
-                    preTeleportCountdownTasks.remove(matchId);
                     try {
                         onFinish.run();
                     } catch (Exception ignored) {}
@@ -632,9 +671,7 @@ public class MatchManager {
                 player2.playSound(player2.getLocation(), org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING, 1.0f, 1.0f);
                 remaining--;
             }
-        }.runTaskTimer(plugin, 0L, de.zfzfg.core.util.Time.TICKS_PER_SECOND);
-
-        preTeleportCountdownTasks.put(matchId, task);
+        });
     }
 
     private void sendGlobalSpectateInvite(Match match) {
@@ -707,7 +744,7 @@ public class MatchManager {
     private void startMatchTimer(Match match) {
         int maxDuration = plugin.getPvpConfigManager().getConfig().getInt("settings.match.max-duration", 600); // 10 minutes
         
-        BukkitTask timerTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+        plugin.getTaskManager().everySecond(taskOwner(match.getMatchId()), () -> {
             if (match.getState() != MatchState.FIGHTING) return;
             
             long elapsed = (System.currentTimeMillis() - match.getStartTime()) / 1000;
@@ -724,29 +761,15 @@ public class MatchManager {
                 match.broadcast("");
                 
                 endMatch(match, null, true);
-            } else if (java.util.Arrays.stream(MATCH_TIMER_ANNOUNCE_SECONDS).anyMatch(s -> s == remaining)) {
+            } else if (de.zfzfg.core.util.Time.isMarked(MATCH_TIMER_ANNOUNCE, remaining)) {
                 match.broadcast("&eMatch ends in &c" + remaining + " &eseconds!");
             }
-        }, 0L, de.zfzfg.core.util.Time.TICKS_PER_SECOND);
-        
-        synchronized (matchOpMutex) {
-            matchTimerTasks.put(match.getMatchId(), timerTask);
-        }
+        });
     }
     
     public void endMatch(Match match, Player winner, boolean isDraw) {
-        // Cancel tasks (unter Lock)
-        BukkitTask countdownTask;
-        BukkitTask preTeleportTask;
-        BukkitTask timerTask;
-        synchronized (matchOpMutex) {
-            countdownTask = countdownTasks.remove(match.getMatchId());
-            preTeleportTask = preTeleportCountdownTasks.remove(match.getMatchId());
-            timerTask = matchTimerTasks.remove(match.getMatchId());
-        }
-        if (countdownTask != null) countdownTask.cancel();
-        if (preTeleportTask != null) preTeleportTask.cancel();
-        if (timerTask != null) timerTask.cancel();
+        // Alle Timer des Matches abbrechen (Countdowns, Match-Timer, Ausrüstungsprüfung)
+        plugin.getTaskManager().disposeOwner(taskOwner(match.getMatchId()));
         
         match.setState(MatchState.ENDED);
         
@@ -788,19 +811,19 @@ public class MatchManager {
             if (cloneSource != null && !cloneSource.isEmpty()) {
                 plugin.getLogger().info("Scheduling clone reset for arena world: " + worldName + " from " + cloneSource);
                 // Nach Rück-Teleport der Spieler ausführen
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                plugin.getTaskManager().schedule(teardownOwner(match), () -> {
                     plugin.getArenaManager().resetArenaWorldByClone(cloneSource, worldName);
                 }, de.zfzfg.core.util.Time.seconds(7)); // 7 Sekunden nach Match-Ende
             } else if (match.getArena().isRegenerateWorld()) {
                 plugin.getLogger().info("Scheduling Multiverse regeneration for arena world: " + worldName);
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                plugin.getTaskManager().schedule(teardownOwner(match), () -> {
                     plugin.getArenaManager().regenerateArenaWorld(worldName);
                 }, de.zfzfg.core.util.Time.seconds(7));
             }
         }
         
-        // Teleport players back after delay
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        // Teleport players back after delay (überlebt den bereits freigegebenen Match-Besitzer)
+        plugin.getTaskManager().schedule(teardownOwner(match), () -> {
             // Only teleport if they were actually teleported to arena
             if (teleportedPlayers.contains(player1.getUniqueId())) {
                 teleportPlayerBack(player1, match);
@@ -825,7 +848,7 @@ public class MatchManager {
             
             // Unload world if neither regenerating nor cloning reset
             if (match.getArena() != null && match.getArena().getCloneSourceWorld() == null && !match.getArena().isRegenerateWorld()) {
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                plugin.getTaskManager().schedule(teardownOwner(match), () -> {
                     plugin.getArenaManager().unloadArenaWorld(match.getArena().getArenaWorld());
                 }, de.zfzfg.core.util.Time.seconds(2));
             }
@@ -833,16 +856,17 @@ public class MatchManager {
             // Cleanup: remove indexes und Match (unter Lock) + Teleport-Marker
             synchronized (matchOpMutex) {
                 UUID matchId = match.getMatchId();
-                playerToMatchId.remove(match.getPlayer1().getUniqueId());
-                playerToMatchId.remove(match.getPlayer2().getUniqueId());
+                unindexPlayer(match.getPlayer1().getUniqueId());
+                unindexPlayer(match.getPlayer2().getUniqueId());
                 for (UUID spectatorId : new ArrayList<>(match.getSpectators())) {
-                    playerToMatchId.remove(spectatorId);
+                    unindexPlayer(spectatorId);
                     teleportedPlayers.remove(spectatorId);
                 }
                 teleportedPlayers.remove(match.getPlayer1().getUniqueId());
                 teleportedPlayers.remove(match.getPlayer2().getUniqueId());
                 matches.remove(matchId);
             }
+            worldRolesChanged();
             
         }, de.zfzfg.core.util.Time.seconds(MATCH_CLEANUP_DELAY_SECONDS));
     }
@@ -858,7 +882,7 @@ public class MatchManager {
         }
         
         // Give items to winner NACH Teleport
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        plugin.getTaskManager().schedule(playerOwner(winner), () -> {
             List<ItemStack> allItems = new ArrayList<>();
             allItems.addAll(match.getWagerItems(match.getPlayer1()));
             allItems.addAll(match.getWagerItems(match.getPlayer2()));
@@ -895,6 +919,7 @@ public class MatchManager {
                 }
             }
             MessageUtil.sendMessage(winner, "");
+            journalEscrowSettled(match);
             
         }, DISTRIBUTE_DELAY_TICKS);
         
@@ -931,7 +956,7 @@ public class MatchManager {
         if (p2Original != null) player2.teleport(p2Original);
         
         // Give items AFTER teleport
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        plugin.getTaskManager().schedule(teardownOwner(match), () -> {
             InventoryUtil.giveItems(player1, match.getWagerItems(player1));
             InventoryUtil.giveItems(player2, match.getWagerItems(player2));
             
@@ -950,10 +975,29 @@ public class MatchManager {
             
             MessageUtil.sendMessage(player1, "&7Your wager has been returned.");
             MessageUtil.sendMessage(player2, "&7Your wager has been returned.");
+            journalEscrowSettled(match);
             
         }, 10L); // 0.5 Sekunden nach Teleport
     }
     
+    /** Arena-Zuordnung hat sich geändert: Welt-Rollen für die Move-Handler neu berechnen. */
+    private void worldRolesChanged() {
+        de.zfzfg.eventplugin.world.WorldRoleIndex index = plugin.getWorldRoleIndex();
+        if (index != null) index.rebuild();
+    }
+
+    /** Einsätze sind eingezogen: im Escrow-Journal festhalten (Rückerstattung nach Absturz). */
+    private void journalEscrowOpened(Match match) {
+        de.zfzfg.pvpwager.storage.EscrowJournal journal = plugin.getEscrowJournal();
+        if (journal != null) journal.openEscrow(match);
+    }
+
+    /** Einsätze sind ausgezahlt bzw. zurückgegeben. */
+    private void journalEscrowSettled(Match match) {
+        de.zfzfg.pvpwager.storage.EscrowJournal journal = plugin.getEscrowJournal();
+        if (journal != null) journal.settle(match.getMatchId());
+    }
+    
     private void teleportPlayerBack(Player player, Match match) {
         // WICHTIG: Tote Spieler können nicht teleportiert werden!
         // Sie werden über den PlayerRespawnEvent behandelt.
@@ -991,7 +1035,7 @@ public class MatchManager {
                 player.teleport(safeLocation);
                 
                 // Verify after short delay (10 ticks = 0.5s)
-                Bukkit.getScheduler().runTaskLater(plugin, () -> verifyTeleportBack(player), 10L);
+                plugin.getTaskManager().schedule(playerOwner(player), () -> verifyTeleportBack(player), 10L);
             } else {
                 // Welt nicht mehr geladen - Fallback zu Hauptwelt
                 plugin.getLogger().warning("[SafeTeleport-PvP] Original-Welt für " + player.getName() + 
@@ -1086,14 +1130,23 @@ public class MatchManager {
         return matches.size();
     }
     
-    public int stopAllMatches() {
+    /**
+     * Plant den Abbruch aller laufenden Matches ein: ein Job pro Match über die
+     * Arbeitswarteschlange (Zeitbudget pro Tick). Kehrt sofort zurück; die Matches
+     * enden in den folgenden Ticks, ihr Aufräumen läuft danach über endMatch.
+     *
+     * @return Anzahl der Matches, deren Abbruch eingeplant wurde
+     */
+    public int scheduleStopAllMatches() {
         int count = matches.size();
+        // Endet ein Match vorher, entfällt sein Job mit dem Match-Besitzer
         for (Match match : new ArrayList<>(getMatches().values())) {
-            match.broadcast("&cServer is shutting down! Match cancelled.");
-            endMatch(match, null, true);
+            plugin.getTaskManager().submit(taskOwner(match.getMatchId()), () -> {
+                if (match.getState() == MatchState.ENDED) return;
+                match.broadcast("&cServer is shutting down! Match cancelled.");
+                endMatch(match, null, true);
+            });
         }
-        // Nach dem Abbruch aller Matches: Flüchtige Zustände säubern
-        clearTransientState();
         return count;
     }
 
@@ -1103,7 +1156,7 @@ public class MatchManager {
      */
     public int stopAllMatches(boolean immediateDistribution) {
         if (!immediateDistribution) {
-            return stopAllMatches();
+            return scheduleStopAllMatches();
         }
 
         int count = matches.size();
@@ -1123,17 +1176,7 @@ public class MatchManager {
      */
     private void endMatchOnShutdown(Match match) {
         // Tasks abbrechen
-        BukkitTask countdownTask;
-        BukkitTask preTeleportTask;
-        BukkitTask timerTask;
-        synchronized (matchOpMutex) {
-            countdownTask = countdownTasks.remove(match.getMatchId());
-            preTeleportTask = preTeleportCountdownTasks.remove(match.getMatchId());
-            timerTask = matchTimerTasks.remove(match.getMatchId());
-        }
-        if (countdownTask != null) try { countdownTask.cancel(); } catch (Exception ignored) {}
-        if (preTeleportTask != null) try { preTeleportTask.cancel(); } catch (Exception ignored) {}
-        if (timerTask != null) try { timerTask.cancel(); } catch (Exception ignored) {}
+        plugin.getTaskManager().disposeOwner(taskOwner(match.getMatchId()));
 
         match.setState(MatchState.ENDED);
 
@@ -1167,6 +1210,7 @@ public class MatchManager {
                     if (p2Money > 0) plugin.getEconomy().depositPlayer(player2, p2Money);
                 }
             } catch (Exception ignored) {}
+            journalEscrowSettled(match);
         }
 
         // Status von Spielern zurücksetzen
@@ -1197,28 +1241,22 @@ public class MatchManager {
         // Cleanup ohne Verzögerung
         synchronized (matchOpMutex) {
             UUID matchId = match.getMatchId();
-            playerToMatchId.remove(player1.getUniqueId());
-            playerToMatchId.remove(player2.getUniqueId());
+            unindexPlayer(player1.getUniqueId());
+            unindexPlayer(player2.getUniqueId());
             for (UUID spectatorId : new ArrayList<>(match.getSpectators())) {
-                playerToMatchId.remove(spectatorId);
+                unindexPlayer(spectatorId);
                 teleportedPlayers.remove(spectatorId);
             }
             teleportedPlayers.remove(player1.getUniqueId());
             teleportedPlayers.remove(player2.getUniqueId());
             matches.remove(matchId);
         }
+        worldRolesChanged();
     }
 
     // Tasks sauber abbrechen (Reload/Disable)
     public void cancelAllTasks() {
-        synchronized (matchOpMutex) {
-            for (BukkitTask t : countdownTasks.values()) { try { t.cancel(); } catch (Exception ignored) {} }
-            for (BukkitTask t : preTeleportCountdownTasks.values()) { try { t.cancel(); } catch (Exception ignored) {} }
-            for (BukkitTask t : matchTimerTasks.values()) { try { t.cancel(); } catch (Exception ignored) {} }
-            countdownTasks.clear();
-            preTeleportCountdownTasks.clear();
-            matchTimerTasks.clear();
-        }
+        plugin.getTaskManager().disposeOwners("match:");
     }
 
     // Flüchtige Zustände zurücksetzen (teleportedPlayers / playerToMatchId)
@@ -1226,6 +1264,8 @@ public class MatchManager {
         synchronized (matchOpMutex) {
             teleportedPlayers.clear();
             playerToMatchId.clear();
+            de.zfzfg.eventplugin.world.PlayerStateCache cache = plugin.getPlayerStateCache();
+            if (cache != null) cache.clearAllMatches();
         }
     }
 
@@ -1241,8 +1281,8 @@ public class MatchManager {
         Match match = new Match(player1, player2);
         matches.put(match.getMatchId(), match);
         // Index participants for O(1) lookup
-        playerToMatchId.put(player1.getUniqueId(), match.getMatchId());
-        playerToMatchId.put(player2.getUniqueId(), match.getMatchId());
+        indexPlayer(player1.getUniqueId(), match, false);
+        indexPlayer(player2.getUniqueId(), match, false);
         
         // Set no-wager mode if both wagers are empty
         boolean hasWager = (request.getMoney() > 0 || !request.getWagerItems().isEmpty()) ||
@@ -1274,6 +1314,7 @@ public class MatchManager {
                     plugin.getEconomy().withdrawPlayer(player2, request.getTargetWagerMoney());
                 }
             }
+            journalEscrowOpened(match);
         }
         
         // Set arena and equipment (Optional-API + robust)
@@ -1288,6 +1329,7 @@ public class MatchManager {
         }
 
         match.setArena(arena);
+        worldRolesChanged();
         match.setPlayer1Equipment(p1Equipment);
         match.setPlayer2Equipment(p2Equipment);
         
@@ -1336,6 +1378,9 @@ public class MatchManager {
                 String.format("%.2f, %.2f, %.2f", fallback.getX(), fallback.getY(), fallback.getZ()));
         }
         
+        prepareSafeLocation(player1.getUniqueId(), match);
+        prepareSafeLocation(player2.getUniqueId(), match);
+
         // Confirm both
         match.confirmArena(player1);
         match.confirmArena(player2);
@@ -1397,7 +1442,8 @@ public class MatchManager {
         if (match.getSpectators().contains(sid)) return;
         match.getSpectators().add(sid);
         match.getOriginalLocations().put(sid, spectator.getLocation());
-        playerToMatchId.put(sid, match.getMatchId());
+        indexPlayer(sid, match, true);
+        prepareSafeLocation(sid, match);
     }
 
     public void removeSpectator(Match match, Player spectator) {
@@ -1405,7 +1451,7 @@ public class MatchManager {
         UUID sid = spectator.getUniqueId();
         match.getSpectators().remove(sid);
         match.getOriginalLocations().remove(sid);
-        playerToMatchId.remove(sid);
+        unindexPlayer(sid);
     }
 
     // Track teleported players (used for end-of-match teleport back)
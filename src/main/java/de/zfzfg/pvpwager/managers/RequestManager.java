@@ -1,7 +1,7 @@
 package de.zfzfg.pvpwager.managers;
 
 import de.zfzfg.eventplugin.EventPlugin;
-import de.zfzfg.core.util.Time;
+import de.zfzfg.core.util.ExpiryQueue;
 import de.zfzfg.pvpwager.models.PvPRequest;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.ComponentBuilder;
@@ -10,7 +10,6 @@ import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import de.zfzfg.pvpwager.utils.MessageUtil;
-import org.bukkit.scheduler.BukkitTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -18,7 +17,9 @@ import java.util.UUID;
 public class RequestManager {
     private final EventPlugin plugin;
     private final Map<UUID, PvPRequest> requests = new ConcurrentHashMap<>();
-    private final Map<UUID, BukkitTask> expirationTasks = new ConcurrentHashMap<>();
+    // Ablaufzeitpunkte nach Sender, gemeinsam vom Sekunden-Sweeper geprüft (EventPlugin)
+    private final ExpiryQueue<UUID> expirations = new ExpiryQueue<>();
+    private static final long REQUEST_TIMEOUT_MS = 60_000L;
     
     public RequestManager(EventPlugin plugin) {
         this.plugin = plugin;
@@ -46,20 +47,32 @@ public class RequestManager {
         // Send clickable message to target
         sendClickableRequest(sender, target);
         
-        // Schedule auto-expire and track task
-        BukkitTask task = plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-            if (requests.containsKey(senderId)) {
-                PvPRequest expiredRequest = requests.get(senderId);
-                if (expiredRequest.getTargetId().equals(targetId)) {
-                    cancelRequest(senderId, targetId);
-                    MessageUtil.sendMessage(sender, 
-                        plugin.getPvpConfigManager().getMessage("request.expired", "player", target.getName()));
-                    MessageUtil.sendMessage(target, 
-                        plugin.getPvpConfigManager().getMessage("request.expired", "player", sender.getName()));
-                }
+        // Auto-expire after 60 seconds (expireDue)
+        expirations.put(senderId, System.currentTimeMillis() + REQUEST_TIMEOUT_MS);
+    }
+    
+    /**
+     * Lässt abgelaufene Anfragen verfallen und benachrichtigt beide Spieler.
+     * Wird einmal pro Sekunde vom zentralen Sweeper aufgerufen.
+     */
+    public void expireDue(long now) {
+        for (UUID senderId : expirations.expire(now)) {
+            PvPRequest expiredRequest = requests.remove(senderId);
+            if (expiredRequest == null) continue;
+            Player sender = Bukkit.getPlayer(senderId);
+            Player target = Bukkit.getPlayer(expiredRequest.getTargetId());
+            if (sender != null && target != null) {
+                MessageUtil.sendMessage(sender, 
+                    plugin.getPvpConfigManager().getMessage("request.expired", "player", target.getName()));
+                MessageUtil.sendMessage(target, 
+                    plugin.getPvpConfigManager().getMessage("request.expired", "player", sender.getName()));
             }
-        }, Time.seconds(60)); // 60 seconds
-        expirationTasks.put(senderId, task);
+        }
+    }
+    
+    /** Anzahl offener Anfragen (Debug-Ausgabe). */
+    public int getPendingCount() {
+        return requests.size();
     }
     
     private void sendClickableRequest(Player sender, Player target) {
@@ -127,8 +140,7 @@ public class RequestManager {
             if (request.getTargetId().equals(targetId)) {
                 // Remove request and cancel expiration
                 requests.remove(senderId);
-                BukkitTask task = expirationTasks.remove(senderId);
-                if (task != null) task.cancel();
+                expirations.remove(senderId);
                 
                 // Send acceptance messages
                 MessageUtil.sendMessage(target, 
@@ -150,8 +162,7 @@ public class RequestManager {
             PvPRequest request = requests.get(senderId);
             if (request.getTargetId().equals(targetId)) {
                 requests.remove(senderId);
-                BukkitTask task = expirationTasks.remove(senderId);
-                if (task != null) task.cancel();
+                expirations.remove(senderId);
             }
         }
     }
@@ -167,11 +178,8 @@ public class RequestManager {
     }
     
     public void cleanup() {
-        // cancel tasks and clear all maps
-        for (BukkitTask task : expirationTasks.values()) {
-            task.cancel();
-        }
-        expirationTasks.clear();
+        // clear all maps
+        expirations.clear();
         requests.clear();
     }
 
@@ -181,16 +189,14 @@ public class RequestManager {
         // Remove sender requests
         PvPRequest senderReq = requests.remove(playerId);
         if (senderReq != null) {
-            BukkitTask task = expirationTasks.remove(playerId);
-            if (task != null) { try { task.cancel(); } catch (Exception ignored) {} }
+            expirations.remove(playerId);
         }
         // Remove any requests where player is target
         for (java.util.Map.Entry<java.util.UUID, PvPRequest> e : new java.util.ArrayList<>(requests.entrySet())) {
             PvPRequest req = e.getValue();
             if (req != null && playerId.equals(req.getTargetId())) {
                 requests.remove(e.getKey());
-                BukkitTask task = expirationTasks.remove(e.getKey());
-                if (task != null) { try { task.cancel(); } catch (Exception ignored) {} }
+                expirations.remove(e.getKey());
             }
         }
     }
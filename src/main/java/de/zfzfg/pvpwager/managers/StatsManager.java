@@ -9,9 +9,11 @@ import java.util.stream.Collectors;
 
 /**
  * In-memory statistics manager tracking wins/losses/draws per player.
+ * Changed players are tracked as dirty so the write-behind flush only persists deltas.
  */
 public class StatsManager {
     private final Map<UUID, PlayerStats> statsByPlayer = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
 
     private PlayerStats getOrCreate(UUID playerId) {
         return statsByPlayer.computeIfAbsent(playerId, PlayerStats::new);
@@ -20,16 +22,19 @@ public class StatsManager {
     public void recordWin(Player player) {
         if (player == null) return;
         getOrCreate(player.getUniqueId()).recordWin();
+        dirty.add(player.getUniqueId());
     }
 
     public void recordLoss(Player player) {
         if (player == null) return;
         getOrCreate(player.getUniqueId()).recordLoss();
+        dirty.add(player.getUniqueId());
     }
 
     public void recordDraw(Player player) {
         if (player == null) return;
         getOrCreate(player.getUniqueId()).recordDraw();
+        dirty.add(player.getUniqueId());
     }
 
     public Optional<PlayerStats> getStats(UUID playerId) {
@@ -49,11 +54,37 @@ public class StatsManager {
     // Persistence hooks
     public void loadFrom(Map<UUID, PlayerStats> loaded) {
         statsByPlayer.clear();
+        dirty.clear();
         if (loaded != null) {
             statsByPlayer.putAll(loaded);
         }
     }
 
+    /** Number of players with changes not yet persisted. */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Removes all dirty markers and returns copies of the affected entries.
+     * If persisting fails, hand the keys back via {@link #markDirty(Collection)}.
+     */
+    public Map<UUID, PlayerStats> drainDirty() {
+        Map<UUID, PlayerStats> changed = new HashMap<>();
+        for (Iterator<UUID> it = dirty.iterator(); it.hasNext(); ) {
+            UUID id = it.next();
+            // Marker vor dem Kopieren entfernen: spätere Änderungen setzen ihn neu
+            it.remove();
+            PlayerStats stats = statsByPlayer.get(id);
+            if (stats != null) changed.put(id, stats.copy());
+        }
+        return changed;
+    }
+
+    public void markDirty(Collection<UUID> playerIds) {
+        dirty.addAll(playerIds);
+    }
+
     public Map<UUID, PlayerStats> toMap() {
         return new HashMap<>(statsByPlayer);
     }
@@ -62,21 +93,25 @@ public class StatsManager {
     public boolean reset(UUID playerId) {
         if (playerId == null) return false;
         statsByPlayer.put(playerId, new PlayerStats(playerId));
+        dirty.add(playerId);
         return true;
     }
 
     public void addWins(UUID playerId, int n) {
         if (playerId == null || n <= 0) return;
         getOrCreate(playerId).addWins(n);
+        dirty.add(playerId);
     }
 
     public void addLosses(UUID playerId, int n) {
         if (playerId == null || n <= 0) return;
         getOrCreate(playerId).addLosses(n);
+        dirty.add(playerId);
     }
 
     public void addDraws(UUID playerId, int n) {
         if (playerId == null || n <= 0) return;
         getOrCreate(playerId).addDraws(n);
+        dirty.add(playerId);
     }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ public class Arena {
     private SpawnType spawnType;
     private SpawnConfig spawnConfig;
     private boolean buildAllowed;
+    // Nur innerhalb der Boundaries schützen statt der ganzen Welt
+    private boolean protectRegionOnly;
     
     // Legacy Spawns (für Rückwärtskompatibilität)
     private Location player1Spawn;
@@ -88,6 +90,8 @@ public class Arena {
     public SpawnConfig getSpawnConfig() { return spawnConfig; }
     public boolean isBuildAllowed() { return buildAllowed; }
     public void setBuildAllowed(boolean buildAllowed) { this.buildAllowed = buildAllowed; }
+    public boolean isProtectRegionOnly() { return protectRegionOnly; }
+    public void setProtectRegionOnly(boolean protectRegionOnly) { this.protectRegionOnly = protectRegionOnly; }
     
     // Setters
     public void setSpawnType(SpawnType spawnType) { this.spawnType = spawnType; }
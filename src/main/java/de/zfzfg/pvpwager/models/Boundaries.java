@@ -2,37 +2,64 @@ package de.zfzfg.pvpwager.models;
 
 import org.bukkit.Location;
 
+/**
+ * Axis-aligned arena box. The corners are normalized to primitive min/max
+ * values once at load, so the checks on move and block events neither
+ * allocate nor need the arena world to be loaded.
+ */
 public class Boundaries {
-    private Location min;
-    private Location max;
-    
+    private final double minX, minY, minZ;
+    private final double maxX, maxY, maxZ;
+    // Block-Koordinaten der Ecken (inklusive) für Block-Prüfungen
+    private final int minBlockX, minBlockY, minBlockZ;
+    private final int maxBlockX, maxBlockY, maxBlockZ;
+
+    public Boundaries(double x1, double y1, double z1, double x2, double y2, double z2) {
+        this.minX = Math.min(x1, x2);
+        this.maxX = Math.max(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.maxY = Math.max(y1, y2);
+        this.minZ = Math.min(z1, z2);
+        this.maxZ = Math.max(z1, z2);
+        this.minBlockX = (int) Math.floor(minX);
+        this.minBlockY = (int) Math.floor(minY);
+        this.minBlockZ = (int) Math.floor(minZ);
+        this.maxBlockX = (int) Math.floor(maxX);
+        this.maxBlockY = (int) Math.floor(maxY);
+        this.maxBlockZ = (int) Math.floor(maxZ);
+    }
+
     public Boundaries(Location min, Location max) {
-        this.min = min;
-        this.max = max;
+        this(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ());
     }
-    
-    public boolean isInside(Location location) {
-        if (location == null || min == null || max == null) {
-            return true; // No boundaries check if not set
-        }
-        
-        double x = location.getX();
-        double y = location.getY();
-        double z = location.getZ();
-        
-        double minX = Math.min(min.getX(), max.getX());
-        double maxX = Math.max(min.getX(), max.getX());
-        double minY = Math.min(min.getY(), max.getY());
-        double maxY = Math.max(min.getY(), max.getY());
-        double minZ = Math.min(min.getZ(), max.getZ());
-        double maxZ = Math.max(min.getZ(), max.getZ());
-        
+
+    public boolean contains(double x, double y, double z) {
         return x >= minX && x <= maxX &&
                y >= minY && y <= maxY &&
                z >= minZ && z <= maxZ;
     }
-    
-    // Getters and setters
-    public Location getMin() { return min; }
-    public Location getMax() { return max; }
-}
\ No newline at end of file
+
+    /** Block coordinates; a block counts as inside if its corner lies in the box. */
+    public boolean containsBlock(int x, int y, int z) {
+        return x >= minBlockX && x <= maxBlockX &&
+               y >= minBlockY && y <= maxBlockY &&
+               z >= minBlockZ && z <= maxBlockZ;
+    }
+
+    public boolean isInside(Location location) {
+        if (location == null) {
+            return true; // No boundaries check if not set
+        }
+        return contains(location.getX(), location.getY(), location.getZ());
+    }
+
+    // Getters (Ecken ohne Welt)
+    public Location getMin() { return new Location(null, minX, minY, minZ); }
+    public Location getMax() { return new Location(null, maxX, maxY, maxZ); }
+    public double getMinX() { return minX; }
+    public double getMinY() { return minY; }
+    public double getMinZ() { return minZ; }
+    public double getMaxX() { return maxX; }
+    public double getMaxY() { return maxY; }
+    public double getMaxZ() { return maxZ; }
+}
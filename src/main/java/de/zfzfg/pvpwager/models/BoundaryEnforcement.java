@@ -0,0 +1,17 @@
+package de.zfzfg.pvpwager.models;
+
+public enum BoundaryEnforcement {
+    PUSHBACK,    // Move back to the last position inside the arena
+    DAMAGE,      // Allow leaving, damage once per second while outside
+    NONE;        // Boundaries are not enforced
+
+    /** Config value (settings.match.boundary-enforcement), case-insensitive; unknown values fall back to PUSHBACK. */
+    public static BoundaryEnforcement fromConfig(String value) {
+        if (value != null) {
+            for (BoundaryEnforcement mode : values()) {
+                if (mode.name().equalsIgnoreCase(value.trim())) return mode;
+            }
+        }
+        return PUSHBACK;
+    }
+}
@@ -29,4 +29,13 @@ public class PlayerStats {
     public void addLosses(int n) { if (n > 0) losses += n; }
     public void addDraws(int n) { if (n > 0) draws += n; }
     public void reset() { wins = 0; losses = 0; draws = 0; }
+
+    /** Detached copy for persistence off the main thread. */
+    public PlayerStats copy() {
+        PlayerStats c = new PlayerStats(playerId);
+        c.wins = wins;
+        c.losses = losses;
+        c.draws = draws;
+        return c;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,571 @@
+package de.zfzfg.pvpwager.storage;
+
+import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.eventplugin.storage.ItemStackCodec;
+import de.zfzfg.pvpwager.models.Match;
+import de.zfzfg.pvpwager.utils.MessageUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal for wager escrow.
+ * <p>
+ * Money and items taken from both players when a match starts only live in the
+ * {@link Match} until the match is settled. The journal records an OPEN entry
+ * with the stakes of every player right after the withdrawal and a SETTLE entry
+ * once they were paid out or returned. Entries are queued and written by one
+ * async drain with a single write and fsync for everything pending (group commit).
+ * <p>
+ * On startup the journal is replayed: every escrow without SETTLE is refunded
+ * to the original owners when they are online (otherwise on join). Each refund
+ * is journaled as a REFUND entry and only paid once that entry is on disk, so
+ * it is never paid twice; refunds share the group commit and are paid from its
+ * completion on the main thread.
+ */
+public final class EscrowJournal {
+    private static final String FILE_NAME = "escrow.journal";
+    private static final byte REC_OPEN = 1;
+    private static final byte REC_SETTLE = 2;
+    private static final byte REC_REFUND = 3;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    // Ab dieser Größe wird das Journal auf die noch offenen Escrows gekürzt
+    private static final long COMPACT_BYTES = 1024L * 1024L;
+
+    private final EventPlugin plugin;
+    private final File file;
+    private FileChannel channel;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Object drainLock = new Object();
+
+    // Offene Escrows in Schreibreihenfolge (nur unter drainLock) – Grundlage für das Kürzen
+    private final Map<UUID, List<byte[]>> openRecords = new LinkedHashMap<>();
+    // Beim Start gefundene, noch nicht erstattete Einsätze je Spieler (nur Main-Thread)
+    private final Map<UUID, List<Refund>> refundsByPlayer = new HashMap<>();
+    // Noch offene Einsätze je Escrow aus früheren Läufen (nur Main-Thread)
+    private final Map<UUID, Integer> refundsRemaining = new HashMap<>();
+    // Erstattungen, deren REFUND-Eintrag gerade geschrieben wird (nur Main-Thread)
+    private int refundsInFlight;
+    // Bereits journaled, aber der Spieler war bei der Auszahlung offline (nur Main-Thread)
+    private final Map<UUID, List<Refund>> unpaid = new HashMap<>();
+
+    /** Stake of one player in an escrow. */
+    private static final class Stake {
+        final UUID playerId;
+        final String playerName;
+        final double money;
+        final ItemStack[] items;
+
+        Stake(UUID playerId, String playerName, double money, ItemStack[] items) {
+            this.playerId = playerId;
+            this.playerName = playerName;
+            this.money = money;
+            this.items = items;
+        }
+    }
+
+    private static final class Refund {
+        final UUID matchId;
+        final Stake stake;
+
+        Refund(UUID matchId, Stake stake) {
+            this.matchId = matchId;
+            this.stake = stake;
+        }
+    }
+
+    private static final class Pending {
+        final byte type;
+        final UUID matchId;
+        final UUID playerId;
+        final List<Stake> stakes;
+        // true, sobald der Eintrag per fsync auf der Platte ist; false bei Fehler
+        final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        Pending(byte type, UUID matchId, UUID playerId, List<Stake> stakes) {
+            this.type = type;
+            this.matchId = matchId;
+            this.playerId = playerId;
+            this.stakes = stakes;
+        }
+    }
+
+    public EscrowJournal(EventPlugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+    }
+
+    // ===== Lifecycle =====
+
+    /**
+     * Replay the journal and open it for appending. Unsettled escrows become
+     * pending refunds; call {@link #refundOnline()} once the economy is hooked.
+     */
+    public void open() throws IOException {
+        synchronized (drainLock) {
+            if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+                throw new IOException("Konnte Datenordner nicht anlegen: " + file.getParentFile());
+            }
+            Map<UUID, List<Stake>> open = new LinkedHashMap<>();
+            Map<UUID, List<UUID>> refunded = new HashMap<>();
+            Map<UUID, List<byte[]>> unreadable = new LinkedHashMap<>();
+            if (file.exists()) replay(open, refunded, unreadable);
+            // Nicht lesbare Einsätze unverändert im Journal behalten, nicht erstatten
+            openRecords.putAll(unreadable);
+
+            for (Map.Entry<UUID, List<Stake>> e : open.entrySet()) {
+                List<UUID> done = refunded.getOrDefault(e.getKey(), new ArrayList<>());
+                List<byte[]> records = new ArrayList<>();
+                records.add(frame(REC_OPEN, encodeOpen(e.getKey(), e.getValue())));
+                for (UUID playerId : done) records.add(frame(REC_REFUND, encodeRefund(e.getKey(), playerId)));
+                openRecords.put(e.getKey(), records);
+                for (Stake s : e.getValue()) {
+                    if (done.contains(s.playerId)) continue;
+                    refundsByPlayer.computeIfAbsent(s.playerId, k -> new ArrayList<>()).add(new Refund(e.getKey(), s));
+                    refundsRemaining.merge(e.getKey(), 1, Integer::sum);
+                }
+            }
+            // Beim Start immer auf die offenen Einträge kürzen (entfernt auch einen abgerissenen Rest)
+            rewrite();
+            if (!open.isEmpty()) {
+                plugin.getLogger().warning(open.size() + " nicht abgeschlossene Wager-Escrows gefunden; Einsätze werden den Spielern erstattet.");
+            }
+            if (!unreadable.isEmpty()) {
+                plugin.getLogger().warning(unreadable.size() + " Wager-Escrows mit nicht lesbaren Einsätzen bleiben im Journal: " + unreadable.keySet());
+            }
+        }
+    }
+
+    /** Write everything pending and close the file. Called from onDisable after the matches were stopped. */
+    public void close() {
+        drain();
+        synchronized (drainLock) {
+            if (channel != null) {
+                try { channel.close(); } catch (IOException ignored) {}
+                channel = null;
+            }
+        }
+    }
+
+    // ===== Escrow lifecycle =====
+
+    /** Journal the stakes of a match after they were taken from the players. Main thread. */
+    public void openEscrow(Match match) {
+        List<Stake> stakes = new ArrayList<>();
+        for (Player p : new Player[] {match.getPlayer1(), match.getPlayer2()}) {
+            List<ItemStack> items = match.getWagerItems().get(p.getUniqueId());
+            Double money = match.getWagerMoney().get(p.getUniqueId());
+            ItemStack[] copies = new ItemStack[items != null ? items.size() : 0];
+            for (int i = 0; i < copies.length; i++) {
+                ItemStack it = items.get(i);
+                copies[i] = it != null ? it.clone() : null;
+            }
+            stakes.add(new Stake(p.getUniqueId(), p.getName(), money != null ? money : 0.0, copies));
+        }
+        submit(new Pending(REC_OPEN, match.getMatchId(), null, stakes));
+    }
+
+    /** Journal that the stakes of a match were paid out or returned. */
+    public void settle(UUID matchId) {
+        submit(new Pending(REC_SETTLE, matchId, null, null));
+    }
+
+    /** Number of stakes from earlier runs that still wait for their owner. */
+    public int getPendingRefundCount() {
+        int n = refundsInFlight;
+        for (List<Refund> list : refundsByPlayer.values()) n += list.size();
+        for (List<Refund> list : unpaid.values()) n += list.size();
+        return n;
+    }
+
+    /** Refund pending stakes of all online players (after startup/reload). Main thread. */
+    public void refundOnline() {
+        for (Player p : Bukkit.getOnlinePlayers()) refundPending(p);
+    }
+
+    /**
+     * Return pending stakes from earlier runs to this player. Main thread.
+     * The REFUND entries go through the group commit; a stake is only paid once
+     * its entry was synced, and stays pending if the write failed. A crash
+     * between sync and payout loses this refund rather than paying it twice.
+     */
+    public void refundPending(Player player) {
+        List<Refund> journaled = unpaid.remove(player.getUniqueId());
+        if (journaled != null) {
+            for (Refund r : journaled) payOut(player.getUniqueId(), r);
+        }
+        List<Refund> list = refundsByPlayer.get(player.getUniqueId());
+        if (list == null || list.isEmpty()) return;
+        UUID playerId = player.getUniqueId();
+        List<Refund> journaling = new ArrayList<>();
+        for (Iterator<Refund> it = list.iterator(); it.hasNext(); ) {
+            Refund r = it.next();
+            if (r.stake.money > 0 && !plugin.hasEconomy()) {
+                plugin.getLogger().warning("Escrow " + r.matchId + ": Geld-Einsatz von " + player.getName()
+                        + " kann ohne Economy nicht erstattet werden.");
+                continue;
+            }
+            it.remove();
+            journaling.add(r);
+        }
+        if (list.isEmpty()) refundsByPlayer.remove(playerId);
+
+        for (Refund r : journaling) {
+            refundsInFlight++;
+            Pending pending = new Pending(REC_REFUND, r.matchId, playerId, null);
+            pending.written.thenAccept(ok -> runOnMain(() -> {
+                refundsInFlight--;
+                if (ok) {
+                    payOut(playerId, r);
+                } else {
+                    // Nicht auf der Platte: Einsatz bleibt offen und wird beim nächsten Join erneut versucht
+                    refundsByPlayer.computeIfAbsent(playerId, k -> new ArrayList<>()).add(r);
+                }
+            }));
+            submit(pending);
+        }
+    }
+
+    private void payOut(UUID playerId, Refund r) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null) {
+            // REFUND ist bereits journaled; in diesem Lauf beim nächsten Join auszahlen
+            plugin.getLogger().warning("Escrow " + r.matchId + ": Spieler " + r.stake.playerName
+                    + " ist vor der Erstattung offline gegangen; Auszahlung beim nächsten Join.");
+            unpaid.computeIfAbsent(playerId, k -> new ArrayList<>()).add(r);
+            return;
+        }
+        if (r.stake.money > 0) plugin.getEconomy().depositPlayer(player, r.stake.money);
+        for (ItemStack item : r.stake.items) {
+            if (item == null) continue;
+            for (ItemStack rest : player.getInventory().addItem(item).values()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), rest);
+            }
+        }
+        plugin.getLogger().info("Escrow " + r.matchId + ": Einsatz an " + player.getName() + " erstattet ("
+                + r.stake.items.length + " Items, " + String.format("%.2f", r.stake.money) + " Geld).");
+        MessageUtil.sendMessage(player, "&7Your wager from an interrupted match has been returned.");
+        Integer left = refundsRemaining.merge(r.matchId, -1, Integer::sum);
+        if (left != null && left <= 0) {
+            refundsRemaining.remove(r.matchId);
+            settle(r.matchId);
+        }
+    }
+
+    private void runOnMain(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+            return;
+        }
+        try {
+            Bukkit.getScheduler().runTask(plugin, task);
+        } catch (Exception e) {
+            // Plugin wird deaktiviert: Erstattung bleibt im Journal offen bzw. REFUND ist geschrieben
+            plugin.getLogger().warning("Escrow-Erstattung konnte nicht mehr eingeplant werden: " + e.getMessage());
+        }
+    }
+
+    // ===== Group commit =====
+
+    private void submit(Pending p) {
+        queue.add(p);
+        if (!drainScheduled.compareAndSet(false, true)) return;
+        try {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, this::drainLoop);
+        } catch (Exception e) {
+            // Scheduler nicht verfügbar (z.B. während onDisable) – direkt schreiben
+            drainScheduled.set(false);
+            drain();
+        }
+    }
+
+    private void drainLoop() {
+        do {
+            drain();
+            drainScheduled.set(false);
+        } while (!queue.isEmpty() && drainScheduled.compareAndSet(false, true));
+    }
+
+    /**
+     * Write and sync everything queued. Completes each entry's {@link Pending#written}
+     * and returns false if any entry could not be made durable.
+     */
+    private boolean drain() {
+        synchronized (drainLock) {
+            List<Pending> batch = new ArrayList<>();
+            Pending next;
+            while ((next = queue.poll()) != null) batch.add(next);
+            if (batch.isEmpty()) return true;
+
+            boolean ok = true;
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            List<Pending> framed = new ArrayList<>();
+            List<byte[]> records = new ArrayList<>();
+            for (Pending p : batch) {
+                try {
+                    byte[] record;
+                    if (p.type == REC_OPEN) {
+                        record = frame(REC_OPEN, encodeOpen(p.matchId, p.stakes));
+                    } else if (p.type == REC_REFUND) {
+                        record = frame(REC_REFUND, encodeRefund(p.matchId, p.playerId));
+                    } else if (openRecords.containsKey(p.matchId) || containsOpen(framed, p.matchId)) {
+                        record = frame(REC_SETTLE, encodeSettle(p.matchId));
+                    } else {
+                        // SETTLE ohne offenes Escrow (z.B. Abbruch vor dem Einzug) muss nicht geschrieben werden
+                        p.written.complete(true);
+                        continue;
+                    }
+                    buf.write(record);
+                    framed.add(p);
+                    records.add(record);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Escrow " + p.matchId + " konnte nicht serialisiert werden: " + e.getMessage());
+                    p.written.complete(false);
+                    ok = false;
+                }
+            }
+            if (framed.isEmpty()) return ok;
+
+            boolean durable = append(buf.toByteArray());
+            if (durable) {
+                // Kürzungsgrundlage erst nach erfolgreichem fsync nachführen
+                for (int i = 0; i < framed.size(); i++) {
+                    Pending p = framed.get(i);
+                    if (p.type == REC_OPEN) {
+                        List<byte[]> list = new ArrayList<>();
+                        list.add(records.get(i));
+                        openRecords.put(p.matchId, list);
+                    } else if (p.type == REC_REFUND) {
+                        List<byte[]> list = openRecords.get(p.matchId);
+                        if (list != null) list.add(records.get(i));
+                    } else {
+                        openRecords.remove(p.matchId);
+                    }
+                }
+                try {
+                    if (channel != null && channel.size() > COMPACT_BYTES) rewrite();
+                } catch (IOException e) {
+                    // Die Einträge sind bereits synchronisiert; Kürzen beim nächsten Mal erneut versuchen
+                    plugin.getLogger().warning("Konnte Escrow-Journal nicht kürzen: " + e.getMessage());
+                }
+            }
+            for (Pending p : framed) p.written.complete(durable);
+            return ok && durable;
+        }
+    }
+
+    private static boolean containsOpen(List<Pending> framed, UUID matchId) {
+        for (Pending p : framed) {
+            if (p.type == REC_OPEN && p.matchId.equals(matchId)) return true;
+        }
+        return false;
+    }
+
+    /** One sequential write plus one fsync for the whole batch; a failed write is cut off again. */
+    private boolean append(byte[] data) {
+        FileChannel ch = null;
+        long start = -1L;
+        try {
+            ch = channel();
+            start = ch.size();
+            ByteBuffer bb = ByteBuffer.wrap(data);
+            while (bb.hasRemaining()) ch.write(bb);
+            ch.force(false);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Konnte Escrow-Journal nicht schreiben: " + e.getMessage());
+            // Halb geschriebenen Rest abschneiden, damit spätere Einträge beim Replay lesbar bleiben
+            if (ch != null && start >= 0) {
+                try { ch.truncate(start); } catch (IOException ignored) {}
+            }
+            if (channel != null) {
+                try { channel.close(); } catch (IOException ignored) {}
+                channel = null;
+            }
+            return false;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /** Replace the journal with the records of the still open escrows (temp file + atomic move). */
+    private void rewrite() throws IOException {
+        File tmp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (List<byte[]> records : openRecords.values()) {
+                for (byte[] r : records) {
+                    ByteBuffer bb = ByteBuffer.wrap(r);
+                    while (bb.hasRemaining()) out.write(bb);
+                }
+            }
+            out.force(true);
+        }
+        if (channel != null) {
+            try { channel.close(); } catch (IOException ignored) {}
+            channel = null;
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ===== Replay =====
+
+    /**
+     * Read the journal into open escrows and their journaled refunds. OPEN entries
+     * whose stakes cannot be decoded (e.g. an item material this server no longer
+     * knows) go to {@code unreadable} as raw records, together with their REFUND
+     * entries, so they are kept instead of being refunded without those items.
+     */
+    private void replay(Map<UUID, List<Stake>> open, Map<UUID, List<UUID>> refunded,
+                        Map<UUID, List<byte[]>> unreadable) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        ByteBuffer bb = ByteBuffer.wrap(data);
+        while (bb.remaining() >= RECORD_HEADER_BYTES) {
+            int start = bb.position();
+            int length = bb.getInt();
+            int crc = bb.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || length > bb.remaining()) {
+                plugin.getLogger().warning("Escrow-Journal: unvollständiger Eintrag bei Offset " + start + " verworfen.");
+                return;
+            }
+            byte[] body = new byte[length];
+            bb.get(body);
+            CRC32 c = new CRC32();
+            c.update(body);
+            if ((int) c.getValue() != crc) {
+                plugin.getLogger().warning("Escrow-Journal: beschädigter Eintrag bei Offset " + start + " verworfen.");
+                return;
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+                byte type = in.readByte();
+                UUID matchId = new UUID(in.readLong(), in.readLong());
+                if (type == REC_OPEN) {
+                    try {
+                        open.put(matchId, readStakes(in));
+                    } catch (IOException e) {
+                        plugin.getLogger().warning("Escrow " + matchId + ": Einsätze nicht lesbar (" + e.getMessage()
+                                + "), Eintrag bleibt im Journal und wird nicht erstattet.");
+                        List<byte[]> raw = new ArrayList<>();
+                        raw.add(frame(type, java.util.Arrays.copyOfRange(body, 1, body.length)));
+                        unreadable.put(matchId, raw);
+                    }
+                } else if (type == REC_SETTLE) {
+                    open.remove(matchId);
+                    refunded.remove(matchId);
+                    unreadable.remove(matchId);
+                } else if (type == REC_REFUND) {
+                    List<byte[]> raw = unreadable.get(matchId);
+                    if (raw != null) {
+                        raw.add(frame(type, java.util.Arrays.copyOfRange(body, 1, body.length)));
+                        continue;
+                    }
+                    refunded.computeIfAbsent(matchId, k -> new ArrayList<>()).add(new UUID(in.readLong(), in.readLong()));
+                }
+            }
+        }
+    }
+
+    // ===== Encoding =====
+
+    /** Record = [int length][int crc32][type + body]. */
+    private static byte[] frame(byte type, byte[] body) {
+        byte[] payload = new byte[body.length + 1];
+        payload[0] = type;
+        System.arraycopy(body, 0, payload, 1, body.length);
+        CRC32 c = new CRC32();
+        c.update(payload);
+        ByteBuffer bb = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        bb.putInt(payload.length);
+        bb.putInt((int) c.getValue());
+        bb.put(payload);
+        return bb.array();
+    }
+
+    private static byte[] encodeOpen(UUID matchId, List<Stake> stakes) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            writeUuid(out, matchId);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(stakes.size());
+            for (Stake s : stakes) {
+                writeUuid(out, s.playerId);
+                out.writeUTF(s.playerName != null ? s.playerName : "");
+                out.writeDouble(s.money);
+                byte[] items = s.items.length > 0 ? ItemStackCodec.encode(s.items) : new byte[0];
+                out.writeInt(items.length);
+                out.write(items);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static List<Stake> readStakes(DataInputStream in) throws IOException {
+        in.readLong(); // Zeitpunkt des Einzugs (nur informativ)
+        int count = in.readInt();
+        List<Stake> stakes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID playerId = new UUID(in.readLong(), in.readLong());
+            String name = in.readUTF();
+            double money = in.readDouble();
+            byte[] items = new byte[in.readInt()];
+            in.readFully(items);
+            ItemStack[] decoded = items.length > 0 ? ItemStackCodec.decode(items)[0] : new ItemStack[0];
+            stakes.add(new Stake(playerId, name, money, decoded));
+        }
+        return stakes;
+    }
+
+    private static byte[] encodeSettle(UUID matchId) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            writeUuid(out, matchId);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] encodeRefund(UUID matchId, UUID playerId) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            writeUuid(out, matchId);
+            writeUuid(out, playerId);
+        }
+        return bos.toByteArray();
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,106 @@
+package de.zfzfg.core.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecondBusTest {
+
+    private final SecondBus bus = new SecondBus();
+    private final List<WheelTask> due = new ArrayList<>();
+    private long tick;
+
+    @Test
+    void subscriberFiresNextTickThenEveryTwentyTicks() {
+        Recorder task = new Recorder();
+        bus.add(task);
+
+        advanceTo(61);
+        assertEquals(List.of(1L, 21L, 41L, 61L), task.runs);
+        assertEquals(1, bus.size());
+    }
+
+    @Test
+    void subscribersAddedOnDifferentTicksKeepTheirPhase() {
+        Recorder first = new Recorder();
+        bus.add(first);
+        advanceTo(7);
+        Recorder second = new Recorder();
+        bus.add(second);
+        advanceTo(19);
+        Recorder third = new Recorder();
+        bus.add(third);
+
+        advanceTo(48);
+        assertEquals(List.of(1L, 21L, 41L), first.runs);
+        assertEquals(List.of(8L, 28L, 48L), second.runs);
+        assertEquals(List.of(20L, 40L), third.runs);
+        assertEquals(3, bus.size());
+    }
+
+    @Test
+    void subscribersInSamePhaseFireTogether() {
+        Recorder a = new Recorder();
+        Recorder b = new Recorder();
+        bus.add(a);
+        bus.add(b);
+
+        advanceTo(21);
+        assertEquals(a.runs, b.runs);
+        assertEquals(List.of(1L, 21L), a.runs);
+    }
+
+    @Test
+    void cancelledSubscriberIsDroppedWhenItsPhaseComesUp() {
+        Recorder task = new Recorder();
+        bus.add(task);
+        advanceTo(5);
+        task.cancel();
+        assertEquals(1, bus.size(), "erst beim nächsten Durchlauf der Phase entfernt");
+
+        advanceTo(40);
+        assertEquals(List.of(1L), task.runs);
+        assertEquals(0, bus.size());
+    }
+
+    @Test
+    void cancelledTaskIsNotAdded() {
+        Recorder task = new Recorder();
+        task.cancel();
+        bus.add(task);
+        assertEquals(0, bus.size());
+    }
+
+    @Test
+    void clearDropsAllSubscribers() {
+        bus.add(new Recorder());
+        bus.add(new Recorder());
+        bus.clear();
+        assertEquals(0, bus.size());
+        advanceTo(40);
+    }
+
+    private void advanceTo(long target) {
+        while (tick < target) {
+            tick++;
+            bus.advance(due);
+            // Wie TaskManager.tick: Abonnenten bleiben im Bucket, abgebrochene werden übersprungen
+            for (WheelTask task : due) {
+                if (!task.isCancelled()) task.run();
+            }
+            due.clear();
+        }
+    }
+
+    private class Recorder extends WheelTask {
+        final List<Long> runs = new ArrayList<>();
+
+        @Override
+        public void run() {
+            runs.add(tick);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package de.zfzfg.core.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    // 2^26 - 1, siehe TimingWheel.MAX_DELTA
+    private static final long MAX_DELTA = (1L << 26) - 1;
+
+    private final TimingWheel wheel = new TimingWheel();
+    private final List<WheelTask> due = new ArrayList<>();
+    private long tick;
+
+    @Test
+    void firesOnExactTickAtLevelBoundaries() {
+        for (long delay : new long[] {1, 255, 256, 16384}) {
+            assertEquals(tick + delay, fireTick(delay), "delay " + delay);
+        }
+    }
+
+    @Test
+    void firesOnExactTickWhenAddedMidSlot() {
+        // Start nicht auf einer Slot-Grenze, damit Kaskaden mitten im Slot greifen
+        advanceTo(137);
+        for (long delay : new long[] {1, 119, 255, 256, 300, 16383, 16384, 20000}) {
+            assertEquals(tick + delay, fireTick(delay), "delay " + delay);
+        }
+    }
+
+    @Test
+    void randomDelaysFireOnTheirDeadline() {
+        java.util.Random random = new java.util.Random(42);
+        List<Counter> tasks = new ArrayList<>();
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (i % 100 == 0) advanceTo(tick + random.nextInt(500));
+            long delay = 1 + random.nextInt(i % 2 == 0 ? 300 : 40000);
+            Counter task = new Counter();
+            wheel.add(task, delay, 0);
+            tasks.add(task);
+            deadlines.add(tick + delay);
+        }
+        advanceTo(tick + 40000);
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(1, tasks.get(i).runs, "task " + i);
+            assertEquals((long) deadlines.get(i), tasks.get(i).lastRun, "task " + i);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void zeroDelayRunsOnNextTick() {
+        assertEquals(1, fireTick(0));
+    }
+
+    @Test
+    void parksDeadlinesBeyondMaxDelta() {
+        long delay = MAX_DELTA + 5000;
+        Counter task = new Counter();
+        wheel.add(task, delay, 0);
+
+        advanceTo(MAX_DELTA);
+        assertEquals(0, task.runs, "darf nicht vor der Frist laufen");
+        assertEquals(1, wheel.size());
+
+        advanceTo(delay - 1);
+        assertEquals(0, task.runs);
+        step();
+        assertEquals(1, task.runs);
+        assertEquals(delay, task.lastRun);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void periodicTaskIsRequeued() {
+        Counter task = new Counter();
+        wheel.add(task, 5, 20);
+
+        advanceTo(5);
+        assertEquals(1, task.runs);
+        advanceTo(65);
+        assertEquals(4, task.runs);
+        assertEquals(65, task.lastRun);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void cancelInsideRunStopsRepeating() {
+        Counter task = new Counter() {
+            @Override
+            public void run() {
+                super.run();
+                if (runs == 3) cancel();
+            }
+        };
+        wheel.add(task, 1, 1);
+
+        advanceTo(10);
+        assertEquals(3, task.runs);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelOfTaskDueInSameTickSkipsIt() {
+        Counter victim = new Counter();
+        WheelTask killer = new WheelTask() {
+            @Override
+            public void run() {
+                victim.cancel();
+            }
+        };
+        wheel.add(killer, 3, 0);
+        wheel.add(victim, 3, 0);
+
+        advanceTo(5);
+        assertTrue(victim.isCancelled());
+        assertEquals(0, victim.runs);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelBeforeDueRemovesTask() {
+        Counter task = new Counter();
+        wheel.add(task, 300, 0);
+        assertEquals(1, wheel.size());
+
+        task.cancel();
+        assertEquals(0, wheel.size());
+        advanceTo(400);
+        assertEquals(0, task.runs);
+
+        // Abgebrochene Tasks lassen sich nicht erneut einplanen
+        wheel.add(task, 1, 0);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleMovesTask() {
+        Counter task = new Counter();
+        wheel.add(task, 300, 0);
+        wheel.add(task, 10, 0);
+        assertEquals(1, wheel.size());
+
+        advanceTo(400);
+        assertEquals(1, task.runs);
+        assertEquals(10, task.lastRun);
+    }
+
+    private long fireTick(long delay) {
+        Counter task = new Counter();
+        wheel.add(task, delay, 0);
+        while (task.runs == 0) {
+            step();
+        }
+        assertEquals(1, task.runs);
+        return task.lastRun;
+    }
+
+    private void advanceTo(long target) {
+        while (tick < target) {
+            step();
+        }
+    }
+
+    // Wie TaskManager.tick, nur ohne Besitzer und Zeitmessung
+    private void step() {
+        tick++;
+        wheel.advance(due);
+        try {
+            for (WheelTask task : due) {
+                if (task.isCancelled()) continue;
+                task.run();
+                if (task.period > 0) wheel.requeue(task);
+            }
+        } finally {
+            due.clear();
+        }
+    }
+
+    private class Counter extends WheelTask {
+        int runs;
+        long lastRun = -1;
+
+        @Override
+        public void run() {
+            runs++;
+            lastRun = tick;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package de.zfzfg.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandMatcherTest {
+
+    @Test
+    void matchesOnWordBoundaryOnly() {
+        CommandMatcher matcher = CommandMatcher.of(List.of("event leave"));
+
+        assertTrue(matcher.matches("/event leave"));
+        assertTrue(matcher.matches("/event leave now"));
+        assertFalse(matcher.matches("/event leaves"));
+        assertFalse(matcher.matches("/event leav"));
+        assertFalse(matcher.matches("/event"));
+        assertFalse(matcher.matches("/events leave"));
+    }
+
+    @Test
+    void singleWordEntryAllowsArguments() {
+        CommandMatcher matcher = CommandMatcher.of(List.of("msg"));
+
+        assertTrue(matcher.matches("/msg"));
+        assertTrue(matcher.matches("/msg Steve hi"));
+        assertFalse(matcher.matches("/msgs"));
+        assertFalse(matcher.matches("/m"));
+    }
+
+    @Test
+    void ignoresCaseSlashAndRepeatedSpaces() {
+        CommandMatcher matcher = CommandMatcher.of(List.of("/Event   Leave"));
+
+        assertTrue(matcher.matches("event leave"));
+        assertTrue(matcher.matches("/EVENT LEAVE"));
+        assertTrue(matcher.matches("/event    leave"));
+        assertTrue(matcher.matches("/event leave   "));
+        assertFalse(matcher.matches("/ event leave"));
+        assertFalse(matcher.matches("//event leave"));
+    }
+
+    @Test
+    void matchesNamespacedAliases() {
+        // ConfigManager expandiert Label und Aliases aus plugin.yml auch mit Namespace
+        CommandMatcher matcher = CommandMatcher.of(List.of(
+                "event leave", "ev leave", "eventplugin:event leave", "eventplugin:ev leave"));
+
+        assertEquals(4, matcher.size());
+        assertTrue(matcher.matches("/ev leave"));
+        assertTrue(matcher.matches("/EventPlugin:event leave"));
+        assertTrue(matcher.matches("/eventplugin:ev  leave"));
+        assertFalse(matcher.matches("/eventplugin:event leaves"));
+        assertFalse(matcher.matches("/otherplugin:event leave"));
+        assertFalse(matcher.matches("/eventplugin:event"));
+    }
+
+    @Test
+    void overlappingEntries() {
+        CommandMatcher matcher = CommandMatcher.of(List.of("pvp", "pvp accept", "pvpa"));
+
+        assertEquals(3, matcher.size());
+        assertTrue(matcher.matches("/pvp deny"));
+        assertTrue(matcher.matches("/pvpa"));
+        assertFalse(matcher.matches("/pvpx"));
+    }
+
+    @Test
+    void emptyAndDuplicateEntries() {
+        CommandMatcher matcher = CommandMatcher.of(List.of("", "  ", "/", "spawn", "/SPAWN", "spawn  "));
+
+        assertEquals(1, matcher.size());
+        assertTrue(matcher.matches("/spawn"));
+        assertFalse(matcher.matches("/"));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    void emptyMatcherMatchesNothing() {
+        assertEquals(0, CommandMatcher.EMPTY.size());
+        assertFalse(CommandMatcher.EMPTY.matches("/event leave"));
+        assertFalse(CommandMatcher.EMPTY.matches("/"));
+    }
+
+    @Test
+    void normalize() {
+        assertEquals("event leave", CommandMatcher.normalize("  //Event \t Leave "));
+        assertEquals("", CommandMatcher.normalize(null));
+    }
+}
@@ -0,0 +1,106 @@
+package de.zfzfg.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryQueueTest {
+
+    private final ExpiryQueue<String> queue = new ExpiryQueue<>();
+
+    @Test
+    void expiresDueKeysInDeadlineOrder() {
+        queue.put("c", 300);
+        queue.put("a", 100);
+        queue.put("b", 200);
+        queue.put("d", 400);
+
+        assertEquals(List.of(), queue.expire(99));
+        assertEquals(List.of("a", "b", "c"), queue.expire(300));
+        assertEquals(1, queue.size());
+        assertEquals(400, queue.getDeadline("d"));
+        assertEquals(-1, queue.getDeadline("a"));
+    }
+
+    @Test
+    void replaceUsesNewDeadlineOnly() {
+        queue.put("a", 100);
+        queue.put("a", 500);
+        assertEquals(1, queue.size());
+        assertEquals(500, queue.getDeadline("a"));
+
+        // Der alte Eintrag ist veraltet und darf nichts auslösen
+        assertEquals(List.of(), queue.expire(100));
+        assertEquals(1, queue.size());
+        assertEquals(List.of("a"), queue.expire(500));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void replaceWithEarlierDeadline() {
+        queue.put("a", 500);
+        queue.put("a", 100);
+
+        assertEquals(List.of("a"), queue.expire(100));
+        assertEquals(List.of(), queue.expire(1000));
+    }
+
+    @Test
+    void removeDropsKey() {
+        queue.put("a", 100);
+        queue.put("b", 100);
+
+        assertTrue(queue.remove("a"));
+        assertFalse(queue.remove("a"));
+        assertFalse(queue.remove("x"));
+        assertEquals(-1, queue.getDeadline("a"));
+        assertEquals(List.of("b"), queue.expire(100));
+    }
+
+    @Test
+    void removeThenPutAgainExpiresOnce() {
+        queue.put("a", 100);
+        queue.remove("a");
+        queue.put("a", 100);
+
+        assertEquals(List.of("a"), queue.expire(100));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void staleEntriesAreCompacted() {
+        queue.put("live", 10_000);
+        for (int i = 0; i < 1000; i++) {
+            queue.put("k", i);
+        }
+        assertEquals(2, queue.size());
+        // Höchstens 2 * live + 16 Heap-Einträge, der Rest wurde verworfen
+        assertTrue(queue.heapSize() <= 2 * queue.size() + 16, "heap " + queue.heapSize());
+        assertEquals(999, queue.getDeadline("k"));
+
+        for (int i = 0; i < 100; i++) {
+            queue.put("r" + i, 5);
+        }
+        for (int i = 0; i < 100; i++) {
+            queue.remove("r" + i);
+        }
+        assertEquals(2, queue.size());
+        assertTrue(queue.heapSize() <= 2 * queue.size() + 16, "heap " + queue.heapSize());
+
+        assertEquals(List.of("k"), queue.expire(999));
+        assertEquals(List.of("live"), queue.expire(10_000));
+    }
+
+    @Test
+    void clearDropsEverything() {
+        queue.put("a", 100);
+        queue.put("b", 200);
+        queue.clear();
+
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.heapSize());
+        assertEquals(List.of(), queue.expire(Long.MAX_VALUE));
+    }
+}
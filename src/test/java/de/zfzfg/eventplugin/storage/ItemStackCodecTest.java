@@ -0,0 +1,151 @@
+package de.zfzfg.eventplugin.storage;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trips without ItemMeta: plain stacks never touch the item factory,
+ * so these run without a server.
+ */
+class ItemStackCodecTest {
+
+    @Test
+    void roundTripKeepsSlotsAndSections() throws IOException {
+        ItemStack[] contents = new ItemStack[36];
+        contents[0] = new ItemStack(Material.DIAMOND_SWORD, 1);
+        contents[1] = new ItemStack(Material.STONE, 64);
+        contents[5] = new ItemStack(Material.STONE, 3);
+        contents[35] = new ItemStack(Material.OAK_LOG, 17);
+        ItemStack[] armor = new ItemStack[] {null, new ItemStack(Material.IRON_CHESTPLATE, 1), null, null};
+
+        ItemStack[][] decoded = ItemStackCodec.decode(ItemStackCodec.encode(contents, armor, new ItemStack[0]));
+
+        assertEquals(3, decoded.length);
+        assertSlots(contents, decoded[0]);
+        assertSlots(armor, decoded[1]);
+        assertEquals(0, decoded[2].length);
+    }
+
+    @Test
+    void airAndEmptyStacksBecomeEmptySlots() throws IOException {
+        ItemStack[] contents = new ItemStack[] {
+                new ItemStack(Material.AIR, 1), new ItemStack(Material.STONE, 0), new ItemStack(Material.STONE, 2)};
+
+        ItemStack[] decoded = ItemStackCodec.decode(ItemStackCodec.encode(contents))[0];
+
+        assertEquals(3, decoded.length);
+        assertNull(decoded[0]);
+        assertNull(decoded[1]);
+        assertEquals(Material.STONE, decoded[2].getType());
+        assertEquals(2, decoded[2].getAmount());
+    }
+
+    @Test
+    void nullSectionIsEncodedAsEmpty() throws IOException {
+        ItemStack[][] decoded = ItemStackCodec.decode(ItemStackCodec.encode((ItemStack[]) null, new ItemStack[2]));
+
+        assertEquals(2, decoded.length);
+        assertEquals(0, decoded[0].length);
+        assertEquals(2, decoded[1].length);
+    }
+
+    @Test
+    void largePayloadIsCompressedAndSmallOneIsNot() throws IOException {
+        ItemStack[] small = new ItemStack[] {new ItemStack(Material.STONE, 1)};
+        // Bit 1: Datenversion folgt, Bit 0: komprimiert
+        assertEquals(2, ItemStackCodec.encode(small)[0]);
+
+        ItemStack[] large = new ItemStack[400];
+        Arrays.fill(large, new ItemStack(Material.STONE, 64));
+        byte[] compressed = ItemStackCodec.encode(large);
+        byte[] plain = ItemStackCodec.encode(false, large);
+
+        assertEquals(3, compressed[0]);
+        assertEquals(2, plain[0]);
+        assertTrue(compressed.length < plain.length);
+        assertSlots(large, ItemStackCodec.decode(compressed)[0]);
+        assertSlots(large, ItemStackCodec.decode(plain)[0]);
+    }
+
+    @Test
+    void materialIsStoredOnce() throws IOException {
+        ItemStack[] one = new ItemStack[] {new ItemStack(Material.STONE, 1)};
+        ItemStack[] many = new ItemStack[] {
+                new ItemStack(Material.STONE, 1), new ItemStack(Material.STONE, 1), new ItemStack(Material.STONE, 1)};
+
+        // Jeder weitere Slot kostet drei VarInt-Bytes, der Name steht nur im Dictionary
+        assertEquals(ItemStackCodec.encode(false, one).length + 2 * 3,
+                ItemStackCodec.encode(false, many).length);
+    }
+
+    @Test
+    void dataVersionIsRecorded() throws IOException {
+        byte[] data = ItemStackCodec.encode(new ItemStack[] {new ItemStack(Material.STONE, 1)});
+        // Ohne Server ist die Datenversion unbekannt (0)
+        assertEquals(0, ItemStackCodec.dataVersion(data));
+        assertEquals(-1, ItemStackCodec.dataVersion(legacyPayload("STONE")));
+    }
+
+    @Test
+    void payloadWithoutDataVersionIsStillReadable() throws IOException {
+        ItemStack[] decoded = ItemStackCodec.decode(legacyPayload("STONE"))[0];
+
+        assertEquals(2, decoded.length);
+        assertEquals(Material.STONE, decoded[0].getType());
+        assertEquals(5, decoded[0].getAmount());
+        assertEquals(7, decoded[1].getAmount());
+    }
+
+    @Test
+    void unknownMaterialFailsDecode() {
+        IOException e = assertThrows(IOException.class, () -> ItemStackCodec.decode(legacyPayload("NO_SUCH_MATERIAL")));
+        assertTrue(e.getMessage().contains("NO_SUCH_MATERIAL"), e.getMessage());
+    }
+
+    @Test
+    void emptyOrTruncatedPayloadFails() throws IOException {
+        assertThrows(IOException.class, () -> ItemStackCodec.decode(null));
+        assertThrows(IOException.class, () -> ItemStackCodec.decode(new byte[0]));
+
+        byte[] data = ItemStackCodec.encode(false, new ItemStack[] {new ItemStack(Material.STONE, 1)});
+        assertThrows(IOException.class, () -> ItemStackCodec.decode(Arrays.copyOf(data, data.length - 2)));
+    }
+
+    /** Uncompressed payload in the layout before the data version: two slots of one material. */
+    private static byte[] legacyPayload(String material) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(0);           // keine Flags
+        out.writeByte(1);           // ein Material
+        out.writeUTF(material);
+        out.writeByte(0);           // keine Metas
+        out.writeByte(1);           // eine Sektion
+        out.writeByte(2);           // zwei Slots
+        out.write(new byte[] {1, 5, 0});
+        out.write(new byte[] {1, 7, 0});
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // ItemStack.equals braucht die ItemFactory des Servers, daher Typ und Menge einzeln
+    private static void assertSlots(ItemStack[] expected, ItemStack[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] == null) {
+                assertNull(actual[i], "slot " + i);
+            } else {
+                assertNotNull(actual[i], "slot " + i);
+                assertEquals(expected[i].getType(), actual[i].getType(), "slot " + i);
+                assertEquals(expected[i].getAmount(), actual[i].getAmount(), "slot " + i);
+            }
+        }
+    }
+}
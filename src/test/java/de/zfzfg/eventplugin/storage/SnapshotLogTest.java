@@ -0,0 +1,239 @@
+package de.zfzfg.eventplugin.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotLogTest {
+
+    private static final Logger LOGGER = Logger.getLogger(SnapshotLogTest.class.getName());
+    // Nie versiegeln, damit jedes Segment beim Öffnen gelesen wird
+    private static final long NEVER_SEAL = Long.MAX_VALUE;
+    // Größer als die Hälfte von MAX_SEGMENT_BYTES (4 MiB): zwei davon passen nicht in ein Segment
+    private static final int LARGE_PAYLOAD = 3 * 1024 * 1024;
+
+    @TempDir
+    File dir;
+
+    private final List<SnapshotLog> opened = new ArrayList<>();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @AfterEach
+    void closeLogs() {
+        for (SnapshotLog log : opened) log.close();
+    }
+
+    @Test
+    void roundTripSurvivesReopen() throws IOException {
+        SnapshotLog log = open(NEVER_SEAL);
+        log.append(record(alice, "Alice", 1000, "arena", "0001"), (byte) 1, payload(10, 1));
+        log.append(record(bob, "Bob", 2000, "arena", "0002"), (byte) 1, payload(20, 2));
+        log.append(record(alice, "Alice", 3000, "arena", "0003"), (byte) 2, payload(30, 3));
+        log.close();
+
+        SnapshotLog reopened = open(NEVER_SEAL);
+        assertEquals(2, reopened.countFor(alice));
+        assertEquals(1, reopened.countFor(bob));
+        assertEquals("0003", reopened.latestFor(alice).getInventoryId());
+        assertEquals("0003", reopened.latestByName("ALICE").getInventoryId());
+        assertEquals(bob, reopened.findByInventoryId("0002").getPlayerId());
+
+        SnapshotStore.Payload p = reopened.readPayload(reopened.findByInventoryId("0003"));
+        assertEquals(2, p.format);
+        assertArrayEquals(payload(30, 3), p.data);
+
+        // Zähler pro Welt wird aus dem neuesten Datensatz wiederhergestellt
+        assertEquals("0004", reopened.allocateInventoryId("arena"));
+        assertEquals("0001", reopened.allocateInventoryId("other"));
+    }
+
+    @Test
+    void appendAllIndexesEveryRecord() throws IOException {
+        SnapshotLog log = open(NEVER_SEAL);
+        log.appendAll(Arrays.asList(record(alice, "Alice", 1000, "arena", "0001"), record(bob, "Bob", 1000, "arena", "0002")),
+                (byte) 1, Arrays.asList(payload(5, 1), payload(6, 2)));
+
+        assertEquals(2, log.allRecords().size());
+        assertArrayEquals(payload(6, 2), log.readPayload(log.findByInventoryId("0002")).data);
+    }
+
+    @Test
+    void tornTailIsTruncated() throws IOException {
+        SnapshotLog log = open(NEVER_SEAL);
+        log.append(record(alice, "Alice", 1000, "arena", "0001"), (byte) 1, payload(100, 1));
+        log.append(record(alice, "Alice", 2000, "arena", "0002"), (byte) 1, payload(100, 2));
+        log.close();
+
+        File segment = segment(1);
+        long intact = segment.length();
+        // Abgebrochener Schreibvorgang: Header verspricht mehr Bytes als vorhanden
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(intact);
+            raf.writeInt(500);
+            raf.writeInt(0);
+            raf.write(new byte[37]);
+        }
+
+        SnapshotLog reopened = open(NEVER_SEAL);
+        assertEquals(2, reopened.countFor(alice));
+        assertEquals(intact, segment.length());
+
+        // Weiter anhängen nach dem Kürzen
+        reopened.append(record(bob, "Bob", 3000, "arena", "0003"), (byte) 1, payload(50, 3));
+        reopened.close();
+        SnapshotLog again = open(NEVER_SEAL);
+        assertEquals(3, again.allRecords().size());
+        assertArrayEquals(payload(50, 3), again.readPayload(again.findByInventoryId("0003")).data);
+    }
+
+    @Test
+    void corruptLastRecordOfTailIsDropped() throws IOException {
+        SnapshotLog log = open(NEVER_SEAL);
+        log.append(record(alice, "Alice", 1000, "arena", "0001"), (byte) 1, payload(100, 1));
+        SnapshotRecord last = log.append(record(alice, "Alice", 2000, "arena", "0002"), (byte) 1, payload(100, 2));
+        log.close();
+
+        flipByte(segment(1), last.getOffset() + last.getLength() - 1);
+
+        SnapshotLog reopened = open(NEVER_SEAL);
+        assertEquals(1, reopened.countFor(alice));
+        assertNull(reopened.findByInventoryId("0002"));
+        assertEquals(last.getOffset(), segment(1).length());
+    }
+
+    @Test
+    void badChecksumInOlderSegmentSkipsOnlyThatRecord() throws IOException {
+        SnapshotRecord first = writeTwoSegments();
+        File older = segment(1);
+        long length = older.length();
+
+        flipByte(older, first.getOffset() + first.getLength() - 1);
+
+        SnapshotLog reopened = open(NEVER_SEAL);
+        assertNull(reopened.findByInventoryId("0001"));
+        assertNotNull(reopened.findByInventoryId("0002"));
+        assertNotNull(reopened.findByInventoryId("0003"));
+        assertNotNull(reopened.findByInventoryId("0004"));
+        assertEquals(length, older.length(), "älteres Segment darf nicht gekürzt werden");
+        assertArrayEquals(payload(200, 3), reopened.readPayload(reopened.findByInventoryId("0003")).data);
+    }
+
+    @Test
+    void brokenLengthInOlderSegmentStopsIndexingWithoutTruncating() throws IOException {
+        writeTwoSegments();
+        File older = segment(1);
+        long length = older.length();
+
+        SnapshotLog probe = open(NEVER_SEAL);
+        SnapshotRecord large = probe.findByInventoryId("0002");
+        probe.close();
+        opened.remove(probe);
+        try (RandomAccessFile raf = new RandomAccessFile(older, "rw")) {
+            raf.seek(large.getOffset());
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+
+        SnapshotLog reopened = open(NEVER_SEAL);
+        assertNotNull(reopened.findByInventoryId("0001"));
+        assertNull(reopened.findByInventoryId("0002"));
+        assertNull(reopened.findByInventoryId("0003"));
+        assertNotNull(reopened.findByInventoryId("0004"));
+        assertEquals(length, older.length(), "älteres Segment darf nicht gekürzt werden");
+    }
+
+    @Test
+    void sealedSegmentIsLoadedFromSidecar() throws IOException {
+        SnapshotLog log = open(0L);
+        log.append(record(alice, "Alice", 1000, "arena", "0001"), (byte) 1, payload(LARGE_PAYLOAD, 1));
+        log.append(record(bob, "Bob", 2000, "arena", "0002"), (byte) 1, payload(LARGE_PAYLOAD, 2));
+        log.close();
+
+        // Beim Öffnen wird das alte Segment versiegelt, danach kommt es aus dem Sidecar
+        open(0L).close();
+        File sidecar = new File(dir, "segment-000001.idx");
+        assertTrue(sidecar.isFile());
+        assertFalse(new File(dir, "segment-000002.idx").exists());
+
+        SnapshotLog fromSidecar = open(0L);
+        assertEquals("0001", fromSidecar.latestFor(alice).getInventoryId());
+        assertArrayEquals(payload(LARGE_PAYLOAD, 1), fromSidecar.readPayload(fromSidecar.findByInventoryId("0001")).data);
+        fromSidecar.close();
+
+        // Beschädigter Sidecar wird verworfen, das Segment neu gelesen
+        flipByte(sidecar, 20);
+        SnapshotLog rescanned = open(0L);
+        assertEquals(1, rescanned.countFor(alice));
+        assertEquals(1, rescanned.countFor(bob));
+    }
+
+    @Test
+    void pruneStepDropsExpiredRecords() throws IOException {
+        SnapshotLog log = open(NEVER_SEAL);
+        log.append(record(alice, "Alice", 1000, "arena", "0001"), (byte) 1, payload(100, 1));
+        log.append(record(bob, "Bob", 5000, "arena", "0002"), (byte) 1, payload(100, 2));
+
+        SnapshotStore.PruneResult result = log.pruneStep(0, r -> r.getTimestamp() < 2000);
+        assertEquals(1, result.removed);
+        assertNull(log.findByInventoryId("0001"));
+        assertArrayEquals(payload(100, 2), log.readPayload(log.findByInventoryId("0002")).data);
+        log.close();
+
+        SnapshotLog reopened = open(NEVER_SEAL);
+        assertEquals(1, reopened.allRecords().size());
+        assertEquals("0003", reopened.allocateInventoryId("arena"));
+    }
+
+    /** Segment 1: 0001 (klein), 0002 (groß), 0003 (klein); Segment 2: 0004 (groß). */
+    private SnapshotRecord writeTwoSegments() throws IOException {
+        SnapshotLog log = open(NEVER_SEAL);
+        SnapshotRecord first = log.append(record(alice, "Alice", 1000, "arena", "0001"), (byte) 1, payload(200, 1));
+        log.append(record(alice, "Alice", 2000, "arena", "0002"), (byte) 1, payload(LARGE_PAYLOAD, 2));
+        log.append(record(bob, "Bob", 3000, "arena", "0003"), (byte) 1, payload(200, 3));
+        SnapshotRecord rolled = log.append(record(bob, "Bob", 4000, "arena", "0004"), (byte) 1, payload(LARGE_PAYLOAD, 4));
+        assertEquals(1, first.getSegmentId());
+        assertEquals(2, rolled.getSegmentId());
+        log.close();
+        opened.remove(log);
+        return first;
+    }
+
+    private SnapshotLog open(long sealAfterMillis) throws IOException {
+        SnapshotLog log = new SnapshotLog(dir, LOGGER, sealAfterMillis);
+        log.open();
+        opened.add(log);
+        return log;
+    }
+
+    private File segment(int id) {
+        return new File(dir, String.format("segment-%06d.log", id));
+    }
+
+    private static SnapshotRecord record(UUID player, String name, long timestamp, String world, String inventoryId) {
+        return new SnapshotRecord(player, name, timestamp, 5, "group", "test", world, inventoryId, null);
+    }
+
+    private static byte[] payload(int size, int seed) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) data[i] = (byte) (seed * 31 + i);
+        return data;
+    }
+
+    private static void flipByte(File file, long position) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        data[(int) position] ^= 0x5A;
+        Files.write(file.toPath(), data);
+    }
+}
@@ -0,0 +1,74 @@
+package de.zfzfg.eventplugin.world;
+
+import de.zfzfg.eventplugin.EventPlugin;
+import de.zfzfg.pvpwager.managers.MatchManager;
+import de.zfzfg.pvpwager.models.Match;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The damage handler's {@link PlayerStateCache#combat} lookup must agree with
+ * the old path (two MatchManager index lookups plus the spectator checks and
+ * the scan in getMatch(attacker, victim)).
+ */
+class PlayerStateCacheTest {
+
+    private static final int MATCHES = 200;
+
+    @Test
+    void combatLookupMatchesIndexLookup() {
+        PlayerStateCache cache = new PlayerStateCache();
+        EventPlugin plugin = Mockito.mock(EventPlugin.class);
+        Mockito.when(plugin.getPlayerStateCache()).thenReturn(cache);
+        Mockito.when(plugin.getSafeLocationCache()).thenReturn(Mockito.mock(SafeLocationCache.class));
+        MatchManager matchManager = new MatchManager(plugin);
+
+        List<Player[]> pairs = new ArrayList<>();
+        for (int i = 0; i < MATCHES; i++) {
+            Player p1 = player();
+            Player p2 = player();
+            matchManager.startMatchSetup(p1, p2);
+            pairs.add(new Player[] {p1, p2});
+        }
+
+        for (Player[] pair : pairs) {
+            Match expected = indexLookup(matchManager, pair[0], pair[1]);
+            assertNotNull(expected);
+            assertSame(expected, cache.combat(pair[0], pair[1]).getMatch());
+            assertSame(expected, cache.combat(pair[1], pair[0]).getMatch());
+        }
+
+        // Spieler aus verschiedenen Matches: beide Pfade finden kein gemeinsames Match
+        Player attacker = pairs.get(0)[0];
+        Player victim = pairs.get(1)[1];
+        assertNull(indexLookup(matchManager, attacker, victim));
+        assertNull(cache.combat(attacker, victim).getMatch());
+
+        // Unbeteiligte Spieler
+        Player outsider = player();
+        assertNull(indexLookup(matchManager, outsider, victim));
+        assertNull(cache.combat(outsider, victim).getMatch());
+    }
+
+    // Alter Pfad aus PvPListener.onPlayerDamage vor dem Zustandscache
+    private static Match indexLookup(MatchManager matchManager, Player attacker, Player victim) {
+        Match attackerMatch = matchManager.getMatchByPlayer(attacker);
+        if (attackerMatch != null && attackerMatch.getSpectators().contains(attacker.getUniqueId())) return null;
+        Match victimMatch = matchManager.getMatchByPlayer(victim);
+        if (victimMatch != null && victimMatch.getSpectators().contains(victim.getUniqueId())) return null;
+        return matchManager.getMatch(attacker, victim);
+    }
+
+    private static Player player() {
+        Player player = Mockito.mock(Player.class);
+        Mockito.when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        return player;
+    }
+}
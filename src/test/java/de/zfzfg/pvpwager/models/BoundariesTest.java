@@ -0,0 +1,66 @@
+package de.zfzfg.pvpwager.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundariesTest {
+
+    @Test
+    void containsBlockIsInclusiveOnBothCorners() {
+        Boundaries box = new Boundaries(0, 60, 0, 10, 70, 10);
+
+        assertTrue(box.containsBlock(0, 60, 0));
+        assertTrue(box.containsBlock(10, 70, 10));
+        assertTrue(box.containsBlock(5, 65, 5));
+        assertFalse(box.containsBlock(-1, 65, 5));
+        assertFalse(box.containsBlock(11, 65, 5));
+        assertFalse(box.containsBlock(5, 59, 5));
+        assertFalse(box.containsBlock(5, 71, 5));
+        assertFalse(box.containsBlock(5, 65, -1));
+        assertFalse(box.containsBlock(5, 65, 11));
+    }
+
+    @Test
+    void fractionalCornersFloorToBlock() {
+        // -10.5 liegt in Block -11, 5.2 in Block 5
+        Boundaries box = new Boundaries(-10.5, 0.9, -0.1, 5.2, 3.0, 0.1);
+
+        assertTrue(box.containsBlock(-11, 0, -1));
+        assertFalse(box.containsBlock(-12, 0, 0));
+        assertTrue(box.containsBlock(5, 3, 0));
+        assertFalse(box.containsBlock(6, 3, 0));
+        assertFalse(box.containsBlock(0, -1, 0));
+        assertFalse(box.containsBlock(0, 4, 0));
+        assertFalse(box.containsBlock(0, 0, 1));
+    }
+
+    @Test
+    void swappedCornersAreNormalized() {
+        Boundaries box = new Boundaries(10, 70, 10, 0, 60, 0);
+
+        assertEquals(0, box.getMinX());
+        assertEquals(70, box.getMaxY());
+        assertTrue(box.containsBlock(0, 60, 0));
+        assertTrue(box.containsBlock(10, 70, 10));
+        assertFalse(box.containsBlock(11, 70, 10));
+    }
+
+    @Test
+    void containsUsesExactCoordinates() {
+        Boundaries box = new Boundaries(-10.5, 0, 0, 5.2, 10, 10);
+
+        assertTrue(box.contains(-10.5, 5, 5));
+        assertFalse(box.contains(-10.6, 5, 5));
+        assertTrue(box.contains(5.2, 5, 5));
+        assertFalse(box.contains(5.3, 5, 5));
+        // Block 5 zählt, obwohl er über 5.2 hinausragt
+        assertTrue(box.containsBlock(5, 5, 5));
+        assertFalse(box.contains(5.9, 5, 5));
+    }
+
+    @Test
+    void nullLocationIsInside() {
+        assertTrue(new Boundaries(0, 0, 0, 1, 1, 1).isInside(null));
+    }
+}